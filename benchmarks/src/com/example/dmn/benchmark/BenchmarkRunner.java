@@ -0,0 +1,386 @@
+package com.example.dmn.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Throughput benchmark harness for the evaluation hot path.
+ * 
+ * Each benchmark runs a number of warmup iterations followed by measurement
+ * iterations of fixed duration in the same JVM, consuming every result in
+ * a {@link Blackhole}. The score is the mean throughput in operations per
+ * second over the measurement iterations, with the standard deviation as
+ * error.
+ * 
+ * Results can be saved as a CSV baseline and compared against one; a
+ * benchmark whose score falls below the baseline by more than the tolerance
+ * is reported as a regression and makes the run exit with status 1.
+ * Baselines are only comparable when recorded on the same machine and JVM.
+ */
+public class BenchmarkRunner {
+    
+    /**
+     * Default relative drop in throughput tolerated before reporting a regression
+     */
+    public static final double DEFAULT_TOLERANCE = 0.20;
+    
+    private static final int BATCH = 256;
+    private static final String CSV_HEADER = "benchmark,params,score,error,unit";
+    
+    /**
+     * A benchmarked operation
+     */
+    public interface Operation {
+        /**
+         * Run the operation once
+         * 
+         * @param invocation the number of the invocation, for cycling through inputs
+         * @return the result, consumed by the blackhole
+         */
+        Object invoke(int invocation);
+    }
+    
+    private final List<Benchmark> benchmarks = new ArrayList<>();
+    private final Blackhole blackhole = new Blackhole();
+    private int warmupIterations = 3;
+    private int measurementIterations = 5;
+    private long iterationMillis = 300;
+    private int invocation;
+    
+    /**
+     * Register a benchmark
+     * 
+     * @param name the name of the benchmark
+     * @param params the parameters, separated by spaces
+     * @param operation the operation to measure
+     * @return this runner for method chaining
+     */
+    public BenchmarkRunner add(String name, String params, Operation operation) {
+        benchmarks.add(new Benchmark(name, params, operation));
+        return this;
+    }
+    
+    /**
+     * Set the number and duration of the iterations
+     * 
+     * @param warmup the number of warmup iterations
+     * @param measurement the number of measurement iterations
+     * @param millis the duration of one iteration in milliseconds
+     * @return this runner for method chaining
+     */
+    public BenchmarkRunner setIterations(int warmup, int measurement, long millis) {
+        if (warmup < 0 || measurement < 1 || millis < 1) {
+            throw new IllegalArgumentException("Invalid iterations: " + warmup + "/" + measurement + "/" + millis + "ms");
+        }
+        this.warmupIterations = warmup;
+        this.measurementIterations = measurement;
+        this.iterationMillis = millis;
+        return this;
+    }
+    
+    /**
+     * Run the registered benchmarks
+     * 
+     * @param filter a substring of the benchmark name or parameters to select, or null for all
+     * @param out where to print progress
+     * @return the results in registration order
+     */
+    public List<Result> run(String filter, PrintStream out) {
+        List<Result> results = new ArrayList<>();
+        for (Benchmark benchmark : benchmarks) {
+            if (filter != null && !benchmark.getKey().contains(filter)) {
+                continue;
+            }
+            Result result = measure(benchmark);
+            out.println(result);
+            results.add(result);
+        }
+        return results;
+    }
+    
+    private Result measure(Benchmark benchmark) {
+        invocation = 0;
+        long nanos = iterationMillis * 1_000_000L;
+        for (int i = 0; i < warmupIterations; i++) {
+            iterate(benchmark.operation, nanos);
+        }
+        double[] scores = new double[measurementIterations];
+        double mean = 0;
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = iterate(benchmark.operation, nanos);
+            mean += scores[i];
+        }
+        mean /= scores.length;
+        double variance = 0;
+        for (double score : scores) {
+            variance += (score - mean) * (score - mean);
+        }
+        double error = scores.length > 1 ? Math.sqrt(variance / (scores.length - 1)) : 0;
+        return new Result(benchmark.name, benchmark.params, mean, error);
+    }
+    
+    /**
+     * Run one iteration
+     * 
+     * @return the throughput in operations per second
+     */
+    private double iterate(Operation operation, long nanos) {
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                blackhole.consume(operation.invoke(invocation++));
+            }
+            operations += BATCH;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < nanos);
+        return operations * 1e9 / elapsed;
+    }
+    
+    /**
+     * Save results as a CSV baseline
+     * 
+     * @param file the baseline file
+     * @param results the results
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeBaseline(Path file, List<Result> results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# java " + System.getProperty("java.version") + ", " + System.getProperty("os.name")
+            + " " + System.getProperty("os.arch") + ", " + Runtime.getRuntime().availableProcessors() + " cpus");
+        lines.add(CSV_HEADER);
+        for (Result result : results) {
+            lines.add(result.name + "," + result.params + ","
+                + String.format(Locale.ROOT, "%.1f,%.1f", result.score, result.error) + ",ops/s");
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Read a CSV baseline
+     * 
+     * @param file the baseline file
+     * @return the baseline scores keyed by benchmark name and parameters
+     * @throws IOException if the file cannot be read
+     */
+    public static Map<String, Double> readBaseline(Path file) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#") || line.equals(CSV_HEADER)) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 3) {
+                throw new IOException("Malformed baseline line: " + line);
+            }
+            scores.put(key(fields[0], fields[1]), Double.parseDouble(fields[2]));
+        }
+        return scores;
+    }
+    
+    /**
+     * Compare results with a baseline and print the ratio of each benchmark
+     * 
+     * @param results the results
+     * @param baseline the baseline scores
+     * @param tolerance the relative drop in throughput tolerated
+     * @param out where to print the comparison
+     * @return the number of regressions
+     */
+    public static int compare(List<Result> results, Map<String, Double> baseline, double tolerance, PrintStream out) {
+        int regressions = 0;
+        for (Result result : results) {
+            Double expected = baseline.get(key(result.name, result.params));
+            if (expected == null) {
+                out.println(String.format(Locale.ROOT, "%-60s %14s", result.getKey(), "new"));
+                continue;
+            }
+            double ratio = result.score / expected;
+            boolean regression = ratio < 1.0 - tolerance;
+            if (regression) {
+                regressions++;
+            }
+            out.println(String.format(Locale.ROOT, "%-60s %13.2fx%s", result.getKey(), ratio,
+                regression ? "  REGRESSION" : ""));
+        }
+        return regressions;
+    }
+    
+    private static String key(String name, String params) {
+        return params.isEmpty() ? name : name + " " + params;
+    }
+    
+    /**
+     * A registered benchmark
+     */
+    private static final class Benchmark {
+        final String name;
+        final String params;
+        final Operation operation;
+        
+        Benchmark(String name, String params, Operation operation) {
+            this.name = name;
+            this.params = params;
+            this.operation = operation;
+        }
+        
+        String getKey() {
+            return key(name, params);
+        }
+    }
+    
+    /**
+     * Score of one benchmark
+     */
+    public static final class Result {
+        private final String name;
+        private final String params;
+        private final double score;
+        private final double error;
+        
+        Result(String name, String params, double score, double error) {
+            this.name = name;
+            this.params = params;
+            this.score = score;
+            this.error = error;
+        }
+        
+        /**
+         * Returns the name of the benchmark
+         * 
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Returns the parameters of the benchmark
+         * 
+         * @return the parameters, separated by spaces
+         */
+        public String getParams() {
+            return params;
+        }
+        
+        /**
+         * Returns the name and parameters of the benchmark
+         * 
+         * @return the key used in baselines
+         */
+        public String getKey() {
+            return key(name, params);
+        }
+        
+        /**
+         * Returns the mean throughput
+         * 
+         * @return the score in operations per second
+         */
+        public double getScore() {
+            return score;
+        }
+        
+        /**
+         * Returns the standard deviation of the throughput
+         * 
+         * @return the error in operations per second
+         */
+        public double getError() {
+            return error;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-60s %14.1f +- %10.1f ops/s", getKey(), score, error);
+        }
+    }
+    
+    /**
+     * Run the evaluation benchmarks.
+     * 
+     * Options: -quick, -filter text, -rules 10,100, -columns 2,6,
+     * -baseline file, -save file, -tolerance 0.2. With -import or -snapshot,
+     * the remaining arguments are passed to {@link ImportBenchmark} or
+     * {@link SnapshotBenchmark} instead.
+     */
+    public static void main(String[] args) throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        String filter = null;
+        Path baseline = null;
+        Path save = null;
+        double tolerance = DEFAULT_TOLERANCE;
+        int[] ruleCounts = {10, 100, 1000};
+        int[] columnCounts = {2, 6};
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-import":
+                    ImportBenchmark.main(Arrays.copyOfRange(args, i + 1, args.length));
+                    return;
+                case "-snapshot":
+                    SnapshotBenchmark.main(Arrays.copyOfRange(args, i + 1, args.length));
+                    return;
+                case "-quick":
+                    runner.setIterations(1, 3, 100);
+                    break;
+                case "-filter":
+                    filter = args[++i];
+                    break;
+                case "-rules":
+                    ruleCounts = parseSizes(args[++i]);
+                    break;
+                case "-columns":
+                    columnCounts = parseSizes(args[++i]);
+                    break;
+                case "-baseline":
+                    baseline = Paths.get(args[++i]);
+                    break;
+                case "-save":
+                    save = Paths.get(args[++i]);
+                    break;
+                case "-tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        
+        EvaluationBenchmarks.register(runner, ruleCounts, columnCounts);
+        FunctionBenchmarks.register(runner);
+        List<Result> results = runner.run(filter, System.out);
+        if (save != null) {
+            writeBaseline(save, results);
+            System.out.println("Baseline saved to " + save);
+        }
+        if (baseline != null) {
+            System.out.println();
+            System.out.println("Compared with " + baseline + " (tolerance " + Math.round(tolerance * 100) + "%)");
+            int regressions = compare(results, readBaseline(baseline), tolerance, System.out);
+            if (regressions > 0) {
+                System.out.println(regressions + " regression(s)");
+                System.exit(1);
+            }
+        }
+    }
+    
+    private static int[] parseSizes(String text) {
+        String[] parts = text.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.dmn.benchmark;
+
+/**
+ * Sink for benchmark results, so that the JIT compiler cannot eliminate
+ * the computation that produced them.
+ * 
+ * Every consumed value is compared against volatile fields that it can
+ * never be equal to; the comparison forces the value to be computed while
+ * costing only a volatile read per call.
+ */
+public final class Blackhole {
+    
+    private volatile Object marker = new Object();
+    private volatile boolean falseFlag = false;
+    private volatile boolean trueFlag = true;
+    private volatile Object sink;
+    
+    /**
+     * Consume an object
+     * 
+     * @param value the value to consume
+     */
+    public void consume(Object value) {
+        if (value == marker) {
+            sink = value;
+        }
+    }
+    
+    /**
+     * Consume a boolean
+     * 
+     * @param value the value to consume
+     */
+    public void consume(boolean value) {
+        if (value == falseFlag & value == trueFlag) {
+            sink = this;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "Blackhole[" + (sink != null ? "escaped" : "empty") + "]";
+    }
+}
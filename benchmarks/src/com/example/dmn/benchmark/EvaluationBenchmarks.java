@@ -0,0 +1,225 @@
+package com.example.dmn.benchmark;
+
+import com.example.dmn.codegen.GeneratedTableVerifier;
+import com.example.dmn.decisiontable.DMNDecisionTable;
+import com.example.dmn.decisiontable.DMNDecisionTableStub;
+import com.example.dmn.decisiontable.DMNHitPolicy;
+import com.example.dmn.decisiontable.DecisionTableCodeGenerator;
+import com.example.dmn.decisiontable.DecisionTableEvaluator;
+import com.example.dmn.decisiontable.GeneratedDecisionTable;
+import com.example.dmn.decisiontable.MatchingMode;
+import com.example.dmn.feel.FEELExpression;
+import com.example.dmn.feel.FEELExpressionEvaluatorStub;
+import com.example.dmn.feel.FEELScope;
+import com.example.dmn.feel.FEELType;
+import com.example.dmn.feel.UnaryTest;
+import com.example.dmn.feel.UnaryTestCompiler;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Benchmarks of the evaluation hot path:
+ * <ul>
+ *   <li>feel.*: evaluation of compiled FEEL literals, names and comparisons,
+ *   against a map context and against a slot array</li>
+ *   <li>unary.match: matching of compiled input entries against values</li>
+ *   <li>table.policy: decision table evaluation per hit policy and table size</li>
+ *   <li>table.mode: decision table evaluation per matching mode and table size</li>
+ *   <li>table.generated: evaluation of the Java class generated for a table,
+ *   per hit policy and table size</li>
+ *   <li>feel.typed, table.typed: the same comparisons and date tables with
+ *   and without declared types</li>
+ * </ul>
+ * Table sizes are the cross product of the configured rule and column counts.
+ */
+public final class EvaluationBenchmarks {
+    
+    /**
+     * Number of distinct input rows cycled through per benchmark (a power of two)
+     */
+    public static final int INPUT_ROWS = 1024;
+    
+    private static final long SEED = 42L;
+    
+    private static final String[][] FEEL_EXPRESSIONS = {
+        {"feel.literal", "number", "42"},
+        {"feel.literal", "string", "\"Hello World\""},
+        {"feel.name", "number", "orderAmount"},
+        {"feel.name", "string", "customerStatus"},
+        {"feel.comparison", "number", "orderAmount > 1000"},
+        {"feel.comparison", "string", "customerStatus = \"Gold\""},
+        {"feel.comparison", "conjunction", "orderAmount > 1000 and isVIP"}
+    };
+    
+    private static final String[][] UNARY_TESTS = {
+        {"any", "-"},
+        {"string", "\"Gold\""},
+        {"strings", "\"Gold\", \"Silver\", \"Platinum\""},
+        {"negation", "not(\"Bronze\")"},
+        {"comparison", "> 500"},
+        {"interval", "[250..750)"},
+        {"disjunction", "< 100, > 900"}
+    };
+    
+    // Type, expression over x and y, and values of x and y
+    private static final Object[][] TYPED_EXPRESSIONS = {
+        {FEELType.NUMBER, "x > y", new BigDecimal("1200"), new BigDecimal("1000")},
+        {FEELType.STRING, "x < y", "Gold", "Silver"},
+        {FEELType.DATE, "x <= y and y > x", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 6, 30)}
+    };
+    
+    private static final Object[] STRING_VALUES = {"Gold", "Silver", "Bronze", "Platinum"};
+    
+    private static final DMNHitPolicy[] GENERATED_POLICIES = {
+        DMNHitPolicy.UNIQUE, DMNHitPolicy.FIRST, DMNHitPolicy.RULE_ORDER
+    };
+    
+    private EvaluationBenchmarks() {
+    }
+    
+    /**
+     * Register all benchmarks with a runner
+     * 
+     * @param runner the runner
+     * @param ruleCounts the rule counts of the synthesized tables
+     * @param columnCounts the input column counts of the synthesized tables
+     */
+    public static void register(BenchmarkRunner runner, int[] ruleCounts, int[] columnCounts) {
+        registerFEEL(runner);
+        registerUnaryTests(runner);
+        for (int rules : ruleCounts) {
+            for (int columns : columnCounts) {
+                registerTables(runner, rules, columns);
+            }
+        }
+        registerGenerated(runner, ruleCounts, columnCounts);
+        registerTyped(runner, ruleCounts);
+    }
+    
+    private static void registerFEEL(BenchmarkRunner runner) {
+        Map<String, Object> context = FEELExpressionEvaluatorStub.createExampleContext();
+        for (String[] benchmark : FEEL_EXPRESSIONS) {
+            FEELExpression expression = FEELExpression.compile(benchmark[2]);
+            runner.add(benchmark[0], "type=" + benchmark[1], i -> expression.evaluate(context));
+        }
+        for (String[] benchmark : FEEL_EXPRESSIONS) {
+            FEELExpression expression = FEELExpression.compile(benchmark[2]);
+            Object[] slots = expression.getScope().bind(context);
+            runner.add(benchmark[0], "type=" + benchmark[1] + " context=slots", i -> expression.evaluate(slots));
+        }
+    }
+    
+    private static void registerUnaryTests(BenchmarkRunner runner) {
+        UnaryTestCompiler compiler = new UnaryTestCompiler();
+        Object[] numbers = new Object[INPUT_ROWS];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = (i * 7919) % 1000;
+        }
+        for (String[] benchmark : UNARY_TESTS) {
+            UnaryTest test = compiler.compile(benchmark[1]);
+            boolean numeric = !benchmark[1].contains("\"");
+            Object[] values = numeric ? numbers : STRING_VALUES;
+            int mask = numeric ? INPUT_ROWS - 1 : STRING_VALUES.length - 1;
+            runner.add("unary.match", "entry=" + benchmark[0], i -> test.test(values[i & mask]));
+        }
+    }
+    
+    private static void registerTables(BenchmarkRunner runner, int rules, int columns) {
+        String size = "rules=" + rules + " columns=" + columns;
+        for (DMNHitPolicy hitPolicy : DMNHitPolicy.values()) {
+            addTable(runner, "table.policy", size + " policy=" + hitPolicy.getSymbol(),
+                hitPolicy, null, rules, columns, MatchingMode.INDEXED);
+        }
+        for (DMNDecisionTable.AggregationType aggregation : DMNDecisionTable.AggregationType.values()) {
+            addTable(runner, "table.policy", size + " policy=C" + aggregation.getCode(),
+                DMNHitPolicy.COLLECT, aggregation, rules, columns, MatchingMode.INDEXED);
+        }
+        for (MatchingMode mode : MatchingMode.values()) {
+            addTable(runner, "table.mode", size + " mode=" + mode.name(),
+                DMNHitPolicy.RULE_ORDER, null, rules, columns, mode);
+        }
+    }
+    
+    /**
+     * Generate the classes of all tables and compile them in one compiler run
+     */
+    private static void registerGenerated(BenchmarkRunner runner, int[] ruleCounts, int[] columnCounts) {
+        DecisionTableCodeGenerator generator = new DecisionTableCodeGenerator("com.example.dmn.benchmark.generated");
+        List<DMNDecisionTableStub> tables = new ArrayList<>();
+        List<String> params = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        try {
+            Path dir = Files.createTempDirectory("dmn-benchmark");
+            for (int rules : ruleCounts) {
+                for (int columns : columnCounts) {
+                    for (DMNHitPolicy hitPolicy : GENERATED_POLICIES) {
+                        DMNDecisionTableStub table = TableGenerator.createTable(hitPolicy, null, rules, columns, SEED);
+                        String className = "Table" + files.size();
+                        Path file = dir.resolve(className + ".java");
+                        Files.write(file, generator.generate(table, className).getBytes(StandardCharsets.UTF_8));
+                        tables.add(table);
+                        params.add("rules=" + rules + " columns=" + columns + " policy=" + hitPolicy.getSymbol());
+                        files.add(file);
+                    }
+                }
+            }
+            ClassLoader loader = GeneratedTableVerifier.compile(files, dir);
+            for (int t = 0; t < tables.size(); t++) {
+                GeneratedDecisionTable generated = GeneratedTableVerifier.load(loader, generator.qualifiedName("Table" + t));
+                Object[][] inputs = TableGenerator.createInputs(tables.get(t), INPUT_ROWS, SEED);
+                runner.add("table.generated", params.get(t), i -> generated.evaluate(inputs[i & (INPUT_ROWS - 1)]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Typed and untyped variants of the same comparisons and date tables
+     */
+    private static void registerTyped(BenchmarkRunner runner, int[] ruleCounts) {
+        for (Object[] benchmark : TYPED_EXPRESSIONS) {
+            FEELType type = (FEELType) benchmark[0];
+            Object[] slots = {benchmark[2], benchmark[3]};
+            FEELExpression generic = FEELExpression.compile((String) benchmark[1], FEELScope.of("x", "y"));
+            FEELExpression typed = FEELExpression.compile((String) benchmark[1],
+                FEELScope.of(Arrays.asList("x", "y"), Arrays.asList(type, type)));
+            String params = "type=" + type.name().toLowerCase(Locale.ROOT);
+            runner.add("feel.typed", params + " scope=generic", i -> generic.evaluate(slots));
+            runner.add("feel.typed", params + " scope=typed", i -> typed.evaluate(slots));
+        }
+        for (int rules : ruleCounts) {
+            for (MatchingMode mode : MatchingMode.values()) {
+                for (boolean typed : new boolean[] {false, true}) {
+                    DMNDecisionTableStub table = TableGenerator.createDateTable(rules, typed, SEED);
+                    DecisionTableEvaluator evaluator = new DecisionTableEvaluator(table, mode);
+                    Object[][] inputs = TableGenerator.createDateInputs(table, INPUT_ROWS, SEED);
+                    String params = "rules=" + rules + " mode=" + mode.name()
+                        + " type=" + (typed ? "typed" : "generic");
+                    runner.add("table.typed", params, i -> evaluator.evaluate(inputs[i & (INPUT_ROWS - 1)]));
+                }
+            }
+        }
+    }
+    
+    private static void addTable(BenchmarkRunner runner, String name, String params, DMNHitPolicy hitPolicy,
+                                 DMNDecisionTable.AggregationType aggregation, int rules, int columns,
+                                 MatchingMode mode) {
+        DMNDecisionTableStub table = TableGenerator.createTable(hitPolicy, aggregation, rules, columns, SEED);
+        DecisionTableEvaluator evaluator = new DecisionTableEvaluator(table, mode);
+        Object[][] inputs = TableGenerator.createInputs(table, INPUT_ROWS, SEED);
+        runner.add(name, params, i -> evaluator.evaluate(inputs[i & (INPUT_ROWS - 1)]));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.dmn.benchmark;
+
+import com.example.dmn.feel.FEELExpression;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Microbenchmarks of the built-in FEEL functions, one per function
+ * ("function", parameter name). Each benchmark evaluates one call against
+ * slot values. The arguments come from the context, so the optimizer cannot
+ * fold the call into a constant. List arguments have {@link #LIST_SIZE}
+ * elements. matches and replace with a literal pattern compile it with the
+ * expression; the "-pattern" variants take it from the context and find it
+ * in the pattern cache.
+ */
+public final class FunctionBenchmarks {
+    
+    /**
+     * Number of elements of the list arguments
+     */
+    public static final int LIST_SIZE = 100;
+    
+    private static final long SEED = 42L;
+    
+    private static final String[][] CALLS = {
+        {"date", "date(dateText)"},
+        {"time", "time(timeText)"},
+        {"date-and-time", "date and time(dateTimeText)"},
+        {"duration", "duration(durationText)"},
+        {"years-and-months-duration", "years and months duration(startDate, endDate)"},
+        {"substring", "substring(text, 5, 10)"},
+        {"string-length", "string length(text)"},
+        {"upper-case", "upper case(text)"},
+        {"lower-case", "lower case(text)"},
+        {"substring-before", "substring before(text, \"fox\")"},
+        {"substring-after", "substring after(text, \"fox\")"},
+        {"replace", "replace(text, \"o\", \"0\")"},
+        {"contains", "contains(text, \"lazy\")"},
+        {"starts-with", "starts with(text, \"The\")"},
+        {"ends-with", "ends with(text, \"dog\")"},
+        {"matches", "matches(text, \"qu.ck\")"},
+        {"matches-pattern", "matches(text, pattern)"},
+        {"replace-pattern", "replace(text, pattern, \"slow\")"},
+        {"list-contains", "list contains(strings, \"Missing\")"},
+        {"count", "count(numbers)"},
+        {"min", "min(numbers)"},
+        {"max", "max(numbers)"},
+        {"sum", "sum(numbers)"},
+        {"mean", "mean(numbers)"},
+        {"and", "and(booleans)"},
+        {"or", "or(booleans)"},
+        {"sublist", "sublist(numbers, 10, 50)"},
+        {"append", "append(numbers, amount)"},
+        {"concatenate", "concatenate(numbers, integers)"},
+        {"insert-before", "insert before(numbers, 50, amount)"},
+        {"remove", "remove(numbers, 50)"},
+        {"reverse", "reverse(numbers)"},
+        {"index-of", "index of(strings, \"Gold\")"},
+        {"union", "union(strings, integers)"},
+        {"distinct-values", "distinct values(strings)"},
+        {"flatten", "flatten(nested)"},
+        {"product", "product(factors)"},
+        {"median", "median(numbers)"},
+        {"stddev", "stddev(numbers)"},
+        {"mode", "mode(integers)"},
+        {"decimal", "decimal(amount, 1)"},
+        {"floor", "floor(amount)"},
+        {"ceiling", "ceiling(amount)"},
+        {"abs", "abs(negative)"},
+        {"modulo", "modulo(amount, 5)"},
+        {"sqrt", "sqrt(amount)"},
+        {"log", "log(amount)"},
+        {"exp", "exp(amount)"},
+        {"odd", "odd(integer)"},
+        {"even", "even(integer)"}
+    };
+    
+    private static final String[] STATUSES = {"Gold", "Silver", "Bronze", "Platinum", "Standard"};
+    
+    private FunctionBenchmarks() {
+    }
+    
+    /**
+     * Register all function benchmarks with a runner
+     * 
+     * @param runner the runner
+     */
+    public static void register(BenchmarkRunner runner) {
+        Map<String, Object> context = createContext();
+        for (String[] call : CALLS) {
+            FEELExpression expression = FEELExpression.compile(call[1]);
+            Object[] slots = expression.getScope().bind(context);
+            runner.add("function", "name=" + call[0], i -> expression.evaluate(slots));
+        }
+    }
+    
+    /**
+     * Create the argument values: amounts with two decimals, small integers
+     * with repetitions, strings from a few customer statuses, temporal texts
+     */
+    private static Map<String, Object> createContext() {
+        Random random = new Random(SEED);
+        List<Object> numbers = new ArrayList<>(LIST_SIZE);
+        List<Object> integers = new ArrayList<>(LIST_SIZE);
+        List<Object> strings = new ArrayList<>(LIST_SIZE);
+        List<Object> booleans = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            numbers.add(BigDecimal.valueOf(random.nextInt(1000000), 2));
+            integers.add(random.nextInt(20));
+            strings.add(STATUSES[random.nextInt(STATUSES.length)]);
+            booleans.add(Boolean.TRUE);
+        }
+        List<Object> nested = new ArrayList<>();
+        for (int i = 0; i < LIST_SIZE; i += 10) {
+            nested.add(numbers.subList(i, i + 10));
+        }
+        List<Object> factors = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            factors.add(BigDecimal.valueOf(i));
+        }
+        
+        Map<String, Object> context = new HashMap<>();
+        context.put("numbers", Collections.unmodifiableList(numbers));
+        context.put("integers", Collections.unmodifiableList(integers));
+        context.put("strings", Collections.unmodifiableList(strings));
+        context.put("booleans", Collections.unmodifiableList(booleans));
+        context.put("nested", Collections.unmodifiableList(nested));
+        context.put("factors", Collections.unmodifiableList(factors));
+        context.put("text", "The quick brown fox jumps over the lazy dog");
+        context.put("pattern", "qu.ck");
+        context.put("amount", new BigDecimal("1234.56"));
+        context.put("negative", new BigDecimal("-1234.56"));
+        context.put("integer", 12345);
+        context.put("dateText", "2024-05-17");
+        context.put("timeText", "13:45:30");
+        context.put("dateTimeText", "2024-05-17T13:45:30");
+        context.put("durationText", "P2DT3H");
+        context.put("startDate", LocalDate.of(2021, 3, 15));
+        context.put("endDate", LocalDate.of(2024, 5, 17));
+        return context;
+    }
+}
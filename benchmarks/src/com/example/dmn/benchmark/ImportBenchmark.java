@@ -0,0 +1,390 @@
+package com.example.dmn.benchmark;
+
+import com.example.dmn.decisiontable.DMNDecisionTableStub;
+import com.example.dmn.decisiontable.DMNDecisionTableStub.DMNDecisionRule;
+import com.example.dmn.decisiontable.DMNHitPolicy;
+import com.example.dmn.io.DMNBulkImporter;
+import com.example.dmn.io.DMNDefinitions;
+import com.example.dmn.io.DMNImporter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Throughput and memory benchmark of {@link DMNImporter}.
+ * 
+ * Imports every {@code .dmn} file of a corpus a number of times and reports
+ * per file the elements and megabytes read per second, and the peak heap
+ * during the import. Without a corpus directory, one is synthesized: each
+ * file holds a number of decisions with {@link TableGenerator} tables, input
+ * data, requirements chaining every decision to the previous one, and a
+ * diagram shape per decision, as modeling tools write them.
+ * 
+ * Peak heap is the sum of the peak usage of the heap memory pools after a
+ * collection before the import, so it includes the imported model and any
+ * garbage the collector did not reclaim in between. Run with a fixed heap
+ * (-Xms = -Xmx) for comparable figures.
+ * 
+ * With -threads, all files are then also imported together by a
+ * {@link DMNBulkImporter}, once with one thread and once with the given
+ * number, reporting the total throughput, the peak heap and how many of the
+ * strings read were shared between elements and files.
+ * 
+ * With -mapped, every file is imported both as a stream and through
+ * {@link DMNImporter#importMapped(File)}, whatever its size, to compare the
+ * two readers. The distinct entries column is the size of the rule entry
+ * dictionary of the file.
+ */
+public final class ImportBenchmark {
+    
+    private static final String DMN_NAMESPACE = "https://www.omg.org/spec/DMN/20191111/MODEL/";
+    private static final String DMNDI_NAMESPACE = "https://www.omg.org/spec/DMN/20191111/DMNDI/";
+    private static final String DC_NAMESPACE = "http://www.omg.org/spec/DMN/20180521/DC/";
+    private static final long SEED = 42L;
+    private static final double MB = 1024.0 * 1024.0;
+    
+    private ImportBenchmark() {
+    }
+    
+    /**
+     * Write a synthesized DMN file
+     * 
+     * @param file the file to write
+     * @param decisions the number of decisions
+     * @param rules the number of rules of each decision table
+     * @param columns the number of input columns of each decision table
+     * @param seed the seed of the tables
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeCorpusFile(Path file, int decisions, int rules, int columns, long seed)
+            throws IOException {
+        DMNHitPolicy[] policies = {DMNHitPolicy.UNIQUE, DMNHitPolicy.FIRST, DMNHitPolicy.RULE_ORDER};
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("definitions");
+            xml.writeDefaultNamespace(DMN_NAMESPACE);
+            xml.writeNamespace("dmndi", DMNDI_NAMESPACE);
+            xml.writeNamespace("dc", DC_NAMESPACE);
+            xml.writeAttribute("id", "corpus");
+            xml.writeAttribute("name", file.getFileName().toString());
+            xml.writeAttribute("namespace", "http://example.com/dmn/corpus");
+            xml.writeCharacters("\n");
+            
+            List<String> inputNames = TableGenerator.createTable(DMNHitPolicy.UNIQUE, null, 1, columns, seed)
+                .getInputColumns();
+            for (int c = 0; c < inputNames.size(); c++) {
+                xml.writeStartElement("inputData");
+                xml.writeAttribute("id", "input_" + c);
+                xml.writeAttribute("name", inputNames.get(c));
+                xml.writeEmptyElement("variable");
+                xml.writeAttribute("name", inputNames.get(c));
+                xml.writeAttribute("typeRef", c == 0 ? "string" : "number");
+                xml.writeEndElement();
+                xml.writeCharacters("\n");
+            }
+            for (int d = 0; d < decisions; d++) {
+                DMNDecisionTableStub table = TableGenerator.createTable(policies[d % policies.length], null,
+                    rules, columns, seed + d);
+                writeDecision(xml, d, table);
+            }
+            
+            xml.writeStartElement(DMNDI_NAMESPACE, "DMNDI");
+            xml.writeStartElement(DMNDI_NAMESPACE, "DMNDiagram");
+            xml.writeAttribute("id", "diagram");
+            for (int d = 0; d < decisions; d++) {
+                xml.writeStartElement(DMNDI_NAMESPACE, "DMNShape");
+                xml.writeAttribute("id", "shape_" + d);
+                xml.writeAttribute("dmnElementRef", "decision_" + d);
+                xml.writeEmptyElement(DC_NAMESPACE, "Bounds");
+                xml.writeAttribute("height", "80");
+                xml.writeAttribute("width", "180");
+                xml.writeAttribute("x", Integer.toString(100 + 200 * (d % 10)));
+                xml.writeAttribute("y", Integer.toString(100 + 120 * (d / 10)));
+                xml.writeEndElement();
+                xml.writeCharacters("\n");
+            }
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write " + file, e);
+        }
+    }
+    
+    private static void writeDecision(XMLStreamWriter xml, int d, DMNDecisionTableStub table)
+            throws XMLStreamException {
+        xml.writeStartElement("decision");
+        xml.writeAttribute("id", "decision_" + d);
+        xml.writeAttribute("name", table.getName() + " #" + d);
+        xml.writeEmptyElement("variable");
+        xml.writeAttribute("name", table.getName() + " #" + d);
+        xml.writeAttribute("typeRef", "number");
+        for (int c = 0; c < table.getInputColumns().size(); c++) {
+            xml.writeStartElement("informationRequirement");
+            xml.writeEmptyElement("requiredInput");
+            xml.writeAttribute("href", "#input_" + c);
+            xml.writeEndElement();
+        }
+        if (d > 0) {
+            xml.writeStartElement("informationRequirement");
+            xml.writeEmptyElement("requiredDecision");
+            xml.writeAttribute("href", "#decision_" + (d - 1));
+            xml.writeEndElement();
+        }
+        xml.writeCharacters("\n");
+        xml.writeStartElement("decisionTable");
+        xml.writeAttribute("id", "table_" + d);
+        xml.writeAttribute("hitPolicy", table.getHitPolicy().name().replace('_', ' '));
+        for (String input : table.getInputColumns()) {
+            xml.writeStartElement("input");
+            xml.writeAttribute("label", input);
+            xml.writeStartElement("inputExpression");
+            xml.writeAttribute("typeRef", "Customer Status".equals(input) ? "string" : "number");
+            writeText(xml, input);
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+        }
+        for (int o = 0; o < table.getOutputColumns().size(); o++) {
+            xml.writeStartElement("output");
+            xml.writeAttribute("name", table.getOutputColumns().get(o));
+            xml.writeAttribute("typeRef", "number");
+            xml.writeStartElement("outputValues");
+            writeText(xml, table.getOutputValues().get(o));
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+        }
+        for (int r = 0; r < table.getRules().size(); r++) {
+            DMNDecisionRule rule = table.getRules().get(r);
+            xml.writeStartElement("rule");
+            xml.writeAttribute("id", "rule_" + d + "_" + r);
+            for (String entry : rule.getInputEntries()) {
+                xml.writeStartElement("inputEntry");
+                writeText(xml, entry);
+                xml.writeEndElement();
+            }
+            for (String entry : rule.getOutputEntries()) {
+                xml.writeStartElement("outputEntry");
+                writeText(xml, entry);
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+        }
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+    }
+    
+    private static void writeText(XMLStreamWriter xml, String text) throws XMLStreamException {
+        xml.writeStartElement("text");
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
+    
+    /**
+     * Import one file and print its throughput
+     * 
+     * @param reader "file" to import as {@link DMNImporter#importFile(File)} does, "stream" or "mapped"
+     */
+    private static void measure(DMNImporter importer, Path file, String reader, List<MemoryPoolMXBean> heapPools,
+            String label) throws IOException {
+        System.gc();
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        DMNDefinitions definitions;
+        if ("stream".equals(reader)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+                definitions = importer.importStream(in, file.toUri().toString());
+            }
+        } else if ("mapped".equals(reader)) {
+            definitions = importer.importMapped(file.toFile());
+        } else {
+            definitions = importer.importFile(file.toFile());
+        }
+        long nanos = System.nanoTime() - start;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        double seconds = nanos / 1e9;
+        int rules = 0;
+        int distinct = 0;
+        for (DMNDecisionTableStub table : definitions.getDecisionTables()) {
+            rules += table.getRules().size();
+            if (table.getRuleColumns() != null) {
+                distinct = table.getRuleColumns().getDictionary().size();
+            }
+        }
+        System.out.println(String.format(Locale.ROOT,
+            "%-24s %-6s %-6s %8.1f MB %10d elements %5d decisions %8d rules %8.0f ms %12.0f elements/s"
+                + " %8.1f MB/s %8.1f MB peak heap %7d distinct entries",
+            file.getFileName(), reader, label, Files.size(file) / MB, definitions.getElementCount(),
+            definitions.getDecisions().size(), rules, nanos / 1e6, definitions.getElementCount() / seconds,
+            Files.size(file) / MB / seconds, peak / MB, distinct));
+    }
+    
+    /**
+     * Import all files with a bulk importer and print the total throughput
+     */
+    private static void measureBulk(List<Path> files, int threads, List<MemoryPoolMXBean> heapPools, String label)
+            throws IOException {
+        List<File> input = new ArrayList<>();
+        long bytes = 0;
+        for (Path file : files) {
+            input.add(file.toFile());
+            bytes += Files.size(file);
+        }
+        System.gc();
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+        DMNBulkImporter importer = new DMNBulkImporter(threads);
+        long start = System.nanoTime();
+        List<DMNBulkImporter.FileResult> results = importer.importFiles(input, null);
+        long nanos = System.nanoTime() - start;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        long elements = 0;
+        for (DMNBulkImporter.FileResult result : results) {
+            if (result.getDefinitions() == null) {
+                throw result.getError();
+            }
+            elements += result.getDefinitions().getElementCount();
+        }
+        double seconds = nanos / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+            "%-6s %2d thread(s) %4d files %8.1f MB %8.0f ms %12.0f elements/s %8.1f MB/s %8.1f MB peak heap"
+                + " %8d distinct of %10d strings",
+            label, threads, files.size(), bytes / MB, nanos / 1e6, elements / seconds, bytes / MB / seconds,
+            peak / MB, importer.getInterner().size(), importer.getInterner().getLookupCount()));
+    }
+    
+    /**
+     * Run the import benchmark.
+     * 
+     * Options: -corpus dir (import its .dmn files instead of a synthesized corpus),
+     * -decisions 200, -rules 500, -columns 6, -files 1, -iterations 3,
+     * -threads n (also import all files in parallel with n threads; 0 = off),
+     * -mapped (import each file both as a stream and mapped)
+     */
+    public static void main(String[] args) throws IOException {
+        Path corpus = null;
+        int decisions = 200;
+        int rules = 500;
+        int columns = 6;
+        int fileCount = 1;
+        int iterations = 3;
+        int threads = 0;
+        boolean mapped = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-corpus":
+                    corpus = Paths.get(args[++i]);
+                    break;
+                case "-decisions":
+                    decisions = Integer.parseInt(args[++i]);
+                    break;
+                case "-rules":
+                    rules = Integer.parseInt(args[++i]);
+                    break;
+                case "-columns":
+                    columns = Integer.parseInt(args[++i]);
+                    break;
+                case "-files":
+                    fileCount = Integer.parseInt(args[++i]);
+                    break;
+                case "-iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-mapped":
+                    mapped = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        
+        List<Path> files = new ArrayList<>();
+        Path generated = null;
+        if (corpus != null) {
+            try (Stream<Path> paths = Files.list(corpus)) {
+                files = paths.filter(p -> p.toString().endsWith(".dmn")).sorted().collect(Collectors.toList());
+            }
+        } else {
+            generated = Files.createTempDirectory("dmn-corpus");
+            System.out.println("Writing " + fileCount + " file(s) of " + decisions + " decisions with "
+                + rules + " rules x " + columns + " columns to " + generated);
+            for (int f = 0; f < fileCount; f++) {
+                Path file = generated.resolve("corpus" + f + ".dmn");
+                writeCorpusFile(file, decisions, rules, columns, SEED + f * decisions);
+                files.add(file);
+            }
+        }
+        
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+        DMNImporter importer = new DMNImporter();
+        String[] readers = mapped ? new String[] {"stream", "mapped"} : new String[] {"file"};
+        try {
+            for (Path file : files) {
+                for (String reader : readers) {
+                    measure(importer, file, reader, heapPools, "warmup");
+                }
+                for (int i = 0; i < iterations; i++) {
+                    for (String reader : readers) {
+                        measure(importer, file, reader, heapPools, "#" + (i + 1));
+                    }
+                }
+            }
+            if (threads > 0) {
+                measureBulk(files, 1, heapPools, "warmup");
+                for (int i = 0; i < iterations; i++) {
+                    measureBulk(files, 1, heapPools, "#" + (i + 1));
+                    measureBulk(files, threads, heapPools, "#" + (i + 1));
+                }
+            }
+        } finally {
+            if (generated != null) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(generated);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.dmn.benchmark;
+
+import com.example.dmn.decisiontable.CompiledDecisionTable;
+import com.example.dmn.decisiontable.DecisionTableEvaluator;
+import com.example.dmn.decisiontable.DecisionTableSnapshot;
+import com.example.dmn.decisiontable.MatchingMode;
+import com.example.dmn.io.DMNDefinitions;
+import com.example.dmn.io.DMNImporter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Startup benchmark of {@link DecisionTableSnapshot}.
+ * 
+ * Loads the decision tables of a corpus of {@code .dmn} files in two ways:
+ * by importing the files and compiling every table, and from a snapshot
+ * written from the same files; either way each table then gets a
+ * {@link MatchingMode#BITSET} evaluator. For the snapshot it reports the
+ * time to open it, to get the first table, and to get every table by name
+ * and create its evaluator, which compiles them all. Without a corpus directory, one is synthesized as by
+ * {@link ImportBenchmark}.
+ * 
+ * Each measurement runs in the same JVM after a warmup, so the figures
+ * compare the work done at startup, not class loading and JIT compilation.
+ */
+public final class SnapshotBenchmark {
+    
+    private static final long SEED = 42L;
+    private static final double MB = 1024.0 * 1024.0;
+    
+    private SnapshotBenchmark() {
+    }
+    
+    /**
+     * Import the files and create an evaluator for every decision table
+     */
+    private static List<DecisionTableEvaluator> loadXml(List<Path> files) throws IOException {
+        List<DecisionTableEvaluator> tables = new ArrayList<>();
+        DMNImporter importer = new DMNImporter();
+        for (Path file : files) {
+            DMNDefinitions definitions = importer.importFile(file.toFile());
+            for (DMNDefinitions.Decision decision : definitions.getDecisions()) {
+                if (decision.getDecisionTable() != null) {
+                    tables.add(new DecisionTableEvaluator(CompiledDecisionTable.compile(decision.getDecisionTable(),
+                        definitions.createScope(decision)), MatchingMode.BITSET));
+                }
+            }
+        }
+        return tables;
+    }
+    
+    /**
+     * Write a snapshot of the decision tables of the files
+     * 
+     * @param files the DMN files
+     * @param snapshot the snapshot file to write
+     * @return the number of tables written
+     * @throws IOException if a file cannot be read or the snapshot cannot be written
+     */
+    public static int writeSnapshot(List<Path> files, Path snapshot) throws IOException {
+        DecisionTableSnapshot.Builder builder = new DecisionTableSnapshot.Builder();
+        DMNImporter importer = new DMNImporter();
+        for (Path file : files) {
+            DMNDefinitions definitions = importer.importFile(file.toFile());
+            for (DMNDefinitions.Decision decision : definitions.getDecisions()) {
+                if (decision.getDecisionTable() != null) {
+                    builder.add(decision.getDecisionTable(), definitions.createScope(decision));
+                }
+            }
+        }
+        builder.write(snapshot);
+        return builder.size();
+    }
+    
+    private static void measure(List<Path> files, Path snapshot, String label) throws IOException {
+        System.gc();
+        long start = System.nanoTime();
+        int xmlTables = loadXml(files).size();
+        long xmlNanos = System.nanoTime() - start;
+        
+        System.gc();
+        start = System.nanoTime();
+        DecisionTableSnapshot loaded = DecisionTableSnapshot.open(snapshot);
+        long openNanos = System.nanoTime() - start;
+        String firstName = loaded.getTableName(0);
+        loaded.getTable(firstName);
+        long firstNanos = System.nanoTime() - start;
+        long rules = 0;
+        for (int t = 0; t < loaded.getTableCount(); t++) {
+            rules += new DecisionTableEvaluator(loaded.getTable(loaded.getTableName(t)), MatchingMode.BITSET)
+                .getRuleCount();
+        }
+        long allNanos = System.nanoTime() - start;
+        
+        System.out.println(String.format(Locale.ROOT,
+            "%-6s xml: %5d tables %9.1f ms | snapshot: open %7.3f ms, first table %7.2f ms,"
+                + " %5d tables %9.1f ms (%d rules)",
+            label, xmlTables, xmlNanos / 1e6, openNanos / 1e6, firstNanos / 1e6, loaded.getTableCount(),
+            allNanos / 1e6, rules));
+    }
+    
+    /**
+     * Run the snapshot benchmark.
+     * 
+     * Options: -corpus dir (use its .dmn files instead of a synthesized corpus),
+     * -decisions 200, -rules 500, -columns 6, -files 1, -iterations 3
+     */
+    public static void main(String[] args) throws IOException {
+        Path corpus = null;
+        int decisions = 200;
+        int rules = 500;
+        int columns = 6;
+        int fileCount = 1;
+        int iterations = 3;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-corpus":
+                    corpus = Paths.get(args[++i]);
+                    break;
+                case "-decisions":
+                    decisions = Integer.parseInt(args[++i]);
+                    break;
+                case "-rules":
+                    rules = Integer.parseInt(args[++i]);
+                    break;
+                case "-columns":
+                    columns = Integer.parseInt(args[++i]);
+                    break;
+                case "-files":
+                    fileCount = Integer.parseInt(args[++i]);
+                    break;
+                case "-iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        
+        Path directory = Files.createTempDirectory("dmn-snapshot");
+        List<Path> files = new ArrayList<>();
+        if (corpus != null) {
+            try (Stream<Path> paths = Files.list(corpus)) {
+                files = paths.filter(p -> p.toString().endsWith(".dmn")).sorted().collect(Collectors.toList());
+            }
+        } else {
+            System.out.println("Writing " + fileCount + " file(s) of " + decisions + " decisions with "
+                + rules + " rules x " + columns + " columns to " + directory);
+            for (int f = 0; f < fileCount; f++) {
+                Path file = directory.resolve("corpus" + f + ".dmn");
+                ImportBenchmark.writeCorpusFile(file, decisions, rules, columns, SEED + f * decisions);
+                files.add(file);
+            }
+        }
+        Path snapshot = directory.resolve("tables.dmns");
+        try {
+            long start = System.nanoTime();
+            int tables = writeSnapshot(files, snapshot);
+            long bytes = 0;
+            for (Path file : files) {
+                bytes += Files.size(file);
+            }
+            System.out.println(String.format(Locale.ROOT,
+                "Snapshot of %d tables written in %.0f ms: %.1f MB of DMN, %.1f MB of snapshot, %d strings",
+                tables, (System.nanoTime() - start) / 1e6, bytes / MB, Files.size(snapshot) / MB,
+                DecisionTableSnapshot.open(snapshot).getStringCount()));
+            
+            measure(files, snapshot, "warmup");
+            for (int i = 0; i < iterations; i++) {
+                measure(files, snapshot, "#" + (i + 1));
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+            if (corpus == null) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+}
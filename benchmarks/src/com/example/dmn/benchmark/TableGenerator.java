@@ -0,0 +1,217 @@
+package com.example.dmn.benchmark;
+
+import com.example.dmn.decisiontable.DMNDecisionTable;
+import com.example.dmn.decisiontable.DMNDecisionTableStub;
+import com.example.dmn.decisiontable.DMNDecisionTableStub.DMNDecisionRule;
+import com.example.dmn.decisiontable.DMNHitPolicy;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Synthesizes decision tables of a given size in the shape of
+ * {@link DMNDecisionTableStub#createExampleTable()}: a customer status
+ * column, an order amount column and any number of additional numeric
+ * columns, with a discount as output.
+ * 
+ * Rules are spread over the status values and consecutive amount slots of
+ * width {@value #SLOT_WIDTH}. For the UNIQUE hit policy the slots of a status
+ * never overlap; for all other policies each rule covers {@value #OVERLAP}
+ * slots, so an input matches several rules. Tables and inputs are derived
+ * from a seed and are identical across runs.
+ * 
+ * {@link #createDateTable} builds the same shape over dates instead of
+ * amounts, with a boolean column, to compare typed and untyped columns.
+ */
+public final class TableGenerator {
+    
+    /**
+     * Width of the order amount range of one slot
+     */
+    public static final int SLOT_WIDTH = 10;
+    
+    /**
+     * Number of slots covered by a rule of a multi-match table
+     */
+    public static final int OVERLAP = 4;
+    
+    /**
+     * Exclusive upper bound of the values of the additional columns
+     */
+    public static final int EXTRA_RANGE = 100;
+    
+    private static final String[] STATUSES = {"Gold", "Silver", "Bronze", "Platinum"};
+    private static final String[] FLAGS = {"true", "false", "-"};
+    private static final int LEVELS = 8;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    
+    private TableGenerator() {
+    }
+    
+    /**
+     * Create a decision table
+     * 
+     * @param hitPolicy the hit policy
+     * @param aggregation the aggregation for COLLECT, or null
+     * @param ruleCount the number of rules
+     * @param columnCount the number of input columns, at least 2
+     * @param seed the seed of the additional column entries and outputs
+     * @return the decision table
+     */
+    public static DMNDecisionTableStub createTable(DMNHitPolicy hitPolicy, DMNDecisionTable.AggregationType aggregation,
+                                                   int ruleCount, int columnCount, long seed) {
+        if (ruleCount < 1 || columnCount < 2) {
+            throw new IllegalArgumentException("Need at least 1 rule and 2 columns: " + ruleCount + " x " + columnCount);
+        }
+        DMNDecisionTableStub table = new DMNDecisionTableStub(
+            "Discount " + ruleCount + "x" + columnCount + " " + hitPolicy.getSymbol(), hitPolicy);
+        table.setAggregation(aggregation);
+        table.addInputColumn("Customer Status").addInputColumn("Order Amount");
+        for (int c = 2; c < columnCount; c++) {
+            table.addInputColumn("Factor " + (c - 1));
+        }
+        StringBuilder values = new StringBuilder();
+        for (int level = LEVELS; level >= 1; level--) {
+            values.append(values.length() > 0 ? "," : "").append(discount(level));
+        }
+        table.addOutputColumn("Discount", values.toString());
+        
+        Random random = new Random(seed);
+        int statuses = statusCount(ruleCount);
+        int width = hitPolicy == DMNHitPolicy.UNIQUE ? 1 : OVERLAP;
+        for (int r = 0; r < ruleCount; r++) {
+            int status = r % statuses;
+            int slot = r / statuses;
+            DMNDecisionRule rule = new DMNDecisionRule()
+                .addInputEntry("\"" + STATUSES[status] + "\"")
+                .addInputEntry("[" + slot * SLOT_WIDTH + ".." + (slot + width) * SLOT_WIDTH + ")");
+            for (int c = 2; c < columnCount; c++) {
+                rule.addInputEntry(extraEntry(random));
+            }
+            // ANY requires overlapping rules to agree, so the output depends on the status only
+            int level = hitPolicy == DMNHitPolicy.ANY ? status + 1 : random.nextInt(LEVELS) + 1;
+            rule.addOutputEntry(discount(level));
+            table.addRule(rule);
+        }
+        return table;
+    }
+    
+    /**
+     * Create input rows for a table made by {@link #createTable}. Amounts are
+     * drawn from the slots covered by the rules, so most rows match.
+     * 
+     * @param table the generated table
+     * @param rowCount the number of rows
+     * @param seed the seed of the values
+     * @return the rows in input column order
+     */
+    public static Object[][] createInputs(DMNDecisionTableStub table, int rowCount, long seed) {
+        int ruleCount = table.getRules().size();
+        int columnCount = table.getInputColumns().size();
+        int statuses = statusCount(ruleCount);
+        int amountRange = ((ruleCount + statuses - 1) / statuses) * SLOT_WIDTH;
+        Random random = new Random(seed);
+        Object[][] rows = new Object[rowCount][columnCount];
+        for (Object[] row : rows) {
+            row[0] = STATUSES[random.nextInt(statuses)];
+            row[1] = random.nextInt(amountRange);
+            for (int c = 2; c < columnCount; c++) {
+                row[c] = random.nextInt(EXTRA_RANGE);
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Create a UNIQUE decision table over a customer status, an order date
+     * and an express flag. Each rule covers a slot of {@value #SLOT_WIDTH}
+     * days, such as {@code [date("2024-01-01")..date("2024-01-11"))}.
+     * 
+     * @param ruleCount the number of rules
+     * @param typed whether the date and flag columns declare the typeRefs "date" and "boolean"
+     * @param seed the seed of the flag entries and outputs
+     * @return the decision table
+     */
+    public static DMNDecisionTableStub createDateTable(int ruleCount, boolean typed, long seed) {
+        if (ruleCount < 1) {
+            throw new IllegalArgumentException("Need at least 1 rule: " + ruleCount);
+        }
+        DMNDecisionTableStub table = new DMNDecisionTableStub(
+            "Shipping " + ruleCount + (typed ? " typed" : " generic"), DMNHitPolicy.UNIQUE);
+        table.addInputColumn("Customer Status")
+            .addInputColumn("Order Date", "", typed ? "date" : null)
+            .addInputColumn("Express", "", typed ? "boolean" : null)
+            .addOutputColumn("Discount");
+        Random random = new Random(seed);
+        int statuses = statusCount(ruleCount);
+        for (int r = 0; r < ruleCount; r++) {
+            int slot = r / statuses;
+            LocalDate from = FIRST_DATE.plusDays((long) slot * SLOT_WIDTH);
+            table.addRule(new DMNDecisionRule()
+                .addInputEntry("\"" + STATUSES[r % statuses] + "\"")
+                .addInputEntry("[date(\"" + from + "\")..date(\"" + from.plusDays(SLOT_WIDTH) + "\"))")
+                .addInputEntry(FLAGS[random.nextInt(FLAGS.length)])
+                .addOutputEntry(discount(random.nextInt(LEVELS) + 1)));
+        }
+        return table;
+    }
+    
+    /**
+     * Create input rows for a table made by {@link #createDateTable}. Dates
+     * are drawn from the slots covered by the rules.
+     * 
+     * @param table the generated table
+     * @param rowCount the number of rows
+     * @param seed the seed of the values
+     * @return the rows in input column order
+     */
+    public static Object[][] createDateInputs(DMNDecisionTableStub table, int rowCount, long seed) {
+        int ruleCount = table.getRules().size();
+        int statuses = statusCount(ruleCount);
+        int days = ((ruleCount + statuses - 1) / statuses) * SLOT_WIDTH;
+        Random random = new Random(seed);
+        Object[][] rows = new Object[rowCount][];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = new Object[] {
+                STATUSES[random.nextInt(statuses)], FIRST_DATE.plusDays(random.nextInt(days)), random.nextBoolean()
+            };
+        }
+        return rows;
+    }
+    
+    private static int statusCount(int ruleCount) {
+        return Math.min(STATUSES.length, ruleCount);
+    }
+    
+    /**
+     * Entry for an additional column. Most entries accept the greater part
+     * of the value range, so that rows are not filtered out by every column.
+     */
+    private static String extraEntry(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return "-";
+            case 1:
+                return ">= " + random.nextInt(EXTRA_RANGE / 4);
+            case 2:
+                return "< " + (EXTRA_RANGE - random.nextInt(EXTRA_RANGE / 4));
+            default:
+                return "[" + random.nextInt(EXTRA_RANGE / 5) + ".." + (EXTRA_RANGE - random.nextInt(EXTRA_RANGE / 5)) + "]";
+        }
+    }
+    
+    private static String discount(int level) {
+        return "0.0" + level;
+    }
+    
+    /**
+     * Simple test method
+     */
+    public static void main(String[] args) {
+        DMNDecisionTableStub table = createTable(DMNHitPolicy.UNIQUE, null, 8, 3, 1L);
+        System.out.println(table.printTable());
+        for (Object[] row : createInputs(table, 4, 1L)) {
+            System.out.println(Arrays.toString(row));
+        }
+    }
+}
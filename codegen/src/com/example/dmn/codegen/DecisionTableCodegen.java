@@ -0,0 +1,163 @@
+package com.example.dmn.codegen;
+
+import com.example.dmn.decisiontable.CompiledDecisionTable;
+import com.example.dmn.decisiontable.DMNDecisionTableStub;
+import com.example.dmn.decisiontable.DecisionTableCodeGenerator;
+import com.example.dmn.decisiontable.GeneratedDecisionTable;
+import com.example.dmn.io.DMNImportExportStub;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Build step that turns DMN decision tables into Java evaluators.
+ * 
+ * Reads decision tables from DMN files, writes one class per table with
+ * {@link DecisionTableCodeGenerator}, and optionally verifies each class
+ * against the interpreted engine on a generated corpus. The generated
+ * sources are meant to be compiled into the service that evaluates the
+ * tables, next to the engine classes they extend.
+ */
+public final class DecisionTableCodegen {
+    
+    /**
+     * Default package of the generated classes
+     */
+    public static final String DEFAULT_PACKAGE = "com.example.dmn.generated";
+    
+    private static final long SEED = 42;
+    
+    private DecisionTableCodegen() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Generated class of one table
+     */
+    static final class Output {
+        final CompiledDecisionTable table;
+        final String className;
+        final Path file;
+        
+        Output(CompiledDecisionTable table, String className, Path file) {
+            this.table = table;
+            this.className = className;
+            this.file = file;
+        }
+    }
+    
+    /**
+     * Generate the classes of some tables
+     * 
+     * @param tables the decision tables
+     * @param packageName the package of the generated classes
+     * @param sourceRoot the source root to write to
+     * @return the generated classes
+     * @throws IOException if a file cannot be written
+     */
+    static List<Output> generate(List<DMNDecisionTableStub> tables, String packageName, Path sourceRoot)
+            throws IOException {
+        DecisionTableCodeGenerator generator = new DecisionTableCodeGenerator(packageName);
+        Set<String> names = new HashSet<>();
+        List<Output> outputs = new ArrayList<>();
+        for (DMNDecisionTableStub table : tables) {
+            CompiledDecisionTable compiled = CompiledDecisionTable.compile(table);
+            String simpleName = DecisionTableCodeGenerator.className(table.getName());
+            String name = simpleName;
+            for (int i = 2; !names.add(name); i++) {
+                name = simpleName + i;
+            }
+            String className = generator.qualifiedName(name);
+            Path file = sourceRoot.resolve(className.replace('.', '/') + ".java");
+            Files.createDirectories(file.getParent());
+            Files.write(file, generator.generate(compiled, name).getBytes(StandardCharsets.UTF_8));
+            outputs.add(new Output(compiled, className, file));
+        }
+        return outputs;
+    }
+    
+    /**
+     * Compile the generated classes and compare them with the interpreted engine
+     * 
+     * @param outputs the generated classes
+     * @param rows the number of corpus rows per table
+     * @param workDir directory for the compiled classes
+     * @return the number of tables with differences
+     * @throws IOException if the classes cannot be compiled
+     * @throws ReflectiveOperationException if a class cannot be instantiated
+     */
+    static int verify(List<Output> outputs, int rows, Path workDir) throws IOException, ReflectiveOperationException {
+        List<Path> files = new ArrayList<>();
+        for (Output output : outputs) {
+            files.add(output.file);
+        }
+        ClassLoader loader = GeneratedTableVerifier.compile(files, workDir);
+        int failed = 0;
+        for (Output output : outputs) {
+            GeneratedDecisionTable generated = GeneratedTableVerifier.load(loader, output.className);
+            List<Object[]> corpus = GeneratedTableVerifier.corpus(output.table, rows, SEED);
+            int differences = GeneratedTableVerifier.verify(output.table, generated, corpus, System.out);
+            System.out.println((differences == 0 ? "[OK] " : "[FAILED] ") + output.className + ": "
+                + corpus.size() + " rows, " + differences + " differences");
+            if (differences > 0) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+    
+    /**
+     * Command line entry point:
+     * {@code [-out dir] [-package name] [-verify rows] [-example] file.dmn...}
+     */
+    public static void main(String[] args) throws Exception {
+        Path sourceRoot = Paths.get("build/generated");
+        String packageName = DEFAULT_PACKAGE;
+        int verifyRows = 0;
+        List<DMNDecisionTableStub> tables = new ArrayList<>();
+        DMNImportExportStub importer = new DMNImportExportStub();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-out":
+                    sourceRoot = Paths.get(args[++i]);
+                    break;
+                case "-package":
+                    packageName = args[++i];
+                    break;
+                case "-verify":
+                    verifyRows = Integer.parseInt(args[++i]);
+                    break;
+                case "-example":
+                    tables.add(DMNDecisionTableStub.createExampleTable());
+                    break;
+                default:
+                    if (args[i].startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    }
+                    tables.addAll(importer.importDMNFile(new File(args[i])));
+            }
+        }
+        if (tables.isEmpty()) {
+            System.out.println("No decision tables; pass DMN files or -example");
+            return;
+        }
+        
+        List<Output> outputs = generate(tables, packageName, sourceRoot);
+        for (Output output : outputs) {
+            System.out.println("Generated " + output.file + " (" + output.table.getRuleCount() + " rules)");
+        }
+        if (verifyRows > 0) {
+            Path workDir = Files.createTempDirectory("dmn-codegen");
+            if (verify(outputs, verifyRows, workDir) > 0) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.dmn.codegen;
+
+import com.example.dmn.decisiontable.CompiledDecisionTable;
+import com.example.dmn.decisiontable.DecisionResult;
+import com.example.dmn.decisiontable.DecisionTableEvaluator;
+import com.example.dmn.decisiontable.GeneratedDecisionTable;
+import com.example.dmn.decisiontable.InputDomain;
+import com.example.dmn.feel.UnaryTest;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Checks generated evaluators against the interpreted engine.
+ * 
+ * The generated source is compiled with the system Java compiler and loaded
+ * in a class loader of its own. Both evaluators then run on a corpus of
+ * input rows drawn from the literals and range bounds of the table, plus
+ * values no rule mentions, and must return identical results.
+ */
+public final class GeneratedTableVerifier {
+    
+    private GeneratedTableVerifier() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Compile generated classes and load them
+     * 
+     * @param sources the source files
+     * @param workDir directory receiving the class files
+     * @return a class loader for the compiled classes
+     * @throws IOException if the files cannot be written
+     * @throws IllegalStateException if no compiler is available or compilation fails
+     */
+    public static ClassLoader compile(List<Path> sources, Path workDir) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler available; run with a JDK");
+        }
+        Path classes = Files.createDirectories(workDir.resolve("classes"));
+        List<String> arguments = new ArrayList<>(Arrays.asList("-encoding", "UTF-8",
+            "-classpath", System.getProperty("java.class.path"), "-d", classes.toString()));
+        for (Path source : sources) {
+            arguments.add(source.toString());
+        }
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Generated sources do not compile");
+        }
+        return new URLClassLoader(new URL[] {classes.toUri().toURL()}, GeneratedTableVerifier.class.getClassLoader());
+    }
+    
+    /**
+     * Instantiate a compiled evaluator
+     * 
+     * @param loader the class loader returned by {@link #compile(List, Path)}
+     * @param className the fully qualified class name
+     * @return the evaluator
+     * @throws ReflectiveOperationException if the class cannot be instantiated
+     */
+    public static GeneratedDecisionTable load(ClassLoader loader, String className)
+            throws ReflectiveOperationException {
+        return (GeneratedDecisionTable) loader.loadClass(className).getDeclaredConstructor().newInstance();
+    }
+    
+    /**
+     * Create input rows for a table from the values its entries mention;
+     * columns with input values only receive those and null, as both
+     * evaluators reject anything else
+     * 
+     * @param table the compiled table
+     * @param rows the number of rows
+     * @param seed the random seed
+     * @return the rows, in input column order
+     */
+    public static List<Object[]> corpus(CompiledDecisionTable table, int rows, long seed) {
+        List<List<Object>> candidates = new ArrayList<>();
+        for (int c = 0; c < table.getInputCount(); c++) {
+            InputDomain domain = table.getInputDomain(c);
+            if (domain != null) {
+                List<Object> values = new ArrayList<>(domain.getValues());
+                values.add(null);
+                candidates.add(values);
+                continue;
+            }
+            Set<Object> values = new LinkedHashSet<>(Arrays.asList(null, "?", Boolean.TRUE, BigDecimal.ZERO));
+            for (int r = 0; r < table.getRuleCount(); r++) {
+                collect(table.getInputTest(r, c), values);
+            }
+            candidates.add(new ArrayList<>(values));
+        }
+        Random random = new Random(seed);
+        List<Object[]> corpus = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Object[] row = new Object[candidates.size()];
+            for (int c = 0; c < row.length; c++) {
+                List<Object> values = candidates.get(c);
+                row[c] = vary(values.get(random.nextInt(values.size())), random);
+            }
+            corpus.add(row);
+        }
+        return corpus;
+    }
+    
+    private static void collect(UnaryTest test, Set<Object> values) {
+        if (test instanceof UnaryTest.LiteralEquals) {
+            values.add(((UnaryTest.LiteralEquals) test).getValue());
+        } else if (test instanceof UnaryTest.NumberEquals) {
+            addNumber(((UnaryTest.NumberEquals) test).getDecimal(), values);
+        } else if (test instanceof UnaryTest.NumberRange) {
+            UnaryTest.NumberRange range = (UnaryTest.NumberRange) test;
+            addNumber(range.getLowDecimal(), values);
+            addNumber(range.getHighDecimal(), values);
+        } else if (test instanceof UnaryTest.ValueRange) {
+            UnaryTest.ValueRange range = (UnaryTest.ValueRange) test;
+            if (range.getLow() != null) {
+                values.add(range.getLow());
+            }
+            if (range.getHigh() != null) {
+                values.add(range.getHigh());
+            }
+        } else if (test instanceof UnaryTest.Disjunction) {
+            for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                collect(alternative, values);
+            }
+        } else if (test instanceof UnaryTest.Not) {
+            collect(((UnaryTest.Not) test).getNegated(), values);
+        }
+    }
+    
+    /**
+     * Add a bound and the values around it, including its neighbours in the
+     * last digit, which doubles may not tell apart from the bound
+     */
+    private static void addNumber(BigDecimal number, Set<Object> values) {
+        if (number == null) {
+            return;
+        }
+        BigDecimal half = new BigDecimal("0.5");
+        values.add(number);
+        values.add(number.subtract(half));
+        values.add(number.add(half));
+        values.add(number.subtract(number.ulp()));
+        values.add(number.add(number.ulp()));
+    }
+    
+    /**
+     * Present a number as one of the Java number types callers pass in
+     */
+    private static Object vary(Object value, Random random) {
+        if (!(value instanceof BigDecimal)) {
+            return value;
+        }
+        BigDecimal number = (BigDecimal) value;
+        switch (random.nextInt(5)) {
+            case 0:
+                return number.doubleValue();
+            case 1:
+                try {
+                    return number.intValueExact();
+                } catch (ArithmeticException e) {
+                    return number;
+                }
+            case 2:
+                try {
+                    return number.longValueExact();
+                } catch (ArithmeticException e) {
+                    return number;
+                }
+            default:
+                return number;
+        }
+    }
+    
+    /**
+     * Evaluate a corpus with both evaluators and report the differences
+     * 
+     * @param table the compiled table
+     * @param generated the generated evaluator of the same table
+     * @param corpus the input rows
+     * @param out receives one line per difference, at most ten
+     * @return the number of rows with different results
+     */
+    public static int verify(CompiledDecisionTable table, GeneratedDecisionTable generated,
+                             List<Object[]> corpus, PrintStream out) {
+        DecisionTableEvaluator evaluator = new DecisionTableEvaluator(table);
+        int differences = 0;
+        for (Object[] row : corpus) {
+            DecisionResult expected = evaluator.evaluate(row);
+            DecisionResult actual = generated.evaluate(row);
+            if (!describe(expected).equals(describe(actual))) {
+                if (differences++ < 10) {
+                    out.println("  " + Arrays.toString(row) + ": expected " + expected + ", got " + actual);
+                }
+            }
+        }
+        return differences;
+    }
+    
+    /**
+     * Result description including the value type, so that 1 and 1.0 differ
+     */
+    private static String describe(DecisionResult result) {
+        Object value = result.getValue();
+        return result + (value != null ? " " + value.getClass().getName() : "");
+    }
+}
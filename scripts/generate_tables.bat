@@ -0,0 +1,33 @@
+@echo off
+setlocal enabledelayedexpansion
+
+REM DMN Decision Table Code Generator
+REM This script compiles the evaluation engine together with the generator in
+REM codegen\src and turns the decision tables of DMN files into Java classes.
+REM Arguments are passed to the generator, see generate_tables.sh for the options.
+
+echo DMN Decision Table Code Generator
+echo ================================
+echo.
+
+if not exist build\codegen mkdir build\codegen
+
+REM The engine does not depend on the MagicDraw API; leave out the plugin classes that do
+if exist build\codegen\sources.txt del build\codegen\sources.txt
+for /r src %%f in (*.java) do (
+    findstr /m /c:"com.nomagic" "%%f" >nul || echo %%f>>build\codegen\sources.txt
+)
+for /r codegen\src %%f in (*.java) do (
+    echo %%f>>build\codegen\sources.txt
+)
+
+echo Compiling code generator...
+javac -encoding UTF-8 -d build\codegen @build\codegen\sources.txt
+if %ERRORLEVEL% neq 0 (
+    echo [ERROR] Failed to compile code generator
+    exit /b 1
+)
+echo [SUCCESS] Code generator compiled successfully
+echo.
+
+java %JAVA_OPTS% -cp build\codegen com.example.dmn.codegen.DecisionTableCodegen %*
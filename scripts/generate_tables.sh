@@ -0,0 +1,34 @@
+#!/bin/bash
+
+# DMN Decision Table Code Generator
+# This script compiles the evaluation engine together with the generator in
+# codegen/src and turns the decision tables of DMN files into Java classes.
+# Arguments are passed to the generator:
+#
+#   -out dir               source root for the generated classes (build/generated)
+#   -package name          package of the generated classes
+#   -verify rows           compile the classes and compare them with the
+#                          interpreted engine on a corpus; exit with 1 on differences
+#   -example               also generate the built-in example table
+#
+# Example: ./scripts/generate_tables.sh -verify 10000 models/pricing.dmn
+
+echo "DMN Decision Table Code Generator"
+echo "================================"
+echo ""
+
+mkdir -p build/codegen
+
+# The engine does not depend on the MagicDraw API; leave out the plugin classes that do
+SOURCES=$(grep -L "com.nomagic" $(find src codegen/src -name "*.java"))
+
+echo "Compiling code generator..."
+javac -encoding UTF-8 -d build/codegen $SOURCES
+if [ $? -ne 0 ]; then
+    echo "[ERROR] Failed to compile code generator"
+    exit 1
+fi
+echo "[SUCCESS] Code generator compiled successfully"
+echo ""
+
+java $JAVA_OPTS -cp build/codegen com.example.dmn.codegen.DecisionTableCodegen "$@"
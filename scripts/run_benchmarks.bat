@@ -0,0 +1,36 @@
+@echo off
+setlocal enabledelayedexpansion
+
+REM DMN Evaluation Benchmark Runner
+REM This script compiles the evaluation engine and the code generator together
+REM with the benchmark suite in benchmarks\src and runs it. Arguments are passed to the runner,
+REM see run_benchmarks.sh for the options.
+
+echo DMN Evaluation Benchmark Runner
+echo ==============================
+echo.
+
+if not exist build\benchmarks mkdir build\benchmarks
+
+REM The engine does not depend on the MagicDraw API; leave out the plugin classes that do
+if exist build\benchmarks\sources.txt del build\benchmarks\sources.txt
+for /r src %%f in (*.java) do (
+    findstr /m /c:"com.nomagic" "%%f" >nul || echo %%f>>build\benchmarks\sources.txt
+)
+for /r codegen\src %%f in (*.java) do (
+    echo %%f>>build\benchmarks\sources.txt
+)
+for /r benchmarks\src %%f in (*.java) do (
+    echo %%f>>build\benchmarks\sources.txt
+)
+
+echo Compiling benchmarks...
+javac -encoding UTF-8 -d build\benchmarks @build\benchmarks\sources.txt
+if %ERRORLEVEL% neq 0 (
+    echo [ERROR] Failed to compile benchmarks
+    exit /b 1
+)
+echo [SUCCESS] Benchmarks compiled successfully
+echo.
+
+java -Xms512m -Xmx512m %JAVA_OPTS% -cp build\benchmarks com.example.dmn.benchmark.BenchmarkRunner %*
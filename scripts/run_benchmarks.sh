@@ -0,0 +1,38 @@
+#!/bin/bash
+
+# DMN Evaluation Benchmark Runner
+# This script compiles the evaluation engine and the code generator together
+# with the benchmark suite in benchmarks/src and runs it. Arguments are passed
+# to the runner:
+#
+#   -quick                 short iterations, for a smoke run
+#   -filter text           only run benchmarks whose name or parameters contain text
+#   -rules 10,100,1000     rule counts of the synthesized tables
+#   -columns 2,6           input column counts of the synthesized tables
+#   -baseline file         compare with a baseline, exit with 1 on regressions
+#   -save file             save the results as a baseline
+#   -tolerance 0.2         relative drop in throughput tolerated
+#   -import [options]      run the DMN import benchmark instead, see benchmarks/README.md
+#   -snapshot [options]    run the decision table snapshot benchmark instead
+#
+# Example: ./scripts/run_benchmarks.sh -baseline benchmarks/baseline.csv
+
+echo "DMN Evaluation Benchmark Runner"
+echo "=============================="
+echo ""
+
+mkdir -p build/benchmarks
+
+# The engine does not depend on the MagicDraw API; leave out the plugin classes that do
+SOURCES=$(grep -L "com.nomagic" $(find src codegen/src benchmarks/src -name "*.java"))
+
+echo "Compiling benchmarks..."
+javac -encoding UTF-8 -d build/benchmarks $SOURCES
+if [ $? -ne 0 ]; then
+    echo "[ERROR] Failed to compile benchmarks"
+    exit 1
+fi
+echo "[SUCCESS] Benchmarks compiled successfully"
+echo ""
+
+java -Xms512m -Xmx512m $JAVA_OPTS -cp build/benchmarks com.example.dmn.benchmark.BenchmarkRunner "$@"
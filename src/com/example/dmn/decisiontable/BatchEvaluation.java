@@ -0,0 +1,245 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.FEELType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a range of rows of an {@link InputBlock} and writes the results
+ * into an {@link OutputBlock}.
+ * 
+ * Rows are processed in chunks of 64. For every rule, one bit per row of the
+ * chunk records whether the rule still matches; the bits are narrowed column
+ * by column straight from the primitive arrays of the compiled table and the
+ * input block, so no per-row input map or boxed number is created. Values
+ * of columns with an {@link InputDomain} are encoded to ordinals per chunk,
+ * which rejects values that are not allowed before any rule is tested, and
+ * values of boolean, date and time columns to their numeric keys. Ranges
+ * larger than {@link #SPLIT_THRESHOLD} rows are split in half and evaluated
+ * as fork-join subtasks.
+ */
+final class BatchEvaluation extends RecursiveAction {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Rows per task below which a range is not split further
+     */
+    static final int SPLIT_THRESHOLD = 4096;
+    
+    private static final int CHUNK_SIZE = 64;
+    private static final int NOT_A_STRING = -2;
+    
+    private final DecisionTableEvaluator evaluator;
+    private final InputBlock inputs;
+    private final OutputBlock outputs;
+    private final int from;
+    private final int to;
+    
+    BatchEvaluation(DecisionTableEvaluator evaluator, InputBlock inputs, OutputBlock outputs, int from, int to) {
+        this.evaluator = evaluator;
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.from = from;
+        this.to = to;
+    }
+    
+    @Override
+    protected void compute() {
+        if (to - from > SPLIT_THRESHOLD) {
+            // Split on a chunk boundary
+            int middle = from + ((to - from) / 2 / CHUNK_SIZE) * CHUNK_SIZE;
+            invokeAll(new BatchEvaluation(evaluator, inputs, outputs, from, middle),
+                      new BatchEvaluation(evaluator, inputs, outputs, middle, to));
+        } else {
+            evaluateRange();
+        }
+    }
+    
+    /**
+     * Evaluate all rows of the range in the current thread
+     */
+    void evaluateRange() {
+        CompiledDecisionTable table = evaluator.getCompiledTable();
+        int columnCount = table.getInputCount();
+        long[] ruleBits = new long[table.getRuleCount()];
+        int[][] codes = new int[columnCount][];
+        double[][] keys = new double[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            CompiledDecisionTable.ColumnType type = table.getColumnType(c);
+            if (type == CompiledDecisionTable.ColumnType.ENUM
+                    || type == CompiledDecisionTable.ColumnType.STRING && !inputs.isNumeric(c)) {
+                codes[c] = new int[CHUNK_SIZE];
+            }
+            if (table.keyType(c) != null) {
+                keys[c] = new double[CHUNK_SIZE];
+            }
+        }
+        String[] outputNames = table.getOutputNames();
+        Object[] rowValues = new Object[outputNames.length];
+        for (int start = from; start < to; start += CHUNK_SIZE) {
+            int size = Math.min(CHUNK_SIZE, to - start);
+            encodeStrings(table, codes, start, size);
+            encodeKeys(table, keys, start, size);
+            matchChunk(table, ruleBits, codes, keys, start, size);
+            for (int i = 0; i < size; i++) {
+                applyHitPolicy(table, ruleBits, i, start + i, outputNames, rowValues);
+            }
+        }
+    }
+    
+    /**
+     * Look up the dictionary codes of string inputs, and the ordinals of
+     * values of columns with a domain, once per chunk
+     */
+    private void encodeStrings(CompiledDecisionTable table, int[][] codes, int start, int size) {
+        for (int c = 0; c < codes.length; c++) {
+            if (codes[c] == null) {
+                continue;
+            }
+            InputDomain domain = table.getInputDomain(c);
+            for (int i = 0; i < size; i++) {
+                Object value = inputs.getValue(c, start + i);
+                if (domain != null) {
+                    codes[c][i] = domain.ordinal(value);
+                } else {
+                    codes[c][i] = value instanceof String ? table.stringCode((String) value) : NOT_A_STRING;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Compute the keys of the values of columns that match keys, once per chunk
+     */
+    private void encodeKeys(CompiledDecisionTable table, double[][] keys, int start, int size) {
+        for (int c = 0; c < keys.length; c++) {
+            if (keys[c] == null) {
+                continue;
+            }
+            FEELType type = table.keyType(c);
+            for (int i = 0; i < size; i++) {
+                // Numbers have no key of a boolean or temporal type
+                keys[c][i] = inputs.isNumeric(c) ? Double.NaN : type.key(inputs.getValue(c, start + i));
+            }
+        }
+    }
+    
+    /**
+     * Compute for every rule the bits of the chunk rows it matches
+     */
+    private void matchChunk(CompiledDecisionTable table, long[] ruleBits, int[][] codes, double[][] keys,
+                            int start, int size) {
+        long all = size == CHUNK_SIZE ? -1L : (1L << size) - 1;
+        int columnCount = table.getInputCount();
+        for (int r = 0; r < ruleBits.length; r++) {
+            long bits = all;
+            for (int c = 0; c < columnCount && bits != 0; c++) {
+                long matched = 0;
+                for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+                    int i = Long.numberOfTrailingZeros(remaining);
+                    if (matches(table, r, c, codes[c], keys[c], start, i)) {
+                        matched |= 1L << i;
+                    }
+                }
+                bits = matched;
+            }
+            if (bits != 0 && table.hasRowTests(r)) {
+                for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+                    int i = Long.numberOfTrailingZeros(remaining);
+                    if (!table.matchesRow(r, rowInputs(columnCount, start + i))) {
+                        bits &= ~(1L << i);
+                    }
+                }
+            }
+            ruleBits[r] = bits;
+        }
+    }
+    
+    private boolean matches(CompiledDecisionTable table, int rule, int column, int[] codes, double[] keys,
+                            int start, int i) {
+        int row = start + i;
+        if (table.getColumnType(column) == CompiledDecisionTable.ColumnType.ENUM) {
+            return table.matchesOrdinal(rule, column, codes[i]);
+        }
+        if (keys != null) {
+            return inputs.isNull(column, row) ? table.matches(rule, column, null)
+                : table.matchesNumber(rule, column, keys[i]);
+        }
+        if (inputs.isNumeric(column)) {
+            return inputs.isNull(column, row) ? table.matches(rule, column, null)
+                : table.matchesNumber(rule, column, inputs.getNumber(column, row));
+        }
+        if (codes != null && codes[i] != NOT_A_STRING) {
+            return table.matchesCode(rule, column, codes[i]);
+        }
+        return table.matches(rule, column, inputs.getValue(column, row));
+    }
+    
+    private void applyHitPolicy(CompiledDecisionTable table, long[] ruleBits, int i, int row,
+                                String[] outputNames, Object[] rowValues) {
+        RuleOutputs ruleOutputs = evaluator.ruleOutputs(
+            table.hasConstantOutputs() ? null : rowInputs(table.getInputCount(), row));
+        DecisionResult result = evaluator.getExecutor().execute(new ChunkCursor(ruleBits, i), ruleOutputs);
+        split(outputNames, result.getValue(), rowValues);
+        outputs.set(row, rowValues, result.getMatchCount(), result.getViolation());
+    }
+    
+    private Object[] rowInputs(int columnCount, int row) {
+        Object[] values = new Object[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            values[c] = inputs.getValue(c, row);
+        }
+        return values;
+    }
+    
+    /**
+     * Spread a decision value over the output columns
+     */
+    @SuppressWarnings("unchecked")
+    private static void split(String[] names, Object value, Object[] rowValues) {
+        if (rowValues.length == 1) {
+            rowValues[0] = value;
+            return;
+        }
+        for (int o = 0; o < rowValues.length; o++) {
+            if (value instanceof Map) {
+                rowValues[o] = ((Map<String, Object>) value).get(names[o]);
+            } else if (value instanceof List) {
+                List<Object> column = new ArrayList<>();
+                for (Object output : (List<Object>) value) {
+                    column.add(((Map<String, Object>) output).get(names[o]));
+                }
+                rowValues[o] = column;
+            } else {
+                rowValues[o] = null;
+            }
+        }
+    }
+    
+    /**
+     * Walks the rules whose bit for one chunk row is set, in rule order
+     */
+    private static final class ChunkCursor implements MatchCursor {
+        private final long[] ruleBits;
+        private final long mask;
+        private int rule;
+        
+        ChunkCursor(long[] ruleBits, int bit) {
+            this.ruleBits = ruleBits;
+            this.mask = 1L << bit;
+        }
+        
+        @Override
+        public int next() {
+            while (rule < ruleBits.length) {
+                if ((ruleBits[rule++] & mask) != 0) {
+                    return rule - 1;
+                }
+            }
+            return NO_MORE;
+        }
+    }
+}
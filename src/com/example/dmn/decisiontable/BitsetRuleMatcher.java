@@ -0,0 +1,574 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.UnaryTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Column-wise rule matcher based on precomputed bitsets.
+ * 
+ * For every input column the set of rules satisfied by each distinct tested
+ * literal, and by each numeric segment between the tested boundaries, is
+ * computed once as a {@code long[]} bitset. Matching a row is then one
+ * dictionary or binary-search lookup per column followed by a word-wise AND,
+ * and the matching rules are read off the set bits in rule order.
+ * 
+ * Entries whose outcome is not constant between the tested boundaries
+ * (FEEL expressions and comparisons against strings) are kept out of the
+ * precomputed bitsets and tested per lookup. Columns that only test string
+ * literals dispatch through a {@link PerfectHashDispatch} instead of the
+ * dictionary, and columns with an {@link InputDomain} keep one bitset per
+ * ordinal.
+ * 
+ * The precomputed bitsets and seeds of each column can be exported as a
+ * plain {@code long[]} and restored for the same tests without testing any
+ * rule, which is how {@link DecisionTableSnapshot} stores them.
+ */
+final class BitsetRuleMatcher implements RuleMatcher {
+    
+    /**
+     * Stand-in for any non-numeric value that is not one of the tested literals
+     */
+    private static final Object OTHER_VALUE = new Object();
+    
+    private final ColumnBits[] columns;
+    private final int ruleCount;
+    private final int words;
+    
+    /**
+     * Constructor
+     * 
+     * @param tests compiled input entries, indexed by rule and then by column
+     * @param columnCount number of input columns
+     * @param domains the domain of each column, or null entries for columns
+     *        without one; those columns receive ordinals as input values
+     */
+    BitsetRuleMatcher(UnaryTest[][] tests, int columnCount, InputDomain[] domains) {
+        this.ruleCount = tests.length;
+        this.words = (ruleCount + 63) >>> 6;
+        this.columns = new ColumnBits[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            columns[c] = new ColumnBits(tests, c, words, domains[c], null);
+        }
+    }
+    
+    /**
+     * Constructor for bitsets that were precomputed for the same tests
+     * 
+     * @param tests compiled input entries, indexed by rule and then by column
+     * @param columnCount number of input columns
+     * @param domains the domain of each column, or null entries for columns without one
+     * @param precomputed the bitsets of each column, as returned by {@link #precomputed()}
+     * @throws IllegalArgumentException if the bitsets do not fit the tests
+     */
+    BitsetRuleMatcher(UnaryTest[][] tests, int columnCount, InputDomain[] domains, long[][] precomputed) {
+        if (precomputed.length != columnCount) {
+            throw new IllegalArgumentException("Bitsets of " + precomputed.length + " columns for " + columnCount);
+        }
+        this.ruleCount = tests.length;
+        this.words = (ruleCount + 63) >>> 6;
+        this.columns = new ColumnBits[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            columns[c] = new ColumnBits(tests, c, words, domains[c], new Reader(precomputed[c]));
+        }
+    }
+    
+    /**
+     * Export the precomputed bitsets and seeds of each column
+     * 
+     * @return a new array per column
+     */
+    long[][] precomputed() {
+        long[][] precomputed = new long[columns.length][];
+        for (int c = 0; c < columns.length; c++) {
+            precomputed[c] = columns[c].export();
+        }
+        return precomputed;
+    }
+    
+    @Override
+    public int[] match(Object[] inputs) {
+        long[] result = matchBits(inputs);
+        return result == null ? IntSets.EMPTY : toRules(result);
+    }
+    
+    @Override
+    public MatchCursor cursor(Object[] inputs) {
+        long[] result = matchBits(inputs);
+        return result == null ? new MatchCursor.OfArray(IntSets.EMPTY) : new BitCursor(result);
+    }
+    
+    /**
+     * AND the column bitsets for a row of inputs
+     * 
+     * @return the matching rule bits, or null if no rule matches
+     */
+    private long[] matchBits(Object[] inputs) {
+        long[] result = new long[words];
+        if (columns.length == 0) {
+            for (int r = 0; r < ruleCount; r++) {
+                result[r >>> 6] |= 1L << r;
+            }
+        } else {
+            columns[0].copyInto(inputs[0], result);
+            for (int c = 1; c < columns.length; c++) {
+                if (!columns[c].andInto(inputs[c], result)) {
+                    return null;
+                }
+            }
+        }
+        return result;
+    }
+    
+    private static int[] toRules(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        int[] rules = new int[count];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                rules[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return rules;
+    }
+    
+    /**
+     * Walks the set bits of a match bitset without materializing the rule array
+     */
+    private static final class BitCursor implements MatchCursor {
+        private final long[] bits;
+        private int word;
+        private long remaining;
+        
+        BitCursor(long[] bits) {
+            this.bits = bits;
+            this.remaining = bits.length > 0 ? bits[0] : 0;
+        }
+        
+        @Override
+        public int next() {
+            while (remaining == 0) {
+                if (++word >= bits.length) {
+                    return NO_MORE;
+                }
+                remaining = bits[word];
+            }
+            int rule = (word << 6) + Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            return rule;
+        }
+        
+        @Override
+        public Supplier<int[]> replay() {
+            return () -> toRules(bits);
+        }
+    }
+    
+    /**
+     * Precomputed bitsets for a single input column
+     */
+    private static final class ColumnBits {
+        // In the order the literals occur in the column, which is also the order of export
+        private final Map<Object, long[]> literalBits = new LinkedHashMap<>();
+        private final long[] otherBits;
+        
+        // Rule bitsets by ordinal of a column with a domain, or null
+        private final long[][] ordinalBits;
+        
+        // Literal bitsets of a column of string equality tests, or null
+        private final PerfectHashDispatch<long[]> stringBits;
+        
+        // Numeric segments: boundaries[i] is a point segment, the gaps around them are open segments.
+        // pointBits[i] holds the rules for value == boundaries[i];
+        // gapBits[i] holds the rules for values between boundaries[i - 1] and boundaries[i].
+        private final double[] boundaries;
+        private final long[][] pointBits;
+        private final long[][] gapBits;
+        
+        private final int[] residualRules;
+        private final UnaryTest[] residualTests;
+        
+        // Numbers without an exact double evaluate the precomputed tests per lookup
+        private final UnaryTest[][] tests;
+        private final int column;
+        private final boolean[] precomputed;
+        private final int words;
+        
+        /**
+         * Precompute the bitsets of a column, or read them if a reader is given
+         */
+        ColumnBits(UnaryTest[][] tests, int column, int words, InputDomain domain, Reader stored) {
+            if (domain != null) {
+                if (stored != null) {
+                    ordinalBits = new long[stored.count(domain.size() + 1)][];
+                    for (int ordinal = 0; ordinal < ordinalBits.length; ordinal++) {
+                        ordinalBits[ordinal] = stored.bits(words);
+                    }
+                    stored.end();
+                } else {
+                    boolean[][] matches = domain.matchTable(tests, column);
+                    ordinalBits = new long[matches.length][words];
+                    for (int ordinal = 0; ordinal < matches.length; ordinal++) {
+                        for (int r = 0; r < tests.length; r++) {
+                            if (matches[ordinal][r]) {
+                                ordinalBits[ordinal][r >>> 6] |= 1L << r;
+                            }
+                        }
+                    }
+                }
+                otherBits = null;
+                stringBits = null;
+                boundaries = null;
+                pointBits = gapBits = null;
+                residualRules = IntSets.EMPTY;
+                residualTests = new UnaryTest[0];
+                this.tests = null;
+                this.column = column;
+                this.precomputed = null;
+                this.words = words;
+                return;
+            }
+            ordinalBits = null;
+            List<Integer> residualOwners = new ArrayList<>();
+            List<UnaryTest> residual = new ArrayList<>();
+            List<Object> literals = new ArrayList<>();
+            TreeSet<Double> numbers = new TreeSet<>();
+            boolean[] precomputed = new boolean[tests.length];
+            this.tests = tests;
+            this.column = column;
+            this.precomputed = precomputed;
+            this.words = words;
+            
+            for (int r = 0; r < tests.length; r++) {
+                UnaryTest test = tests[r][column];
+                if (collectKeys(test, literals, numbers)) {
+                    precomputed[r] = true;
+                } else {
+                    residualOwners.add(r);
+                    residual.add(test);
+                }
+            }
+            
+            // Null is always looked up by identity, so give it its own entry
+            literals.add(null);
+            Set<Object> keys = new LinkedHashSet<>(literals);
+            boundaries = new double[numbers.size()];
+            int i = 0;
+            for (Double number : numbers) {
+                boundaries[i++] = number;
+            }
+            pointBits = new long[boundaries.length][];
+            gapBits = new long[boundaries.length + 1][];
+            
+            if (stored != null) {
+                stored.count(keys.size());
+                stored.count(boundaries.length);
+                otherBits = stored.bits(words);
+                for (Object key : keys) {
+                    literalBits.put(key, stored.bits(words));
+                }
+                for (i = 0; i < boundaries.length; i++) {
+                    pointBits[i] = stored.bits(words);
+                    gapBits[i] = stored.bits(words);
+                }
+                gapBits[boundaries.length] = stored.bits(words);
+                stringBits = readStringDispatch(stored);
+                stored.end();
+            } else {
+                for (Object key : keys) {
+                    literalBits.put(key, bitsFor(tests, column, precomputed, key, words));
+                }
+                otherBits = bitsFor(tests, column, precomputed, OTHER_VALUE, words);
+                for (i = 0; i < boundaries.length; i++) {
+                    pointBits[i] = bitsFor(tests, column, precomputed, boundaries[i], words);
+                    double below = i == 0 ? boundaries[0] - 1.0 : (boundaries[i - 1] + boundaries[i]) / 2.0;
+                    gapBits[i] = bitsFor(tests, column, precomputed, below, words);
+                }
+                gapBits[boundaries.length] = bitsFor(tests, column, precomputed,
+                    boundaries.length == 0 ? 0.0 : boundaries[boundaries.length - 1] + 1.0, words);
+                stringBits = PerfectHashDispatch.isStringColumn(tests, column) ? stringDispatch() : null;
+            }
+            
+            residualRules = new int[residualOwners.size()];
+            for (i = 0; i < residualRules.length; i++) {
+                residualRules[i] = residualOwners.get(i);
+            }
+            residualTests = residual.toArray(new UnaryTest[0]);
+        }
+        
+        /**
+         * Write the rules matched by the value into the target
+         */
+        void copyInto(Object value, long[] target) {
+            System.arraycopy(lookup(value), 0, target, 0, target.length);
+            addResidual(value, target);
+        }
+        
+        /**
+         * AND the rules matched by the value into the target
+         * 
+         * @return false if the target became empty
+         */
+        boolean andInto(Object value, long[] target) {
+            long[] bits = lookup(value);
+            if (residualRules.length > 0) {
+                bits = bits.clone();
+                addResidual(value, bits);
+            }
+            long any = 0;
+            for (int w = 0; w < target.length; w++) {
+                target[w] &= bits[w];
+                any |= target[w];
+            }
+            return any != 0;
+        }
+        
+        private long[] lookup(Object value) {
+            if (ordinalBits != null) {
+                return ordinalBits[(Integer) value];
+            }
+            if (stringBits != null && value instanceof String) {
+                long[] bits = stringBits.get(value);
+                return bits != null ? bits : otherBits;
+            }
+            if (value instanceof Number) {
+                if (!UnaryTest.hasExactDouble(value)) {
+                    // Its double would fall into the segment of a nearby number
+                    return bitsFor(tests, column, precomputed, value, words);
+                }
+                // Adding 0.0 folds -0.0 into 0.0 so both find the same segment
+                double d = ((Number) value).doubleValue() + 0.0;
+                if (Double.isNaN(d)) {
+                    // NaN fails every numeric test, like a value of another type
+                    return otherBits;
+                }
+                int index = Arrays.binarySearch(boundaries, d);
+                return index >= 0 ? pointBits[index] : gapBits[-index - 1];
+            }
+            long[] bits = literalBits.get(value);
+            return bits != null ? bits : otherBits;
+        }
+        
+        private Map<String, long[]> stringEntries() {
+            Map<String, long[]> entries = new LinkedHashMap<>();
+            for (Map.Entry<Object, long[]> entry : literalBits.entrySet()) {
+                if (entry.getKey() instanceof String) {
+                    entries.put((String) entry.getKey(), entry.getValue());
+                }
+            }
+            return entries;
+        }
+        
+        private PerfectHashDispatch<long[]> stringDispatch() {
+            return PerfectHashDispatch.build(stringEntries());
+        }
+        
+        /**
+         * Read the seeds of the string dispatch and the literal of each slot,
+         * by its position among the string literals
+         */
+        private PerfectHashDispatch<long[]> readStringDispatch(Reader stored) {
+            int seedCount = stored.count(-1);
+            if (seedCount == 0) {
+                return null;
+            }
+            int[] seeds = new int[seedCount];
+            for (int i = 0; i < seeds.length; i++) {
+                seeds[i] = (int) stored.next();
+            }
+            Map<String, long[]> entries = stringEntries();
+            String[] literals = entries.keySet().toArray(new String[0]);
+            String[] keys = new String[literals.length];
+            for (int slot = 0; slot < keys.length; slot++) {
+                keys[slot] = literals[stored.index(literals.length)];
+            }
+            PerfectHashDispatch<long[]> dispatch = PerfectHashDispatch.of(seeds, keys, entries);
+            if (dispatch == null) {
+                throw new IllegalArgumentException("Seeds do not fit the string literals of the column");
+            }
+            return dispatch;
+        }
+        
+        /**
+         * Write the precomputed bitsets and seeds in the order the constructor reads them
+         */
+        long[] export() {
+            List<long[]> bitsets = new ArrayList<>();
+            List<Long> values = new ArrayList<>();
+            if (ordinalBits != null) {
+                values.add((long) ordinalBits.length);
+                bitsets.addAll(Arrays.asList(ordinalBits));
+            } else {
+                values.add((long) literalBits.size());
+                values.add((long) boundaries.length);
+                bitsets.add(otherBits);
+                bitsets.addAll(literalBits.values());
+                for (int i = 0; i < boundaries.length; i++) {
+                    bitsets.add(pointBits[i]);
+                    bitsets.add(gapBits[i]);
+                }
+                bitsets.add(gapBits[boundaries.length]);
+            }
+            List<Long> dispatch = new ArrayList<>();
+            if (ordinalBits == null) {
+                int[] seeds = stringBits != null ? stringBits.seeds() : new int[0];
+                dispatch.add((long) seeds.length);
+                for (int seed : seeds) {
+                    dispatch.add((long) seed);
+                }
+                if (stringBits != null) {
+                    Map<String, Integer> positions = new HashMap<>();
+                    for (String literal : stringEntries().keySet()) {
+                        positions.put(literal, positions.size());
+                    }
+                    for (int slot = 0; slot < stringBits.size(); slot++) {
+                        dispatch.add((long) positions.get(stringBits.key(slot)));
+                    }
+                }
+            }
+            long[] exported = new long[values.size() + bitsets.size() * words + dispatch.size()];
+            int n = 0;
+            for (long value : values) {
+                exported[n++] = value;
+            }
+            for (long[] bits : bitsets) {
+                System.arraycopy(bits, 0, exported, n, words);
+                n += words;
+            }
+            for (long value : dispatch) {
+                exported[n++] = value;
+            }
+            return exported;
+        }
+        
+        private void addResidual(Object value, long[] bits) {
+            for (int i = 0; i < residualRules.length; i++) {
+                if (residualTests[i].test(value)) {
+                    bits[residualRules[i] >>> 6] |= 1L << residualRules[i];
+                }
+            }
+        }
+        
+        private static long[] bitsFor(UnaryTest[][] tests, int column, boolean[] precomputed,
+                                      Object value, int words) {
+            long[] bits = new long[words];
+            for (int r = 0; r < tests.length; r++) {
+                if (precomputed[r] && tests[r][column].test(value)) {
+                    bits[r >>> 6] |= 1L << r;
+                }
+            }
+            return bits;
+        }
+        
+        /**
+         * Collect the literals and numeric boundaries a test depends on
+         * 
+         * @return false if the test's outcome is not constant between those
+         *         boundaries and must be evaluated per lookup
+         */
+        private static boolean collectKeys(UnaryTest test, List<Object> literals, TreeSet<Double> numbers) {
+            if (test instanceof UnaryTest.Any) {
+                return true;
+            } else if (test instanceof UnaryTest.LiteralEquals) {
+                literals.add(((UnaryTest.LiteralEquals) test).getValue());
+                return true;
+            } else if (test instanceof UnaryTest.NumberEquals) {
+                UnaryTest.NumberEquals equals = (UnaryTest.NumberEquals) test;
+                if (!equals.isExact()) {
+                    return false;
+                }
+                numbers.add(equals.getNumber() + 0.0);
+                return true;
+            } else if (test instanceof UnaryTest.NumberRange) {
+                UnaryTest.NumberRange range = (UnaryTest.NumberRange) test;
+                if (!range.isExact()) {
+                    // Its outcome may change between the doubles next to a bound
+                    return false;
+                }
+                if (!Double.isInfinite(range.getLow())) {
+                    numbers.add(range.getLow() + 0.0);
+                }
+                if (!Double.isInfinite(range.getHigh())) {
+                    numbers.add(range.getHigh() + 0.0);
+                }
+                return true;
+            } else if (test instanceof UnaryTest.Not) {
+                return collectKeys(((UnaryTest.Not) test).getNegated(), literals, numbers);
+            } else if (test instanceof UnaryTest.Disjunction) {
+                for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                    if (!collectKeys(alternative, literals, numbers)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Reads exported bitsets, rejecting data that does not fit the tests
+     */
+    private static final class Reader {
+        private final long[] data;
+        private int position;
+        
+        Reader(long[] data) {
+            this.data = data;
+        }
+        
+        long next() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Bitsets end after " + data.length + " values");
+            }
+            return data[position++];
+        }
+        
+        /**
+         * Read a count, which must be the expected one unless that is negative
+         */
+        int count(int expected) {
+            long count = next();
+            if (expected >= 0 ? count != expected : count < 0 || count > data.length) {
+                throw new IllegalArgumentException("Count " + count + " where " + expected + " was expected");
+            }
+            return (int) count;
+        }
+        
+        int index(int size) {
+            long index = next();
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException("Index " + index + " of " + size);
+            }
+            return (int) index;
+        }
+        
+        long[] bits(int words) {
+            if (data.length - position < words) {
+                throw new IllegalArgumentException("Bitsets end after " + data.length + " values");
+            }
+            long[] bits = Arrays.copyOfRange(data, position, position + words);
+            position += words;
+            return bits;
+        }
+        
+        void end() {
+            if (position != data.length) {
+                throw new IllegalArgumentException((data.length - position) + " values after the bitsets");
+            }
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.util.BoundedCache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Decision table evaluator that memoizes results by input tuple.
+ * 
+ * Results are kept in a {@link BoundedCache}: lookups are lock-free and the
+ * cache evicts cold entries with a CLOCK approximation of LRU once it is
+ * full. The key is the tuple of input values with a precomputed hash.
+ * Values are compared with {@code equals}, so inputs that FEEL considers
+ * equal but that may produce differently typed outputs (1, 1L and 1.0) are
+ * cached separately.
+ * 
+ * A cache built on a {@link DMNDecisionTable} listens for
+ * {@link DMNDecisionTable#fireTableChanged()}, which the decision table
+ * editor calls on save: all cached results are dropped and the table is
+ * recompiled on the next evaluation, so a table saved with an invalid entry
+ * reports the syntax error to the caller that evaluates it, not to the
+ * editor. Cached list and map values are unmodifiable, as they are shared
+ * by every caller that hits the entry.
+ */
+public class CachingDecisionTableEvaluator implements AutoCloseable {
+    
+    /**
+     * Default maximum number of cached results per table
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+    
+    private final Supplier<CompiledDecisionTable> compiler;
+    private final MatchingMode matchingMode;
+    private final int cacheSize;
+    private final DMNDecisionTable source;
+    private final DMNDecisionTable.ChangeListener changeListener;
+    
+    private volatile Generation generation; // null after invalidation until the next evaluation
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder retiredEvictions = new LongAdder();
+    
+    /**
+     * Create a caching evaluator for a decision table with the default cache size
+     * 
+     * @param table the decision table
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public CachingDecisionTableEvaluator(DMNDecisionTable table) {
+        this(table, DEFAULT_CACHE_SIZE, MatchingMode.BITSET);
+    }
+    
+    /**
+     * Create a caching evaluator for a decision table. The cache is invalidated
+     * whenever the table reports a change.
+     * 
+     * @param table the decision table
+     * @param cacheSize the maximum number of cached results
+     * @param matchingMode how matching rules are found
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public CachingDecisionTableEvaluator(DMNDecisionTable table, int cacheSize, MatchingMode matchingMode) {
+        this(() -> CompiledDecisionTable.compile(table), cacheSize, matchingMode, table);
+    }
+    
+    /**
+     * Create a caching evaluator for a stub decision table. Stub tables do
+     * not report changes; call {@link #invalidate()} after editing one.
+     * 
+     * @param table the decision table
+     * @param cacheSize the maximum number of cached results
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public CachingDecisionTableEvaluator(DMNDecisionTableStub table, int cacheSize) {
+        this(() -> CompiledDecisionTable.compile(table), cacheSize, MatchingMode.BITSET, null);
+    }
+    
+    private CachingDecisionTableEvaluator(Supplier<CompiledDecisionTable> compiler, int cacheSize,
+                                          MatchingMode matchingMode, DMNDecisionTable source) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + cacheSize);
+        }
+        this.compiler = compiler;
+        this.cacheSize = cacheSize;
+        this.matchingMode = matchingMode;
+        this.source = source;
+        this.generation = new Generation(new DecisionTableEvaluator(compiler.get(), matchingMode), cacheSize);
+        if (source != null) {
+            this.changeListener = changed -> invalidate();
+            source.addChangeListener(changeListener);
+        } else {
+            this.changeListener = null;
+        }
+    }
+    
+    /**
+     * Evaluate the table for named input values
+     * 
+     * @param inputs input values keyed by input column name
+     * @return the decision result, possibly shared with other callers
+     */
+    public DecisionResult evaluate(Map<String, Object> inputs) {
+        Generation current = current();
+        String[] names = current.inputNames;
+        Object[] row = new Object[names.length];
+        for (int c = 0; c < row.length; c++) {
+            row[c] = inputs.get(names[c]);
+        }
+        return evaluate(current, row);
+    }
+    
+    /**
+     * Evaluate the table for a row of input values
+     * 
+     * @param inputs input values in input column order
+     * @return the decision result, possibly shared with other callers
+     */
+    public DecisionResult evaluate(Object[] inputs) {
+        return evaluate(current(), inputs);
+    }
+    
+    private Generation current() {
+        Generation current = generation;
+        return current != null ? current : recompile();
+    }
+    
+    private synchronized Generation recompile() {
+        if (generation == null) {
+            generation = new Generation(new DecisionTableEvaluator(compiler.get(), matchingMode), cacheSize);
+        }
+        return generation;
+    }
+    
+    private DecisionResult evaluate(Generation current, Object[] inputs) {
+        InputKey key = new InputKey(inputs);
+        DecisionResult result = current.results.getIfPresent(key);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = shareable(current.evaluator.evaluate(inputs));
+        // A result computed by a retired generation goes into its own cache and is never seen again
+        current.results.put(key, result);
+        return result;
+    }
+    
+    /**
+     * Make list and map values safe to hand out to several callers
+     */
+    @SuppressWarnings("unchecked")
+    private static DecisionResult shareable(DecisionResult result) {
+        Object value = result.getValue();
+        if (value instanceof List) {
+            value = Collections.unmodifiableList((List<Object>) value);
+        } else if (value instanceof Map) {
+            value = Collections.unmodifiableMap((Map<String, Object>) value);
+        } else {
+            return result;
+        }
+        return new DecisionResult(value, result.getMatchedRules(), result.getViolation());
+    }
+    
+    /**
+     * Drop all cached results; the table is recompiled from its source model
+     * on the next evaluation
+     */
+    public synchronized void invalidate() {
+        Generation retired = generation;
+        generation = null;
+        if (retired != null) {
+            retiredEvictions.add(retired.results.getEvictionCount());
+        }
+        invalidations.increment();
+    }
+    
+    /**
+     * Stop listening for changes of the source table
+     */
+    @Override
+    public void close() {
+        if (source != null) {
+            source.removeChangeListener(changeListener);
+        }
+    }
+    
+    /**
+     * Returns the evaluator currently used for cache misses
+     * 
+     * @return the evaluator
+     */
+    public DecisionTableEvaluator getEvaluator() {
+        return current().evaluator;
+    }
+    
+    /**
+     * Returns the name of the table
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return current().evaluator.getName();
+    }
+    
+    /**
+     * Returns the number of evaluations answered from the cache
+     * 
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    /**
+     * Returns the number of evaluations that had to run the table
+     * 
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * Returns the fraction of evaluations answered from the cache
+     * 
+     * @return the hit rate between 0.0 and 1.0
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+    
+    /**
+     * Returns the number of results evicted to stay within the size bound
+     * 
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        Generation current = generation;
+        return retiredEvictions.sum() + (current != null ? current.results.getEvictionCount() : 0);
+    }
+    
+    /**
+     * Returns the number of times the cache was invalidated
+     * 
+     * @return the invalidation count
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+    
+    /**
+     * Returns the number of cached results
+     * 
+     * @return the size
+     */
+    public int size() {
+        Generation current = generation;
+        return current != null ? current.results.size() : 0;
+    }
+    
+    /**
+     * Returns the maximum number of cached results
+     * 
+     * @return the maximum size
+     */
+    public int getMaximumSize() {
+        return cacheSize;
+    }
+    
+    /**
+     * Resets the hit/miss/eviction/invalidation counters
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        invalidations.reset();
+        retiredEvictions.reset();
+        Generation current = generation;
+        if (current != null) {
+            current.results.resetStatistics();
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return getName() + ": size=" + size() + "/" + cacheSize
+            + ", hits=" + getHitCount()
+            + ", misses=" + getMissCount()
+            + ", hitRate=" + String.format("%.1f%%", getHitRate() * 100)
+            + ", evictions=" + getEvictionCount()
+            + ", invalidations=" + getInvalidationCount();
+    }
+    
+    /**
+     * Evaluator and result cache for one revision of the table. Replaced as
+     * a unit on invalidation, so a result computed from an old revision can
+     * never be stored in the cache of a new one.
+     */
+    private static final class Generation {
+        final DecisionTableEvaluator evaluator;
+        final String[] inputNames;
+        final BoundedCache<InputKey, DecisionResult> results;
+        
+        Generation(DecisionTableEvaluator evaluator, int cacheSize) {
+            this.evaluator = evaluator;
+            this.inputNames = evaluator.getInputNames();
+            this.results = new BoundedCache<>(cacheSize);
+        }
+    }
+    
+    /**
+     * Cache key: a copy of the input tuple with its hash computed once
+     */
+    static final class InputKey {
+        private final Object[] values;
+        private final int hash;
+        
+        InputKey(Object[] inputs) {
+            values = inputs.clone();
+            hash = Arrays.hashCode(values);
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof InputKey && hash == ((InputKey) other).hash
+                && Arrays.equals(values, ((InputKey) other).values);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
+    /**
+     * Simple test method
+     */
+    public static void main(String[] args) {
+        DMNDecisionTable table = new DMNDecisionTable("Customer Discount");
+        table.addInput(new DMNDecisionTable.DMNDecisionTableInput("Customer Status", "string"));
+        table.addOutput(new DMNDecisionTable.DMNDecisionTableOutput("Discount", "number"));
+        String[][] rules = {{"\"Gold\"", "0.15"}, {"\"Silver\"", "0.08"}, {"-", "0"}};
+        for (String[] entries : rules) {
+            DMNDecisionTable.DMNDecisionTableRule rule = new DMNDecisionTable.DMNDecisionTableRule();
+            rule.addInputEntry(entries[0]);
+            rule.addOutputEntry(entries[1]);
+            table.addRule(rule);
+        }
+        table.setHitPolicy(DMNDecisionTable.HitPolicy.FIRST);
+        
+        CachingDecisionTableEvaluator evaluator = new CachingDecisionTableEvaluator(table);
+        String[] requests = {"Gold", "Silver", "Gold", "Gold", "Bronze", "Silver"};
+        for (String status : requests) {
+            System.out.println(status + " -> " + evaluator.evaluate(new Object[] {status}).getValue());
+        }
+        System.out.println(evaluator);
+        
+        // Simulate an edit saved by the decision table editor
+        table.getRules().get(0).getOutputEntries().set(0, "0.20");
+        table.fireTableChanged();
+        System.out.println("Gold after edit -> " + evaluator.evaluate(new Object[] {"Gold"}).getValue());
+        System.out.println(evaluator);
+        evaluator.close();
+    }
+}
@@ -0,0 +1,1148 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.FEELExpression;
+import com.example.dmn.feel.FEELScope;
+import com.example.dmn.feel.FEELType;
+import com.example.dmn.feel.UnaryTest;
+import com.example.dmn.feel.UnaryTestCompiler;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, immutable, column-oriented form of a decision table.
+ * 
+ * Both table models ({@link DMNDecisionTable} and {@link DMNDecisionTableStub})
+ * compile to this form. Input entries are stored per column: numeric columns
+ * keep their bounds in primitive arrays, string columns keep dictionary codes
+ * of their literals, columns whose input values list strings keep the
+ * outcome of every entry for each allowed value (see {@link InputDomain}),
+ * and every column keeps its interned {@link UnaryTest} predicates. Constant
+ * output entries are evaluated once and interned, so a rule output is a
+ * dictionary lookup.
+ * 
+ * Each column has a {@link FEELType}, from its typeRef or from the typeRef of
+ * the input data of the same name. Entries and output expressions are
+ * compiled for these types, and the entries of boolean, date and time
+ * columns are rewritten into numeric tests over the keys of their values
+ * (see {@link FEELType#key(Object)}), so such columns match like numeric
+ * ones instead of calling {@code equals} and {@code compareTo} per rule.
+ * Entries that refer to other inputs by name, such as "&lt; creditLimit",
+ * depend on the whole row: the rule matchers see them as wildcards, and
+ * the rules they find are checked against the row afterwards.
+ * 
+ * Instances are never modified after construction and can be shared by any
+ * number of evaluator threads without locking. Changes to the source model
+ * after compilation are not seen.
+ */
+public final class CompiledDecisionTable {
+    
+    /**
+     * Storage layout of an input column
+     */
+    public enum ColumnType {
+        NUMERIC("Numeric", "Only numeric comparisons, intervals and wildcards"),
+        STRING("String", "Only string literals and wildcards"),
+        ENUM("Enumeration", "String input values declared; entries evaluated once per allowed value"),
+        GENERIC("Generic", "Any unary tests");
+        
+        private final String name;
+        private final String description;
+        
+        ColumnType(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+        
+        /**
+         * Returns the name of the column type
+         * 
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Returns the description of the column type
+         * 
+         * @return the description
+         */
+        public String getDescription() {
+            return description;
+        }
+        
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+    
+    /**
+     * Dictionary code of a wildcard entry in a string column, and of an
+     * input string that does not occur in any rule
+     */
+    static final int NO_CODE = -1;
+    
+    private static final byte LOW_INCLUSIVE = 1;
+    private static final byte HIGH_INCLUSIVE = 2;
+    private static final byte ANY = 4;
+    
+    private final String name;
+    private final DMNHitPolicy hitPolicy;
+    private final DMNDecisionTable.AggregationType aggregation;
+    private final String[] inputNames;
+    private final String[] inputTypes;
+    private final FEELType[] inputFEELTypes;
+    private final FEELType[] outputFEELTypes;
+    private final String[] inputValues;
+    private final InputDomain[] inputDomains;
+    private final boolean hasEncodedColumns;
+    private final String[] outputNames;
+    private final String[] outputValues;
+    private final int ruleCount;
+    
+    private final InputColumn[] inputColumns;
+    // Per rule, the entries that refer to other inputs by column; null for rules without any
+    private final UnaryTest[][] rowTests;
+    private final boolean hasRowTests;
+    private final String[] stringDictionary;
+    private final Map<String, Integer> stringCodes;
+    
+    private final Object[] outputDictionary;
+    private final int[][] outputCodes;
+    private final FEELExpression[][] outputExpressions;
+    private final boolean constantOutputs;
+    
+    private final UnaryTest[][] outputPriorities;
+    private final boolean outputPrioritiesDeclared;
+    
+    // Precomputed when all outputs are constant, null otherwise
+    private final int[] outputClasses;
+    private final int[][] priorityRanks;
+    private final long[] scaledNumbers;
+    private final int numberScale;
+    
+    // Built on first use, or supplied by a snapshot; a race builds an equal matcher twice
+    private volatile BitsetRuleMatcher bitsetMatcher;
+    
+    private CompiledDecisionTable(String name, DMNHitPolicy hitPolicy,
+                                  DMNDecisionTable.AggregationType aggregation,
+                                  List<String> inputNames, List<String> inputTypes, List<String> inputValues,
+                                  List<String> outputNames, List<String> outputTypes, List<String> outputValues,
+                                  List<List<String>> inputEntries, List<List<String>> outputEntries,
+                                  FEELScope inputData, UnaryTestCompiler compiler) {
+        this.name = name;
+        this.hitPolicy = hitPolicy != null ? hitPolicy : DMNHitPolicy.UNIQUE;
+        this.aggregation = this.hitPolicy == DMNHitPolicy.COLLECT ? aggregation : null;
+        this.inputNames = inputNames.toArray(new String[0]);
+        this.inputTypes = inputTypes.toArray(new String[0]);
+        this.inputFEELTypes = new FEELType[this.inputNames.length];
+        for (int c = 0; c < inputFEELTypes.length; c++) {
+            FEELType type = FEELType.fromTypeRef(this.inputTypes[c]);
+            int slot = inputData.slotOf(this.inputNames[c]);
+            inputFEELTypes[c] = type == FEELType.ANY && slot >= 0 ? inputData.getType(slot) : type;
+        }
+        this.inputValues = new String[this.inputNames.length];
+        this.inputDomains = new InputDomain[this.inputNames.length];
+        boolean domains = false;
+        for (int c = 0; c < this.inputValues.length; c++) {
+            String values = inputValues != null && c < inputValues.size() ? inputValues.get(c) : null;
+            this.inputValues[c] = values != null ? values : "";
+            inputDomains[c] = InputDomain.parse(this.inputNames[c], this.inputValues[c]);
+            domains |= inputDomains[c] != null;
+        }
+        this.outputNames = outputNames.toArray(new String[0]);
+        this.outputValues = new String[this.outputNames.length];
+        for (int o = 0; o < this.outputValues.length; o++) {
+            String values = outputValues != null && o < outputValues.size() ? outputValues.get(o) : null;
+            this.outputValues[o] = values != null ? values : "";
+        }
+        this.ruleCount = inputEntries.size();
+        
+        // Inputs: intern the tests column by column, then pick a layout per column
+        // Entries and outputs may refer to the inputs by name; resolve the names to input slots now
+        FEELScope inputScope = FEELScope.of(inputNames, Arrays.asList(inputFEELTypes));
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        this.inputColumns = new InputColumn[this.inputNames.length];
+        this.rowTests = new UnaryTest[ruleCount][];
+        boolean rowDependent = false;
+        boolean encoded = domains;
+        for (int c = 0; c < inputColumns.length; c++) {
+            UnaryTest[] tests = new UnaryTest[ruleCount];
+            for (int r = 0; r < ruleCount; r++) {
+                List<String> entries = inputEntries.get(r);
+                tests[r] = compiler.compile(c < entries.size() ? entries.get(c) : "-", inputFEELTypes[c], inputScope);
+            }
+            UnaryTest[] matchTests = tests;
+            for (int r = 0; r < ruleCount; r++) {
+                if (tests[r].usesInputs()) {
+                    // Matched as a wildcard, then checked against the row
+                    if (matchTests == tests) {
+                        matchTests = tests.clone();
+                    }
+                    matchTests[r] = compiler.compile("-");
+                    if (rowTests[r] == null) {
+                        rowTests[r] = new UnaryTest[inputColumns.length];
+                    }
+                    rowTests[r][c] = tests[r];
+                    rowDependent = true;
+                }
+            }
+            inputColumns[c] = new InputColumn(tests, matchTests, inputFEELTypes[c], inputDomains[c], codes,
+                dictionary);
+            encoded |= inputColumns[c].keyType != null;
+        }
+        this.hasRowTests = rowDependent;
+        this.hasEncodedColumns = encoded;
+        this.stringDictionary = dictionary.toArray(new String[0]);
+        this.stringCodes = codes;
+        
+        // Outputs: evaluate constants once and intern the values
+        Map<String, FEELExpression> expressions = new HashMap<>();
+        Map<Object, Integer> valueCodes = new HashMap<>();
+        List<Object> values = new ArrayList<>();
+        boolean allConstant = true;
+        this.outputCodes = new int[this.outputNames.length][ruleCount];
+        this.outputExpressions = new FEELExpression[this.outputNames.length][];
+        this.outputFEELTypes = new FEELType[this.outputNames.length];
+        for (int o = 0; o < this.outputNames.length; o++) {
+            // The declared type, or else the common type of the entries that are not null
+            String typeRef = outputTypes != null && o < outputTypes.size() ? outputTypes.get(o) : null;
+            FEELType declared = FEELType.fromTypeRef(typeRef);
+            FEELType inferred = null;
+            for (int r = 0; r < ruleCount; r++) {
+                List<String> entries = outputEntries.get(r);
+                String text = o < entries.size() ? entries.get(o) : null;
+                FEELExpression expression = expressions.computeIfAbsent(
+                    text == null || text.trim().isEmpty() ? "null" : text, t -> FEELExpression.compile(t, inputScope));
+                if (expression.isConstant()) {
+                    Object value = expression.evaluate(new Object[inputScope.size()]);
+                    if (value != null) {
+                        inferred = inferred == null ? FEELType.of(value) : inferred.join(FEELType.of(value));
+                    }
+                    Integer code = valueCodes.get(value == null ? NullKey.INSTANCE : value);
+                    if (code == null) {
+                        code = values.size();
+                        values.add(value);
+                        valueCodes.put(value == null ? NullKey.INSTANCE : value, code);
+                    }
+                    outputCodes[o][r] = code;
+                } else {
+                    if (outputExpressions[o] == null) {
+                        outputExpressions[o] = new FEELExpression[ruleCount];
+                    }
+                    outputExpressions[o][r] = expression;
+                    outputCodes[o][r] = NO_CODE;
+                    allConstant = false;
+                    inferred = inferred == null ? expression.getType() : inferred.join(expression.getType());
+                }
+            }
+            outputFEELTypes[o] = declared != FEELType.ANY || inferred == null ? declared : inferred;
+        }
+        this.outputDictionary = values.toArray();
+        this.constantOutputs = allConstant;
+        
+        // Output priorities and the per-rule facts hit policies compare
+        this.outputPriorities = compileOutputValues(compiler, this.outputValues);
+        boolean declared = false;
+        for (UnaryTest[] priorities : outputPriorities) {
+            declared |= priorities.length > 0;
+        }
+        this.outputPrioritiesDeclared = declared;
+        this.outputClasses = allConstant ? computeOutputClasses() : null;
+        this.priorityRanks = allConstant ? computePriorityRanks() : null;
+        Object[] singleOutputs = allConstant && this.outputNames.length == 1 ? constantOutputs(0) : null;
+        this.numberScale = singleOutputs != null ? commonScale(singleOutputs) : -1;
+        this.scaledNumbers = numberScale >= 0 ? scaledNumbers(singleOutputs, numberScale) : null;
+    }
+    
+    /**
+     * Compile the output values of each output column into equality tests,
+     * highest priority first. Columns without output values get an empty array.
+     */
+    private static UnaryTest[][] compileOutputValues(UnaryTestCompiler compiler, String[] outputValues) {
+        UnaryTest[][] priorities = new UnaryTest[outputValues.length][];
+        for (int o = 0; o < outputValues.length; o++) {
+            String text = outputValues[o];
+            UnaryTest values = text.trim().isEmpty() ? null : compiler.compile(text);
+            if (values == null || values.getKind() == UnaryTest.Kind.ANY) {
+                priorities[o] = new UnaryTest[0];
+            } else if (values instanceof UnaryTest.Disjunction) {
+                priorities[o] = ((UnaryTest.Disjunction) values).getTests();
+            } else {
+                priorities[o] = new UnaryTest[] {values};
+            }
+        }
+        return priorities;
+    }
+    
+    /**
+     * Number the distinct output tuples, treating numerically equal decimals as equal
+     */
+    private int[] computeOutputClasses() {
+        Map<List<Object>, Integer> classes = new HashMap<>();
+        int[] ids = new int[ruleCount];
+        for (int r = 0; r < ruleCount; r++) {
+            List<Object> key = new ArrayList<>(outputNames.length);
+            for (int o = 0; o < outputNames.length; o++) {
+                Object value = outputDictionary[outputCodes[o][r]];
+                key.add(value instanceof BigDecimal ? ((BigDecimal) value).stripTrailingZeros() : value);
+            }
+            Integer id = classes.get(key);
+            if (id == null) {
+                id = classes.size();
+                classes.put(key, id);
+            }
+            ids[r] = id;
+        }
+        return ids;
+    }
+    
+    private int[][] computePriorityRanks() {
+        int[][] ranks = new int[ruleCount][outputNames.length];
+        for (int r = 0; r < ruleCount; r++) {
+            for (int o = 0; o < outputNames.length; o++) {
+                ranks[r][o] = rankOf(o, outputDictionary[outputCodes[o][r]]);
+            }
+        }
+        return ranks;
+    }
+    
+    private Object[] constantOutputs(int column) {
+        Object[] outputs = new Object[ruleCount];
+        for (int r = 0; r < ruleCount; r++) {
+            outputs[r] = outputDictionary[outputCodes[column][r]];
+        }
+        return outputs;
+    }
+    
+    /**
+     * Largest decimal scale of the outputs of a column, or -1 if the outputs
+     * cannot be represented as scaled longs
+     * 
+     * @param outputs the constant output of each rule
+     */
+    static int commonScale(Object[] outputs) {
+        if (outputs.length == 0) {
+            return -1;
+        }
+        int scale = 0;
+        for (Object value : outputs) {
+            if (!(value instanceof BigDecimal)) {
+                return -1;
+            }
+            scale = Math.max(scale, ((BigDecimal) value).scale());
+        }
+        return scale;
+    }
+    
+    /**
+     * Unscaled values of decimal outputs at a common scale
+     * 
+     * @param outputs the constant output of each rule, all decimals
+     * @param scale the common scale, see {@link #commonScale(Object[])}
+     * @return the unscaled values, or null if one does not fit a long
+     */
+    static long[] scaledNumbers(Object[] outputs, int scale) {
+        long[] scaled = new long[outputs.length];
+        for (int r = 0; r < outputs.length; r++) {
+            BigInteger unscaled = ((BigDecimal) outputs[r]).setScale(scale).unscaledValue();
+            if (unscaled.bitLength() > 62) {
+                return null;
+            }
+            scaled[r] = unscaled.longValue();
+        }
+        return scaled;
+    }
+    
+    /**
+     * Position of a value in the output values of a column; values that are
+     * not listed rank after all listed ones
+     */
+    private int rankOf(int column, Object value) {
+        UnaryTest[] values = outputPriorities[column];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].test(value)) {
+                return i;
+            }
+        }
+        return values.length;
+    }
+    
+    /**
+     * Compile a stub decision table
+     * 
+     * @param table the decision table
+     * @return the compiled table
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public static CompiledDecisionTable compile(DMNDecisionTableStub table) {
+        return compile(table, FEELScope.EMPTY);
+    }
+    
+    /**
+     * Compile a stub decision table whose inputs are input data of a
+     * decision. Columns without a typeRef of their own take the type of the
+     * input data of the same name.
+     * 
+     * @param table the decision table
+     * @param inputData the input data names and their types, see
+     *        {@link com.example.dmn.model.DMNInputData#createScope(List)}
+     * @return the compiled table
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public static CompiledDecisionTable compile(DMNDecisionTableStub table, FEELScope inputData) {
+        return Source.of(table).compile(inputData, new UnaryTestCompiler());
+    }
+    
+    /**
+     * Compile a decision table
+     * 
+     * @param table the decision table
+     * @return the compiled table
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public static CompiledDecisionTable compile(DMNDecisionTable table) {
+        return compile(table, FEELScope.EMPTY);
+    }
+    
+    /**
+     * Compile a decision table whose inputs are input data of a decision.
+     * Columns without a typeRef of their own take the type of the input data
+     * of the same name.
+     * 
+     * @param table the decision table
+     * @param inputData the input data names and their types, see
+     *        {@link com.example.dmn.model.DMNInputData#createScope(List)}
+     * @return the compiled table
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public static CompiledDecisionTable compile(DMNDecisionTable table, FEELScope inputData) {
+        return Source.of(table).compile(inputData, new UnaryTestCompiler());
+    }
+    
+    /**
+     * Returns the name of the table
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns the hit policy
+     * 
+     * @return the hit policy
+     */
+    public DMNHitPolicy getHitPolicy() {
+        return hitPolicy;
+    }
+    
+    /**
+     * Returns the aggregation applied to COLLECT results
+     * 
+     * @return the aggregation, or null if none
+     */
+    public DMNDecisionTable.AggregationType getAggregation() {
+        return aggregation;
+    }
+    
+    /**
+     * Returns the number of rules
+     * 
+     * @return the rule count
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+    
+    /**
+     * Returns the number of input columns
+     * 
+     * @return the input count
+     */
+    public int getInputCount() {
+        return inputNames.length;
+    }
+    
+    /**
+     * Returns the number of output columns
+     * 
+     * @return the output count
+     */
+    public int getOutputCount() {
+        return outputNames.length;
+    }
+    
+    /**
+     * Returns the input column names
+     * 
+     * @return a copy of the input names
+     */
+    public String[] getInputNames() {
+        return inputNames.clone();
+    }
+    
+    /**
+     * Returns the declared input types (type references), where known
+     * 
+     * @return a copy of the input types; entries may be null
+     */
+    public String[] getInputTypes() {
+        return inputTypes.clone();
+    }
+    
+    /**
+     * Returns the type of an input column: its declared typeRef, or the type
+     * of the input data of the same name
+     * 
+     * @param column the input column index
+     * @return the type, {@link FEELType#ANY} if unknown
+     */
+    public FEELType getInputFEELType(int column) {
+        return inputFEELTypes[column];
+    }
+    
+    /**
+     * Returns the type of an output column: its declared typeRef, or the
+     * common type of its entries
+     * 
+     * @param column the output column index
+     * @return the type, {@link FEELType#ANY} if unknown
+     */
+    public FEELType getOutputFEELType(int column) {
+        return outputFEELTypes[column];
+    }
+    
+    /**
+     * Returns the input values of each input column
+     * 
+     * @return a copy of the comma-separated input value lists
+     */
+    public String[] getInputValues() {
+        return inputValues.clone();
+    }
+    
+    /**
+     * Returns the allowed values of an input column
+     * 
+     * @param column the input column index
+     * @return the domain, or null if the input values do not list strings
+     */
+    public InputDomain getInputDomain(int column) {
+        return inputDomains[column];
+    }
+    
+    /**
+     * Returns the output column names
+     * 
+     * @return a copy of the output names
+     */
+    public String[] getOutputNames() {
+        return outputNames.clone();
+    }
+    
+    /**
+     * Returns the output values of each output column, highest priority first
+     * 
+     * @return a copy of the comma-separated output value lists
+     */
+    public String[] getOutputValues() {
+        return outputValues.clone();
+    }
+    
+    /**
+     * Returns the storage layout chosen for an input column
+     * 
+     * @param column the input column index
+     * @return the column type
+     */
+    public ColumnType getColumnType(int column) {
+        return inputColumns[column].type;
+    }
+    
+    /**
+     * Returns the compiled test of an input entry
+     * 
+     * @param rule the rule index
+     * @param column the input column index
+     * @return the interned test
+     */
+    public UnaryTest getInputTest(int rule, int column) {
+        return inputColumns[column].sourceTests[rule];
+    }
+    
+    /**
+     * Check whether every output entry is a constant
+     * 
+     * @return true if rule outputs do not depend on the inputs
+     */
+    public boolean hasConstantOutputs() {
+        return constantOutputs;
+    }
+    
+    /**
+     * Returns the number of distinct string literals in the input entries
+     * 
+     * @return the string dictionary size
+     */
+    public int getStringDictionarySize() {
+        return stringDictionary.length;
+    }
+    
+    /**
+     * Returns the number of distinct constant output values
+     * 
+     * @return the output dictionary size
+     */
+    public int getOutputDictionarySize() {
+        return outputDictionary.length;
+    }
+    
+    /**
+     * Returns the input tests in rule-major order, as used by the rule matchers
+     * 
+     * @return a new array indexed by rule and then by input column
+     */
+    UnaryTest[][] ruleTests() {
+        UnaryTest[][] tests = new UnaryTest[ruleCount][inputColumns.length];
+        for (int c = 0; c < inputColumns.length; c++) {
+            for (int r = 0; r < ruleCount; r++) {
+                tests[r][c] = inputColumns[c].tests[r];
+            }
+        }
+        return tests;
+    }
+    
+    /**
+     * Returns the domain of each input column, as used by the rule matchers
+     * 
+     * @return a new array with null entries for columns without a domain
+     */
+    InputDomain[] inputDomains() {
+        return inputDomains.clone();
+    }
+    
+    /**
+     * Returns the bitset matcher of the table, which is immutable and shared
+     * by all evaluators of the table
+     * 
+     * @return the matcher
+     */
+    BitsetRuleMatcher bitsetMatcher() {
+        BitsetRuleMatcher matcher = bitsetMatcher;
+        if (matcher == null) {
+            matcher = new BitsetRuleMatcher(ruleTests(), inputColumns.length, inputDomains);
+            bitsetMatcher = matcher;
+        }
+        return matcher;
+    }
+    
+    /**
+     * Use bitsets that were precomputed for this table, such as those of a snapshot
+     * 
+     * @param precomputed the bitsets of each column, as returned by {@link BitsetRuleMatcher#precomputed()}
+     * @throws IllegalArgumentException if the bitsets do not fit the tests of the table
+     */
+    void setBitsets(long[][] precomputed) {
+        bitsetMatcher = new BitsetRuleMatcher(ruleTests(), inputColumns.length, inputDomains, precomputed);
+    }
+    
+    /**
+     * Returns the type whose keys a column matches, see {@link FEELType#key(Object)}
+     * 
+     * @param column the input column index
+     * @return the type, or null if the column matches the input values themselves
+     */
+    FEELType keyType(int column) {
+        return inputColumns[column].keyType;
+    }
+    
+    /**
+     * Returns the test of an input entry in the form the rule matchers use:
+     * the compiled test, or its rewriting over keys in a column with a
+     * {@link #keyType(int)}
+     */
+    UnaryTest matchTest(int rule, int column) {
+        return inputColumns[column].tests[rule];
+    }
+    
+    /**
+     * Check whether some input entries refer to other inputs of the row. The
+     * rule matchers see such entries as wildcards, so their matches must be
+     * checked with {@link #matchesRow(int, Object[])}.
+     */
+    boolean hasRowTests() {
+        return hasRowTests;
+    }
+    
+    /**
+     * Check whether some input entries of a rule refer to other inputs of the row
+     */
+    boolean hasRowTests(int rule) {
+        return rowTests[rule] != null;
+    }
+    
+    /**
+     * Returns an input entry that refers to other inputs of the row
+     * 
+     * @return the test, or null if the matchers test the entry themselves
+     */
+    UnaryTest rowTest(int rule, int column) {
+        return rowTests[rule] != null ? rowTests[rule][column] : null;
+    }
+    
+    /**
+     * Test the entries of a rule that refer to other inputs of the row
+     * 
+     * @param rule the rule index
+     * @param inputs input values in input column order, not encoded
+     * @return true if the rule has no such entries or all of them match
+     */
+    boolean matchesRow(int rule, Object[] inputs) {
+        UnaryTest[] tests = rowTests[rule];
+        if (tests == null) {
+            return true;
+        }
+        for (int c = 0; c < tests.length; c++) {
+            if (tests[c] != null && !tests[c].test(inputs[c], inputs)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Drop the matches of a rule matcher that fail the entries referring to
+     * other inputs of the row
+     * 
+     * @param matches the matches found by a rule matcher
+     * @param inputs input values in input column order, not encoded
+     * @return the matching rules
+     */
+    MatchCursor matchRows(MatchCursor matches, Object[] inputs) {
+        if (!hasRowTests) {
+            return matches;
+        }
+        return () -> {
+            int rule;
+            do {
+                rule = matches.next();
+            } while (rule != MatchCursor.NO_MORE && !matchesRow(rule, inputs));
+            return rule;
+        };
+    }
+    
+    /**
+     * Replace the values of the columns with a domain by their ordinals, and
+     * the values of columns with a {@link #keyType(int)} by their keys, the
+     * form of input rows the rule matchers expect
+     * 
+     * @param inputs input values in input column order
+     * @return the encoded row; the inputs themselves if no column is encoded
+     * @throws InputValueException if a value is not one of the input values of its column
+     */
+    Object[] encode(Object[] inputs) {
+        if (!hasEncodedColumns) {
+            return inputs;
+        }
+        Object[] encoded = inputs.clone();
+        for (int c = 0; c < inputDomains.length; c++) {
+            if (inputDomains[c] != null) {
+                encoded[c] = inputDomains[c].ordinal(inputs[c]);
+            } else if (inputColumns[c].keyType != null && inputs[c] != null) {
+                encoded[c] = inputColumns[c].keyType.key(inputs[c]);
+            }
+        }
+        return encoded;
+    }
+    
+    /**
+     * Returns the dictionary code of a string, for matching against string columns
+     * 
+     * @param value the input string
+     * @return the code, or {@link #NO_CODE} if no rule mentions the string
+     */
+    int stringCode(String value) {
+        Integer code = stringCodes.get(value);
+        return code != null ? code : NO_CODE;
+    }
+    
+    /**
+     * Test an input value against an input entry
+     */
+    boolean matches(int rule, int column, Object value) {
+        return inputColumns[column].matches(rule, value);
+    }
+    
+    /**
+     * Test a numeric input value against an input entry without boxing
+     */
+    boolean matchesNumber(int rule, int column, double value) {
+        return inputColumns[column].matchesNumber(rule, value);
+    }
+    
+    /**
+     * Test the ordinal of an input value against an entry of a column with a domain
+     */
+    boolean matchesOrdinal(int rule, int column, int ordinal) {
+        return inputColumns[column].ordinalMatches[ordinal][rule];
+    }
+    
+    /**
+     * Test a dictionary-encoded string against an entry of a string column
+     */
+    boolean matchesCode(int rule, int column, int code) {
+        int entry = inputColumns[column].codes[rule];
+        return entry == NO_CODE || entry == code;
+    }
+    
+    /**
+     * Returns the value of an output entry
+     * 
+     * @param rule the rule index
+     * @param column the output column index
+     * @param inputs the input values in input column order, used by non-constant entries
+     * @return the output value
+     */
+    Object output(int rule, int column, Object[] inputs) {
+        int code = outputCodes[column][rule];
+        return code != NO_CODE ? outputDictionary[code] : outputExpressions[column][rule].evaluate(inputs);
+    }
+    
+    /**
+     * Returns the expression of a non-constant output entry
+     * 
+     * @return the expression, or null if the entry is a constant
+     */
+    FEELExpression outputExpression(int rule, int column) {
+        return outputCodes[column][rule] == NO_CODE ? outputExpressions[column][rule] : null;
+    }
+    
+    /**
+     * Returns the output values of a column as equality tests, highest priority first
+     * 
+     * @return the tests, empty if the column declares no output values
+     */
+    UnaryTest[] outputPriorities(int column) {
+        return outputPriorities[column].clone();
+    }
+    
+    /**
+     * Returns the equality class of a rule's output tuple; only valid when
+     * all outputs are constant
+     */
+    int outputClass(int rule) {
+        return outputClasses[rule];
+    }
+    
+    /**
+     * Check whether any output column declares output values
+     */
+    boolean hasOutputPriorities() {
+        return outputPrioritiesDeclared;
+    }
+    
+    /**
+     * Returns the priority rank of a rule's output value, 0 being the highest
+     */
+    int priorityRank(int rule, int column, Object[] inputs) {
+        return priorityRanks != null ? priorityRanks[rule][column] : rankOf(column, output(rule, column, inputs));
+    }
+    
+    /**
+     * Check whether the single output is available as scaled longs
+     */
+    boolean hasScaledNumbers() {
+        return scaledNumbers != null;
+    }
+    
+    long scaledNumber(int rule) {
+        return scaledNumbers[rule];
+    }
+    
+    int numberScale() {
+        return numberScale;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CompiledDecisionTable[").append(name)
+          .append(", hitPolicy=").append(hitPolicy.getSymbol())
+          .append(", rules=").append(ruleCount)
+          .append(", inputs=");
+        for (int c = 0; c < inputColumns.length; c++) {
+            sb.append(c == 0 ? "" : ", ").append(inputNames[c]).append(':').append(inputColumns[c].type);
+        }
+        sb.append(", strings=").append(stringDictionary.length)
+          .append(", outputValues=").append(outputDictionary.length)
+          .append(']');
+        return sb.toString();
+    }
+    
+    /**
+     * Simple test method
+     */
+    public static void main(String[] args) {
+        CompiledDecisionTable compiled = compile(DMNDecisionTableStub.createExampleTable());
+        System.out.println(compiled);
+        for (int c = 0; c < compiled.getInputCount(); c++) {
+            System.out.println("Column " + compiled.inputNames[c] + ": " + compiled.getColumnType(c).getDescription());
+        }
+        
+        // One compiled table shared by evaluators with different matching modes
+        for (MatchingMode mode : MatchingMode.values()) {
+            DecisionTableEvaluator evaluator = new DecisionTableEvaluator(compiled, mode);
+            System.out.println(mode + ": " + evaluator.evaluate(new Object[] {"Silver", 750}));
+        }
+    }
+    
+    /**
+     * The parts of either table model that compilation reads, with the
+     * entries as text. {@link DecisionTableSnapshot} stores tables in this
+     * form and compiles them when they are loaded.
+     */
+    static final class Source {
+        final String name;
+        final DMNHitPolicy hitPolicy;
+        final DMNDecisionTable.AggregationType aggregation;
+        final List<String> inputNames;
+        final List<String> inputTypes;
+        final List<String> inputValues;
+        final List<String> outputNames;
+        final List<String> outputTypes;
+        final List<String> outputValues;
+        final List<List<String>> inputEntries;
+        final List<List<String>> outputEntries;
+        
+        Source(String name, DMNHitPolicy hitPolicy, DMNDecisionTable.AggregationType aggregation,
+               List<String> inputNames, List<String> inputTypes, List<String> inputValues,
+               List<String> outputNames, List<String> outputTypes, List<String> outputValues,
+               List<List<String>> inputEntries, List<List<String>> outputEntries) {
+            this.name = name;
+            this.hitPolicy = hitPolicy;
+            this.aggregation = aggregation;
+            this.inputNames = inputNames;
+            this.inputTypes = inputTypes;
+            this.inputValues = inputValues;
+            this.outputNames = outputNames;
+            this.outputTypes = outputTypes;
+            this.outputValues = outputValues;
+            this.inputEntries = inputEntries;
+            this.outputEntries = outputEntries;
+        }
+        
+        static Source of(DMNDecisionTableStub table) {
+            List<List<String>> inputEntries;
+            List<List<String>> outputEntries;
+            if (table.getRuleColumns() != null) {
+                // Read the entries in place rather than copying every rule
+                inputEntries = table.getRuleColumns().inputRows();
+                outputEntries = table.getRuleColumns().outputRows();
+            } else {
+                inputEntries = new ArrayList<>();
+                outputEntries = new ArrayList<>();
+                for (DMNDecisionTableStub.DMNDecisionRule rule : table.getRules()) {
+                    inputEntries.add(rule.getInputEntries());
+                    outputEntries.add(rule.getOutputEntries());
+                }
+            }
+            return new Source(table.getName(), table.getHitPolicy(), table.getAggregation(),
+                table.getInputColumns(), table.getInputTypes(), table.getInputValues(), table.getOutputColumns(),
+                null, table.getOutputValues(), inputEntries, outputEntries);
+        }
+        
+        static Source of(DMNDecisionTable table) {
+            List<String> inputNames = new ArrayList<>();
+            List<String> inputTypes = new ArrayList<>();
+            for (DMNDecisionTable.DMNDecisionTableInput input : table.getInputs()) {
+                inputNames.add(input.getName());
+                inputTypes.add(input.getType());
+            }
+            List<String> outputNames = new ArrayList<>();
+            List<String> outputTypes = new ArrayList<>();
+            for (DMNDecisionTable.DMNDecisionTableOutput output : table.getOutputs()) {
+                outputNames.add(output.getName());
+                outputTypes.add(output.getType());
+            }
+            List<List<String>> inputEntries = new ArrayList<>();
+            List<List<String>> outputEntries = new ArrayList<>();
+            for (DMNDecisionTable.DMNDecisionTableRule rule : table.getRules()) {
+                inputEntries.add(rule.getInputEntries());
+                outputEntries.add(rule.getOutputEntries());
+            }
+            DMNHitPolicy hitPolicy = table.getHitPolicy() != null
+                ? DMNHitPolicy.fromSymbol(table.getHitPolicy().getCode()) : null;
+            return new Source(table.getName(), hitPolicy, table.getAggregation(), inputNames, inputTypes,
+                table.getInputValues(), outputNames, outputTypes, table.getOutputValues(), inputEntries,
+                outputEntries);
+        }
+        
+        /**
+         * Compile the table
+         * 
+         * @param inputData the input data names and their types
+         * @param compiler the compiler of the input entries; tables compiled
+         *        with the same compiler share the predicates of equal entries
+         */
+        CompiledDecisionTable compile(FEELScope inputData, UnaryTestCompiler compiler) {
+            return new CompiledDecisionTable(name, hitPolicy, aggregation, inputNames, inputTypes, inputValues,
+                outputNames, outputTypes, outputValues, inputEntries, outputEntries, inputData, compiler);
+        }
+    }
+    
+    /**
+     * Entries of one input column. NUMERIC columns store every entry as a
+     * primitive interval, STRING columns as a dictionary code, and ENUM
+     * columns the outcome of every entry for each ordinal. Columns with a
+     * key type test the keys of their values.
+     */
+    private static final class InputColumn {
+        final ColumnType type;
+        final UnaryTest[] sourceTests;
+        final UnaryTest[] tests;
+        final FEELType keyType;
+        final double[] low;
+        final double[] high;
+        final byte[] flags;
+        final int[] codes;
+        final boolean[][] ordinalMatches;
+        
+        InputColumn(UnaryTest[] sourceTests, UnaryTest[] tests, FEELType inputType, InputDomain domain,
+                    Map<String, Integer> dictionaryCodes, List<String> dictionary) {
+            this.sourceTests = sourceTests;
+            UnaryTest[] keyed = domain == null && inputType.hasKeys() ? toKeys(tests, inputType) : null;
+            this.keyType = keyed != null ? inputType : null;
+            tests = keyed != null ? keyed : tests;
+            this.tests = tests;
+            this.type = domain != null ? ColumnType.ENUM : typeOf(tests);
+            if (domain != null) {
+                UnaryTest[][] column = new UnaryTest[tests.length][];
+                for (int r = 0; r < tests.length; r++) {
+                    column[r] = new UnaryTest[] {tests[r]};
+                }
+                ordinalMatches = domain.matchTable(column, 0);
+            } else {
+                ordinalMatches = null;
+            }
+            if (type == ColumnType.NUMERIC) {
+                low = new double[tests.length];
+                high = new double[tests.length];
+                flags = new byte[tests.length];
+                for (int r = 0; r < tests.length; r++) {
+                    UnaryTest test = tests[r];
+                    if (test instanceof UnaryTest.NumberEquals) {
+                        low[r] = high[r] = ((UnaryTest.NumberEquals) test).getNumber();
+                        flags[r] = LOW_INCLUSIVE | HIGH_INCLUSIVE;
+                    } else if (test instanceof UnaryTest.NumberRange) {
+                        UnaryTest.NumberRange range = (UnaryTest.NumberRange) test;
+                        low[r] = range.getLow();
+                        high[r] = range.getHigh();
+                        // Infinite bounds are closed so that infinite inputs behave as in the tests
+                        boolean lowClosed = range.isLowInclusive() || low[r] == Double.NEGATIVE_INFINITY;
+                        boolean highClosed = range.isHighInclusive() || high[r] == Double.POSITIVE_INFINITY;
+                        flags[r] = (byte) ((lowClosed ? LOW_INCLUSIVE : 0) | (highClosed ? HIGH_INCLUSIVE : 0));
+                    } else {
+                        flags[r] = ANY;
+                    }
+                }
+                codes = null;
+            } else if (type == ColumnType.STRING) {
+                codes = new int[tests.length];
+                for (int r = 0; r < tests.length; r++) {
+                    if (tests[r] instanceof UnaryTest.LiteralEquals) {
+                        String literal = (String) ((UnaryTest.LiteralEquals) tests[r]).getValue();
+                        Integer code = dictionaryCodes.get(literal);
+                        if (code == null) {
+                            code = dictionary.size();
+                            dictionary.add(literal);
+                            dictionaryCodes.put(literal, code);
+                        }
+                        codes[r] = code;
+                    } else {
+                        codes[r] = NO_CODE;
+                    }
+                }
+                low = high = null;
+                flags = null;
+            } else {
+                low = high = null;
+                flags = null;
+                codes = null;
+            }
+        }
+        
+        /**
+         * Rewrite the entries of a column over keys; null if one cannot be
+         * rewritten or if all are wildcards, which need no keys
+         */
+        private static UnaryTest[] toKeys(UnaryTest[] tests, FEELType inputType) {
+            UnaryTest[] keyed = new UnaryTest[tests.length];
+            boolean wildcards = true;
+            for (int r = 0; r < tests.length; r++) {
+                keyed[r] = tests[r].toKeys(inputType);
+                if (keyed[r] == null) {
+                    return null;
+                }
+                wildcards &= tests[r].getKind() == UnaryTest.Kind.ANY;
+            }
+            return wildcards ? null : keyed;
+        }
+        
+        private static ColumnType typeOf(UnaryTest[] tests) {
+            boolean numeric = true;
+            boolean string = true;
+            for (UnaryTest test : tests) {
+                if (test.getKind() == UnaryTest.Kind.ANY) {
+                    continue;
+                }
+                // Decimal bounds of more than 15 digits are not compared as doubles
+                numeric &= test instanceof UnaryTest.NumberEquals && ((UnaryTest.NumberEquals) test).isExact()
+                    || test instanceof UnaryTest.NumberRange && ((UnaryTest.NumberRange) test).isExact();
+                string &= test instanceof UnaryTest.LiteralEquals
+                    && ((UnaryTest.LiteralEquals) test).getValue() instanceof String;
+            }
+            if (numeric && !string) {
+                return ColumnType.NUMERIC;
+            }
+            return string && tests.length > 0 ? ColumnType.STRING : ColumnType.GENERIC;
+        }
+        
+        boolean matches(int rule, Object value) {
+            if (keyType != null && value != null) {
+                return matchesNumber(rule, keyType.key(value));
+            }
+            if (type == ColumnType.NUMERIC && UnaryTest.hasExactDouble(value)) {
+                return matchesNumber(rule, ((Number) value).doubleValue());
+            }
+            return tests[rule].test(value);
+        }
+        
+        boolean matchesNumber(int rule, double value) {
+            if (type != ColumnType.NUMERIC) {
+                return tests[rule].testNumber(value);
+            }
+            byte f = flags[rule];
+            if ((f & ANY) != 0) {
+                return true;
+            }
+            return ((f & LOW_INCLUSIVE) != 0 ? value >= low[rule] : value > low[rule])
+                && ((f & HIGH_INCLUSIVE) != 0 ? value <= high[rule] : value < high[rule]);
+        }
+    }
+    
+    /**
+     * Map key standing in for a null output value
+     */
+    private enum NullKey {
+        INSTANCE
+    }
+}
@@ -2,6 +2,7 @@ package com.example.dmn.decisiontable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Implementation of DMN Decision Table
@@ -37,8 +38,66 @@ public class DMNDecisionTable {
         }
     }
     
+    /**
+     * Enumeration of aggregation functions for the COLLECT hit policy
+     */
+    public enum AggregationType {
+        SUM("+", "Sum"),
+        COUNT("#", "Count"),
+        MIN("<", "Minimum"),
+        MAX(">", "Maximum");
+        
+        private final String code;
+        private final String description;
+        
+        AggregationType(String code, String description) {
+            this.code = code;
+            this.description = description;
+        }
+        
+        public String getCode() {
+            return code;
+        }
+        
+        public String getDescription() {
+            return description;
+        }
+        
+        public static AggregationType fromCode(String code) {
+            for (AggregationType type : values()) {
+                if (type.code.equals(code)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public String toString() {
+            return description + " (C" + code + ")";
+        }
+    }
+    
+    /**
+     * Listener notified after the table has been edited
+     */
+    public interface ChangeListener {
+        
+        /**
+         * Called after an edit of the table was committed
+         * 
+         * @param table the changed table
+         */
+        void tableChanged(DMNDecisionTable table);
+    }
+    
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    
     private String name;
     private HitPolicy hitPolicy;
+    private AggregationType aggregation;
+    private List<String> inputValues;
+    private List<String> outputValues;
     private List<DMNDecisionTableInput> inputs;
     private List<DMNDecisionTableOutput> outputs;
     private List<DMNDecisionTableRule> rules;
@@ -51,6 +110,8 @@ public class DMNDecisionTable {
     public DMNDecisionTable(String name) {
         this.name = name;
         this.hitPolicy = HitPolicy.UNIQUE; // Default
+        this.inputValues = new ArrayList<>();
+        this.outputValues = new ArrayList<>();
         this.inputs = new ArrayList<>();
         this.outputs = new ArrayList<>();
         this.rules = new ArrayList<>();
@@ -92,6 +153,64 @@ public class DMNDecisionTable {
         this.hitPolicy = hitPolicy;
     }
     
+    /**
+     * Gets the aggregation applied to COLLECT results
+     * 
+     * @return the aggregation, or null to collect the outputs into a list
+     */
+    public AggregationType getAggregation() {
+        return aggregation;
+    }
+    
+    /**
+     * Sets the aggregation applied to COLLECT results
+     * 
+     * @param aggregation the aggregation, or null for none
+     */
+    public void setAggregation(AggregationType aggregation) {
+        this.aggregation = aggregation;
+    }
+    
+    /**
+     * Gets the input values, one comma-separated list of FEEL literals per
+     * input column. When a list holds string literals, inputs of the column
+     * must be one of them or null.
+     * 
+     * @return the input values
+     */
+    public List<String> getInputValues() {
+        return inputValues;
+    }
+    
+    /**
+     * Sets the input values
+     * 
+     * @param inputValues one comma-separated list of FEEL literals per input column
+     */
+    public void setInputValues(List<String> inputValues) {
+        this.inputValues = inputValues != null ? inputValues : new ArrayList<>();
+    }
+    
+    /**
+     * Gets the output values, one comma-separated list of FEEL literals per
+     * output column. The order of the values is the output priority used by
+     * the PRIORITY and OUTPUT_ORDER hit policies.
+     * 
+     * @return the output values
+     */
+    public List<String> getOutputValues() {
+        return outputValues;
+    }
+    
+    /**
+     * Sets the output values
+     * 
+     * @param outputValues one comma-separated list of FEEL literals per output column
+     */
+    public void setOutputValues(List<String> outputValues) {
+        this.outputValues = outputValues != null ? outputValues : new ArrayList<>();
+    }
+    
     /**
      * Adds an input to the decision table
      * 
@@ -146,6 +265,34 @@ public class DMNDecisionTable {
         return rules;
     }
     
+    /**
+     * Registers a listener for committed edits
+     * 
+     * @param listener the listener to add
+     */
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+    
+    /**
+     * Removes a change listener
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+    
+    /**
+     * Marks a batch of edits as committed and notifies the change listeners.
+     * Editors call this once after saving, not after every setter.
+     */
+    public void fireTableChanged() {
+        for (ChangeListener listener : changeListeners) {
+            listener.tableChanged(this);
+        }
+    }
+    
     /**
      * Serializes the decision table to a string representation
      * 
@@ -156,6 +303,9 @@ public class DMNDecisionTable {
         StringBuilder sb = new StringBuilder();
         sb.append("Decision Table: ").append(name).append("\n");
         sb.append("Hit Policy: ").append(hitPolicy.getCode()).append(" (").append(hitPolicy.getDescription()).append(")\n");
+        if (aggregation != null) {
+            sb.append("Aggregation: ").append(aggregation).append("\n");
+        }
         
         sb.append("\nInputs:\n");
         for (DMNDecisionTableInput input : inputs) {
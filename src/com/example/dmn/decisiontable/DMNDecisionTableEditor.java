@@ -569,6 +569,9 @@ public class DMNDecisionTableEditor extends JDialog {
             
             SessionManager.getInstance().closeSession(project);
             
+            // Drop compiled tables and cached results built from the old content
+            decisionTable.fireTableChanged();
+            
             isDirty = false;
             
             JOptionPane.showMessageDialog(this, 
@@ -1,5 +1,7 @@
 package com.example.dmn.decisiontable;
 
+import com.example.dmn.feel.UnaryTest;
+import com.example.dmn.feel.UnaryTestCompiler;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,9 +12,14 @@ public class DMNDecisionTableStub {
     
     private String name;
     private DMNHitPolicy hitPolicy;
+    private DMNDecisionTable.AggregationType aggregation;
     private List<String> inputColumns;
+    private List<String> inputTypes;
+    private List<String> inputValues;
     private List<String> outputColumns;
+    private List<String> outputValues;
     private List<DMNDecisionRule> rules;
+    private RuleColumns ruleColumns;
     
     /**
      * Constructor
@@ -23,7 +30,10 @@ public class DMNDecisionTableStub {
         this.name = name;
         this.hitPolicy = DMNHitPolicy.UNIQUE; // Default hit policy
         this.inputColumns = new ArrayList<>();
+        this.inputTypes = new ArrayList<>();
+        this.inputValues = new ArrayList<>();
         this.outputColumns = new ArrayList<>();
+        this.outputValues = new ArrayList<>();
         this.rules = new ArrayList<>();
     }
     
@@ -45,7 +55,33 @@ public class DMNDecisionTableStub {
      * @return this decision table for method chaining
      */
     public DMNDecisionTableStub addInputColumn(String name) {
+        return addInputColumn(name, "");
+    }
+    
+    /**
+     * Add an input column with its input values. When the values are string
+     * literals, inputs of the column must be one of them or null.
+     * 
+     * @param name the name of the input column
+     * @param values comma-separated FEEL literals
+     * @return this decision table for method chaining
+     */
+    public DMNDecisionTableStub addInputColumn(String name, String values) {
+        return addInputColumn(name, values, null);
+    }
+    
+    /**
+     * Add an input column with its input values and type
+     * 
+     * @param name the name of the input column
+     * @param values comma-separated FEEL literals
+     * @param typeRef the type reference, such as "date", or null if not declared
+     * @return this decision table for method chaining
+     */
+    public DMNDecisionTableStub addInputColumn(String name, String values, String typeRef) {
         inputColumns.add(name);
+        inputTypes.add(typeRef);
+        inputValues.add(values);
         return this;
     }
     
@@ -56,7 +92,31 @@ public class DMNDecisionTableStub {
      * @return this decision table for method chaining
      */
     public DMNDecisionTableStub addOutputColumn(String name) {
+        return addOutputColumn(name, "");
+    }
+    
+    /**
+     * Add an output column with its output values. The order of the values
+     * is the output priority used by the PRIORITY and OUTPUT_ORDER hit policies.
+     * 
+     * @param name the name of the output column
+     * @param values comma-separated FEEL literals, highest priority first
+     * @return this decision table for method chaining
+     */
+    public DMNDecisionTableStub addOutputColumn(String name, String values) {
         outputColumns.add(name);
+        outputValues.add(values);
+        return this;
+    }
+    
+    /**
+     * Set the aggregation applied to COLLECT results
+     * 
+     * @param aggregation the aggregation, or null to collect the outputs into a list
+     * @return this decision table for method chaining
+     */
+    public DMNDecisionTableStub setAggregation(DMNDecisionTable.AggregationType aggregation) {
+        this.aggregation = aggregation;
         return this;
     }
     
@@ -89,6 +149,33 @@ public class DMNDecisionTableStub {
         return hitPolicy;
     }
     
+    /**
+     * Returns the aggregation applied to COLLECT results
+     * 
+     * @return the aggregation, or null if none
+     */
+    public DMNDecisionTable.AggregationType getAggregation() {
+        return aggregation;
+    }
+    
+    /**
+     * Returns the output values, one comma-separated list per output column
+     * 
+     * @return the output values
+     */
+    public List<String> getOutputValues() {
+        return outputValues;
+    }
+    
+    /**
+     * Returns the input values, one comma-separated list per input column
+     * 
+     * @return the input values
+     */
+    public List<String> getInputValues() {
+        return inputValues;
+    }
+    
     /**
      * Returns the list of input column names
      * 
@@ -98,6 +185,15 @@ public class DMNDecisionTableStub {
         return inputColumns;
     }
     
+    /**
+     * Returns the type references of the input columns
+     * 
+     * @return the input types; entries are null where no type was declared
+     */
+    public List<String> getInputTypes() {
+        return inputTypes;
+    }
+    
     /**
      * Returns the list of output column names
      * 
@@ -108,7 +204,9 @@ public class DMNDecisionTableStub {
     }
     
     /**
-     * Returns the list of rules
+     * Returns the list of rules. For a table stored in rule columns, each
+     * rule read from the list is a copy; changes to its entries are not
+     * stored.
      * 
      * @return the rules
      */
@@ -116,6 +214,55 @@ public class DMNDecisionTableStub {
         return rules;
     }
     
+    /**
+     * Store the rules of the table column by column, for tables with many
+     * rules. The rules added so far are moved to the columns, and later ones
+     * are added to them.
+     * 
+     * @param columns empty columns matching the input and output columns of the table
+     * @return this decision table for method chaining
+     */
+    public DMNDecisionTableStub setRuleColumns(RuleColumns columns) {
+        if (columns.getInputCount() != inputColumns.size() || columns.getOutputCount() != outputColumns.size()
+                || columns.getRuleCount() != 0) {
+            throw new IllegalArgumentException("Rule columns do not match decision table " + name);
+        }
+        for (DMNDecisionRule rule : rules) {
+            columns.addRule(rule);
+        }
+        this.ruleColumns = columns;
+        this.rules = columns.asRules();
+        return this;
+    }
+    
+    /**
+     * Returns the column storage of the rules
+     * 
+     * @return the rule columns, or null if the rules are stored as rule objects
+     */
+    public RuleColumns getRuleColumns() {
+        return ruleColumns;
+    }
+    
+    /**
+     * Compile the input entries of all rules into executable predicates.
+     * Identical entries share one predicate instance.
+     * 
+     * @return the compiled tests, indexed by rule and then by input column
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public UnaryTest[][] compileInputEntries() {
+        UnaryTestCompiler compiler = new UnaryTestCompiler();
+        UnaryTest[][] compiled = new UnaryTest[rules.size()][inputColumns.size()];
+        for (int r = 0; r < rules.size(); r++) {
+            List<String> entries = rules.get(r).getInputEntries();
+            for (int c = 0; c < inputColumns.size(); c++) {
+                compiled[r][c] = compiler.compile(c < entries.size() ? entries.get(c) : "-");
+            }
+        }
+        return compiled;
+    }
+    
     /**
      * Simple representation of a decision table row/rule
      */
@@ -267,5 +414,19 @@ public class DMNDecisionTableStub {
     public static void main(String[] args) {
         DMNDecisionTableStub example = createExampleTable();
         System.out.println(example.printTable());
+        
+        // Match a sample input against the compiled input entries
+        UnaryTest[][] tests = example.compileInputEntries();
+        Object[] input = {"Gold", 1200};
+        for (int r = 0; r < tests.length; r++) {
+            boolean matches = true;
+            for (int c = 0; c < input.length && matches; c++) {
+                matches = tests[r][c].test(input[c]);
+            }
+            if (matches) {
+                System.out.println("Input (Gold, 1200) matches rule #" + (r + 1)
+                    + " -> " + example.getRules().get(r).getOutputEntries());
+            }
+        }
     }
 }
\ No newline at end of file
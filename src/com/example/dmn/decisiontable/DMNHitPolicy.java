@@ -84,6 +84,15 @@ public enum DMNHitPolicy {
         return description;
     }
     
+    /**
+     * Check whether this policy returns the outputs of several rules
+     * 
+     * @return true for COLLECT, RULE_ORDER and OUTPUT_ORDER
+     */
+    public boolean isMultiHit() {
+        return this == COLLECT || this == RULE_ORDER || this == OUTPUT_ORDER;
+    }
+    
     /**
      * Returns the hit policy for the given symbol
      * 
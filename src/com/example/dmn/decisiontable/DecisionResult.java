@@ -0,0 +1,131 @@
+package com.example.dmn.decisiontable;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Result of evaluating a decision table against one row of input values.
+ * If the matching rules violate the hit policy, the value is null and
+ * {@link #getViolation()} describes the problem.
+ */
+public class DecisionResult {
+    
+    private final Object value;
+    private final int matchCount;
+    private final HitPolicyViolation violation;
+    
+    // Computed on first use when the result was created from a supplier
+    private volatile int[] matchedRules;
+    private final Supplier<int[]> matchedRulesSource;
+    
+    /**
+     * Constructor
+     * 
+     * @param value the decision output
+     * @param matchedRules indexes of the rules that matched, in rule order
+     */
+    public DecisionResult(Object value, int[] matchedRules) {
+        this(value, matchedRules, null);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param value the decision output
+     * @param matchedRules indexes of the rules that matched, in rule order
+     * @param violation the hit policy violation, or null if the result is valid
+     */
+    public DecisionResult(Object value, int[] matchedRules, HitPolicyViolation violation) {
+        this.value = value;
+        this.matchCount = matchedRules.length;
+        this.violation = violation;
+        this.matchedRules = matchedRules;
+        this.matchedRulesSource = null;
+    }
+    
+    /**
+     * Constructor for aggregations, which only count the matches; the rules
+     * are computed when first asked for
+     * 
+     * @param value the decision output
+     * @param matchCount the number of rules that matched
+     * @param matchedRules computes the indexes of the rules that matched, in rule order
+     */
+    DecisionResult(Object value, int matchCount, Supplier<int[]> matchedRules) {
+        this.value = value;
+        this.matchCount = matchCount;
+        this.violation = null;
+        this.matchedRulesSource = matchedRules;
+    }
+    
+    /**
+     * Returns the decision output. For a single output column this is the
+     * output value; for several columns it is a map from column name to value.
+     * Multi-hit policies (COLLECT, RULE_ORDER, OUTPUT_ORDER) return a list of those.
+     * 
+     * @return the output, or null if no rule applied
+     */
+    public Object getValue() {
+        return value;
+    }
+    
+    /**
+     * Returns the indexes of the rules that matched the input. Policies that
+     * stop early (FIRST, UNIQUE, ANY) only report the matches they looked at.
+     * 
+     * @return the matched rule indexes in rule order
+     */
+    public int[] getMatchedRules() {
+        return matchedRules().clone();
+    }
+    
+    private int[] matchedRules() {
+        int[] rules = matchedRules;
+        if (rules == null) {
+            // Concurrent callers compute equal arrays
+            rules = matchedRulesSource.get();
+            matchedRules = rules;
+        }
+        return rules;
+    }
+    
+    /**
+     * Returns the number of matched rules without copying them
+     */
+    int getMatchCount() {
+        return matchCount;
+    }
+    
+    /**
+     * Check whether any rule matched
+     * 
+     * @return true if at least one rule matched
+     */
+    public boolean hasMatch() {
+        return matchCount > 0;
+    }
+    
+    /**
+     * Returns the hit policy violation
+     * 
+     * @return the violation, or null if the result is valid
+     */
+    public HitPolicyViolation getViolation() {
+        return violation;
+    }
+    
+    /**
+     * Check whether the result satisfies the hit policy
+     * 
+     * @return true if there is no violation
+     */
+    public boolean isValid() {
+        return violation == null;
+    }
+    
+    @Override
+    public String toString() {
+        return "DecisionResult[value=" + value + ", matchedRules=" + Arrays.toString(matchedRules())
+            + (violation != null ? ", violation=" + violation : "") + "]";
+    }
+}
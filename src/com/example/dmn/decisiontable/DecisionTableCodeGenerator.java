@@ -0,0 +1,680 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.FEELExpression;
+import com.example.dmn.feel.FEELJavaTranslator;
+import com.example.dmn.feel.FEELType;
+import com.example.dmn.feel.UnaryTest;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generator of Java source for decision tables.
+ * 
+ * The generated class extends {@link GeneratedDecisionTable} and holds the
+ * rules of one table as code specialized to its entries. When most rules
+ * test one column for string literals, the rules are dispatched by a
+ * {@code switch} on that column, so only the rules that can match the
+ * input string are tested. Numeric entries become compares against double
+ * constants, other entries become calls to the FEEL operators, and
+ * constant outputs are stored in a table. Inputs of columns with an
+ * {@link InputDomain} are checked against it before any rule is tested, and
+ * boolean, date and time columns compare the numeric keys of their inputs.
+ * The result needs no parsing or interpretation at run time and evaluates
+ * exactly like {@link DecisionTableEvaluator}.
+ * 
+ * Rules are spread over methods of at most {@link #RULES_PER_METHOD} rules,
+ * which keeps each method small enough for the JIT compiler.
+ */
+public final class DecisionTableCodeGenerator {
+    
+    /**
+     * Maximum number of rules tested by one generated method
+     */
+    public static final int RULES_PER_METHOD = 64;
+    
+    // Source characters per generated method; about one byte of bytecode each
+    private static final int SOURCE_PER_METHOD = 6000;
+    
+    private final String packageName;
+    
+    /**
+     * Create a generator for classes in a package
+     * 
+     * @param packageName the package of the generated classes, or null for the default package
+     */
+    public DecisionTableCodeGenerator(String packageName) {
+        this.packageName = packageName != null && !packageName.isEmpty() ? packageName : null;
+    }
+    
+    /**
+     * Generate the evaluator of a stub decision table
+     * 
+     * @param table the decision table
+     * @param className the simple name of the generated class
+     * @return the Java source
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     * @throws IllegalArgumentException if an entry cannot be translated to Java
+     */
+    public String generate(DMNDecisionTableStub table, String className) {
+        return generate(CompiledDecisionTable.compile(table), className);
+    }
+    
+    /**
+     * Generate the evaluator of a decision table
+     * 
+     * @param table the decision table
+     * @param className the simple name of the generated class
+     * @return the Java source
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     * @throws IllegalArgumentException if an entry cannot be translated to Java
+     */
+    public String generate(DMNDecisionTable table, String className) {
+        return generate(CompiledDecisionTable.compile(table), className);
+    }
+    
+    /**
+     * Generate the evaluator of a compiled decision table
+     * 
+     * @param table the compiled table
+     * @param className the simple name of the generated class
+     * @return the Java source
+     * @throws IllegalArgumentException if an entry cannot be translated to Java
+     */
+    public String generate(CompiledDecisionTable table, String className) {
+        return new Generation(table, className).write();
+    }
+    
+    /**
+     * Returns the fully qualified name of a generated class
+     * 
+     * @param className the simple name of the class
+     * @return the qualified name
+     */
+    public String qualifiedName(String className) {
+        return packageName != null ? packageName + "." + className : className;
+    }
+    
+    /**
+     * Derive a class name from a table name, for example "LoanApprovalTable"
+     * for "Loan approval"
+     * 
+     * @param tableName the name of the table
+     * @return a valid Java class name ending in "Table"
+     */
+    public static String className(String tableName) {
+        StringBuilder sb = new StringBuilder();
+        boolean upper = true;
+        for (char c : (tableName != null ? tableName : "").toCharArray()) {
+            if (Character.isLetterOrDigit(c) && c < 0x80) {
+                sb.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        if (sb.length() == 0 || Character.isDigit(sb.charAt(0))) {
+            sb.insert(0, "Generated");
+        }
+        return sb.toString().endsWith("Table") ? sb.toString() : sb.append("Table").toString();
+    }
+    
+    /**
+     * State of the generation of one class
+     */
+    private final class Generation implements FEELJavaTranslator.Context {
+        private final CompiledDecisionTable table;
+        private final String className;
+        private final int ruleCount;
+        private final int inputCount;
+        private final int outputCount;
+        private final boolean firstOnly;
+        private final Map<Object, Integer> constants = new LinkedHashMap<>();
+        private final StringBuilder methods = new StringBuilder();
+        private int methodCount;
+        private boolean usesRuntime;
+        
+        Generation(CompiledDecisionTable table, String className) {
+            this.table = table;
+            this.className = className;
+            this.ruleCount = table.getRuleCount();
+            this.inputCount = table.getInputCount();
+            this.outputCount = table.getOutputCount();
+            // The first match decides, so matching can stop there
+            this.firstOnly = table.getHitPolicy() == DMNHitPolicy.FIRST;
+        }
+        
+        @Override
+        public String slot(int slot) {
+            return "inputs[" + slot + "]";
+        }
+        
+        @Override
+        public String constant(Object value) {
+            return "CONSTANTS[" + constantCode(value) + "]";
+        }
+        
+        private int constantCode(Object value) {
+            Integer code = constants.get(value);
+            if (code == null) {
+                code = constants.size();
+                constants.put(value, code);
+            }
+            return code;
+        }
+        
+        String write() {
+            int[][] outputCodes = outputCodes();
+            String matchRules = matchRules();
+            String expression = expression();
+            String priorityRank = priorityRank();
+            usesRuntime |= expression != null;
+            boolean priorities = priorityRank != null;
+            
+            StringBuilder sb = new StringBuilder();
+            if (packageName != null) {
+                sb.append("package ").append(packageName).append(";\n\n");
+            }
+            if (table.getAggregation() != null) {
+                sb.append("import com.example.dmn.decisiontable.DMNDecisionTable;\n");
+            }
+            sb.append("import com.example.dmn.decisiontable.DMNHitPolicy;\n");
+            sb.append("import com.example.dmn.decisiontable.GeneratedDecisionTable;\n");
+            if (hasInputDomains()) {
+                sb.append("import com.example.dmn.decisiontable.InputDomain;\n");
+            }
+            if (usesRuntime) {
+                sb.append("import com.example.dmn.feel.FEELRuntime;\n");
+            }
+            if (hasKeyTypes()) {
+                sb.append("import com.example.dmn.feel.FEELType;\n");
+            }
+            for (Object value : constants.keySet()) {
+                if (value instanceof BigDecimal) {
+                    sb.append("import java.math.BigDecimal;\n");
+                    break;
+                }
+            }
+            sb.append('\n');
+            
+            sb.append("/**\n");
+            sb.append(" * Evaluator of the decision table ").append(comment(table.getName()))
+              .append(" (").append(table.getHitPolicy().name()).append(", ").append(ruleCount)
+              .append(" rules).\n");
+            sb.append(" * Generated by DecisionTableCodeGenerator; do not edit.\n");
+            sb.append(" */\n");
+            sb.append("public final class ").append(className).append(" extends GeneratedDecisionTable {\n\n");
+            
+            sb.append("    private static final Object[] CONSTANTS = {\n");
+            for (Object value : constants.keySet()) {
+                sb.append("        ").append(FEELJavaTranslator.literal(value)).append(",\n");
+            }
+            sb.append("    };\n\n");
+            
+            for (int c = 0; c < inputCount; c++) {
+                InputDomain domain = table.getInputDomain(c);
+                if (domain != null) {
+                    sb.append("    private static final InputDomain DOMAIN").append(c).append(" = new InputDomain(")
+                      .append(FEELJavaTranslator.stringLiteral(domain.getInputName()));
+                    for (String value : domain.getValues()) {
+                        sb.append(", ").append(FEELJavaTranslator.stringLiteral(value));
+                    }
+                    sb.append(");\n\n");
+                }
+            }
+            
+            sb.append("    private static final int[][] OUTPUTS = {\n");
+            for (int[] codes : outputCodes) {
+                sb.append("        {");
+                for (int r = 0; r < codes.length; r++) {
+                    sb.append(r == 0 ? "" : r % 32 == 0 ? ",\n         " : ", ").append(codes[r]);
+                }
+                sb.append("},\n");
+            }
+            sb.append("    };\n\n");
+            
+            sb.append("    public ").append(className).append("() {\n");
+            sb.append("        super(").append(FEELJavaTranslator.stringLiteral(String.valueOf(table.getName())))
+              .append(", DMNHitPolicy.").append(table.getHitPolicy().name()).append(", ")
+              .append(table.getAggregation() != null
+                  ? "DMNDecisionTable.AggregationType." + table.getAggregation().name() : "null")
+              .append(",\n            ").append(stringArray(table.getInputNames()))
+              .append(", ").append(stringArray(table.getOutputNames()))
+              .append(",\n            ").append(ruleCount).append(", CONSTANTS, OUTPUTS, ").append(priorities)
+              .append(");\n");
+            sb.append("    }\n\n");
+            
+            sb.append(matchRules);
+            if (expression != null) {
+                sb.append(expression);
+            }
+            if (priorityRank != null) {
+                sb.append(priorityRank);
+            }
+            sb.append(methods);
+            // Drop the blank line after the last member
+            sb.setLength(sb.length() - 1);
+            return sb.append("}\n").toString();
+        }
+        
+        private boolean hasInputDomains() {
+            for (int c = 0; c < inputCount; c++) {
+                if (table.getInputDomain(c) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private boolean hasKeyTypes() {
+            for (int c = 0; c < inputCount; c++) {
+                if (table.keyType(c) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private int[][] outputCodes() {
+            int[][] codes = new int[outputCount][ruleCount];
+            Object[] noInputs = new Object[inputCount];
+            for (int o = 0; o < outputCount; o++) {
+                for (int r = 0; r < ruleCount; r++) {
+                    codes[o][r] = table.outputExpression(r, o) != null
+                        ? GeneratedDecisionTable.EXPRESSION : constantCode(table.output(r, o, noInputs));
+                }
+            }
+            return codes;
+        }
+        
+        // Matching
+        
+        private String matchRules() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("    @Override\n");
+            sb.append("    protected int matchRules(Object[] inputs, int[] matches) {\n");
+            for (int c = 0; c < inputCount; c++) {
+                if (table.getInputDomain(c) != null) {
+                    // Rejects values that are not allowed
+                    sb.append("        DOMAIN").append(c).append(".ordinal(inputs[").append(c).append("]);\n");
+                }
+            }
+            int column = switchColumn();
+            if (column < 0) {
+                List<Integer> rules = new ArrayList<>();
+                for (int r = 0; r < ruleCount; r++) {
+                    rules.add(r);
+                }
+                sb.append(dispatch(rules, -1, "        "));
+            } else {
+                // Group the string literals of the switch column by the rules they select
+                Map<List<Integer>, List<String>> cases = new LinkedHashMap<>();
+                for (String literal : columnStrings(column)) {
+                    List<Integer> rules = new ArrayList<>();
+                    for (int r = 0; r < ruleCount; r++) {
+                        Set<String> strings = strings(table.getInputTest(r, column));
+                        if (strings == null || strings.contains(literal)) {
+                            rules.add(r);
+                        }
+                    }
+                    cases.computeIfAbsent(rules, k -> new ArrayList<>()).add(literal);
+                }
+                sb.append("        Object value = inputs[").append(column).append("];\n");
+                sb.append("        if (value instanceof String) {\n");
+                sb.append("            switch ((String) value) {\n");
+                for (Map.Entry<List<Integer>, List<String>> entry : cases.entrySet()) {
+                    String statements = dispatch(entry.getKey(), column, "                    ");
+                    // A block scopes the match count of a case that calls several methods
+                    boolean block = statements.contains("int count");
+                    List<String> literals = entry.getValue();
+                    for (int i = 0; i < literals.size(); i++) {
+                        sb.append("                case ").append(FEELJavaTranslator.stringLiteral(literals.get(i)))
+                          .append(block && i == literals.size() - 1 ? ": {\n" : ":\n");
+                    }
+                    sb.append(statements);
+                    if (block) {
+                        sb.append("                }\n");
+                    }
+                }
+                sb.append("                default:\n");
+                sb.append("                    break;\n");
+                sb.append("            }\n");
+                sb.append("        }\n");
+                List<Integer> others = new ArrayList<>();
+                for (int r = 0; r < ruleCount; r++) {
+                    if (strings(table.getInputTest(r, column)) == null) {
+                        others.add(r);
+                    }
+                }
+                sb.append(dispatch(others, column, "        "));
+            }
+            sb.append("    }\n\n");
+            return sb.toString();
+        }
+        
+        /**
+         * Statements that test a list of rules and return the match count.
+         * Tests of the switch column are left out where the switch decided them.
+         */
+        private String dispatch(List<Integer> rules, int switchColumn, String indent) {
+            List<String> parts = new ArrayList<>();
+            int start = 0;
+            while (start < rules.size()) {
+                int end = start;
+                int length = 0;
+                while (end < rules.size() && end - start < RULES_PER_METHOD && length < SOURCE_PER_METHOD) {
+                    length += condition(rules.get(end), switchColumn).length();
+                    end++;
+                }
+                parts.add(part(rules.subList(start, end), switchColumn));
+                start = end;
+            }
+            StringBuilder sb = new StringBuilder();
+            if (parts.isEmpty()) {
+                return sb.append(indent).append("return 0;\n").toString();
+            }
+            if (parts.size() == 1) {
+                return sb.append(indent).append("return ").append(parts.get(0)).append("(inputs, matches, 0);\n")
+                  .toString();
+            }
+            sb.append(indent).append("int count = 0;\n");
+            for (int i = 0; i < parts.size(); i++) {
+                sb.append(indent).append("count = ").append(parts.get(i)).append("(inputs, matches, count);\n");
+                if (firstOnly && i < parts.size() - 1) {
+                    sb.append(indent).append("if (count > 0) {\n");
+                    sb.append(indent).append("    return count;\n");
+                    sb.append(indent).append("}\n");
+                }
+            }
+            return sb.append(indent).append("return count;\n").toString();
+        }
+        
+        /**
+         * Write a method testing some rules and return its name
+         */
+        private String part(List<Integer> rules, int switchColumn) {
+            String name = "match" + methodCount++;
+            StringBuilder body = new StringBuilder();
+            boolean[] numbers = new boolean[inputCount];
+            for (int rule : rules) {
+                body.append("        // Rule ").append(rule + 1).append(": ").append(ruleComment(rule)).append('\n');
+                String condition = condition(rule, switchColumn);
+                String hit = firstOnly
+                    ? "matches[count] = " + rule + ";\n            return count + 1;\n"
+                    : "matches[count++] = " + rule + ";\n";
+                if (condition.isEmpty()) {
+                    body.append("        ").append(hit.replace("\n            ", "\n        "));
+                    if (firstOnly) {
+                        // Later rules are unreachable
+                        break;
+                    }
+                } else {
+                    body.append("        if (").append(condition).append(") {\n");
+                    body.append("            ").append(hit);
+                    body.append("        }\n");
+                }
+                for (int c = 0; c < inputCount; c++) {
+                    numbers[c] |= c != switchColumn && isNumeric(table.matchTest(rule, c));
+                }
+            }
+            methods.append("    private static int ").append(name)
+                   .append("(Object[] inputs, int[] matches, int count) {\n");
+            for (int c = 0; c < inputCount; c++) {
+                if (numbers[c]) {
+                    // Columns with a key type compare the keys of their values
+                    FEELType keyType = table.keyType(c);
+                    methods.append("        double number").append(c).append(" = ")
+                           .append(keyType != null ? "FEELType." + keyType.name() + ".key" : "number")
+                           .append("(inputs[").append(c).append("]);\n");
+                }
+            }
+            methods.append(body);
+            if (!body.toString().endsWith("return count + 1;\n")) {
+                methods.append("        return count;\n");
+            }
+            methods.append("    }\n\n");
+            return name;
+        }
+        
+        /**
+         * Conjunction of the input entries of a rule, empty if the rule always matches
+         */
+        private String condition(int rule, int switchColumn) {
+            StringBuilder sb = new StringBuilder();
+            for (int c = 0; c < inputCount; c++) {
+                UnaryTest test = table.matchTest(rule, c);
+                UnaryTest rowTest = table.rowTest(rule, c);
+                if (rowTest == null
+                        && (test.getKind() == UnaryTest.Kind.ANY || c == switchColumn && strings(test) != null)) {
+                    continue;
+                }
+                // Entries that read other inputs are not keyed, and see the row as given
+                String java = rowTest != null
+                    ? FEELJavaTranslator.translate(rowTest, "inputs[" + c + "]", "number(inputs[" + c + "])", "inputs",
+                        this)
+                    : FEELJavaTranslator.translate(test, table.keyType(c) != null ? null : "inputs[" + c + "]",
+                        "number" + c, this);
+                usesRuntime |= java.contains("FEELRuntime.");
+                sb.append(sb.length() == 0 ? "" : "\n                && ").append(java);
+            }
+            return sb.toString();
+        }
+        
+        /**
+         * Column whose string literals select the fewest rules: most of its
+         * entries are string literals, and there are at least two of them
+         */
+        private int switchColumn() {
+            int best = -1;
+            int bestCount = 0;
+            for (int c = 0; c < inputCount; c++) {
+                int count = 0;
+                for (int r = 0; r < ruleCount; r++) {
+                    if (strings(table.getInputTest(r, c)) != null) {
+                        count++;
+                    }
+                }
+                if (count * 2 >= ruleCount && count > bestCount && columnStrings(c).size() >= 2) {
+                    best = c;
+                    bestCount = count;
+                }
+            }
+            return best;
+        }
+        
+        private Set<String> columnStrings(int column) {
+            Set<String> all = new LinkedHashSet<>();
+            for (int r = 0; r < ruleCount; r++) {
+                Set<String> strings = strings(table.getInputTest(r, column));
+                if (strings != null) {
+                    all.addAll(strings);
+                }
+            }
+            return all;
+        }
+        
+        private String ruleComment(int rule) {
+            StringBuilder sb = new StringBuilder();
+            for (int c = 0; c < inputCount; c++) {
+                sb.append(c == 0 ? "" : " | ").append(comment(table.getInputTest(rule, c).getText()));
+            }
+            return sb.toString();
+        }
+        
+        // Outputs
+        
+        private String expression() {
+            StringBuilder sb = new StringBuilder();
+            for (int o = 0; o < outputCount; o++) {
+                List<Integer> rules = new ArrayList<>();
+                for (int r = 0; r < ruleCount; r++) {
+                    if (table.outputExpression(r, o) != null) {
+                        rules.add(r);
+                    }
+                }
+                if (rules.isEmpty()) {
+                    continue;
+                }
+                sb.append("            case ").append(o).append(":\n");
+                if (rules.size() <= RULES_PER_METHOD) {
+                    sb.append("                return ").append(expressions(o, rules)).append("(rule, inputs);\n");
+                    continue;
+                }
+                // One method per block of rules, selected by rule / RULES_PER_METHOD
+                Map<Integer, List<Integer>> blocks = new LinkedHashMap<>();
+                for (int rule : rules) {
+                    blocks.computeIfAbsent(rule / RULES_PER_METHOD, k -> new ArrayList<>()).add(rule);
+                }
+                sb.append("                switch (rule / ").append(RULES_PER_METHOD).append(") {\n");
+                for (Map.Entry<Integer, List<Integer>> block : blocks.entrySet()) {
+                    sb.append("                    case ").append(block.getKey()).append(":\n");
+                    sb.append("                        return ").append(expressions(o, block.getValue()))
+                      .append("(rule, inputs);\n");
+                }
+                sb.append("                    default:\n");
+                sb.append("                        break;\n");
+                sb.append("                }\n");
+                sb.append("                break;\n");
+            }
+            if (sb.length() == 0) {
+                return null;
+            }
+            return "    @Override\n"
+                + "    protected Object expression(int rule, int column, Object[] inputs) {\n"
+                + "        switch (column) {\n"
+                + sb
+                + "            default:\n"
+                + "                break;\n"
+                + "        }\n"
+                + "        return super.expression(rule, column, inputs);\n"
+                + "    }\n\n";
+        }
+        
+        private String expressions(int column, List<Integer> rules) {
+            String name = "expression" + methodCount++;
+            methods.append("    private static Object ").append(name).append("(int rule, Object[] inputs) {\n");
+            methods.append("        switch (rule) {\n");
+            for (int rule : rules) {
+                FEELExpression expression = table.outputExpression(rule, column);
+                methods.append("            case ").append(rule).append(": // ")
+                       .append(comment(expression.getText())).append('\n');
+                methods.append("                return ").append(FEELJavaTranslator.translate(expression, this))
+                       .append(";\n");
+            }
+            methods.append("            default:\n");
+            methods.append("                throw new IllegalArgumentException(\"Rule \" + (rule + 1));\n");
+            methods.append("        }\n");
+            methods.append("    }\n\n");
+            return name;
+        }
+        
+        private String priorityRank() {
+            StringBuilder sb = new StringBuilder();
+            for (int o = 0; o < outputCount; o++) {
+                UnaryTest[] values = table.outputPriorities(o);
+                if (values.length == 0) {
+                    continue;
+                }
+                sb.append("            case ").append(o).append(":\n");
+                for (int i = 0; i < values.length; i++) {
+                    String java = FEELJavaTranslator.translate(values[i], "value", "number", this);
+                    usesRuntime |= java.contains("FEELRuntime.");
+                    sb.append("                if (").append(java).append(") {\n");
+                    sb.append("                    return ").append(i).append(";\n");
+                    sb.append("                }\n");
+                }
+                sb.append("                return ").append(values.length).append(";\n");
+            }
+            if (sb.length() == 0) {
+                return null;
+            }
+            return "    @Override\n"
+                + "    protected int priorityRank(int column, Object value) {\n"
+                + "        double number = number(value);\n"
+                + "        switch (column) {\n"
+                + sb
+                + "            default:\n"
+                + "                return 0;\n"
+                + "        }\n"
+                + "    }\n\n";
+        }
+    }
+    
+    /**
+     * Returns the strings a test matches if it is a string literal or a list
+     * of string literals, null otherwise
+     */
+    private static Set<String> strings(UnaryTest test) {
+        if (test instanceof UnaryTest.LiteralEquals) {
+            Object value = ((UnaryTest.LiteralEquals) test).getValue();
+            return value instanceof String ? Collections.singleton((String) value) : null;
+        }
+        if (test instanceof UnaryTest.Disjunction) {
+            Set<String> strings = new LinkedHashSet<>();
+            for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                Set<String> alternatives = strings(alternative);
+                if (alternatives == null) {
+                    return null;
+                }
+                strings.addAll(alternatives);
+            }
+            return strings;
+        }
+        return null;
+    }
+    
+    /**
+     * Check whether a test may compare the input as a number
+     */
+    private static boolean isNumeric(UnaryTest test) {
+        switch (test.getKind()) {
+            case EQUALS:
+                return test instanceof UnaryTest.NumberEquals;
+            case COMPARISON:
+            case INTERVAL:
+                return true;
+            case DISJUNCTION:
+                for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                    if (isNumeric(alternative)) {
+                        return true;
+                    }
+                }
+                return false;
+            case NOT:
+                return isNumeric(((UnaryTest.Not) test).getNegated());
+            default:
+                return false;
+        }
+    }
+    
+    private static String stringArray(String[] values) {
+        StringBuilder sb = new StringBuilder("new String[] {");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(FEELJavaTranslator.stringLiteral(values[i]));
+        }
+        return sb.append('}').toString();
+    }
+    
+    /**
+     * Make source text safe for a comment: no line breaks, no end of comment
+     * and no unicode escapes, which the Java compiler decodes even in comments
+     */
+    private static String comment(String text) {
+        return String.valueOf(text).replace('\r', ' ').replace('\n', ' ').replace("*/", "* /")
+            .replace("\\u", "\\ u");
+    }
+    
+    /**
+     * Simple test method
+     */
+    public static void main(String[] args) {
+        DMNDecisionTableStub table = DMNDecisionTableStub.createExampleTable();
+        System.out.println(new DecisionTableCodeGenerator("com.example.dmn.generated")
+            .generate(table, className(table.getName())));
+    }
+}
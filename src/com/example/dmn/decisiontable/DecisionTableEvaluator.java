@@ -0,0 +1,441 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.UnaryTest;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluation engine for DMN decision tables.
+ * 
+ * The table is compiled once into a {@link CompiledDecisionTable}: input
+ * entries become {@link UnaryTest} predicates, output entries become FEEL
+ * expressions or interned constants, and a per-column rule index is built so
+ * that finding the matching rules does not require scanning every rule.
+ * Several evaluators may share one compiled table. The matching
+ * strategy can be chosen per table with {@link MatchingMode} and defaults
+ * to {@link MatchingMode#BITSET}; the hit
+ * policy is applied by a {@link HitPolicyExecutor} that stops matching as
+ * soon as the result is known. Evaluators are
+ * immutable and can be shared between threads; edits to the source table
+ * after construction are not seen.
+ */
+public class DecisionTableEvaluator {
+    
+    private final CompiledDecisionTable table;
+    private final String[] inputNames;
+    private final String[] outputNames;
+    private final boolean constantOutputs;
+    private final MatchingMode matchingMode;
+    private final RuleMatcher matcher;
+    private final HitPolicyExecutor executor;
+    private final RuleOutputs constantRuleOutputs;
+    
+    /**
+     * Create an evaluator for a stub decision table
+     * 
+     * @param table the decision table
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public DecisionTableEvaluator(DMNDecisionTableStub table) {
+        this(table, MatchingMode.BITSET);
+    }
+    
+    /**
+     * Create an evaluator for a stub decision table with a specific matching mode
+     * 
+     * @param table the decision table
+     * @param matchingMode how matching rules are found
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public DecisionTableEvaluator(DMNDecisionTableStub table, MatchingMode matchingMode) {
+        this(CompiledDecisionTable.compile(table), matchingMode);
+    }
+    
+    /**
+     * Create an evaluator for a decision table
+     * 
+     * @param table the decision table
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public DecisionTableEvaluator(DMNDecisionTable table) {
+        this(table, MatchingMode.BITSET);
+    }
+    
+    /**
+     * Create an evaluator for a decision table with a specific matching mode
+     * 
+     * @param table the decision table
+     * @param matchingMode how matching rules are found
+     * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+     */
+    public DecisionTableEvaluator(DMNDecisionTable table, MatchingMode matchingMode) {
+        this(CompiledDecisionTable.compile(table), matchingMode);
+    }
+    
+    /**
+     * Create an evaluator for a compiled decision table
+     * 
+     * @param table the compiled table
+     */
+    public DecisionTableEvaluator(CompiledDecisionTable table) {
+        this(table, MatchingMode.BITSET);
+    }
+    
+    /**
+     * Create an evaluator for a compiled decision table with a specific matching mode
+     * 
+     * @param table the compiled table
+     * @param matchingMode how matching rules are found
+     */
+    public DecisionTableEvaluator(CompiledDecisionTable table, MatchingMode matchingMode) {
+        this.table = table;
+        this.inputNames = table.getInputNames();
+        this.outputNames = table.getOutputNames();
+        this.constantOutputs = table.hasConstantOutputs();
+        this.matchingMode = matchingMode != null ? matchingMode : MatchingMode.BITSET;
+        this.matcher = createMatcher(this.matchingMode);
+        this.executor = HitPolicyExecutor.create(table.getHitPolicy(), table.getAggregation(), outputNames.length);
+        this.constantRuleOutputs = constantOutputs ? new Outputs(new Object[inputNames.length]) : null;
+    }
+    
+    private RuleMatcher createMatcher(MatchingMode mode) {
+        if (mode == MatchingMode.BITSET) {
+            // Shared by all evaluators of the table
+            return table.bitsetMatcher();
+        }
+        UnaryTest[][] inputTests = table.ruleTests();
+        InputDomain[] domains = table.inputDomains();
+        switch (mode) {
+            case SCAN:
+                return new ScanRuleMatcher(inputTests, inputNames.length, domains);
+            default:
+                return new IndexedRuleMatcher(inputTests, inputNames.length, domains);
+        }
+    }
+    
+    /**
+     * Evaluate the table for named input values
+     * 
+     * @param inputs input values keyed by input column name
+     * @return the decision result
+     * @throws InputValueException if a value is not one of the input values of its column
+     */
+    public DecisionResult evaluate(Map<String, Object> inputs) {
+        Object[] row = new Object[inputNames.length];
+        for (int c = 0; c < row.length; c++) {
+            row[c] = inputs.get(inputNames[c]);
+        }
+        return evaluate(row);
+    }
+    
+    /**
+     * Evaluate the table for a row of input values
+     * 
+     * @param inputs input values in input column order
+     * @return the decision result
+     * @throws InputValueException if a value is not one of the input values of its column
+     */
+    public DecisionResult evaluate(Object[] inputs) {
+        MatchCursor matches = table.matchRows(matcher.cursor(table.encode(inputs)), inputs);
+        RuleOutputs outputs = constantOutputs ? constantRuleOutputs : new Outputs(inputs);
+        return executor.execute(matches, outputs);
+    }
+    
+    /**
+     * Evaluate a block of input rows into a new output block
+     * 
+     * @param inputs the input rows, one column per input in input column order
+     * @return the results, one column per output
+     * @see #evaluate(InputBlock, OutputBlock, ForkJoinPool)
+     */
+    public OutputBlock evaluate(InputBlock inputs) {
+        OutputBlock outputs = new OutputBlock(outputNames.length, inputs.getRowCount());
+        evaluate(inputs, outputs);
+        return outputs;
+    }
+    
+    /**
+     * Evaluate a block of input rows into a preallocated output block,
+     * using the common fork-join pool for large blocks
+     * 
+     * @param inputs the input rows, one column per input in input column order
+     * @param outputs the block receiving the results
+     * @see #evaluate(InputBlock, OutputBlock, ForkJoinPool)
+     */
+    public void evaluate(InputBlock inputs, OutputBlock outputs) {
+        evaluate(inputs, outputs, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Evaluate a block of input rows into a preallocated output block.
+     * Rules are matched column by column over the primitive input arrays;
+     * blocks of more than a few thousand rows are split into subtasks
+     * running on the given pool. Row i of the inputs is written to row i
+     * of the outputs.
+     * 
+     * @param inputs the input rows, one column per input in input column order
+     * @param outputs the block receiving the results
+     * @param pool the pool used for large blocks
+     * @throws IllegalArgumentException if the block shapes do not fit the table
+     * @throws InputValueException if a value is not one of the input values of its column
+     */
+    public void evaluate(InputBlock inputs, OutputBlock outputs, ForkJoinPool pool) {
+        if (inputs.getColumnCount() != inputNames.length) {
+            throw new IllegalArgumentException("Expected " + inputNames.length + " input columns, got "
+                + inputs.getColumnCount());
+        }
+        if (outputs.getColumnCount() != outputNames.length || outputs.getRowCount() < inputs.getRowCount()) {
+            throw new IllegalArgumentException("Output block " + outputs.getColumnCount() + " x "
+                + outputs.getRowCount() + " cannot hold " + outputNames.length + " x " + inputs.getRowCount());
+        }
+        BatchEvaluation task = new BatchEvaluation(this, inputs, outputs, 0, inputs.getRowCount());
+        if (inputs.getRowCount() <= BatchEvaluation.SPLIT_THRESHOLD) {
+            task.evaluateRange();
+        } else {
+            pool.invoke(task);
+        }
+    }
+    
+    /**
+     * Returns the rule outputs for a row of input values
+     * 
+     * @param inputs the input values in input column order, or null if all outputs are constant
+     */
+    RuleOutputs ruleOutputs(Object[] inputs) {
+        return inputs == null ? constantRuleOutputs : new Outputs(inputs);
+    }
+    
+    HitPolicyExecutor getExecutor() {
+        return executor;
+    }
+    
+    /**
+     * Find the rules matching a row of input values
+     * 
+     * @param inputs input values in input column order
+     * @return indexes of the matching rules in rule order
+     * @throws InputValueException if a value is not one of the input values of its column
+     */
+    public int[] match(Object[] inputs) {
+        int[] matches = matcher.match(table.encode(inputs));
+        if (!table.hasRowTests()) {
+            return matches;
+        }
+        int count = 0;
+        for (int rule : matches) {
+            if (table.matchesRow(rule, inputs)) {
+                matches[count++] = rule;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+    
+    /**
+     * Compare two output values, treating numerically equal numbers as equal
+     */
+    static boolean sameValue(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            BigDecimal x = HitPolicyExecutor.toDecimal(a);
+            BigDecimal y = HitPolicyExecutor.toDecimal(b);
+            return x != null && y != null ? x.compareTo(y) == 0 : a.equals(b);
+        }
+        return Objects.equals(a, b);
+    }
+    
+    private Object ruleOutput(int rule, Object[] inputs) {
+        if (outputNames.length == 1) {
+            return table.output(rule, 0, inputs);
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int o = 0; o < outputNames.length; o++) {
+            values.put(outputNames[o], table.output(rule, o, inputs));
+        }
+        return values;
+    }
+    
+    /**
+     * Rule outputs for one row of input values. For constant outputs a single
+     * shared instance answers from the arrays precomputed by the compiled table.
+     */
+    private final class Outputs implements RuleOutputs {
+        private final Object[] inputs;
+        
+        Outputs(Object[] inputs) {
+            this.inputs = inputs;
+        }
+        
+        @Override
+        public Object output(int rule) {
+            return ruleOutput(rule, inputs);
+        }
+        
+        @Override
+        public boolean sameOutput(int first, int second) {
+            if (constantOutputs) {
+                return table.outputClass(first) == table.outputClass(second);
+            }
+            for (int o = 0; o < outputNames.length; o++) {
+                if (!sameValue(table.output(first, o, inputs), table.output(second, o, inputs))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public boolean hasPriorities() {
+            return table.hasOutputPriorities();
+        }
+        
+        @Override
+        public int comparePriority(int first, int second) {
+            for (int o = 0; o < outputNames.length; o++) {
+                int a = table.priorityRank(first, o, inputs);
+                int b = table.priorityRank(second, o, inputs);
+                if (a != b) {
+                    return Integer.compare(a, b);
+                }
+            }
+            return 0;
+        }
+        
+        @Override
+        public boolean hasScaledNumbers() {
+            return table.hasScaledNumbers();
+        }
+        
+        @Override
+        public long scaledNumber(int rule) {
+            return table.scaledNumber(rule);
+        }
+        
+        @Override
+        public int numberScale() {
+            return table.numberScale();
+        }
+    }
+    
+    /**
+     * Returns the name of the table
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return table.getName();
+    }
+    
+    /**
+     * Returns the hit policy applied by this evaluator
+     * 
+     * @return the hit policy
+     */
+    public DMNHitPolicy getHitPolicy() {
+        return table.getHitPolicy();
+    }
+    
+    /**
+     * Returns the aggregation applied to COLLECT results
+     * 
+     * @return the aggregation, or null if none
+     */
+    public DMNDecisionTable.AggregationType getAggregation() {
+        return table.getAggregation();
+    }
+    
+    /**
+     * Returns the strategy used to find matching rules
+     * 
+     * @return the matching mode
+     */
+    public MatchingMode getMatchingMode() {
+        return matchingMode;
+    }
+    
+    /**
+     * Returns the input column names, in the order expected by {@link #evaluate(Object[])}
+     * 
+     * @return the input names
+     */
+    public String[] getInputNames() {
+        return inputNames.clone();
+    }
+    
+    /**
+     * Returns the output column names
+     * 
+     * @return the output names
+     */
+    public String[] getOutputNames() {
+        return outputNames.clone();
+    }
+    
+    /**
+     * Returns the number of rules
+     * 
+     * @return the rule count
+     */
+    public int getRuleCount() {
+        return table.getRuleCount();
+    }
+    
+    /**
+     * Returns the compiled table this evaluator runs on
+     * 
+     * @return the compiled table
+     */
+    public CompiledDecisionTable getCompiledTable() {
+        return table;
+    }
+    
+    /**
+     * Simple test method
+     */
+    public static void main(String[] args) {
+        DMNDecisionTableStub table = DMNDecisionTableStub.createExampleTable();
+        
+        Object[][] samples = {
+            {"Gold", 1200},
+            {"Silver", 400},
+            {"Bronze", 301},
+            {"Platinum", 5000}
+        };
+        
+        for (MatchingMode mode : MatchingMode.values()) {
+            DecisionTableEvaluator evaluator = new DecisionTableEvaluator(table, mode);
+            System.out.println("Decision Table Evaluator Test: " + evaluator.getName() + " (" + mode + ")");
+            System.out.println("-----------------------------");
+            for (Object[] sample : samples) {
+                System.out.println(Arrays.toString(sample) + " -> " + evaluator.evaluate(sample));
+            }
+            System.out.println();
+        }
+        
+        // Hit policies that look at more than one match
+        DMNDecisionTableStub risk = new DMNDecisionTableStub("Risk", DMNHitPolicy.PRIORITY);
+        risk.addInputColumn("Age")
+            .addOutputColumn("Risk", "\"High\",\"Medium\",\"Low\"");
+        risk.addRule(new DMNDecisionTableStub.DMNDecisionRule().addInputEntry("-").addOutputEntry("\"Low\""));
+        risk.addRule(new DMNDecisionTableStub.DMNDecisionRule().addInputEntry("< 25").addOutputEntry("\"Medium\""));
+        risk.addRule(new DMNDecisionTableStub.DMNDecisionRule().addInputEntry("< 18").addOutputEntry("\"High\""));
+        System.out.println("Priority, age 16 -> " + new DecisionTableEvaluator(risk).evaluate(new Object[] {16}));
+        
+        DMNDecisionTableStub fees = new DMNDecisionTableStub("Fees", DMNHitPolicy.COLLECT)
+            .setAggregation(DMNDecisionTable.AggregationType.SUM);
+        fees.addInputColumn("Amount").addOutputColumn("Fee");
+        fees.addRule(new DMNDecisionTableStub.DMNDecisionRule().addInputEntry("-").addOutputEntry("1.50"));
+        fees.addRule(new DMNDecisionTableStub.DMNDecisionRule().addInputEntry("> 1000").addOutputEntry("2.25"));
+        System.out.println("Collect sum, amount 2000 -> " + new DecisionTableEvaluator(fees).evaluate(new Object[] {2000}));
+        
+        // Batch evaluation over primitive input columns
+        DecisionTableEvaluator evaluator = new DecisionTableEvaluator(table);
+        InputBlock block = new InputBlock(2, 4)
+            .setValues(0, new Object[] {"Gold", "Silver", "Bronze", "Platinum"})
+            .setNumbers(1, new double[] {1200, 400, 301, 5000});
+        OutputBlock results = evaluator.evaluate(block);
+        System.out.println("Batch: " + Arrays.toString(results.getColumn(0)));
+    }
+}
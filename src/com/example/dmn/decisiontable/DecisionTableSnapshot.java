@@ -0,0 +1,613 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.FEELScope;
+import com.example.dmn.feel.FEELType;
+import com.example.dmn.feel.UnaryTestCompiler;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Versioned binary snapshot of decision tables, for services that load many
+ * tables at startup.
+ * 
+ * A snapshot stores each table column by column: the entries of a column are
+ * a run of references into one string dictionary shared by all tables, next
+ * to the names, typeRefs and values of the columns and the {@link FEELType}
+ * each input column was compiled for. The precomputed rule bitsets of the
+ * {@link MatchingMode#BITSET} matcher are stored with each table as plain
+ * arrays: the bitsets of each domain ordinal, literal and numeric segment of
+ * a column, and the seeds and slot order of its perfect hash of string
+ * literals. {@link #open(Path)} maps the file and checks its header, the
+ * table directory, the name index and the string offsets; a table record is
+ * read and checked when the table is requested.
+ * {@link #getTable(String)} finds a table by binary search over a name index
+ * in the file and compiles it on first use, so an entry that occurs in many
+ * tables is mostly parsed once, and reads its bitsets from the mapping
+ * instead of testing every rule against every key. FEEL predicates and
+ * expressions are method handle trees that cannot be mapped, so they are
+ * compiled from the dictionary rather than stored. The interval trees of the
+ * {@link MatchingMode#INDEXED} matcher are built when an evaluator uses them.
+ * 
+ * Layout, big-endian:
+ * <pre>
+ * header      magic "DMNS", version, table count, string count, and the
+ *             offsets of the directory, the name index and the strings
+ * directory   offset of each table record, in increasing order
+ * name index  table numbers in the order of their names
+ * tables      name, hit policy symbol, aggregation code, input, output and
+ *             rule counts; name, typeRef, input values and compiled type of
+ *             each input; name, typeRef and output values of each output;
+ *             then the input and output entries, column by column; then the
+ *             length and longs of the bitsets of each input column
+ * strings     offset of each string, then each string as length and UTF-8 bytes
+ * </pre>
+ * All values are ints unless noted; strings are referred to by index, -1
+ * standing for null. Files of another version are rejected, so a snapshot
+ * must be rebuilt when the format changes.
+ * 
+ * Instances are thread-safe. Each table is compiled under a lock of its own,
+ * so threads loading different tables do not wait for each other. Compiled
+ * tables are kept for the life of the snapshot.
+ */
+public final class DecisionTableSnapshot {
+    
+    /**
+     * Version of the format written by {@link Builder}
+     */
+    public static final int VERSION = 2;
+    
+    private static final int MAGIC = 0x444D4E53;
+    private static final int HEADER_SIZE = 28;
+    private static final int TABLE_HEADER_SIZE = 6;
+    private static final int NULL = -1;
+    
+    private final ByteBuffer buffer;
+    private final Path file;
+    private final int tableCount;
+    private final int stringCount;
+    private final int directoryOffset;
+    private final int nameIndexOffset;
+    private final int stringsOffset;
+    
+    // A compiled table, or the lock of a table that is not compiled yet
+    private final AtomicReferenceArray<Object> tables;
+    
+    // Decoded on first use; strings are immutable, so a race at worst decodes one twice
+    private final String[] strings;
+    
+    // Compilers are not thread-safe: each compilation takes one, and returns it for the next
+    private final Queue<UnaryTestCompiler> compilers = new ConcurrentLinkedQueue<>();
+    
+    private DecisionTableSnapshot(ByteBuffer buffer, Path file) throws IOException {
+        this.buffer = buffer;
+        this.file = file;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a decision table snapshot: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " (expected " + VERSION + "): "
+                + file);
+        }
+        this.tableCount = buffer.getInt(8);
+        this.stringCount = buffer.getInt(12);
+        this.directoryOffset = buffer.getInt(16);
+        this.nameIndexOffset = buffer.getInt(20);
+        this.stringsOffset = buffer.getInt(24);
+        if (tableCount < 0 || stringCount < 0 || directoryOffset != HEADER_SIZE
+                || nameIndexOffset != directoryOffset + 4L * tableCount
+                || stringsOffset < nameIndexOffset + 4L * tableCount
+                || stringsOffset + 4L * stringCount > buffer.capacity()) {
+            throw corrupt();
+        }
+        long previous = nameIndexOffset + 4L * tableCount;
+        for (int t = 0; t < tableCount; t++) {
+            int offset = buffer.getInt(directoryOffset + 4 * t);
+            int index = buffer.getInt(nameIndexOffset + 4 * t);
+            if (offset < previous || offset % 4 != 0 || offset + 4L * TABLE_HEADER_SIZE > stringsOffset
+                    || index < 0 || index >= tableCount) {
+                throw corrupt();
+            }
+            previous = offset;
+        }
+        for (int i = 0; i < stringCount; i++) {
+            int offset = buffer.getInt(stringsOffset + 4 * i);
+            if (offset < stringsOffset + 4L * stringCount || offset + 4L > buffer.capacity()) {
+                throw corrupt();
+            }
+        }
+        this.tables = new AtomicReferenceArray<>(tableCount);
+        this.strings = new String[stringCount];
+    }
+    
+    /**
+     * Open a snapshot by mapping it into memory. Only the header, the table
+     * directory, the name index and the string offsets are read.
+     * 
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot, has another version or is corrupt
+     */
+    public static DecisionTableSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a decision table snapshot: " + file);
+            }
+            return new DecisionTableSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+        }
+    }
+    
+    /**
+     * Returns the number of tables
+     * 
+     * @return the table count
+     */
+    public int getTableCount() {
+        return tableCount;
+    }
+    
+    /**
+     * Returns the number of distinct strings of all tables
+     * 
+     * @return the string dictionary size
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+    
+    /**
+     * Returns the name of a table without compiling it
+     * 
+     * @param index the table number, in the order the tables were added
+     * @return the name
+     * @throws IOException if the record of the table is corrupt
+     */
+    public String getTableName(int index) throws IOException {
+        return string(buffer.getInt(recordOffset(index)));
+    }
+    
+    /**
+     * Find a table by name
+     * 
+     * @param name the table name
+     * @return the number of the first table added with that name, or -1 if there is none
+     * @throws IOException if a table record on the way is corrupt
+     */
+    public int indexOf(String name) throws IOException {
+        int low = 0;
+        int high = tableCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int index = buffer.getInt(nameIndexOffset + 4 * mid);
+            int order = string(buffer.getInt(recordOffset(index))).compareTo(name);
+            if (order < 0) {
+                low = mid + 1;
+            } else {
+                // Equal names are indexed in the order they were added; keep looking left for the first
+                if (order == 0) {
+                    found = index;
+                }
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Returns a table by name, compiling it on first use
+     * 
+     * @param name the table name
+     * @return the compiled table, or null if the snapshot has no table of that name
+     * @throws IOException if the record of the table is corrupt
+     */
+    public CompiledDecisionTable getTable(String name) throws IOException {
+        int index = indexOf(name);
+        return index >= 0 ? getTable(index) : null;
+    }
+    
+    /**
+     * Returns a table, compiling it on first use
+     * 
+     * @param index the table number, in the order the tables were added
+     * @return the compiled table
+     * @throws IOException if the record of the table is corrupt
+     */
+    public CompiledDecisionTable getTable(int index) throws IOException {
+        int offset = recordOffset(index);
+        Object slot = tables.get(index);
+        if (slot instanceof CompiledDecisionTable) {
+            return (CompiledDecisionTable) slot;
+        }
+        if (slot == null) {
+            Object lock = new Object();
+            slot = tables.compareAndSet(index, null, lock) ? lock : tables.get(index);
+        }
+        synchronized (slot) {
+            Object current = tables.get(index);
+            if (current instanceof CompiledDecisionTable) {
+                return (CompiledDecisionTable) current;
+            }
+            int end = index + 1 < tableCount ? buffer.getInt(directoryOffset + 4 * (index + 1)) : stringsOffset;
+            CompiledDecisionTable table = readTable(offset, end);
+            tables.set(index, table);
+            return table;
+        }
+    }
+    
+    private int recordOffset(int index) {
+        if (index < 0 || index >= tableCount) {
+            throw new IndexOutOfBoundsException("Table " + index + " of " + tableCount);
+        }
+        return buffer.getInt(directoryOffset + 4 * index);
+    }
+    
+    /**
+     * Read and compile a table record. The compiled type of each input
+     * becomes the type of the input data of the same name, so columns
+     * without a typeRef of their own compile as they did when the snapshot
+     * was written.
+     */
+    private CompiledDecisionTable readTable(int offset, int end) throws IOException {
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset).limit(end);
+        UnaryTestCompiler compiler = compilers.poll();
+        try {
+            String name = string(record.getInt());
+            String hitPolicy = string(record.getInt());
+            String aggregation = string(record.getInt());
+            int inputCount = record.getInt();
+            int outputCount = record.getInt();
+            int ruleCount = record.getInt();
+            if (inputCount < 0 || outputCount < 0 || ruleCount < 0 || DMNHitPolicy.fromSymbol(hitPolicy) == null
+                    || 4L * (4 * inputCount + 3 * outputCount) + 4L * (inputCount + outputCount) * ruleCount
+                        > record.remaining()) {
+                throw corrupt();
+            }
+            
+            List<String> inputNames = new ArrayList<>(inputCount);
+            List<String> inputTypes = new ArrayList<>(inputCount);
+            List<String> inputValues = new ArrayList<>(inputCount);
+            List<FEELType> compiledTypes = new ArrayList<>(inputCount);
+            for (int c = 0; c < inputCount; c++) {
+                inputNames.add(string(record.getInt()));
+                inputTypes.add(string(record.getInt()));
+                inputValues.add(string(record.getInt()));
+                compiledTypes.add(FEELType.fromTypeRef(string(record.getInt())));
+            }
+            List<String> outputNames = new ArrayList<>(outputCount);
+            List<String> outputTypes = new ArrayList<>(outputCount);
+            List<String> outputValues = new ArrayList<>(outputCount);
+            for (int o = 0; o < outputCount; o++) {
+                outputNames.add(string(record.getInt()));
+                outputTypes.add(string(record.getInt()));
+                outputValues.add(string(record.getInt()));
+            }
+            List<List<String>> inputEntries = readEntries(record, inputCount, ruleCount);
+            List<List<String>> outputEntries = readEntries(record, outputCount, ruleCount);
+            long[][] bitsets = new long[inputCount][];
+            for (int c = 0; c < inputCount; c++) {
+                int length = record.getInt();
+                if (length < 0 || 8L * length > record.remaining()) {
+                    throw corrupt();
+                }
+                bitsets[c] = new long[length];
+                record.asLongBuffer().get(bitsets[c]);
+                record.position(record.position() + 8 * length);
+            }
+            
+            CompiledDecisionTable.Source source = new CompiledDecisionTable.Source(name,
+                DMNHitPolicy.fromSymbol(hitPolicy),
+                aggregation != null ? DMNDecisionTable.AggregationType.fromCode(aggregation) : null, inputNames,
+                inputTypes, inputValues, outputNames, outputTypes, outputValues, inputEntries, outputEntries);
+            if (compiler == null) {
+                compiler = new UnaryTestCompiler();
+            }
+            CompiledDecisionTable table = source.compile(FEELScope.of(inputNames, compiledTypes), compiler);
+            table.setBitsets(bitsets);
+            return table;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // A snapshot only holds tables that compiled when it was written
+            throw new IOException("Truncated or corrupt decision table snapshot: " + file, e);
+        } finally {
+            if (compiler != null) {
+                compilers.offer(compiler);
+            }
+        }
+    }
+    
+    /**
+     * Read the column-major entries of a table into rows
+     */
+    private List<List<String>> readEntries(ByteBuffer record, int columns, int ruleCount) throws IOException {
+        int[] references = new int[columns * ruleCount];
+        record.asIntBuffer().get(references);
+        record.position(record.position() + 4 * references.length);
+        List<List<String>> rows = new ArrayList<>(ruleCount);
+        for (int r = 0; r < ruleCount; r++) {
+            String[] row = new String[columns];
+            for (int c = 0; c < columns; c++) {
+                row[c] = string(references[c * ruleCount + r]);
+            }
+            rows.add(Arrays.asList(row));
+        }
+        return rows;
+    }
+    
+    /**
+     * Decode a string of the dictionary, once
+     */
+    private String string(int index) throws IOException {
+        if (index == NULL) {
+            return null;
+        }
+        if (index < 0 || index >= stringCount) {
+            throw corrupt();
+        }
+        String string = strings[index];
+        if (string == null) {
+            int offset = buffer.getInt(stringsOffset + 4 * index);
+            int length = buffer.getInt(offset);
+            if (length < 0 || offset + 4L + length > buffer.capacity()) {
+                throw corrupt();
+            }
+            byte[] bytes = new byte[length];
+            ByteBuffer data = buffer.duplicate();
+            data.position(offset + 4);
+            data.get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = string;
+        }
+        return string;
+    }
+    
+    private IOException corrupt() {
+        return new IOException("Truncated or corrupt decision table snapshot: " + file);
+    }
+    
+    /**
+     * Collects decision tables and writes them as a snapshot. Each table is
+     * compiled when it is added, so a snapshot only holds tables that
+     * compile, and the compiled column types are recorded with it.
+     */
+    public static final class Builder {
+        private final List<CompiledDecisionTable.Source> sources = new ArrayList<>();
+        private final List<FEELType[]> compiledTypes = new ArrayList<>();
+        private final List<long[][]> bitsets = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final UnaryTestCompiler compiler = new UnaryTestCompiler();
+        
+        /**
+         * Add a stub decision table
+         * 
+         * @param table the decision table
+         * @return this builder
+         * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+         */
+        public Builder add(DMNDecisionTableStub table) {
+            return add(CompiledDecisionTable.Source.of(table), FEELScope.EMPTY);
+        }
+        
+        /**
+         * Add a stub decision table whose inputs are input data of a decision
+         * 
+         * @param table the decision table
+         * @param inputData the input data names and their types
+         * @return this builder
+         * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+         */
+        public Builder add(DMNDecisionTableStub table, FEELScope inputData) {
+            return add(CompiledDecisionTable.Source.of(table), inputData);
+        }
+        
+        /**
+         * Add a decision table
+         * 
+         * @param table the decision table
+         * @return this builder
+         * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+         */
+        public Builder add(DMNDecisionTable table) {
+            return add(CompiledDecisionTable.Source.of(table), FEELScope.EMPTY);
+        }
+        
+        /**
+         * Add a decision table whose inputs are input data of a decision
+         * 
+         * @param table the decision table
+         * @param inputData the input data names and their types
+         * @return this builder
+         * @throws com.example.dmn.feel.FEELSyntaxException if an entry is not valid FEEL
+         */
+        public Builder add(DMNDecisionTable table, FEELScope inputData) {
+            return add(CompiledDecisionTable.Source.of(table), inputData);
+        }
+        
+        private Builder add(CompiledDecisionTable.Source source, FEELScope inputData) {
+            CompiledDecisionTable compiled = source.compile(inputData, compiler);
+            FEELType[] types = new FEELType[compiled.getInputCount()];
+            for (int c = 0; c < types.length; c++) {
+                types[c] = compiled.getInputFEELType(c);
+            }
+            sources.add(source);
+            compiledTypes.add(types);
+            bitsets.add(compiled.bitsetMatcher().precomputed());
+            return this;
+        }
+        
+        /**
+         * Returns the number of tables added
+         * 
+         * @return the table count
+         */
+        public int size() {
+            return sources.size();
+        }
+        
+        /**
+         * Write the snapshot
+         * 
+         * @param file the file to write
+         * @throws IOException if the file cannot be written or would exceed 2 GB
+         */
+        public void write(Path file) throws IOException {
+            // Number the strings first: the header holds the offset of the dictionary
+            int tableCount = sources.size();
+            int[][] records = new int[tableCount][];
+            for (int t = 0; t < tableCount; t++) {
+                records[t] = record(sources.get(t), compiledTypes.get(t), bitsets.get(t));
+            }
+            Integer[] nameIndex = new Integer[tableCount];
+            for (int t = 0; t < tableCount; t++) {
+                nameIndex[t] = t;
+            }
+            // Stable, so equal names stay in the order they were added
+            Arrays.sort(nameIndex, (a, b) -> compareNames(sources.get(a).name, sources.get(b).name));
+            
+            long directoryOffset = HEADER_SIZE;
+            long nameIndexOffset = directoryOffset + 4L * tableCount;
+            long offset = nameIndexOffset + 4L * tableCount;
+            long[] recordOffsets = new long[tableCount];
+            for (int t = 0; t < tableCount; t++) {
+                recordOffsets[t] = offset;
+                offset += 4L * records[t].length;
+            }
+            long stringsOffset = offset;
+            offset += 4L * strings.size();
+            List<byte[]> encoded = new ArrayList<>(strings.size());
+            long[] stringOffsets = new long[strings.size()];
+            for (int s = 0; s < strings.size(); s++) {
+                byte[] bytes = strings.get(s).getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                stringOffsets[s] = offset;
+                offset += 4L + bytes.length;
+            }
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot of " + tableCount + " tables exceeds 2 GB: " + file);
+            }
+            
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                    64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(tableCount);
+                out.writeInt(strings.size());
+                out.writeInt((int) directoryOffset);
+                out.writeInt((int) nameIndexOffset);
+                out.writeInt((int) stringsOffset);
+                for (long recordOffset : recordOffsets) {
+                    out.writeInt((int) recordOffset);
+                }
+                for (Integer index : nameIndex) {
+                    out.writeInt(index);
+                }
+                for (int[] record : records) {
+                    for (int value : record) {
+                        out.writeInt(value);
+                    }
+                }
+                for (long stringOffset : stringOffsets) {
+                    out.writeInt((int) stringOffset);
+                }
+                for (byte[] bytes : encoded) {
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+        
+        private static int compareNames(String a, String b) {
+            return a == null ? (b == null ? 0 : -1) : b == null ? 1 : a.compareTo(b);
+        }
+        
+        /**
+         * Encode a table record, numbering its strings
+         */
+        private int[] record(CompiledDecisionTable.Source source, FEELType[] types, long[][] columnBits)
+                throws IOException {
+            int inputCount = source.inputNames.size();
+            int outputCount = source.outputNames.size();
+            int ruleCount = source.inputEntries.size();
+            long size = TABLE_HEADER_SIZE + 4L * inputCount + 3L * outputCount
+                + (long) (inputCount + outputCount) * ruleCount;
+            for (long[] bits : columnBits) {
+                size += 1 + 2L * bits.length;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot record of table " + source.name + " exceeds 2 GB");
+            }
+            int[] record = new int[(int) size];
+            int i = 0;
+            record[i++] = index(source.name != null ? source.name : "");
+            record[i++] = index((source.hitPolicy != null ? source.hitPolicy : DMNHitPolicy.UNIQUE).getSymbol());
+            record[i++] = index(source.aggregation != null ? source.aggregation.getCode() : null);
+            record[i++] = inputCount;
+            record[i++] = outputCount;
+            record[i++] = ruleCount;
+            for (int c = 0; c < inputCount; c++) {
+                record[i++] = index(source.inputNames.get(c));
+                record[i++] = index(element(source.inputTypes, c));
+                record[i++] = index(element(source.inputValues, c));
+                record[i++] = index(types[c].getTypeRef());
+            }
+            for (int o = 0; o < outputCount; o++) {
+                record[i++] = index(source.outputNames.get(o));
+                record[i++] = index(element(source.outputTypes, o));
+                record[i++] = index(element(source.outputValues, o));
+            }
+            for (int c = 0; c < inputCount; c++) {
+                for (int r = 0; r < ruleCount; r++) {
+                    record[i++] = index(element(source.inputEntries.get(r), c));
+                }
+            }
+            for (int o = 0; o < outputCount; o++) {
+                for (int r = 0; r < ruleCount; r++) {
+                    record[i++] = index(element(source.outputEntries.get(r), o));
+                }
+            }
+            // Longs as two big-endian ints, high first, as the reader's LongBuffer view expects
+            for (long[] bits : columnBits) {
+                record[i++] = bits.length;
+                for (long word : bits) {
+                    record[i++] = (int) (word >>> 32);
+                    record[i++] = (int) word;
+                }
+            }
+            return record;
+        }
+        
+        private static String element(List<String> list, int index) {
+            return list != null && index < list.size() ? list.get(index) : null;
+        }
+        
+        private int index(String string) {
+            if (string == null) {
+                return NULL;
+            }
+            Integer index = stringIndexes.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                stringIndexes.put(string, index);
+            }
+            return index;
+        }
+    }
+}
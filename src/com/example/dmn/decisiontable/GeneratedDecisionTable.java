@@ -0,0 +1,306 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.UnaryTest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of the decision table evaluators written by
+ * {@link DecisionTableCodeGenerator}.
+ * 
+ * A generated subclass holds the rules of one table as plain Java code:
+ * input entries become switches and primitive compares, output entries
+ * become constants or calls to the FEEL operators, so nothing is parsed
+ * or interpreted at run time. This class applies the hit policy with the
+ * same executors as {@link DecisionTableEvaluator}, and a generated
+ * evaluator returns exactly the results of the interpreted engine.
+ * Generated evaluators are immutable and can be shared between threads.
+ */
+public abstract class GeneratedDecisionTable {
+    
+    /**
+     * Output code of an entry that is computed by {@link #expression(int, int, Object[])}
+     */
+    protected static final int EXPRESSION = -1;
+    
+    private final String name;
+    private final DMNHitPolicy hitPolicy;
+    private final DMNDecisionTable.AggregationType aggregation;
+    private final String[] inputNames;
+    private final String[] outputNames;
+    private final Object[] constants;
+    private final int[][] outputCodes;
+    private final int ruleCount;
+    private final boolean outputPriorities;
+    private final HitPolicyExecutor executor;
+    private final long[] scaledNumbers;
+    private final int numberScale;
+    private final RuleOutputs constantRuleOutputs;
+    
+    /**
+     * Create the evaluator; called by the constructor of the generated subclass
+     * 
+     * @param name the name of the table
+     * @param hitPolicy the hit policy
+     * @param aggregation the COLLECT aggregation, or null for none
+     * @param inputNames the input column names
+     * @param outputNames the output column names
+     * @param ruleCount the number of rules
+     * @param constants the constant output values
+     * @param outputCodes per output column and rule, the index of the output
+     *        value in the constants, or {@link #EXPRESSION}
+     * @param outputPriorities true if any output column declares output values
+     */
+    protected GeneratedDecisionTable(String name, DMNHitPolicy hitPolicy,
+                                     DMNDecisionTable.AggregationType aggregation,
+                                     String[] inputNames, String[] outputNames, int ruleCount,
+                                     Object[] constants, int[][] outputCodes, boolean outputPriorities) {
+        this.name = name;
+        this.hitPolicy = hitPolicy;
+        this.aggregation = aggregation;
+        this.inputNames = inputNames.clone();
+        this.outputNames = outputNames.clone();
+        this.constants = constants;
+        this.outputCodes = outputCodes;
+        this.ruleCount = ruleCount;
+        this.outputPriorities = outputPriorities;
+        this.executor = HitPolicyExecutor.create(hitPolicy, aggregation, outputNames.length);
+        
+        boolean allConstant = true;
+        for (int[] codes : outputCodes) {
+            for (int code : codes) {
+                allConstant &= code != EXPRESSION;
+            }
+        }
+        Object[] singleOutputs = null;
+        if (allConstant && outputNames.length == 1) {
+            singleOutputs = new Object[ruleCount];
+            for (int r = 0; r < ruleCount; r++) {
+                singleOutputs[r] = constants[outputCodes[0][r]];
+            }
+        }
+        this.numberScale = singleOutputs != null ? CompiledDecisionTable.commonScale(singleOutputs) : -1;
+        this.scaledNumbers = numberScale >= 0 ? CompiledDecisionTable.scaledNumbers(singleOutputs, numberScale) : null;
+        this.constantRuleOutputs = allConstant ? new Outputs(new Object[inputNames.length]) : null;
+    }
+    
+    /**
+     * Find the matching rules
+     * 
+     * @param inputs input values in input column order
+     * @param matches receives the indexes of the matching rules in rule order;
+     *        has room for every rule of the table
+     * @return the number of matches written
+     * @throws InputValueException if a value is not one of the input values of its column
+     */
+    protected abstract int matchRules(Object[] inputs, int[] matches);
+    
+    /**
+     * Compute a non-constant output entry
+     * 
+     * @param rule the rule index
+     * @param column the output column index
+     * @param inputs input values in input column order
+     * @return the output value
+     */
+    protected Object expression(int rule, int column, Object[] inputs) {
+        throw new IllegalStateException("No expression for rule " + (rule + 1) + ", output " + (column + 1));
+    }
+    
+    /**
+     * Returns the position of a value in the output values of a column
+     * 
+     * @param column the output column index
+     * @param value the output value
+     * @return the rank, 0 being the highest priority; values that are not
+     *         listed rank after all listed ones
+     */
+    protected int priorityRank(int column, Object value) {
+        return 0;
+    }
+    
+    /**
+     * Returns an input value as a double for the numeric tests
+     * 
+     * @param value the input value
+     * @return the value of a number with {@link UnaryTest#hasExactDouble(Object)},
+     *         NaN for any other value, which the tests compare as a decimal
+     */
+    protected static double number(Object value) {
+        return UnaryTest.hasExactDouble(value) ? ((Number) value).doubleValue() : Double.NaN;
+    }
+    
+    /**
+     * Evaluate the table for named input values
+     * 
+     * @param inputs input values keyed by input column name
+     * @return the decision result
+     */
+    public DecisionResult evaluate(Map<String, Object> inputs) {
+        Object[] row = new Object[inputNames.length];
+        for (int c = 0; c < row.length; c++) {
+            row[c] = inputs.get(inputNames[c]);
+        }
+        return evaluate(row);
+    }
+    
+    /**
+     * Evaluate the table for a row of input values
+     * 
+     * @param inputs input values in input column order
+     * @return the decision result
+     * @throws InputValueException if a value is not one of the input values of its column
+     */
+    public DecisionResult evaluate(Object[] inputs) {
+        int[] matches = new int[ruleCount];
+        int count = matchRules(inputs, matches);
+        RuleOutputs outputs = constantRuleOutputs != null ? constantRuleOutputs : new Outputs(inputs);
+        return executor.execute(new MatchCursor.OfArray(matches, count), outputs);
+    }
+    
+    /**
+     * Find the rules matching a row of input values
+     * 
+     * @param inputs input values in input column order
+     * @return indexes of the matching rules in rule order
+     */
+    public int[] match(Object[] inputs) {
+        int[] matches = new int[ruleCount];
+        return Arrays.copyOf(matches, matchRules(inputs, matches));
+    }
+    
+    private Object output(int rule, int column, Object[] inputs) {
+        int code = outputCodes[column][rule];
+        return code != EXPRESSION ? constants[code] : expression(rule, column, inputs);
+    }
+    
+    /**
+     * Rule outputs for one row of input values
+     */
+    private final class Outputs implements RuleOutputs {
+        private final Object[] inputs;
+        
+        Outputs(Object[] inputs) {
+            this.inputs = inputs;
+        }
+        
+        @Override
+        public Object output(int rule) {
+            if (outputNames.length == 1) {
+                return GeneratedDecisionTable.this.output(rule, 0, inputs);
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int o = 0; o < outputNames.length; o++) {
+                values.put(outputNames[o], GeneratedDecisionTable.this.output(rule, o, inputs));
+            }
+            return values;
+        }
+        
+        @Override
+        public boolean sameOutput(int first, int second) {
+            for (int o = 0; o < outputNames.length; o++) {
+                Object a = GeneratedDecisionTable.this.output(first, o, inputs);
+                Object b = GeneratedDecisionTable.this.output(second, o, inputs);
+                if (!DecisionTableEvaluator.sameValue(a, b)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public boolean hasPriorities() {
+            return outputPriorities;
+        }
+        
+        @Override
+        public int comparePriority(int first, int second) {
+            for (int o = 0; o < outputNames.length; o++) {
+                int a = priorityRank(o, GeneratedDecisionTable.this.output(first, o, inputs));
+                int b = priorityRank(o, GeneratedDecisionTable.this.output(second, o, inputs));
+                if (a != b) {
+                    return Integer.compare(a, b);
+                }
+            }
+            return 0;
+        }
+        
+        @Override
+        public boolean hasScaledNumbers() {
+            return scaledNumbers != null;
+        }
+        
+        @Override
+        public long scaledNumber(int rule) {
+            return scaledNumbers[rule];
+        }
+        
+        @Override
+        public int numberScale() {
+            return numberScale;
+        }
+    }
+    
+    /**
+     * Returns the name of the table
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns the hit policy applied by this evaluator
+     * 
+     * @return the hit policy
+     */
+    public DMNHitPolicy getHitPolicy() {
+        return hitPolicy;
+    }
+    
+    /**
+     * Returns the aggregation applied to COLLECT results
+     * 
+     * @return the aggregation, or null if none
+     */
+    public DMNDecisionTable.AggregationType getAggregation() {
+        return aggregation;
+    }
+    
+    /**
+     * Returns the number of rules
+     * 
+     * @return the rule count
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+    
+    /**
+     * Returns the input column names
+     * 
+     * @return the names in input column order
+     */
+    public List<String> getInputNames() {
+        return Collections.unmodifiableList(Arrays.asList(inputNames));
+    }
+    
+    /**
+     * Returns the output column names
+     * 
+     * @return the names in output column order
+     */
+    public List<String> getOutputNames() {
+        return Collections.unmodifiableList(Arrays.asList(outputNames));
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + name + ", hitPolicy=" + hitPolicy.getSymbol()
+            + ", rules=" + ruleCount + "]";
+    }
+}
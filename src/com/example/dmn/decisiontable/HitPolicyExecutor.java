@@ -0,0 +1,495 @@
+package com.example.dmn.decisiontable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Applies a hit policy to the rules matching one row of inputs.
+ * 
+ * Each policy has its own executor that pulls matches from a
+ * {@link MatchCursor} and stops as soon as the result is known: FIRST after
+ * the first match, UNIQUE after a second match and ANY after the first
+ * conflicting output. COLLECT with an aggregation folds the outputs into a
+ * primitive accumulator instead of building a list, and only counts the
+ * matches when the cursor can replay them for the result. Executors are
+ * stateless and shared by all evaluations of a table.
+ */
+abstract class HitPolicyExecutor {
+    
+    private static final MathContext MATH_CONTEXT = MathContext.DECIMAL128;
+    
+    final DMNHitPolicy hitPolicy;
+    
+    HitPolicyExecutor(DMNHitPolicy hitPolicy) {
+        this.hitPolicy = hitPolicy;
+    }
+    
+    /**
+     * Select the result for the matching rules
+     * 
+     * @param matches cursor over the matching rules in rule order
+     * @param outputs the rule outputs for this evaluation
+     * @return the decision result
+     */
+    abstract DecisionResult execute(MatchCursor matches, RuleOutputs outputs);
+    
+    /**
+     * Create the executor for a hit policy
+     * 
+     * @param hitPolicy the hit policy
+     * @param aggregation the COLLECT aggregation, or null for none
+     * @param outputCount the number of output columns
+     * @return the executor
+     */
+    static HitPolicyExecutor create(DMNHitPolicy hitPolicy, DMNDecisionTable.AggregationType aggregation,
+                                    int outputCount) {
+        switch (hitPolicy) {
+            case ANY:
+                return new Any();
+            case FIRST:
+                return new First();
+            case PRIORITY:
+                return new Priority();
+            case RULE_ORDER:
+                return new CollectList(DMNHitPolicy.RULE_ORDER);
+            case OUTPUT_ORDER:
+                return new OutputOrder();
+            case COLLECT:
+                if (aggregation == null) {
+                    return new CollectList(DMNHitPolicy.COLLECT);
+                }
+                if (outputCount != 1) {
+                    return new InvalidAggregation(aggregation, outputCount);
+                }
+                switch (aggregation) {
+                    case COUNT:
+                        return new CollectCount();
+                    case SUM:
+                        return new CollectSum();
+                    default:
+                        return new CollectExtremum(aggregation == DMNDecisionTable.AggregationType.MAX);
+                }
+            default:
+                return new Unique();
+        }
+    }
+    
+    DecisionResult noMatch() {
+        return new DecisionResult(hitPolicy.isMultiHit() ? Collections.emptyList() : null, IntSets.EMPTY);
+    }
+    
+    DecisionResult violation(HitPolicyViolation.Type type, int[] matched, int[] rules, String message) {
+        return new DecisionResult(null, matched, new HitPolicyViolation(type, hitPolicy, rules, message));
+    }
+    
+    /**
+     * Convert a numeric output value to a decimal
+     * 
+     * @return the decimal, or null if the value is not a finite number
+     */
+    static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Double) {
+            double d = (Double) value;
+            return Double.isNaN(d) || Double.isInfinite(d) ? null : BigDecimal.valueOf(d);
+        }
+        if (value instanceof Float) {
+            // The float's own shortest decimal, so that 0.1f is 0.1
+            float f = (Float) value;
+            return Float.isNaN(f) || Float.isInfinite(f) ? null : new BigDecimal(Float.toString(f));
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        return null;
+    }
+    
+    /**
+     * Growable list of matched rule indexes
+     */
+    static final class RuleList {
+        private int[] rules = new int[8];
+        private int size;
+        
+        void add(int rule) {
+            if (size == rules.length) {
+                rules = Arrays.copyOf(rules, size * 2);
+            }
+            rules[size++] = rule;
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        int get(int index) {
+            return rules[index];
+        }
+        
+        int[] toArray() {
+            return size == 0 ? IntSets.EMPTY : Arrays.copyOf(rules, size);
+        }
+    }
+    
+    /**
+     * UNIQUE: exactly one rule may match; stops at the second match
+     */
+    static final class Unique extends HitPolicyExecutor {
+        Unique() {
+            super(DMNHitPolicy.UNIQUE);
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            int first = matches.next();
+            if (first == MatchCursor.NO_MORE) {
+                return noMatch();
+            }
+            int second = matches.next();
+            if (second != MatchCursor.NO_MORE) {
+                int[] rules = {first, second};
+                return violation(HitPolicyViolation.Type.MULTIPLE_MATCHES, rules, rules,
+                    "Rules " + (first + 1) + " and " + (second + 1) + " both match");
+            }
+            return new DecisionResult(outputs.output(first), new int[] {first});
+        }
+    }
+    
+    /**
+     * ANY: all matching rules must agree; stops at the first conflicting output
+     */
+    static final class Any extends HitPolicyExecutor {
+        Any() {
+            super(DMNHitPolicy.ANY);
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            int first = matches.next();
+            if (first == MatchCursor.NO_MORE) {
+                return noMatch();
+            }
+            RuleList matched = new RuleList();
+            matched.add(first);
+            for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+                if (!outputs.sameOutput(first, rule)) {
+                    return violation(HitPolicyViolation.Type.CONFLICTING_OUTPUTS, matched.toArray(),
+                        new int[] {first, rule},
+                        "Rules " + (first + 1) + " and " + (rule + 1) + " have different outputs");
+                }
+            }
+            return new DecisionResult(outputs.output(first), matched.toArray());
+        }
+    }
+    
+    /**
+     * FIRST: the first matching rule in rule order; no further rules are matched
+     */
+    static final class First extends HitPolicyExecutor {
+        First() {
+            super(DMNHitPolicy.FIRST);
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            int first = matches.next();
+            if (first == MatchCursor.NO_MORE) {
+                return noMatch();
+            }
+            return new DecisionResult(outputs.output(first), new int[] {first});
+        }
+    }
+    
+    /**
+     * PRIORITY: the matching rule whose output values have the highest priority.
+     * Without declared output values this degrades to the first match.
+     */
+    static final class Priority extends HitPolicyExecutor {
+        Priority() {
+            super(DMNHitPolicy.PRIORITY);
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            int best = matches.next();
+            if (best == MatchCursor.NO_MORE) {
+                return noMatch();
+            }
+            if (!outputs.hasPriorities()) {
+                return new DecisionResult(outputs.output(best), new int[] {best});
+            }
+            RuleList matched = new RuleList();
+            matched.add(best);
+            for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+                if (outputs.comparePriority(rule, best) < 0) {
+                    best = rule;
+                }
+            }
+            return new DecisionResult(outputs.output(best), matched.toArray());
+        }
+    }
+    
+    /**
+     * COLLECT without aggregation and RULE_ORDER: all outputs in rule order
+     */
+    static final class CollectList extends HitPolicyExecutor {
+        CollectList(DMNHitPolicy hitPolicy) {
+            super(hitPolicy);
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            RuleList matched = new RuleList();
+            List<Object> values = new ArrayList<>();
+            for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+                values.add(outputs.output(rule));
+            }
+            return new DecisionResult(values, matched.toArray());
+        }
+    }
+    
+    /**
+     * OUTPUT_ORDER: all outputs sorted by decreasing output priority,
+     * rule order among equal priorities
+     */
+    static final class OutputOrder extends HitPolicyExecutor {
+        OutputOrder() {
+            super(DMNHitPolicy.OUTPUT_ORDER);
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            RuleList matched = new RuleList();
+            for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+            }
+            Integer[] order = new Integer[matched.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = matched.get(i);
+            }
+            if (outputs.hasPriorities()) {
+                // Stable sort keeps rule order for equal priorities
+                Arrays.sort(order, outputs::comparePriority);
+            }
+            List<Object> values = new ArrayList<>(order.length);
+            for (Integer rule : order) {
+                values.add(outputs.output(rule));
+            }
+            return new DecisionResult(values, matched.toArray());
+        }
+    }
+    
+    /**
+     * COLLECT with an aggregation: shared handling of empty results
+     */
+    abstract static class Aggregate extends HitPolicyExecutor {
+        Aggregate() {
+            super(DMNHitPolicy.COLLECT);
+        }
+        
+        @Override
+        DecisionResult noMatch() {
+            return new DecisionResult(null, IntSets.EMPTY);
+        }
+        
+        DecisionResult notNumeric(AggregateMatches matched, int rule, String aggregation) {
+            return violation(HitPolicyViolation.Type.INVALID_AGGREGATION, matched.toArray(), new int[] {rule},
+                "Output of rule " + (rule + 1) + " is not a number and cannot be aggregated with " + aggregation);
+        }
+    }
+    
+    /**
+     * The matches of an aggregation. They are only counted if the cursor can
+     * replay them for {@link DecisionResult#getMatchedRules()}, and recorded
+     * otherwise.
+     */
+    static final class AggregateMatches {
+        private final Supplier<int[]> replay;
+        private final RuleList recorded;
+        int count;
+        
+        AggregateMatches(MatchCursor matches) {
+            this.replay = matches.replay();
+            this.recorded = replay == null ? new RuleList() : null;
+        }
+        
+        void add(int rule) {
+            count++;
+            if (recorded != null) {
+                recorded.add(rule);
+            }
+        }
+        
+        /**
+         * Returns the matches added so far
+         */
+        int[] toArray() {
+            if (recorded != null) {
+                return recorded.toArray();
+            }
+            int[] all = replay.get();
+            return count == all.length ? all : Arrays.copyOf(all, count);
+        }
+        
+        DecisionResult result(Object value) {
+            return recorded != null ? new DecisionResult(value, recorded.toArray())
+                : new DecisionResult(value, count, replay);
+        }
+    }
+    
+    /**
+     * COLLECT COUNT (C#): counts the matching rules
+     */
+    static final class CollectCount extends Aggregate {
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            AggregateMatches matched = new AggregateMatches(matches);
+            for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+            }
+            return matched.result(BigDecimal.valueOf(matched.count));
+        }
+        
+        @Override
+        DecisionResult noMatch() {
+            return new DecisionResult(BigDecimal.ZERO, IntSets.EMPTY);
+        }
+    }
+    
+    /**
+     * COLLECT SUM (C+): adds the outputs in a long accumulator when every
+     * output is a constant that fits a common scale, in decimals otherwise
+     */
+    static final class CollectSum extends Aggregate {
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            int rule = matches.next();
+            if (rule == MatchCursor.NO_MORE) {
+                return noMatch();
+            }
+            AggregateMatches matched = new AggregateMatches(matches);
+            BigDecimal decimalSum = null;
+            if (outputs.hasScaledNumbers()) {
+                long sum = 0;
+                for (; rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                    matched.add(rule);
+                    long value = outputs.scaledNumber(rule);
+                    long result = sum + value;
+                    if (((sum ^ result) & (value ^ result)) < 0) {
+                        // Overflow: continue with decimals
+                        decimalSum = BigDecimal.valueOf(sum, outputs.numberScale())
+                            .add(BigDecimal.valueOf(value, outputs.numberScale()));
+                        rule = matches.next();
+                        break;
+                    }
+                    sum = result;
+                }
+                if (decimalSum == null) {
+                    return matched.result(BigDecimal.valueOf(sum, outputs.numberScale()));
+                }
+            } else {
+                decimalSum = BigDecimal.ZERO;
+            }
+            for (; rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+                BigDecimal value = toDecimal(outputs.output(rule));
+                if (value == null) {
+                    return notNumeric(matched, rule, "SUM");
+                }
+                decimalSum = decimalSum.add(value, MATH_CONTEXT);
+            }
+            return matched.result(decimalSum);
+        }
+    }
+    
+    /**
+     * COLLECT MIN (C&lt;) and MAX (C&gt;): tracks the extreme output, comparing
+     * scaled longs when available
+     */
+    static final class CollectExtremum extends Aggregate {
+        private final boolean max;
+        
+        CollectExtremum(boolean max) {
+            this.max = max;
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            int best = matches.next();
+            if (best == MatchCursor.NO_MORE) {
+                return noMatch();
+            }
+            AggregateMatches matched = new AggregateMatches(matches);
+            matched.add(best);
+            if (outputs.hasScaledNumbers()) {
+                long bestValue = outputs.scaledNumber(best);
+                for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                    matched.add(rule);
+                    long value = outputs.scaledNumber(rule);
+                    if (max ? value > bestValue : value < bestValue) {
+                        best = rule;
+                        bestValue = value;
+                    }
+                }
+                return matched.result(outputs.output(best));
+            }
+            
+            Object bestOutput = outputs.output(best);
+            BigDecimal bestValue = toDecimal(bestOutput);
+            if (bestValue == null) {
+                return notNumeric(matched, best, max ? "MAX" : "MIN");
+            }
+            for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+                Object output = outputs.output(rule);
+                BigDecimal value = toDecimal(output);
+                if (value == null) {
+                    return notNumeric(matched, rule, max ? "MAX" : "MIN");
+                }
+                int cmp = value.compareTo(bestValue);
+                if (max ? cmp > 0 : cmp < 0) {
+                    bestOutput = output;
+                    bestValue = value;
+                }
+            }
+            return matched.result(bestOutput);
+        }
+    }
+    
+    /**
+     * COLLECT with an aggregation on a table that does not have exactly one output
+     */
+    static final class InvalidAggregation extends Aggregate {
+        private final String message;
+        
+        InvalidAggregation(DMNDecisionTable.AggregationType aggregation, int outputCount) {
+            this.message = "Aggregation " + aggregation.name() + " requires exactly one output column, found "
+                + outputCount;
+        }
+        
+        @Override
+        DecisionResult execute(MatchCursor matches, RuleOutputs outputs) {
+            RuleList matched = new RuleList();
+            for (int rule = matches.next(); rule != MatchCursor.NO_MORE; rule = matches.next()) {
+                matched.add(rule);
+            }
+            int[] rules = matched.toArray();
+            return violation(HitPolicyViolation.Type.INVALID_AGGREGATION, rules, rules, message);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.dmn.decisiontable;
+
+import java.util.Arrays;
+
+/**
+ * Describes why a decision table result violates its hit policy.
+ * When a violation is reported the decision value is null, as the DMN
+ * specification requires.
+ */
+public class HitPolicyViolation {
+    
+    /**
+     * Kinds of hit policy violations
+     */
+    public enum Type {
+        MULTIPLE_MATCHES("Multiple Matches", "More than one rule matched a UNIQUE table"),
+        CONFLICTING_OUTPUTS("Conflicting Outputs", "Rules matching an ANY table have different outputs"),
+        INVALID_AGGREGATION("Invalid Aggregation", "The COLLECT aggregation cannot be applied to the outputs");
+        
+        private final String name;
+        private final String description;
+        
+        Type(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+        
+        /**
+         * Returns the name of the violation type
+         * 
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Returns the description of the violation type
+         * 
+         * @return the description
+         */
+        public String getDescription() {
+            return description;
+        }
+        
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+    
+    private final Type type;
+    private final DMNHitPolicy hitPolicy;
+    private final int[] rules;
+    private final String message;
+    
+    /**
+     * Constructor
+     * 
+     * @param type the kind of violation
+     * @param hitPolicy the hit policy that was violated
+     * @param rules indexes of the rules involved
+     * @param message a human readable explanation
+     */
+    public HitPolicyViolation(Type type, DMNHitPolicy hitPolicy, int[] rules, String message) {
+        this.type = type;
+        this.hitPolicy = hitPolicy;
+        this.rules = rules;
+        this.message = message;
+    }
+    
+    /**
+     * Returns the kind of violation
+     * 
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+    
+    /**
+     * Returns the hit policy that was violated
+     * 
+     * @return the hit policy
+     */
+    public DMNHitPolicy getHitPolicy() {
+        return hitPolicy;
+    }
+    
+    /**
+     * Returns the indexes of the rules involved in the violation
+     * 
+     * @return the rule indexes
+     */
+    public int[] getRules() {
+        return rules.clone();
+    }
+    
+    /**
+     * Returns a human readable explanation
+     * 
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+    
+    @Override
+    public String toString() {
+        return type + " (" + hitPolicy.getSymbol() + "): " + message + " " + Arrays.toString(rules);
+    }
+}
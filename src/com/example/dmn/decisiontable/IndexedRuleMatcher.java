@@ -0,0 +1,679 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.UnaryTest;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Rule matcher that finds candidate rules through the index of one
+ * selective input column and tests the other columns per candidate.
+ * 
+ * Every column is indexed when the table is loaded: equality literals in a
+ * hash map, comparisons, intervals and negations of these in interval trees
+ * (one per type of compared value, see {@link IntervalTree}), and "don't
+ * care" entries as a separate sorted run. Entries that fit none of these
+ * (expressions) are tested directly. Columns that only test string literals
+ * map each literal to its rules through a {@link PerfectHashDispatch};
+ * columns with an {@link InputDomain} keep the rules of each ordinal. The
+ * column with the fewest expected candidates is kept as the probe, and the
+ * other indexes are dropped; if even that column matches most rules, every
+ * rule is a candidate. A lookup merges the rules the probe finds for the
+ * value with its "don't care" run as the cursor advances, and tests each
+ * candidate against the other columns, most selective first, so the cost
+ * depends on the number of candidates rather than the number of rules.
+ */
+final class IndexedRuleMatcher implements RuleMatcher {
+    
+    /**
+     * Share of the rules above which a column is not worth probing
+     */
+    private static final double MAX_PROBE_SHARE = 0.5;
+    
+    private final UnaryTest[][] tests;
+    private final int[] allRules;
+    
+    // The index that yields the candidates, or null if every rule is a candidate
+    private final ColumnIndex probe;
+    
+    // The columns tested per candidate, most selective first
+    private final int[] checkedColumns;
+    
+    // Per column with a domain, whether each rule matches, indexed by ordinal and then by rule
+    private final boolean[][][] ordinalMatches;
+    
+    /**
+     * Constructor
+     * 
+     * @param tests compiled input entries, indexed by rule and then by column
+     * @param columnCount number of input columns
+     * @param domains the domain of each column, or null entries for columns
+     *        without one; those columns receive ordinals as input values
+     */
+    IndexedRuleMatcher(UnaryTest[][] tests, int columnCount, InputDomain[] domains) {
+        this.tests = tests;
+        this.allRules = new int[tests.length];
+        for (int r = 0; r < tests.length; r++) {
+            allRules[r] = r;
+        }
+        this.ordinalMatches = new boolean[columnCount][][];
+        ColumnIndex[] columns = new ColumnIndex[columnCount];
+        Integer[] order = new Integer[columnCount];
+        double[] estimates = new double[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            if (domains[c] != null) {
+                ordinalMatches[c] = domains[c].matchTable(tests, c);
+            }
+            columns[c] = new ColumnIndex(tests, c, ordinalMatches[c]);
+            estimates[c] = columns[c].estimate();
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(estimates[a], estimates[b]));
+        
+        boolean probing = columnCount > 0 && estimates[order[0]] <= MAX_PROBE_SHARE * tests.length;
+        this.probe = probing ? columns[order[0]] : null;
+        this.checkedColumns = new int[probing ? columnCount - 1 : columnCount];
+        for (int i = 0; i < checkedColumns.length; i++) {
+            checkedColumns[i] = order[probing ? i + 1 : i];
+        }
+    }
+    
+    @Override
+    public int[] match(Object[] inputs) {
+        MatchCursor cursor = cursor(inputs);
+        int[] matches = new int[tests.length];
+        int n = 0;
+        for (int rule = cursor.next(); rule != MatchCursor.NO_MORE; rule = cursor.next()) {
+            matches[n++] = rule;
+        }
+        return Arrays.copyOf(matches, n);
+    }
+    
+    @Override
+    public MatchCursor cursor(Object[] inputs) {
+        return probe != null
+            ? new CandidateCursor(inputs, probe.lookup(inputs[probe.column]), probe.dontCareRules)
+            : new CandidateCursor(inputs, allRules, IntSets.EMPTY);
+    }
+    
+    /**
+     * Normalize a value for use as an equality key: all numbers become
+     * doubles so that 1000, 1000.0 and BigDecimal("1000") share one key.
+     */
+    static Object equalityKey(Object value) {
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            return d == 0.0 ? 0.0 : d;
+        }
+        return value;
+    }
+    
+    /**
+     * Merges the two sorted candidate runs of the probe and tests each
+     * candidate against the other columns as the caller advances
+     */
+    private final class CandidateCursor implements MatchCursor {
+        private final Object[] inputs;
+        private final int[] found;
+        private final int[] dontCare;
+        private final boolean[] numeric;
+        private final double[] numbers;
+        private final boolean[][] ordinals;
+        private int nextFound;
+        private int nextDontCare;
+        
+        CandidateCursor(Object[] inputs, int[] found, int[] dontCare) {
+            this.inputs = inputs;
+            this.found = found;
+            this.dontCare = dontCare;
+            int columnCount = ordinalMatches.length;
+            this.numeric = new boolean[columnCount];
+            this.numbers = new double[columnCount];
+            this.ordinals = new boolean[columnCount][];
+            for (int c : checkedColumns) {
+                if (ordinalMatches[c] != null) {
+                    ordinals[c] = ordinalMatches[c][(Integer) inputs[c]];
+                } else if (UnaryTest.hasExactDouble(inputs[c])) {
+                    numeric[c] = true;
+                    numbers[c] = ((Number) inputs[c]).doubleValue();
+                }
+            }
+        }
+        
+        @Override
+        public int next() {
+            while (true) {
+                int rule;
+                if (nextFound < found.length
+                        && (nextDontCare >= dontCare.length || found[nextFound] < dontCare[nextDontCare])) {
+                    rule = found[nextFound++];
+                } else if (nextDontCare < dontCare.length) {
+                    rule = dontCare[nextDontCare++];
+                } else {
+                    return NO_MORE;
+                }
+                if (matches(rule)) {
+                    return rule;
+                }
+            }
+        }
+        
+        private boolean matches(int r) {
+            UnaryTest[] rule = tests[r];
+            for (int c : checkedColumns) {
+                boolean matched;
+                if (ordinals[c] != null) {
+                    matched = ordinals[c][r];
+                } else {
+                    matched = numeric[c] ? rule[c].testNumber(numbers[c]) : rule[c].test(inputs[c]);
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Index over the entries of a single input column
+     */
+    private static final class ColumnIndex {
+        private final int column;
+        private final int ruleCount;
+        private final Map<Object, int[]> equalityRules = new HashMap<>();
+        private final int[] dontCareRules;
+        
+        // Rules by ordinal of a column with an input domain, or null
+        private final int[][] ordinalRules;
+        
+        // Rules per literal of a column of string equality tests, or null
+        private final PerfectHashDispatch<int[]> stringRules;
+        
+        // Ranges and negations, by the type of value they compare with
+        private final RangeDomain[] domains;
+        
+        // Entries that cannot be indexed, tested one by one
+        private final int[] residualRules;
+        private final UnaryTest[] residualTests;
+        
+        ColumnIndex(UnaryTest[][] tests, int column, boolean[][] ordinalMatches) {
+            this.column = column;
+            this.ruleCount = tests.length;
+            if (ordinalMatches != null) {
+                ordinalRules = new int[ordinalMatches.length][];
+                for (int ordinal = 0; ordinal < ordinalMatches.length; ordinal++) {
+                    int[] rules = new int[tests.length];
+                    int n = 0;
+                    for (int r = 0; r < tests.length; r++) {
+                        if (ordinalMatches[ordinal][r]) {
+                            rules[n++] = r;
+                        }
+                    }
+                    ordinalRules[ordinal] = Arrays.copyOf(rules, n);
+                }
+                dontCareRules = IntSets.EMPTY;
+                stringRules = null;
+                domains = new RangeDomain[0];
+                residualRules = IntSets.EMPTY;
+                residualTests = new UnaryTest[0];
+                return;
+            }
+            ordinalRules = null;
+            Map<Object, List<Integer>> equality = new HashMap<>();
+            List<Integer> dontCare = new ArrayList<>();
+            Map<Class<?>, RangeDomain> ranges = new LinkedHashMap<>();
+            List<Integer> residualOwners = new ArrayList<>();
+            List<UnaryTest> residual = new ArrayList<>();
+            
+            for (int r = 0; r < tests.length; r++) {
+                UnaryTest test = tests[r][column];
+                if (test.getKind() == UnaryTest.Kind.ANY) {
+                    dontCare.add(r);
+                } else if (isIndexable(test)) {
+                    addIndexable(test, r, equality, ranges);
+                } else {
+                    residualOwners.add(r);
+                    residual.add(test);
+                }
+            }
+            
+            for (Map.Entry<Object, List<Integer>> entry : equality.entrySet()) {
+                equalityRules.put(entry.getKey(), toSortedSet(entry.getValue()));
+            }
+            dontCareRules = toSortedSet(dontCare);
+            stringRules = PerfectHashDispatch.isStringColumn(tests, column) ? stringDispatch() : null;
+            
+            domains = ranges.values().toArray(new RangeDomain[0]);
+            for (RangeDomain domain : domains) {
+                domain.build();
+            }
+            
+            residualRules = new int[residualOwners.size()];
+            for (int i = 0; i < residualRules.length; i++) {
+                residualRules[i] = residualOwners.get(i);
+            }
+            residualTests = residual.toArray(new UnaryTest[0]);
+        }
+        
+        /**
+         * Estimate the number of candidates of a lookup: the average over the
+         * tested literals, ordinals and segments between range bounds
+         */
+        double estimate() {
+            if (ordinalRules != null) {
+                long total = 0;
+                for (int[] rules : ordinalRules) {
+                    total += rules.length;
+                }
+                return (double) total / ordinalRules.length;
+            }
+            double estimate = dontCareRules.length + residualRules.length;
+            if (!equalityRules.isEmpty()) {
+                long total = 0;
+                for (int[] rules : equalityRules.values()) {
+                    total += rules.length;
+                }
+                estimate += (double) total / equalityRules.size();
+            }
+            for (RangeDomain domain : domains) {
+                estimate += domain.estimate();
+            }
+            return Math.min(estimate, ruleCount);
+        }
+        
+        /**
+         * Find the rules whose entry in this column matches the value,
+         * except the "don't care" entries
+         * 
+         * @param value the input value
+         * @return sorted rule indexes
+         */
+        int[] lookup(Object value) {
+            if (ordinalRules != null) {
+                return ordinalRules[(Integer) value];
+            }
+            if (stringRules != null && value instanceof String) {
+                int[] rules = stringRules.get(value);
+                return rules != null ? rules : IntSets.EMPTY;
+            }
+            int[] result = IntSets.EMPTY;
+            if (value instanceof Number && !UnaryTest.hasExactDouble(value)) {
+                BigDecimal decimal = UnaryTest.decimalValue(value);
+                double number = decimal != null ? decimal.doubleValue() : Double.NaN;
+                if (decimal == null || Double.isInfinite(number)
+                        || BigDecimal.valueOf(number).compareTo(decimal) != 0) {
+                    // Its double may equal a bound it differs from; no equality literal has its value
+                    for (RangeDomain domain : domains) {
+                        result = IntSets.union(result, domain.lookupDecimal(decimal, value));
+                    }
+                    return IntSets.union(result, residual(value));
+                }
+                // The decimal of its double is its own value, such as the float 0.1f as 0.1
+                value = number;
+            }
+            
+            int[] equal = equalityRules.get(equalityKey(value));
+            if (equal != null) {
+                result = equal;
+            }
+            for (RangeDomain domain : domains) {
+                result = IntSets.union(result, domain.lookup(value));
+            }
+            return IntSets.union(result, residual(value));
+        }
+        
+        private int[] residual(Object value) {
+            if (residualRules.length == 0) {
+                return IntSets.EMPTY;
+            }
+            int[] hits = new int[residualRules.length];
+            int n = 0;
+            for (int i = 0; i < residualRules.length; i++) {
+                if (residualTests[i].test(value)) {
+                    hits[n++] = residualRules[i];
+                }
+            }
+            return IntSets.sortedSet(hits, n);
+        }
+        
+        private PerfectHashDispatch<int[]> stringDispatch() {
+            Map<String, int[]> entries = new LinkedHashMap<>();
+            for (Map.Entry<Object, int[]> entry : equalityRules.entrySet()) {
+                entries.put((String) entry.getKey(), entry.getValue());
+            }
+            return PerfectHashDispatch.build(entries);
+        }
+        
+        private static boolean isIndexable(UnaryTest test) {
+            if (test instanceof UnaryTest.NumberEquals) {
+                return ((UnaryTest.NumberEquals) test).isExact();
+            }
+            if (test.getKind() == UnaryTest.Kind.EQUALS || RangeDomain.typeOf(test) != null) {
+                return true;
+            }
+            if (test instanceof UnaryTest.Disjunction) {
+                for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                    if (!isIndexable(alternative)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+        
+        private static void addIndexable(UnaryTest test, int rule, Map<Object, List<Integer>> equality,
+                                         Map<Class<?>, RangeDomain> ranges) {
+            if (test instanceof UnaryTest.LiteralEquals) {
+                Object key = equalityKey(((UnaryTest.LiteralEquals) test).getValue());
+                equality.computeIfAbsent(key, k -> new ArrayList<>()).add(rule);
+            } else if (test instanceof UnaryTest.NumberEquals) {
+                Object key = equalityKey(((UnaryTest.NumberEquals) test).getNumber());
+                equality.computeIfAbsent(key, k -> new ArrayList<>()).add(rule);
+            } else if (RangeDomain.typeOf(test) != null) {
+                ranges.computeIfAbsent(RangeDomain.typeOf(test), RangeDomain::new).add(test, rule);
+            } else if (test instanceof UnaryTest.Disjunction) {
+                for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                    addIndexable(alternative, rule, equality, ranges);
+                }
+            }
+        }
+        
+        private static int[] toSortedSet(List<Integer> rules) {
+            int[] values = new int[rules.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rules.get(i);
+            }
+            return IntSets.sortedSet(values, values.length);
+        }
+    }
+    
+    /**
+     * Ranges of one column over one type of value: numbers, or the values of
+     * one comparable class such as {@link java.time.LocalDate} or String.
+     * 
+     * Each entry is turned into the sorted, disjoint intervals of values it
+     * matches. A "not(...)" entry becomes the complement of its intervals,
+     * and also matches every value of another type; those rules are kept
+     * apart. The intervals go into an {@link IntervalTree}. Values other than
+     * numbers are mapped to doubles by their rank among the bounds of the
+     * column: the i-th bound becomes 2i and the values between two bounds
+     * the odd number in between, which keeps the order and the open and
+     * closed bounds exact.
+     */
+    private static final class RangeDomain {
+        
+        /**
+         * Stand-in for any value of another type, which no range contains
+         */
+        private static final Object OUTSIDE = new Object();
+        
+        private final Class<?> type;
+        private final List<UnaryTest> tests = new ArrayList<>();
+        private final List<Integer> owners = new ArrayList<>();
+        private Object[] bounds;
+        private IntervalTree tree;
+        private int[] outsideRules;
+        
+        // Sorted finite interval bounds of a number domain, and their decimal values
+        private double[] points;
+        private BigDecimal[] decimalPoints;
+        
+        RangeDomain(Class<?> type) {
+            this.type = type;
+        }
+        
+        /**
+         * The type of value a test compares with, if it can be indexed as ranges
+         * 
+         * @return Number.class, the class of the compared values, or null
+         */
+        static Class<?> typeOf(UnaryTest test) {
+            if (test instanceof UnaryTest.NumberRange) {
+                return ((UnaryTest.NumberRange) test).isExact() ? Number.class : null;
+            }
+            if (test instanceof UnaryTest.ValueRange) {
+                UnaryTest.ValueRange range = (UnaryTest.ValueRange) test;
+                Object bound = range.getLow() != null ? range.getLow() : range.getHigh();
+                boolean sameType = range.getLow() == null || range.getHigh() == null
+                    || range.getLow().getClass() == range.getHigh().getClass();
+                // Booleans are comparable in Java, but not ordered in FEEL
+                return bound instanceof Comparable && !(bound instanceof Boolean) && sameType ? bound.getClass() : null;
+            }
+            if (test instanceof UnaryTest.Not) {
+                return typeOfNegated(((UnaryTest.Not) test).getNegated());
+            }
+            return null;
+        }
+        
+        /**
+         * Type of the tests under a "not": equality tests are included, as
+         * they can only be indexed as points of the complement there
+         */
+        private static Class<?> typeOfNegated(UnaryTest test) {
+            if (test instanceof UnaryTest.NumberEquals) {
+                return ((UnaryTest.NumberEquals) test).isExact() ? Number.class : null;
+            }
+            if (test instanceof UnaryTest.LiteralEquals) {
+                // Equality of these comparable types agrees with compareTo
+                Object value = ((UnaryTest.LiteralEquals) test).getValue();
+                return value instanceof Comparable ? value.getClass() : null;
+            }
+            if (test instanceof UnaryTest.Disjunction) {
+                Class<?> type = null;
+                for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                    Class<?> alternativeType = typeOfNegated(alternative);
+                    if (alternativeType == null || type != null && type != alternativeType) {
+                        return null;
+                    }
+                    type = alternativeType;
+                }
+                return type;
+            }
+            return typeOf(test);
+        }
+        
+        void add(UnaryTest test, int rule) {
+            tests.add(test);
+            owners.add(rule);
+        }
+        
+        void build() {
+            if (type != Number.class) {
+                TreeSet<Object> values = new TreeSet<>();
+                for (UnaryTest test : tests) {
+                    collectBounds(test, values);
+                }
+                bounds = values.toArray();
+            }
+            List<IntervalTree.Interval> intervals = new ArrayList<>();
+            List<Integer> outside = new ArrayList<>();
+            for (int i = 0; i < tests.size(); i++) {
+                int rule = owners.get(i);
+                intervals.addAll(intervals(tests.get(i), rule));
+                if (tests.get(i).test(OUTSIDE)) {
+                    outside.add(rule);
+                }
+            }
+            tree = new IntervalTree(intervals);
+            outsideRules = ColumnIndex.toSortedSet(outside);
+            if (type == Number.class) {
+                TreeSet<Double> finite = new TreeSet<>();
+                for (IntervalTree.Interval interval : intervals) {
+                    addPoint(interval.low, finite);
+                    addPoint(interval.high, finite);
+                }
+                points = new double[finite.size()];
+                decimalPoints = new BigDecimal[points.length];
+                int i = 0;
+                for (double point : finite) {
+                    points[i] = point;
+                    decimalPoints[i++] = BigDecimal.valueOf(point);
+                }
+            }
+        }
+        
+        private static void addPoint(double point, TreeSet<Double> points) {
+            if (!Double.isInfinite(point)) {
+                points.add(point == 0.0 ? 0.0 : point);
+            }
+        }
+        
+        /**
+         * Average number of rules matching a bound or a value between two bounds
+         */
+        double estimate() {
+            long total = 0;
+            int samples = 0;
+            if (type == Number.class) {
+                if (points.length == 0) {
+                    return tree.lookup(0.0).length;
+                }
+                total += tree.lookup(Math.nextDown(points[0])).length;
+                total += tree.lookup(Math.nextUp(points[points.length - 1])).length;
+                samples += 2;
+                for (int i = 0; i < points.length; i++) {
+                    total += tree.lookup(points[i]).length;
+                    samples++;
+                    if (i > 0) {
+                        total += tree.lookup(points[i - 1] / 2 + points[i] / 2).length;
+                        samples++;
+                    }
+                }
+            } else {
+                for (int rank = -1; rank < 2 * bounds.length; rank++) {
+                    total += tree.lookup(rank).length;
+                    samples++;
+                }
+            }
+            return (double) total / samples;
+        }
+        
+        /**
+         * Find the rules whose ranges match the value
+         * 
+         * @param value the input value
+         * @return sorted rule indexes
+         */
+        int[] lookup(Object value) {
+            if (type == Number.class) {
+                double number = value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+                // NaN compares false with every bound, like a value of another type
+                return Double.isNaN(number) ? outsideRules : tree.lookup(number);
+            }
+            return value != null && value.getClass() == type ? tree.lookup(rank(value)) : outsideRules;
+        }
+        
+        /**
+         * Find the rules whose ranges match a number without an exact double,
+         * by ranking its decimal value among the bounds: any double strictly
+         * between the two bounds around it matches the same ranges
+         * 
+         * @param decimal the decimal value of the number, or null if it is not finite
+         * @param value the input value
+         * @return sorted rule indexes
+         */
+        int[] lookupDecimal(BigDecimal decimal, Object value) {
+            if (type != Number.class) {
+                return lookup(value);
+            }
+            if (decimal == null) {
+                return testAll(value);
+            }
+            int index = Arrays.binarySearch(decimalPoints, decimal);
+            if (index >= 0) {
+                return tree.lookup(points[index]);
+            }
+            int gap = -index - 1;
+            double low = gap > 0 ? points[gap - 1] : Double.NEGATIVE_INFINITY;
+            double high = gap < points.length ? points[gap] : Double.POSITIVE_INFINITY;
+            double probe = decimal.doubleValue();
+            if (!(low < probe && probe < high)) {
+                if (low == Double.NEGATIVE_INFINITY) {
+                    probe = high == Double.POSITIVE_INFINITY ? 0.0 : Math.nextDown(high);
+                } else {
+                    probe = high == Double.POSITIVE_INFINITY ? Math.nextUp(low) : low / 2 + high / 2;
+                }
+            }
+            // Two adjacent bounds leave no double in between
+            return low < probe && probe < high ? tree.lookup(probe) : testAll(value);
+        }
+        
+        private int[] testAll(Object value) {
+            int[] hits = new int[tests.size()];
+            int n = 0;
+            for (int i = 0; i < hits.length; i++) {
+                if (tests.get(i).test(value)) {
+                    hits[n++] = owners.get(i);
+                }
+            }
+            return IntSets.sortedSet(hits, n);
+        }
+        
+        private void collectBounds(UnaryTest test, TreeSet<Object> values) {
+            if (test instanceof UnaryTest.ValueRange) {
+                UnaryTest.ValueRange range = (UnaryTest.ValueRange) test;
+                if (range.getLow() != null) {
+                    values.add(range.getLow());
+                }
+                if (range.getHigh() != null) {
+                    values.add(range.getHigh());
+                }
+            } else if (test instanceof UnaryTest.LiteralEquals) {
+                values.add(((UnaryTest.LiteralEquals) test).getValue());
+            } else if (test instanceof UnaryTest.Not) {
+                collectBounds(((UnaryTest.Not) test).getNegated(), values);
+            } else if (test instanceof UnaryTest.Disjunction) {
+                for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                    collectBounds(alternative, values);
+                }
+            }
+        }
+        
+        /**
+         * Position of a value among the bounds: 2i for the i-th bound, odd
+         * numbers between two bounds
+         */
+        private double rank(Object value) {
+            int index = Arrays.binarySearch(bounds, value);
+            return index >= 0 ? 2.0 * index : 2.0 * (-index - 1) - 1;
+        }
+        
+        /**
+         * The values of this domain a test matches, as intervals
+         */
+        private List<IntervalTree.Interval> intervals(UnaryTest test, int rule) {
+            List<IntervalTree.Interval> result = new ArrayList<>();
+            if (test instanceof UnaryTest.NumberRange) {
+                UnaryTest.NumberRange range = (UnaryTest.NumberRange) test;
+                result.add(new IntervalTree.Interval(range.getLow(), range.isLowInclusive(),
+                    range.getHigh(), range.isHighInclusive(), rule));
+            } else if (test instanceof UnaryTest.NumberEquals) {
+                double number = ((UnaryTest.NumberEquals) test).getNumber();
+                result.add(new IntervalTree.Interval(number, true, number, true, rule));
+            } else if (test instanceof UnaryTest.ValueRange) {
+                UnaryTest.ValueRange range = (UnaryTest.ValueRange) test;
+                double low = range.getLow() == null ? Double.NEGATIVE_INFINITY : rank(range.getLow());
+                double high = range.getHigh() == null ? Double.POSITIVE_INFINITY : rank(range.getHigh());
+                result.add(new IntervalTree.Interval(low, range.isLowInclusive(), high, range.isHighInclusive(), rule));
+            } else if (test instanceof UnaryTest.LiteralEquals) {
+                double point = rank(((UnaryTest.LiteralEquals) test).getValue());
+                result.add(new IntervalTree.Interval(point, true, point, true, rule));
+            } else if (test instanceof UnaryTest.Disjunction) {
+                for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                    result.addAll(intervals(alternative, rule));
+                }
+            } else if (test instanceof UnaryTest.Not) {
+                List<IntervalTree.Interval> negated = intervals(((UnaryTest.Not) test).getNegated(), rule);
+                return IntervalTree.complement(IntervalTree.union(negated), rule);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.dmn.decisiontable;
+
+/**
+ * Column-oriented block of input rows for batch evaluation.
+ * 
+ * Each input column is either a primitive {@code double[]} (with an optional
+ * null mask) or an {@code Object[]}. Columns are indexed in the input order of
+ * the table; a column that is never set reads as null. The arrays are used
+ * as given, not copied, so a caller can refill them and evaluate again.
+ */
+public class InputBlock {
+    
+    private final int rowCount;
+    private final double[][] numbers;
+    private final boolean[][] nulls;
+    private final Object[][] values;
+    
+    /**
+     * Constructor
+     * 
+     * @param columnCount the number of input columns
+     * @param rowCount the number of rows in the block
+     */
+    public InputBlock(int columnCount, int rowCount) {
+        if (columnCount < 0 || rowCount < 0) {
+            throw new IllegalArgumentException("Invalid block size: " + columnCount + " x " + rowCount);
+        }
+        this.rowCount = rowCount;
+        this.numbers = new double[columnCount][];
+        this.nulls = new boolean[columnCount][];
+        this.values = new Object[columnCount][];
+    }
+    
+    /**
+     * Set a numeric column
+     * 
+     * @param column the input column index
+     * @param columnValues one value per row
+     * @return this block for method chaining
+     */
+    public InputBlock setNumbers(int column, double[] columnValues) {
+        return setNumbers(column, columnValues, null);
+    }
+    
+    /**
+     * Set a numeric column with missing values
+     * 
+     * @param column the input column index
+     * @param columnValues one value per row
+     * @param nullMask true for rows whose value is null, or null if no value is missing
+     * @return this block for method chaining
+     */
+    public InputBlock setNumbers(int column, double[] columnValues, boolean[] nullMask) {
+        checkLength(columnValues.length);
+        if (nullMask != null) {
+            checkLength(nullMask.length);
+        }
+        numbers[column] = columnValues;
+        nulls[column] = nullMask;
+        values[column] = null;
+        return this;
+    }
+    
+    /**
+     * Set a column of arbitrary values (String, Number, Boolean or null)
+     * 
+     * @param column the input column index
+     * @param columnValues one value per row
+     * @return this block for method chaining
+     */
+    public InputBlock setValues(int column, Object[] columnValues) {
+        checkLength(columnValues.length);
+        values[column] = columnValues;
+        numbers[column] = null;
+        nulls[column] = null;
+        return this;
+    }
+    
+    private void checkLength(int length) {
+        if (length < rowCount) {
+            throw new IllegalArgumentException("Column has " + length + " values, block has " + rowCount + " rows");
+        }
+    }
+    
+    /**
+     * Returns the number of rows
+     * 
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    /**
+     * Returns the number of input columns
+     * 
+     * @return the column count
+     */
+    public int getColumnCount() {
+        return numbers.length;
+    }
+    
+    /**
+     * Check whether a column holds primitive numbers
+     * 
+     * @param column the input column index
+     * @return true if the column was set with {@link #setNumbers(int, double[])}
+     */
+    public boolean isNumeric(int column) {
+        return numbers[column] != null;
+    }
+    
+    /**
+     * Check whether a cell is null
+     * 
+     * @param column the input column index
+     * @param row the row index
+     * @return true if the value is missing
+     */
+    public boolean isNull(int column, int row) {
+        if (numbers[column] != null) {
+            return nulls[column] != null && nulls[column][row];
+        }
+        return values[column] == null || values[column][row] == null;
+    }
+    
+    /**
+     * Returns a cell of a numeric column
+     * 
+     * @param column the input column index
+     * @param row the row index
+     * @return the primitive value
+     */
+    public double getNumber(int column, int row) {
+        return numbers[column][row];
+    }
+    
+    /**
+     * Returns a cell as an object; numeric cells are boxed
+     * 
+     * @param column the input column index
+     * @param row the row index
+     * @return the value, or null if missing
+     */
+    public Object getValue(int column, int row) {
+        if (numbers[column] != null) {
+            return nulls[column] != null && nulls[column][row] ? null : numbers[column][row];
+        }
+        return values[column] != null ? values[column][row] : null;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.UnaryTest;
+import com.example.dmn.feel.UnaryTestCompiler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allowed values of an input column whose input values list string
+ * literals, such as {@code "Gold","Silver","Bronze"}.
+ * 
+ * Each allowed value is encoded as its position in the list (its ordinal),
+ * and null as {@link #size()}. Tables compile the entries of such a column
+ * against every ordinal once, so matching a value is an array lookup by
+ * ordinal, and a value that is not allowed is rejected before any rule is
+ * tested. Instances are immutable.
+ */
+public final class InputDomain {
+    
+    private final String inputName;
+    private final String[] values;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    
+    /**
+     * Constructor
+     * 
+     * @param inputName the name of the input column, for error messages
+     * @param values the allowed values; duplicates keep their first position
+     */
+    public InputDomain(String inputName, String... values) {
+        this.inputName = inputName;
+        List<String> distinct = new ArrayList<>(values.length);
+        for (String value : values) {
+            if (!ordinals.containsKey(value)) {
+                ordinals.put(value, distinct.size());
+                distinct.add(value);
+            }
+        }
+        this.values = distinct.toArray(new String[0]);
+    }
+    
+    /**
+     * Create the domain declared by the input values of a column
+     * 
+     * @param inputName the name of the input column
+     * @param inputValues comma-separated FEEL literals, or null
+     * @return the domain, or null if the input values are empty or are not all string literals
+     * @throws com.example.dmn.feel.FEELSyntaxException if the input values are not valid FEEL
+     */
+    public static InputDomain parse(String inputName, String inputValues) {
+        if (inputValues == null || inputValues.trim().isEmpty()) {
+            return null;
+        }
+        UnaryTest test = new UnaryTestCompiler().compile(inputValues);
+        UnaryTest[] alternatives = test instanceof UnaryTest.Disjunction
+            ? ((UnaryTest.Disjunction) test).getTests() : new UnaryTest[] {test};
+        String[] values = new String[alternatives.length];
+        for (int i = 0; i < alternatives.length; i++) {
+            if (!(alternatives[i] instanceof UnaryTest.LiteralEquals)
+                    || !(((UnaryTest.LiteralEquals) alternatives[i]).getValue() instanceof String)) {
+                return null;
+            }
+            values[i] = (String) ((UnaryTest.LiteralEquals) alternatives[i]).getValue();
+        }
+        return new InputDomain(inputName, values);
+    }
+    
+    /**
+     * Returns the ordinal of an input value
+     * 
+     * @param value the input value
+     * @return the position of the value in the allowed values, or {@link #size()} for null
+     * @throws InputValueException if the value is not allowed
+     */
+    public int ordinal(Object value) {
+        if (value == null) {
+            return values.length;
+        }
+        Integer ordinal = value instanceof String ? ordinals.get(value) : null;
+        if (ordinal == null) {
+            throw new InputValueException(inputName, value, getValues());
+        }
+        return ordinal;
+    }
+    
+    /**
+     * Returns the value of an ordinal
+     * 
+     * @param ordinal the ordinal, from 0 to {@link #size()}
+     * @return the allowed value, or null for {@link #size()}
+     */
+    public String value(int ordinal) {
+        return ordinal < values.length ? values[ordinal] : null;
+    }
+    
+    /**
+     * Returns the number of allowed values
+     * 
+     * @return the size, which is also the ordinal of null
+     */
+    public int size() {
+        return values.length;
+    }
+    
+    /**
+     * Returns the name of the input column
+     * 
+     * @return the input name
+     */
+    public String getInputName() {
+        return inputName;
+    }
+    
+    /**
+     * Returns the allowed values
+     * 
+     * @return the values in ordinal order
+     */
+    public List<String> getValues() {
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+    
+    /**
+     * Evaluate the entries of a column for every ordinal
+     * 
+     * @param tests compiled input entries, indexed by rule and then by column
+     * @param column the column of this domain
+     * @return whether each rule matches, indexed by ordinal (null last) and then by rule
+     */
+    boolean[][] matchTable(UnaryTest[][] tests, int column) {
+        boolean[][] matches = new boolean[values.length + 1][tests.length];
+        for (int ordinal = 0; ordinal <= values.length; ordinal++) {
+            Object value = value(ordinal);
+            for (int r = 0; r < tests.length; r++) {
+                matches[ordinal][r] = tests[r][column].test(value);
+            }
+        }
+        return matches;
+    }
+    
+    @Override
+    public String toString() {
+        return inputName + " in " + getValues();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.dmn.decisiontable;
+
+import java.util.List;
+
+/**
+ * Thrown when an input value is not one of the input values declared for
+ * its column.
+ */
+public class InputValueException extends IllegalArgumentException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final String inputName;
+    private final transient Object value;
+    
+    /**
+     * Constructor
+     * 
+     * @param inputName the name of the input column
+     * @param value the rejected value
+     * @param allowedValues the input values of the column
+     */
+    public InputValueException(String inputName, Object value, List<String> allowedValues) {
+        super("Input '" + inputName + "' is " + (value instanceof String ? "\"" + value + "\"" : value)
+            + ", expected one of " + allowedValues);
+        this.inputName = inputName;
+        this.value = value;
+    }
+    
+    /**
+     * Returns the name of the input column
+     * 
+     * @return the input name
+     */
+    public String getInputName() {
+        return inputName;
+    }
+    
+    /**
+     * Returns the rejected value
+     * 
+     * @return the value
+     */
+    public Object getValue() {
+        return value;
+    }
+}
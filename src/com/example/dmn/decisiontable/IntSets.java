@@ -0,0 +1,100 @@
+package com.example.dmn.decisiontable;
+
+import java.util.Arrays;
+
+/**
+ * Operations on sorted, duplicate-free int arrays used as rule sets.
+ */
+final class IntSets {
+    
+    static final int[] EMPTY = new int[0];
+    
+    private IntSets() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Intersect two sorted sets
+     * 
+     * @param a first set
+     * @param b second set
+     * @return the sorted intersection
+     */
+    static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+    
+    /**
+     * Merge two sorted sets
+     * 
+     * @param a first set
+     * @param b second set
+     * @return the sorted union
+     */
+    static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[n++] = a[i++];
+        }
+        while (j < b.length) {
+            result[n++] = b[j++];
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+    
+    /**
+     * Sort and remove duplicates from the first {@code length} elements
+     * 
+     * @param values the values
+     * @param length number of values in use
+     * @return a sorted, duplicate-free copy
+     */
+    static int[] sortedSet(int[] values, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        int[] sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+        int n = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[n - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.dmn.decisiontable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static interval tree over the ranges tested by the rules of one column.
+ * 
+ * Each node holds a center point and the intervals that contain it, once
+ * sorted by lower bound and once by upper bound (descending). Intervals
+ * entirely below the center go to the left subtree, those above to the
+ * right one. A lookup descends one path and, at each node, reads the sorted
+ * intervals only as long as they contain the value, so it costs O(log n)
+ * plus the number of matching intervals, in O(n) memory.
+ * 
+ * Bounds may be open or closed. Infinite bounds are treated as closed, so
+ * that an infinite input matches "&gt; 0" as it does in the unary test.
+ */
+final class IntervalTree {
+    
+    private static final Comparator<Interval> BY_LOW = (a, b) -> {
+        int cmp = Double.compare(a.low, b.low);
+        // At the same bound, closed intervals contain more values and come first
+        return cmp != 0 ? cmp : Boolean.compare(b.lowInclusive, a.lowInclusive);
+    };
+    
+    private static final Comparator<Interval> BY_HIGH_DESCENDING = (a, b) -> {
+        int cmp = Double.compare(b.high, a.high);
+        return cmp != 0 ? cmp : Boolean.compare(b.highInclusive, a.highInclusive);
+    };
+    
+    // Nodes
+    private final double[] centers;
+    private final int[] lefts;
+    private final int[] rights;
+    private final int[] starts;
+    private final int[] ends;
+    private final int root;
+    
+    // Intervals of each node from starts[node] to ends[node], sorted by lower bound
+    private final double[] lows;
+    private final boolean[] lowInclusive;
+    private final int[] lowRules;
+    
+    // The same intervals sorted by upper bound, descending
+    private final double[] highs;
+    private final boolean[] highInclusive;
+    private final int[] highRules;
+    
+    private int nodeCount;
+    private int intervalCount;
+    
+    /**
+     * Constructor
+     * 
+     * @param intervals the intervals, each tagged with its rule
+     */
+    IntervalTree(List<Interval> intervals) {
+        List<Interval> nonEmpty = new ArrayList<>(intervals.size());
+        for (Interval interval : intervals) {
+            if (!interval.isEmpty()) {
+                nonEmpty.add(interval);
+            }
+        }
+        int n = nonEmpty.size();
+        this.centers = new double[n];
+        this.lefts = new int[n];
+        this.rights = new int[n];
+        this.starts = new int[n];
+        this.ends = new int[n];
+        this.lows = new double[n];
+        this.lowInclusive = new boolean[n];
+        this.lowRules = new int[n];
+        this.highs = new double[n];
+        this.highInclusive = new boolean[n];
+        this.highRules = new int[n];
+        this.root = build(nonEmpty);
+    }
+    
+    /**
+     * Returns whether the tree holds no interval
+     * 
+     * @return true if no value matches
+     */
+    boolean isEmpty() {
+        return intervalCount == 0;
+    }
+    
+    /**
+     * Find the rules with an interval containing the value
+     * 
+     * @param value the value, not NaN
+     * @return sorted rule indexes
+     */
+    int[] lookup(double value) {
+        int[] hits = IntSets.EMPTY;
+        int n = 0;
+        int node = root;
+        while (node >= 0) {
+            double center = centers[node];
+            int end = ends[node];
+            if (value < center) {
+                // All intervals here reach the center, so those starting at or before the value contain it
+                for (int i = starts[node]; i < end && startsBefore(i, value); i++) {
+                    hits = append(hits, n++, lowRules[i]);
+                }
+                node = lefts[node];
+            } else if (value > center) {
+                for (int i = starts[node]; i < end && endsAfter(i, value); i++) {
+                    hits = append(hits, n++, highRules[i]);
+                }
+                node = rights[node];
+            } else {
+                for (int i = starts[node]; i < end; i++) {
+                    hits = append(hits, n++, lowRules[i]);
+                }
+                break;
+            }
+        }
+        if (n <= 1) {
+            return n == 0 ? IntSets.EMPTY : hits;
+        }
+        return IntSets.sortedSet(hits, n);
+    }
+    
+    /**
+     * Merge intervals of one rule into sorted, disjoint intervals
+     * 
+     * @param intervals the intervals
+     * @return the union
+     */
+    static List<Interval> union(List<Interval> intervals) {
+        List<Interval> sorted = new ArrayList<>(intervals.size());
+        for (Interval interval : intervals) {
+            if (!interval.isEmpty()) {
+                sorted.add(interval);
+            }
+        }
+        sorted.sort(BY_LOW);
+        List<Interval> result = new ArrayList<>(sorted.size());
+        for (Interval interval : sorted) {
+            Interval last = result.isEmpty() ? null : result.get(result.size() - 1);
+            boolean touches = last != null && (interval.low < last.high
+                || interval.low == last.high && (interval.lowInclusive || last.highInclusive));
+            if (!touches) {
+                result.add(interval);
+            } else if (interval.high > last.high || interval.high == last.high && interval.highInclusive) {
+                result.set(result.size() - 1,
+                    new Interval(last.low, last.lowInclusive, interval.high, interval.highInclusive, last.rule));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Complement of sorted, disjoint intervals of one rule, over all doubles
+     * including the infinities
+     * 
+     * @param intervals the intervals, as returned by {@link #union(List)}
+     * @param rule the rule of the complement
+     * @return the complement, sorted and disjoint
+     */
+    static List<Interval> complement(List<Interval> intervals, int rule) {
+        List<Interval> result = new ArrayList<>(intervals.size() + 1);
+        double low = Double.NEGATIVE_INFINITY;
+        boolean lowInclusive = true;
+        for (Interval interval : intervals) {
+            Interval gap = new Interval(low, lowInclusive, interval.low, !interval.lowInclusive, rule);
+            if (!gap.isEmpty()) {
+                result.add(gap);
+            }
+            low = interval.high;
+            lowInclusive = !interval.highInclusive;
+        }
+        Interval gap = new Interval(low, lowInclusive, Double.POSITIVE_INFINITY, true, rule);
+        if (!gap.isEmpty()) {
+            result.add(gap);
+        }
+        return result;
+    }
+    
+    private boolean startsBefore(int i, double value) {
+        return lowInclusive[i] ? lows[i] <= value : lows[i] < value;
+    }
+    
+    private boolean endsAfter(int i, double value) {
+        return highInclusive[i] ? highs[i] >= value : highs[i] > value;
+    }
+    
+    private static int[] append(int[] values, int index, int value) {
+        // Most lookups in tables of disjoint ranges find a single interval
+        int[] target = index < values.length ? values : Arrays.copyOf(values, Math.max(1, values.length * 4));
+        target[index] = value;
+        return target;
+    }
+    
+    /**
+     * Build the subtree for a set of intervals
+     * 
+     * @return the node index, or -1 for an empty set
+     */
+    private int build(List<Interval> intervals) {
+        if (intervals.isEmpty()) {
+            return -1;
+        }
+        double center = median(intervals);
+        List<Interval> here = new ArrayList<>();
+        List<Interval> below = new ArrayList<>();
+        List<Interval> above = new ArrayList<>();
+        partition(intervals, center, here, below, above);
+        if (here.isEmpty()) {
+            // The median was an open bound; split at a point of the first interval instead
+            center = intervals.get(0).anyPoint();
+            below.clear();
+            above.clear();
+            partition(intervals, center, here, below, above);
+        }
+        
+        int node = nodeCount++;
+        centers[node] = center;
+        starts[node] = intervalCount;
+        here.sort(BY_LOW);
+        for (int i = 0; i < here.size(); i++) {
+            Interval interval = here.get(i);
+            lows[intervalCount + i] = interval.low;
+            lowInclusive[intervalCount + i] = interval.lowInclusive;
+            lowRules[intervalCount + i] = interval.rule;
+        }
+        here.sort(BY_HIGH_DESCENDING);
+        for (int i = 0; i < here.size(); i++) {
+            Interval interval = here.get(i);
+            highs[intervalCount + i] = interval.high;
+            highInclusive[intervalCount + i] = interval.highInclusive;
+            highRules[intervalCount + i] = interval.rule;
+        }
+        intervalCount += here.size();
+        ends[node] = intervalCount;
+        lefts[node] = build(below);
+        rights[node] = build(above);
+        return node;
+    }
+    
+    private static void partition(List<Interval> intervals, double center,
+                                  List<Interval> here, List<Interval> below, List<Interval> above) {
+        for (Interval interval : intervals) {
+            if (interval.contains(center)) {
+                here.add(interval);
+            } else if (interval.high <= center) {
+                below.add(interval);
+            } else {
+                above.add(interval);
+            }
+        }
+    }
+    
+    /**
+     * Median of the finite bounds, which splits the intervals about evenly
+     */
+    private static double median(List<Interval> intervals) {
+        double[] bounds = new double[intervals.size() * 2];
+        int n = 0;
+        for (Interval interval : intervals) {
+            if (!Double.isInfinite(interval.low)) {
+                bounds[n++] = interval.low;
+            }
+            if (!Double.isInfinite(interval.high)) {
+                bounds[n++] = interval.high;
+            }
+        }
+        if (n == 0) {
+            return 0.0;
+        }
+        Arrays.sort(bounds, 0, n);
+        return bounds[n / 2];
+    }
+    
+    /**
+     * Interval of doubles that selects a rule
+     */
+    static final class Interval {
+        final double low;
+        final boolean lowInclusive;
+        final double high;
+        final boolean highInclusive;
+        final int rule;
+        
+        /**
+         * Constructor
+         * 
+         * @param low the lower bound, or negative infinity
+         * @param lowInclusive whether the lower bound is part of the interval
+         * @param high the upper bound, or positive infinity
+         * @param highInclusive whether the upper bound is part of the interval
+         * @param rule the rule index
+         */
+        Interval(double low, boolean lowInclusive, double high, boolean highInclusive, int rule) {
+            // -0.0 and 0.0 are the same bound; infinite bounds are closed
+            this.low = low + 0.0;
+            this.lowInclusive = lowInclusive || low == Double.NEGATIVE_INFINITY;
+            this.high = high + 0.0;
+            this.highInclusive = highInclusive || high == Double.POSITIVE_INFINITY;
+            this.rule = rule;
+        }
+        
+        boolean contains(double value) {
+            return (lowInclusive ? value >= low : value > low) && (highInclusive ? value <= high : value < high);
+        }
+        
+        boolean isEmpty() {
+            if (low != high) {
+                return low > high || !lowInclusive && !highInclusive && Math.nextUp(low) == high;
+            }
+            return !lowInclusive || !highInclusive;
+        }
+        
+        /**
+         * Returns a value in a non-empty interval
+         */
+        double anyPoint() {
+            if (lowInclusive) {
+                return low;
+            }
+            return highInclusive ? high : Math.nextUp(low);
+        }
+        
+        @Override
+        public String toString() {
+            return (lowInclusive ? "[" : "(") + low + ".." + high + (highInclusive ? "]" : ")") + " -> " + rule;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.dmn.decisiontable;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Iterator over matching rules in ascending rule order. Matchers may find
+ * matches lazily, so a hit policy executor that stops early also stops the
+ * matching work.
+ */
+interface MatchCursor {
+    
+    /**
+     * Returned by {@link #next()} when there are no more matches
+     */
+    int NO_MORE = -1;
+    
+    /**
+     * Advance to the next matching rule
+     * 
+     * @return the index of the next matching rule, or {@link #NO_MORE}
+     */
+    int next();
+    
+    /**
+     * Returns the matches of this cursor once more, for executors that fold
+     * the matches as they go and only report the rules when asked
+     * 
+     * @return a supplier of all matches in rule order, or null if the cursor
+     *         cannot replay them and the executor must record them
+     */
+    default Supplier<int[]> replay() {
+        return null;
+    }
+    
+    /**
+     * Cursor over an already computed array of matches
+     */
+    final class OfArray implements MatchCursor {
+        private final int[] matches;
+        private final int length;
+        private int position;
+        
+        OfArray(int[] matches) {
+            this(matches, matches.length);
+        }
+        
+        /**
+         * Cursor over the first matches of an array
+         */
+        OfArray(int[] matches, int length) {
+            this.matches = matches;
+            this.length = length;
+        }
+        
+        @Override
+        public int next() {
+            return position < length ? matches[position++] : NO_MORE;
+        }
+        
+        @Override
+        public Supplier<int[]> replay() {
+            // The arrays are not reused after the evaluation
+            return () -> length == matches.length ? matches : Arrays.copyOf(matches, length);
+        }
+    }
+}
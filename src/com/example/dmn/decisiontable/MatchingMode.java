@@ -0,0 +1,59 @@
+package com.example.dmn.decisiontable;
+
+/**
+ * Strategies available to {@link DecisionTableEvaluator} for finding the
+ * rules that match a row of input values. The mode is chosen per table.
+ */
+public enum MatchingMode {
+    /**
+     * Scan - Test every rule in order; no precomputation, best for small tables
+     */
+    SCAN("Scan", "Tests every rule in order"),
+    
+    /**
+     * Indexed - Probe the index of the most selective column, test the other columns per candidate
+     */
+    INDEXED("Indexed", "Most selective column probed, others tested per candidate"),
+    
+    /**
+     * Bitset - Per-column precomputed rule bitsets ANDed per lookup; the default
+     */
+    BITSET("Bitset", "Per-column rule bitsets ANDed per lookup");
+    
+    private final String name;
+    private final String description;
+    
+    /**
+     * Constructor
+     * 
+     * @param name name of the matching mode
+     * @param description description of the matching mode
+     */
+    MatchingMode(String name, String description) {
+        this.name = name;
+        this.description = description;
+    }
+    
+    /**
+     * Returns the name of the matching mode
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns the description of the matching mode
+     * 
+     * @return the description
+     */
+    public String getDescription() {
+        return description;
+    }
+    
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.dmn.decisiontable;
+
+/**
+ * Column-oriented result of a batch evaluation, one array per output column.
+ * 
+ * For single-hit policies a cell holds the output value of the selected rule.
+ * For COLLECT, RULE_ORDER and OUTPUT_ORDER a cell holds the list of that
+ * column's values over the selected rules; a COLLECT aggregation holds the
+ * aggregate. A block can be reused for further batches of at most
+ * {@link #getRowCount()} rows; every evaluated row is overwritten.
+ */
+public class OutputBlock {
+    
+    private final int rowCount;
+    private final Object[][] columns;
+    private final int[] matchCounts;
+    private final HitPolicyViolation[] violations;
+    
+    /**
+     * Constructor
+     * 
+     * @param columnCount the number of output columns
+     * @param rowCount the number of rows to hold
+     */
+    public OutputBlock(int columnCount, int rowCount) {
+        if (columnCount < 0 || rowCount < 0) {
+            throw new IllegalArgumentException("Invalid block size: " + columnCount + " x " + rowCount);
+        }
+        this.rowCount = rowCount;
+        this.columns = new Object[columnCount][rowCount];
+        this.matchCounts = new int[rowCount];
+        this.violations = new HitPolicyViolation[rowCount];
+    }
+    
+    /**
+     * Returns the number of rows the block can hold
+     * 
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    /**
+     * Returns the number of output columns
+     * 
+     * @return the column count
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+    
+    /**
+     * Returns an output column. The array is the block's own storage.
+     * 
+     * @param column the output column index
+     * @return the output values, one per row
+     */
+    public Object[] getColumn(int column) {
+        return columns[column];
+    }
+    
+    /**
+     * Returns an output value
+     * 
+     * @param column the output column index
+     * @param row the row index
+     * @return the value
+     */
+    public Object getValue(int column, int row) {
+        return columns[column][row];
+    }
+    
+    /**
+     * Returns the number of matching rules the hit policy looked at for a row
+     * 
+     * @param row the row index
+     * @return the match count
+     */
+    public int getMatchCount(int row) {
+        return matchCounts[row];
+    }
+    
+    /**
+     * Returns the hit policy violation of a row
+     * 
+     * @param row the row index
+     * @return the violation, or null if the row result is valid
+     */
+    public HitPolicyViolation getViolation(int row) {
+        return violations[row];
+    }
+    
+    /**
+     * Store the result of one row
+     */
+    void set(int row, Object[] rowValues, int matchCount, HitPolicyViolation violation) {
+        for (int o = 0; o < columns.length; o++) {
+            columns[o][row] = rowValues[o];
+        }
+        matchCounts[row] = matchCount;
+        violations[row] = violation;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.UnaryTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal perfect hash from the string literals of an input column to a
+ * value per literal, such as the rules or the rule bitset it selects.
+ * 
+ * The table has exactly one slot per literal. A lookup multiplies the cached
+ * {@link String#hashCode()} into a bucket, mixes it with that bucket's seed
+ * into a slot, and compares the cached hash code of the literal in that slot
+ * before one {@link String#equals(Object)}; strings that are not literals of
+ * the column are usually rejected without any character comparison. The seeds are
+ * found when the table is built (hash and displace: the largest buckets
+ * first, each with the first seed that maps its literals to free slots; the
+ * seed of a single literal is computed for the next free slot).
+ */
+final class PerfectHashDispatch<V> {
+    
+    /**
+     * Odd multiplier of {@link #slot(int, int, int)} and its inverse modulo 2^32
+     */
+    private static final int SLOT_MULTIPLIER = 0x85EBCA6B;
+    private static final int SLOT_MULTIPLIER_INVERSE = 0xA5CB9243;
+    
+    /**
+     * Give up on seeds beyond this, which only happens for pathological key sets
+     */
+    private static final int MAX_SEED = 1 << 16;
+    
+    private final int[] seeds;
+    private final int bucketShift;
+    private final int size;
+    
+    // Literal and value of each slot, side by side so that a probe reads one cache line
+    private final Object[] entries;
+    
+    private PerfectHashDispatch(int[] seeds, Object[] entries) {
+        this.seeds = seeds;
+        this.bucketShift = Integer.numberOfLeadingZeros(seeds.length) + 1;
+        this.size = entries.length / 2;
+        this.entries = entries;
+    }
+    
+    /**
+     * Check whether every entry of a column is a string literal, a list of
+     * string literals or "-", so that a value selects its rules through a
+     * single lookup of the input string
+     * 
+     * @param tests compiled input entries, indexed by rule and then by column
+     * @param column the column
+     * @return true if the column can dispatch on the input string
+     */
+    static boolean isStringColumn(UnaryTest[][] tests, int column) {
+        boolean literals = false;
+        for (UnaryTest[] rule : tests) {
+            UnaryTest test = rule[column];
+            if (test.getKind() == UnaryTest.Kind.ANY) {
+                continue;
+            }
+            if (!isStringEquality(test)) {
+                return false;
+            }
+            literals = true;
+        }
+        return literals;
+    }
+    
+    private static boolean isStringEquality(UnaryTest test) {
+        if (test instanceof UnaryTest.LiteralEquals) {
+            return ((UnaryTest.LiteralEquals) test).getValue() instanceof String;
+        }
+        if (test instanceof UnaryTest.Disjunction) {
+            for (UnaryTest alternative : ((UnaryTest.Disjunction) test).getTests()) {
+                if (!isStringEquality(alternative)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Build the table
+     * 
+     * @param entries the literals and their values
+     * @return the table, or null if two literals have the same hash code
+     */
+    static <V> PerfectHashDispatch<V> build(Map<String, V> entries) {
+        int n = entries.size();
+        String[] literals = entries.keySet().toArray(new String[0]);
+        Set<Integer> distinct = new HashSet<>();
+        for (String literal : literals) {
+            if (!distinct.add(literal.hashCode())) {
+                // No seed separates equal hash codes
+                return null;
+            }
+        }
+        
+        // About two literals per bucket; a power of two of at least 2, so that the bucket is a shift
+        int bucketCount = Math.max(2, Integer.highestOneBit(Math.max(1, n / 2) * 2 - 1) << 1);
+        int bucketShift = Integer.numberOfLeadingZeros(bucketCount) + 1;
+        List<List<String>> buckets = new ArrayList<>(bucketCount);
+        for (int b = 0; b < bucketCount; b++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (String literal : literals) {
+            buckets.get(bucket(literal.hashCode(), bucketShift)).add(literal);
+        }
+        Integer[] order = new Integer[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[b] = b;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(buckets.get(b).size(), buckets.get(a).size()));
+        
+        int[] seeds = new int[bucketCount];
+        String[] keys = new String[n];
+        int[] slots = new int[4];
+        int free = 0;
+        for (int b : order) {
+            List<String> bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            if (bucket.size() == 1) {
+                // Searching would take about n tries per literal once the table fills up;
+                // a single literal can be sent to any free slot directly
+                while (keys[free] != null) {
+                    free++;
+                }
+                seeds[b] = seedFor(bucket.get(0).hashCode(), free, n);
+                keys[free] = bucket.get(0);
+                continue;
+            }
+            if (slots.length < bucket.size()) {
+                slots = new int[bucket.size()];
+            }
+            int seed = 0;
+            while (!place(bucket, seed, keys, slots)) {
+                if (++seed > MAX_SEED) {
+                    return null;
+                }
+            }
+            seeds[b] = seed;
+            for (int i = 0; i < bucket.size(); i++) {
+                keys[slots[i]] = bucket.get(i);
+            }
+        }
+        
+        Object[] table = new Object[n * 2];
+        for (int slot = 0; slot < n; slot++) {
+            table[slot * 2] = keys[slot];
+            table[slot * 2 + 1] = entries.get(keys[slot]);
+        }
+        return new PerfectHashDispatch<>(seeds, table);
+    }
+    
+    /**
+     * Rebuild a table from the seeds and slot order of one built before for
+     * the same literals
+     * 
+     * @param seeds the seeds, as returned by {@link #seeds()}
+     * @param keys the literal of each slot, as returned by {@link #key(int)}
+     * @param entries the literals and their values
+     * @return the table, or null if the seeds and slots do not fit the literals
+     */
+    static <V> PerfectHashDispatch<V> of(int[] seeds, String[] keys, Map<String, V> entries) {
+        if (seeds.length < 2 || Integer.bitCount(seeds.length) != 1 || keys.length != entries.size()) {
+            return null;
+        }
+        Object[] table = new Object[keys.length * 2];
+        for (int slot = 0; slot < keys.length; slot++) {
+            table[slot * 2] = keys[slot];
+            table[slot * 2 + 1] = entries.get(keys[slot]);
+        }
+        PerfectHashDispatch<V> dispatch = new PerfectHashDispatch<>(seeds.clone(), table);
+        for (Map.Entry<String, V> entry : entries.entrySet()) {
+            if (dispatch.get(entry.getKey()) != entry.getValue()) {
+                return null;
+            }
+        }
+        return dispatch;
+    }
+    
+    /**
+     * Find free, distinct slots for the literals of a bucket with a seed
+     */
+    private static boolean place(List<String> bucket, int seed, String[] keys, int[] slots) {
+        for (int i = 0; i < bucket.size(); i++) {
+            int slot = slot(bucket.get(i).hashCode(), seed, keys.length);
+            if (keys[slot] != null) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (slots[j] == slot) {
+                    return false;
+                }
+            }
+            slots[i] = slot;
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the value of a literal
+     * 
+     * @param value the input value
+     * @return the value, or null if the input is not one of the literals
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object value) {
+        if (!(value instanceof String) || size == 0) {
+            return null;
+        }
+        int hash = value.hashCode();
+        int slot = slot(hash, seeds[bucket(hash, bucketShift)], size) * 2;
+        // String caches its hash code, so comparing it first rejects most misses cheaply
+        String key = (String) entries[slot];
+        return key.hashCode() == hash && key.equals(value) ? (V) entries[slot + 1] : null;
+    }
+    
+    /**
+     * Returns the number of literals
+     * 
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the seed of each bucket
+     * 
+     * @return a copy of the seeds
+     */
+    int[] seeds() {
+        return seeds.clone();
+    }
+    
+    /**
+     * Returns the literal of a slot
+     * 
+     * @param slot the slot, less than {@link #size()}
+     * @return the literal
+     */
+    String key(int slot) {
+        return (String) entries[slot * 2];
+    }
+    
+    /**
+     * Fibonacci hashing: the top bits of the product depend on every bit of
+     * the hash code
+     */
+    private static int bucket(int hash, int shift) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+    
+    /**
+     * Map a hash code and a seed to a slot in [0, size), by multiplying
+     * instead of dividing
+     */
+    private static int slot(int hash, int seed, int size) {
+        return (int) ((((hash ^ seed) * SLOT_MULTIPLIER) & 0xFFFFFFFFL) * size >>> 32);
+    }
+    
+    /**
+     * Returns the seed that maps a hash code to a given slot
+     */
+    private static int seedFor(int hash, int slot, int size) {
+        // The smallest product that the multiplication by size maps to the slot
+        long product = ((((long) slot) << 32) + size - 1) / size;
+        return hash ^ ((int) product * SLOT_MULTIPLIER_INVERSE);
+    }
+}
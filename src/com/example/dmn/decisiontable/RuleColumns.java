@@ -0,0 +1,369 @@
+package com.example.dmn.decisiontable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rules of a decision table stored column by column, as codes into a
+ * {@link Dictionary} of the distinct entry texts.
+ * 
+ * Machine-generated tables repeat a small set of entries ("-", "true",
+ * "&gt;= 18") over many rules. Stored this way a rule costs one code per
+ * entry, one byte while the dictionary has fewer than 255 entries, and no
+ * objects, so the memory of a table grows with its distinct entries rather
+ * than with its rules. Codes widen to two and then four bytes as the
+ * dictionary grows. Tables of one document can share a dictionary.
+ * 
+ * {@link DMNDecisionTableStub#setRuleColumns(RuleColumns)} makes a stub
+ * keep its rules here. Instances are not thread-safe while rules are added.
+ */
+public final class RuleColumns {
+    
+    // Stored codes are the dictionary codes plus one; 0 is a missing entry
+    private static final int BYTE_LIMIT = 0xFF;
+    private static final int CHAR_LIMIT = 0xFFFF;
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private final Dictionary dictionary;
+    private final int inputCount;
+    private final int outputCount;
+    private int ruleCount;
+    private int capacity;
+    private int limit = BYTE_LIMIT;
+    
+    // Exactly one of these holds the columns, inputs first, by the width of the codes
+    private byte[][] bytes;
+    private char[][] chars;
+    private int[][] ints;
+    
+    /**
+     * Constructor
+     * 
+     * @param dictionary the dictionary of the entries, possibly shared with other tables
+     * @param inputCount the number of input columns
+     * @param outputCount the number of output columns
+     */
+    public RuleColumns(Dictionary dictionary, int inputCount, int outputCount) {
+        this.dictionary = dictionary;
+        this.inputCount = inputCount;
+        this.outputCount = outputCount;
+        this.capacity = INITIAL_CAPACITY;
+        this.bytes = new byte[inputCount + outputCount][capacity];
+    }
+    
+    /**
+     * Returns the dictionary of the entries
+     * 
+     * @return the dictionary
+     */
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+    
+    /**
+     * Returns the number of input columns
+     * 
+     * @return the input count
+     */
+    public int getInputCount() {
+        return inputCount;
+    }
+    
+    /**
+     * Returns the number of output columns
+     * 
+     * @return the output count
+     */
+    public int getOutputCount() {
+        return outputCount;
+    }
+    
+    /**
+     * Returns the number of rules
+     * 
+     * @return the rule count
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+    
+    /**
+     * Returns the number of bytes per stored entry
+     * 
+     * @return 1, 2 or 4
+     */
+    public int getCodeWidth() {
+        return bytes != null ? 1 : chars != null ? 2 : 4;
+    }
+    
+    /**
+     * Add a rule given by the dictionary codes of its entries
+     * 
+     * @param codes the codes of the input entries followed by those of the
+     *        output entries; -1 for a missing entry
+     */
+    public void addRule(int[] codes) {
+        if (ruleCount == capacity) {
+            grow();
+        }
+        for (int code : codes) {
+            while (code + 1 > limit) {
+                widen();
+            }
+        }
+        for (int c = 0; c < codes.length; c++) {
+            set(c, ruleCount, codes[c] + 1);
+        }
+        ruleCount++;
+    }
+    
+    /**
+     * Add a rule given by the text of its entries
+     * 
+     * @param rule the rule; entries beyond the columns are ignored, missing entries are stored as null
+     */
+    public void addRule(DMNDecisionTableStub.DMNDecisionRule rule) {
+        int[] codes = new int[inputCount + outputCount];
+        for (int c = 0; c < inputCount; c++) {
+            codes[c] = code(rule.getInputEntries(), c);
+        }
+        for (int o = 0; o < outputCount; o++) {
+            codes[inputCount + o] = code(rule.getOutputEntries(), o);
+        }
+        addRule(codes);
+    }
+    
+    private int code(List<String> entries, int index) {
+        String entry = index < entries.size() ? entries.get(index) : null;
+        return entry != null ? dictionary.code(entry) : -1;
+    }
+    
+    /**
+     * Returns an input entry
+     * 
+     * @param rule the rule index
+     * @param column the input column index
+     * @return the entry text, or null if the rule has no entry for the column
+     */
+    public String getInputEntry(int rule, int column) {
+        return entry(column, rule);
+    }
+    
+    /**
+     * Returns an output entry
+     * 
+     * @param rule the rule index
+     * @param column the output column index
+     * @return the entry text, or null if the rule has no entry for the column
+     */
+    public String getOutputEntry(int rule, int column) {
+        return entry(inputCount + column, rule);
+    }
+    
+    /**
+     * Returns the rules as a list that reads and adds through these columns.
+     * Each {@code get} returns a new rule; changes to its entries are not
+     * stored.
+     * 
+     * @return the list view
+     */
+    public List<DMNDecisionTableStub.DMNDecisionRule> asRules() {
+        return new AbstractList<DMNDecisionTableStub.DMNDecisionRule>() {
+            @Override
+            public DMNDecisionTableStub.DMNDecisionRule get(int rule) {
+                checkRule(rule);
+                DMNDecisionTableStub.DMNDecisionRule result = new DMNDecisionTableStub.DMNDecisionRule();
+                for (int c = 0; c < inputCount; c++) {
+                    result.addInputEntry(getInputEntry(rule, c));
+                }
+                for (int o = 0; o < outputCount; o++) {
+                    result.addOutputEntry(getOutputEntry(rule, o));
+                }
+                return result;
+            }
+            
+            @Override
+            public boolean add(DMNDecisionTableStub.DMNDecisionRule rule) {
+                addRule(rule);
+                modCount++;
+                return true;
+            }
+            
+            @Override
+            public int size() {
+                return ruleCount;
+            }
+        };
+    }
+    
+    /**
+     * Returns the input entries by rule, as used by compilation; rows are
+     * views of the columns and are created as they are read
+     */
+    List<List<String>> inputRows() {
+        return rows(0, inputCount);
+    }
+    
+    /**
+     * Returns the output entries by rule, see {@link #inputRows()}
+     */
+    List<List<String>> outputRows() {
+        return rows(inputCount, outputCount);
+    }
+    
+    private List<List<String>> rows(int first, int count) {
+        return new AbstractList<List<String>>() {
+            @Override
+            public List<String> get(int rule) {
+                checkRule(rule);
+                return new AbstractList<String>() {
+                    @Override
+                    public String get(int column) {
+                        if (column < 0 || column >= count) {
+                            throw new IndexOutOfBoundsException("Column " + column + " of " + count);
+                        }
+                        return entry(first + column, rule);
+                    }
+                    
+                    @Override
+                    public int size() {
+                        return count;
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return ruleCount;
+            }
+        };
+    }
+    
+    private void checkRule(int rule) {
+        if (rule < 0 || rule >= ruleCount) {
+            throw new IndexOutOfBoundsException("Rule " + rule + " of " + ruleCount);
+        }
+    }
+    
+    private String entry(int column, int rule) {
+        int stored = bytes != null ? bytes[column][rule] & BYTE_LIMIT
+            : chars != null ? chars[column][rule] : ints[column][rule];
+        return stored == 0 ? null : dictionary.get(stored - 1);
+    }
+    
+    private void set(int column, int rule, int stored) {
+        if (bytes != null) {
+            bytes[column][rule] = (byte) stored;
+        } else if (chars != null) {
+            chars[column][rule] = (char) stored;
+        } else {
+            ints[column][rule] = stored;
+        }
+    }
+    
+    private void grow() {
+        capacity = Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+        for (int c = 0; c < inputCount + outputCount; c++) {
+            if (bytes != null) {
+                bytes[c] = Arrays.copyOf(bytes[c], capacity);
+            } else if (chars != null) {
+                chars[c] = Arrays.copyOf(chars[c], capacity);
+            } else {
+                ints[c] = Arrays.copyOf(ints[c], capacity);
+            }
+        }
+    }
+    
+    /**
+     * Move the codes to the next wider representation
+     */
+    private void widen() {
+        int columns = inputCount + outputCount;
+        if (bytes != null) {
+            chars = new char[columns][capacity];
+            for (int c = 0; c < columns; c++) {
+                for (int r = 0; r < ruleCount; r++) {
+                    chars[c][r] = (char) (bytes[c][r] & BYTE_LIMIT);
+                }
+            }
+            bytes = null;
+            limit = CHAR_LIMIT;
+        } else {
+            ints = new int[columns][capacity];
+            for (int c = 0; c < columns; c++) {
+                for (int r = 0; r < ruleCount; r++) {
+                    ints[c][r] = chars[c][r];
+                }
+            }
+            chars = null;
+            limit = Integer.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * Distinct entry texts, each with a code in the order it was added
+     */
+    public static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> entries = new ArrayList<>();
+        private final UnaryOperator<String> canonical;
+        
+        /**
+         * Constructor
+         */
+        public Dictionary() {
+            this(null);
+        }
+        
+        /**
+         * Constructor with a function applied to each new entry, such as
+         * {@code StringInterner::intern} to share entries with other dictionaries
+         * 
+         * @param canonical the function returning the instance to store, or null
+         */
+        public Dictionary(UnaryOperator<String> canonical) {
+            this.canonical = canonical;
+        }
+        
+        /**
+         * Returns the code of an entry, adding the entry if it is new
+         * 
+         * @param entry the entry text
+         * @return the code
+         */
+        public int code(String entry) {
+            Integer code = codes.get(entry);
+            if (code == null) {
+                code = entries.size();
+                String stored = canonical != null ? canonical.apply(entry) : entry;
+                entries.add(stored);
+                codes.put(stored, code);
+            }
+            return code;
+        }
+        
+        /**
+         * Returns the entry of a code
+         * 
+         * @param code the code
+         * @return the entry text
+         */
+        public String get(int code) {
+            return entries.get(code);
+        }
+        
+        /**
+         * Returns the number of distinct entries
+         * 
+         * @return the dictionary size
+         */
+        public int size() {
+            return entries.size();
+        }
+    }
+}
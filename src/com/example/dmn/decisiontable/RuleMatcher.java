@@ -0,0 +1,29 @@
+package com.example.dmn.decisiontable;
+
+/**
+ * Strategy for finding the rules of a decision table whose input entries
+ * all match a row of input values. Rows are encoded by
+ * {@link CompiledDecisionTable#encode(Object[])}: columns with an
+ * {@link InputDomain} hold the ordinal of their value.
+ */
+interface RuleMatcher {
+    
+    /**
+     * Find the matching rules
+     * 
+     * @param inputs input values, one per input column
+     * @return indexes of the matching rules in ascending rule order
+     */
+    int[] match(Object[] inputs);
+    
+    /**
+     * Iterate over the matching rules. Matchers that can find matches
+     * incrementally override this so early termination saves work.
+     * 
+     * @param inputs input values, one per input column
+     * @return a cursor over the matching rules in ascending rule order
+     */
+    default MatchCursor cursor(Object[] inputs) {
+        return new MatchCursor.OfArray(match(inputs));
+    }
+}
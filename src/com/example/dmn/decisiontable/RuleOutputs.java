@@ -0,0 +1,68 @@
+package com.example.dmn.decisiontable;
+
+/**
+ * Access to the outputs of the rules of a table for one evaluation.
+ * Hit policy executors only touch the outputs of the rules they need, so
+ * output entries of rules that are never selected are not evaluated.
+ */
+interface RuleOutputs {
+    
+    /**
+     * Returns the output of a rule: the value for a single output column,
+     * otherwise a map from output name to value
+     * 
+     * @param rule the rule index
+     * @return the rule output
+     */
+    Object output(int rule);
+    
+    /**
+     * Check whether two rules produce the same output
+     * 
+     * @param first a rule index
+     * @param second another rule index
+     * @return true if all output values are equal
+     */
+    boolean sameOutput(int first, int second);
+    
+    /**
+     * Check whether output value priorities are declared for the table
+     * 
+     * @return true if at least one output column lists its output values
+     */
+    boolean hasPriorities();
+    
+    /**
+     * Compare two rules by the priority of their output values, first
+     * output column first
+     * 
+     * @param first a rule index
+     * @param second another rule index
+     * @return negative if the first rule has the higher priority, zero if equal
+     */
+    int comparePriority(int first, int second);
+    
+    /**
+     * Check whether every rule has a constant numeric output that is
+     * available as a scaled long, see {@link #scaledNumber(int)}
+     * 
+     * @return true if scaled numbers are available
+     */
+    boolean hasScaledNumbers();
+    
+    /**
+     * Returns the single numeric output of a rule as an unscaled long
+     * with the common scale {@link #numberScale()}
+     * 
+     * @param rule the rule index
+     * @return the unscaled output value
+     */
+    long scaledNumber(int rule);
+    
+    /**
+     * Returns the decimal scale shared by all scaled numbers
+     * 
+     * @return the scale
+     */
+    int numberScale();
+}
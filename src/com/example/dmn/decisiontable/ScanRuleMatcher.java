@@ -0,0 +1,97 @@
+package com.example.dmn.decisiontable;
+
+import com.example.dmn.feel.UnaryTest;
+import java.util.Arrays;
+
+/**
+ * Rule matcher that tests every rule in order. Numeric inputs are unboxed
+ * once per call and passed to {@link UnaryTest#testNumber(double)}, and
+ * entries of columns with an {@link InputDomain} are precomputed per ordinal.
+ * The cursor tests rules only as far as the caller advances it.
+ */
+final class ScanRuleMatcher implements RuleMatcher {
+    
+    private final UnaryTest[][] tests;
+    private final int columnCount;
+    
+    // Per column with a domain, whether each rule matches, indexed by ordinal and then by rule
+    private final boolean[][][] ordinalMatches;
+    
+    /**
+     * Constructor
+     * 
+     * @param tests compiled input entries, indexed by rule and then by column
+     * @param columnCount number of input columns
+     * @param domains the domain of each column, or null entries for columns
+     *        without one; those columns receive ordinals as input values
+     */
+    ScanRuleMatcher(UnaryTest[][] tests, int columnCount, InputDomain[] domains) {
+        this.tests = tests;
+        this.columnCount = columnCount;
+        this.ordinalMatches = new boolean[columnCount][][];
+        for (int c = 0; c < columnCount; c++) {
+            if (domains[c] != null) {
+                ordinalMatches[c] = domains[c].matchTable(tests, c);
+            }
+        }
+    }
+    
+    @Override
+    public int[] match(Object[] inputs) {
+        MatchCursor cursor = cursor(inputs);
+        int[] matches = new int[tests.length];
+        int n = 0;
+        for (int rule = cursor.next(); rule != MatchCursor.NO_MORE; rule = cursor.next()) {
+            matches[n++] = rule;
+        }
+        return Arrays.copyOf(matches, n);
+    }
+    
+    @Override
+    public MatchCursor cursor(Object[] inputs) {
+        return new ScanCursor(inputs);
+    }
+    
+    /**
+     * Lazily tests the rules following the last match
+     */
+    private final class ScanCursor implements MatchCursor {
+        private final Object[] inputs;
+        private final boolean[] numeric = new boolean[columnCount];
+        private final double[] numbers = new double[columnCount];
+        private final boolean[][] ordinals = new boolean[columnCount][];
+        private int nextRule;
+        
+        ScanCursor(Object[] inputs) {
+            this.inputs = inputs;
+            for (int c = 0; c < columnCount; c++) {
+                if (ordinalMatches[c] != null) {
+                    ordinals[c] = ordinalMatches[c][(Integer) inputs[c]];
+                } else if (UnaryTest.hasExactDouble(inputs[c])) {
+                    numeric[c] = true;
+                    numbers[c] = ((Number) inputs[c]).doubleValue();
+                }
+            }
+        }
+        
+        @Override
+        public int next() {
+            while (nextRule < tests.length) {
+                int r = nextRule++;
+                UnaryTest[] rule = tests[r];
+                boolean matched = true;
+                for (int c = 0; c < columnCount && matched; c++) {
+                    if (ordinals[c] != null) {
+                        matched = ordinals[c][r];
+                    } else {
+                        matched = numeric[c] ? rule[c].testNumber(numbers[c]) : rule[c].test(inputs[c]);
+                    }
+                }
+                if (matched) {
+                    return nextRule - 1;
+                }
+            }
+            return NO_MORE;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.dmn.feel;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second evaluation tier for hot FEEL expressions.
+ * 
+ * An expression starts out interpreted by walking its {@link FEELNode} tree.
+ * Once it has been evaluated {@link #getThreshold()} times it is translated
+ * into a tree of {@link MethodHandle} combinators with the same semantics.
+ * Method handle trees are customized by the JVM once they are hot, so the
+ * JIT compiler can inline the operators of one expression into a single
+ * compiled method instead of dispatching on node types at every step.
+ * Expressions that cannot be translated, and lone literals and names, stay
+ * interpreted.
+ * 
+ * The threshold is read from the system property
+ * {@code dmn.feel.compileThreshold}; 0 disables the second tier. Promotions
+ * and failures are counted globally, for monitoring.
+ */
+public final class FEELCompiler {
+    
+    /**
+     * Default number of evaluations before an expression is compiled
+     */
+    public static final int DEFAULT_THRESHOLD = 1000;
+    
+    static final int THRESHOLD = Integer.getInteger("dmn.feel.compileThreshold", DEFAULT_THRESHOLD);
+    
+    private static final LongAdder compiled = new LongAdder();
+    private static final LongAdder failures = new LongAdder();
+    private static final LongAdder compileNanos = new LongAdder();
+    
+    private static final MethodType EVALUATOR = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType UNARY = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType BINARY = MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType PREDICATE = MethodType.methodType(boolean.class, Object.class);
+    
+    private static final MethodHandle ELEMENT = MethodHandles.arrayElementGetter(Object[].class);
+    private static final MethodHandle NEGATE;
+    private static final MethodHandle ADD;
+    private static final MethodHandle SUBTRACT;
+    private static final MethodHandle MULTIPLY;
+    private static final MethodHandle DIVIDE;
+    private static final MethodHandle POWER;
+    private static final MethodHandle EQUAL;
+    private static final MethodHandle NOT_EQUAL;
+    private static final MethodHandle LESS;
+    private static final MethodHandle LESS_OR_EQUAL;
+    private static final MethodHandle GREATER;
+    private static final MethodHandle GREATER_OR_EQUAL;
+    private static final MethodHandle AND_RIGHT;
+    private static final MethodHandle OR_RIGHT;
+    private static final MethodHandle IS_TRUE;
+    private static final MethodHandle IS_FALSE;
+    private static final MethodHandle APPLY;
+    private static final MethodHandle TYPED_EQUAL;
+    private static final MethodHandle TYPED_NOT_EQUAL;
+    private static final MethodHandle TYPED_LESS;
+    private static final MethodHandle TYPED_LESS_OR_EQUAL;
+    private static final MethodHandle TYPED_GREATER;
+    private static final MethodHandle TYPED_GREATER_OR_EQUAL;
+    private static final MethodHandle LIST;
+    
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            NEGATE = lookup.findStatic(FEELOperators.class, "negate", UNARY);
+            ADD = lookup.findStatic(FEELOperators.class, "add", BINARY);
+            SUBTRACT = lookup.findStatic(FEELOperators.class, "subtract", BINARY);
+            MULTIPLY = lookup.findStatic(FEELOperators.class, "multiply", BINARY);
+            DIVIDE = lookup.findStatic(FEELOperators.class, "divide", BINARY);
+            POWER = lookup.findStatic(FEELOperators.class, "power", BINARY);
+            EQUAL = lookup.findStatic(FEELRuntime.class, "equal", BINARY);
+            NOT_EQUAL = lookup.findStatic(FEELRuntime.class, "notEqual", BINARY);
+            LESS = lookup.findStatic(FEELRuntime.class, "less", BINARY);
+            LESS_OR_EQUAL = lookup.findStatic(FEELRuntime.class, "lessOrEqual", BINARY);
+            GREATER = lookup.findStatic(FEELRuntime.class, "greater", BINARY);
+            GREATER_OR_EQUAL = lookup.findStatic(FEELRuntime.class, "greaterOrEqual", BINARY);
+            AND_RIGHT = lookup.findStatic(FEELCompiler.class, "andRight", BINARY);
+            OR_RIGHT = lookup.findStatic(FEELCompiler.class, "orRight", BINARY);
+            IS_TRUE = lookup.findStatic(FEELCompiler.class, "isTrue", PREDICATE);
+            IS_FALSE = lookup.findStatic(FEELCompiler.class, "isFalse", PREDICATE);
+            APPLY = lookup.findVirtual(FEELFunctions.Function.class, "apply", EVALUATOR);
+            MethodType typed = BINARY.insertParameterTypes(0, FEELType.class);
+            TYPED_EQUAL = lookup.findStatic(FEELRuntime.class, "equal", typed);
+            TYPED_NOT_EQUAL = lookup.findStatic(FEELRuntime.class, "notEqual", typed);
+            TYPED_LESS = lookup.findStatic(FEELRuntime.class, "less", typed);
+            TYPED_LESS_OR_EQUAL = lookup.findStatic(FEELRuntime.class, "lessOrEqual", typed);
+            TYPED_GREATER = lookup.findStatic(FEELRuntime.class, "greater", typed);
+            TYPED_GREATER_OR_EQUAL = lookup.findStatic(FEELRuntime.class, "greaterOrEqual", typed);
+            LIST = lookup.findStatic(FEELRuntime.class, "list",
+                MethodType.methodType(List.class, Object[].class)).asType(EVALUATOR);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private FEELCompiler() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Translate an expression tree into a method handle
+     * 
+     * @param root the root of the expression tree
+     * @return a handle of type (Object[])Object evaluating the expression
+     *         against slot values, or null if the tree cannot be translated
+     */
+    static MethodHandle compile(FEELNode root) {
+        long start = System.nanoTime();
+        try {
+            MethodHandle handle = translate(root);
+            compiled.increment();
+            return handle;
+        } catch (RuntimeException e) {
+            failures.increment();
+            return null;
+        } finally {
+            compileNanos.add(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Check whether compiling a tree can pay off. A lone literal or name is
+     * cheaper to interpret than to call through a method handle.
+     */
+    static boolean isWorthCompiling(FEELNode root) {
+        return !(root instanceof FEELNode.Literal || root instanceof FEELNode.Name);
+    }
+    
+    /**
+     * Invoke a handle produced by {@link #compile(FEELNode)}
+     */
+    static Object invoke(MethodHandle handle, Object[] slots) {
+        try {
+            return (Object) handle.invokeExact(slots);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // The operators declare no checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static MethodHandle translate(FEELNode node) {
+        if (node instanceof FEELNode.Literal) {
+            return constant(((FEELNode.Literal) node).value);
+        }
+        if (node instanceof FEELNode.Name) {
+            int slot = ((FEELNode.Name) node).slot;
+            return slot >= 0 ? MethodHandles.insertArguments(ELEMENT, 1, slot) : constant(null);
+        }
+        if (node instanceof FEELNode.Negate) {
+            return MethodHandles.filterReturnValue(translate(((FEELNode.Negate) node).operand), NEGATE);
+        }
+        if (node instanceof FEELNode.Arithmetic) {
+            FEELNode.Arithmetic arithmetic = (FEELNode.Arithmetic) node;
+            return binary(arithmeticOperator(arithmetic.operator), arithmetic.left, arithmetic.right);
+        }
+        if (node instanceof FEELNode.Comparison) {
+            FEELNode.Comparison comparison = (FEELNode.Comparison) node;
+            MethodHandle operator = comparison.type == FEELType.ANY ? comparisonOperator(comparison.operator)
+                : MethodHandles.insertArguments(typedComparisonOperator(comparison.operator), 0, comparison.type);
+            return binary(operator, comparison.left, comparison.right);
+        }
+        if (node instanceof FEELNode.And) {
+            FEELNode.And and = (FEELNode.And) node;
+            return shortCircuit(IS_FALSE, Boolean.FALSE, AND_RIGHT, and.left, and.right);
+        }
+        if (node instanceof FEELNode.Or) {
+            FEELNode.Or or = (FEELNode.Or) node;
+            return shortCircuit(IS_TRUE, Boolean.TRUE, OR_RIGHT, or.left, or.right);
+        }
+        if (node instanceof FEELNode.If) {
+            FEELNode.If conditional = (FEELNode.If) node;
+            MethodHandle test = MethodHandles.filterReturnValue(translate(conditional.condition), IS_TRUE);
+            return MethodHandles.guardWithTest(test, translate(conditional.thenBranch),
+                translate(conditional.elseBranch));
+        }
+        if (node instanceof FEELNode.ItemList) {
+            return collect(LIST, ((FEELNode.ItemList) node).items);
+        }
+        if (node instanceof FEELNode.Call) {
+            FEELNode.Call call = (FEELNode.Call) node;
+            return collect(APPLY.bindTo(call.function), call.arguments);
+        }
+        throw new IllegalArgumentException("Cannot compile " + node.getClass().getSimpleName());
+    }
+    
+    private static MethodHandle constant(Object value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(Object.class, value), 0, Object[].class);
+    }
+    
+    /**
+     * operator(left(slots), right(slots))
+     */
+    private static MethodHandle binary(MethodHandle operator, FEELNode left, FEELNode right) {
+        MethodHandle both = MethodHandles.filterArguments(operator, 0, translate(left), translate(right));
+        return MethodHandles.permuteArguments(both, EVALUATOR, 0, 0);
+    }
+    
+    /**
+     * Evaluate the left operand; if it decides the result return that,
+     * otherwise combine it with the right operand
+     */
+    private static MethodHandle shortCircuit(MethodHandle decides, Boolean result, MethodHandle combine,
+                                             FEELNode left, FEELNode right) {
+        // (Object leftValue, Object[] slots) -> Object
+        MethodHandle test = MethodHandles.dropArguments(decides, 1, Object[].class);
+        MethodHandle decided = MethodHandles.dropArguments(MethodHandles.constant(Object.class, result),
+            0, Object.class, Object[].class);
+        MethodHandle undecided = MethodHandles.filterArguments(combine, 1, translate(right));
+        return MethodHandles.foldArguments(MethodHandles.guardWithTest(test, decided, undecided), translate(left));
+    }
+    
+    /**
+     * function(new Object[] {node0(slots), node1(slots), ...})
+     */
+    private static MethodHandle collect(MethodHandle function, FEELNode[] nodes) {
+        MethodHandle[] values = new MethodHandle[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            values[i] = translate(nodes[i]);
+        }
+        MethodHandle spread = MethodHandles.filterArguments(function.asCollector(Object[].class, nodes.length), 0, values);
+        return MethodHandles.permuteArguments(spread, EVALUATOR, new int[nodes.length]);
+    }
+    
+    private static MethodHandle arithmeticOperator(FEELNode.Arithmetic.Operator operator) {
+        switch (operator) {
+            case ADD:
+                return ADD;
+            case SUBTRACT:
+                return SUBTRACT;
+            case MULTIPLY:
+                return MULTIPLY;
+            case DIVIDE:
+                return DIVIDE;
+            default:
+                return POWER;
+        }
+    }
+    
+    private static MethodHandle comparisonOperator(FEELNode.Comparison.Operator operator) {
+        switch (operator) {
+            case EQ:
+                return EQUAL;
+            case NE:
+                return NOT_EQUAL;
+            case LT:
+                return LESS;
+            case LE:
+                return LESS_OR_EQUAL;
+            case GT:
+                return GREATER;
+            default:
+                return GREATER_OR_EQUAL;
+        }
+    }
+    
+    private static MethodHandle typedComparisonOperator(FEELNode.Comparison.Operator operator) {
+        switch (operator) {
+            case EQ:
+                return TYPED_EQUAL;
+            case NE:
+                return TYPED_NOT_EQUAL;
+            case LT:
+                return TYPED_LESS;
+            case LE:
+                return TYPED_LESS_OR_EQUAL;
+            case GT:
+                return TYPED_GREATER;
+            default:
+                return TYPED_GREATER_OR_EQUAL;
+        }
+    }
+    
+    // Second half of the short-circuiting operators, see FEELNode.And and FEELNode.Or
+    
+    private static Object andRight(Object left, Object right) {
+        if (Boolean.FALSE.equals(right)) {
+            return Boolean.FALSE;
+        }
+        return Boolean.TRUE.equals(left) && Boolean.TRUE.equals(right) ? Boolean.TRUE : null;
+    }
+    
+    private static Object orRight(Object left, Object right) {
+        if (Boolean.TRUE.equals(right)) {
+            return Boolean.TRUE;
+        }
+        return Boolean.FALSE.equals(left) && Boolean.FALSE.equals(right) ? Boolean.FALSE : null;
+    }
+    
+    private static boolean isTrue(Object value) {
+        return Boolean.TRUE.equals(value);
+    }
+    
+    private static boolean isFalse(Object value) {
+        return Boolean.FALSE.equals(value);
+    }
+    
+    /**
+     * Returns the number of evaluations after which an expression is compiled
+     * 
+     * @return the threshold, or 0 if expressions are never compiled
+     */
+    public static int getThreshold() {
+        return Math.max(THRESHOLD, 0);
+    }
+    
+    /**
+     * Returns the number of expressions promoted to the compiled tier
+     * 
+     * @return the compiled count
+     */
+    public static long getCompiledCount() {
+        return compiled.sum();
+    }
+    
+    /**
+     * Returns the number of expressions that could not be compiled and
+     * stay interpreted
+     * 
+     * @return the failure count
+     */
+    public static long getFailureCount() {
+        return failures.sum();
+    }
+    
+    /**
+     * Returns the total time spent translating expressions
+     * 
+     * @return the compile time in nanoseconds
+     */
+    public static long getCompileTime() {
+        return compileNanos.sum();
+    }
+    
+    /**
+     * Resets the compiled/failure/time counters
+     */
+    public static void resetStatistics() {
+        compiled.reset();
+        failures.reset();
+        compileNanos.reset();
+    }
+    
+    /**
+     * Returns the counters as text, for logging
+     * 
+     * @return the statistics
+     */
+    public static String getStatistics() {
+        return "threshold=" + getThreshold()
+            + ", compiled=" + getCompiledCount()
+            + ", failures=" + getFailureCount()
+            + ", compileTime=" + String.format("%.1fms", getCompileTime() / 1e6);
+    }
+}
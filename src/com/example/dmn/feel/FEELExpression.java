@@ -0,0 +1,190 @@
+package com.example.dmn.feel;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed, immutable FEEL expression.
+ * Instances are created once per distinct expression text and can be
+ * evaluated any number of times, from any number of threads.
+ * 
+ * Variable references are resolved to slots of a {@link FEELScope} when the
+ * expression is compiled, and evaluation reads the values from a flat array
+ * in slot order. Evaluation against a map copies the values of the scope
+ * names out of the map first.
+ * 
+ * Constant subexpressions are folded when the expression is compiled (see
+ * {@link FEELOptimizer}), and {@link #specialize(Map)} derives expressions
+ * for fixed values of some names. Comparisons are specialized for the types
+ * the scope declares for its names (see {@link FEELTypeInference}).
+ * 
+ * Evaluation is tiered: the tree is interpreted until the expression turns
+ * out to be hot, and then replaced by a compiled form (see {@link FEELCompiler}).
+ */
+public final class FEELExpression {
+    
+    private final String text;
+    private final FEELNode root;
+    private final FEELScope scope;
+    
+    private volatile MethodHandle compiled;
+    private int evaluations; // racy on purpose: only decides when to compile, stops at the threshold
+    
+    private FEELExpression(String text, FEELNode root, FEELScope scope) {
+        this.text = text;
+        this.root = root;
+        this.scope = scope;
+    }
+    
+    /**
+     * Parse a FEEL expression. The scope of the expression holds the names
+     * it refers to, in order of first reference.
+     * 
+     * @param text the expression text
+     * @return the compiled expression
+     * @throws FEELSyntaxException if the expression is not valid
+     */
+    public static FEELExpression compile(String text) {
+        List<String> names = new ArrayList<>();
+        FEELNode root = FEELParser.parse(text, names);
+        FEELScope scope = FEELScope.of(names);
+        return new FEELExpression(text, prepare(root, scope), scope);
+    }
+    
+    /**
+     * Parse a FEEL expression, resolving its names against a scope such as
+     * the input columns of a decision table. Names outside the scope
+     * evaluate to null. Comparisons of names with declared types compare
+     * through the methods of those types.
+     * 
+     * @param text the expression text
+     * @param scope the names the expression can refer to, and their types
+     * @return the compiled expression
+     * @throws FEELSyntaxException if the expression is not valid
+     */
+    public static FEELExpression compile(String text, FEELScope scope) {
+        return new FEELExpression(text, prepare(FEELParser.parse(text, scope), scope), scope);
+    }
+    
+    private static FEELNode prepare(FEELNode root, FEELScope scope) {
+        return FEELTypeInference.annotate(FEELOptimizer.ENABLED ? FEELOptimizer.optimize(root) : root, scope);
+    }
+    
+    /**
+     * Specialize the expression for fixed values of some of its names, such
+     * as the constants of one tenant. The names are replaced by their values
+     * and the tree is simplified again, so everything that only depends on
+     * them is computed once, here.
+     * 
+     * @param bindings fixed values by name; names of the scope missing from the map stay variable
+     * @return an expression with the same text and scope; values passed for the
+     *         bound names at evaluation are ignored
+     */
+    public FEELExpression specialize(Map<String, ?> bindings) {
+        List<String> names = scope.getNames();
+        Object[] values = new Object[names.size()];
+        boolean[] bound = new boolean[names.size()];
+        boolean any = false;
+        for (int i = 0; i < values.length; i++) {
+            if (bindings.containsKey(names.get(i))) {
+                values[i] = bindings.get(names.get(i));
+                bound[i] = true;
+                any = true;
+            }
+        }
+        if (!any) {
+            return this;
+        }
+        FEELNode specialized = FEELOptimizer.bind(root, values, bound);
+        return new FEELExpression(text, FEELTypeInference.annotate(specialized, scope), scope);
+    }
+    
+    /**
+     * Evaluate the expression in the given context
+     * 
+     * @param context variable bindings for the evaluation context
+     * @return the result of the evaluation (String, Number, Boolean, etc.)
+     */
+    public Object evaluate(Map<String, Object> context) {
+        return evaluate(scope.bind(context));
+    }
+    
+    /**
+     * Evaluate the expression against values in slot order
+     * 
+     * @param values the value of each name of the scope, at its slot
+     * @return the result of the evaluation (String, Number, Boolean, etc.)
+     */
+    public Object evaluate(Object[] values) {
+        MethodHandle handle = compiled;
+        if (handle != null) {
+            return FEELCompiler.invoke(handle, values);
+        }
+        if (evaluations < FEELCompiler.THRESHOLD && ++evaluations == FEELCompiler.THRESHOLD && FEELCompiler.isWorthCompiling(root)) {
+            compiled = FEELCompiler.compile(root);
+        }
+        return root.evaluate(values);
+    }
+    
+    /**
+     * Check whether the expression is a literal that does not depend on the context
+     * 
+     * @return true if the expression always evaluates to the same value
+     */
+    public boolean isConstant() {
+        return root instanceof FEELNode.Literal;
+    }
+    
+    /**
+     * Returns the type of the values of the expression, as far as it follows
+     * from the types of its scope, its literals and its operators
+     * 
+     * @return the type, or {@link FEELType#ANY} if it is not known
+     */
+    public FEELType getType() {
+        return FEELTypeInference.typeOf(root, scope);
+    }
+    
+    /**
+     * Check whether the expression has been promoted to the compiled tier
+     * 
+     * @return true if evaluation runs compiled code
+     */
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+    
+    /**
+     * Returns the scope the names of the expression were resolved against
+     * 
+     * @return the scope
+     */
+    public FEELScope getScope() {
+        return scope;
+    }
+    
+    /**
+     * Returns the source text of the expression
+     * 
+     * @return the expression text
+     */
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * Returns the root of the parsed expression tree
+     * 
+     * @return the root node
+     */
+    FEELNode getRoot() {
+        return root;
+    }
+    
+    @Override
+    public String toString() {
+        return text;
+    }
+}
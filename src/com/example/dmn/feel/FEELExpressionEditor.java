@@ -272,6 +272,18 @@ public class FEELExpressionEditor extends JDialog {
             return false;
         }
         
+        // Compile with the engine, which folds constant expressions
+        try {
+            FEELExpression compiled = FEELExpression.compile(expression);
+            if (compiled.isConstant()) {
+                statusLabel.setText("Syntax is valid (constant: " + compiled.evaluate(new Object[0]) + ")");
+                statusLabel.setForeground(new Color(0, 128, 0));
+                return true;
+            }
+        } catch (FEELSyntaxException e) {
+            // FEEL beyond the subset the engine compiles; the basic checks above apply
+        }
+        
         // If we get here, the basic syntax is valid
         statusLabel.setText("Syntax is valid");
         statusLabel.setForeground(new Color(0, 128, 0));
@@ -1,71 +1,103 @@
 package com.example.dmn.feel;
 
+import com.example.dmn.util.BoundedCache;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Stub implementation of a FEEL expression evaluator
  * In a real implementation, this would use a full FEEL engine.
+ * 
+ * Expressions are parsed once into an immutable tree and kept in a bounded
+ * cache keyed by expression text, so repeated evaluations skip parsing entirely.
+ * Texts that do not parse are cached as failures too.
  */
 public class FEELExpressionEvaluatorStub {
     
+    /**
+     * Default number of compiled expressions kept in the cache
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+    
+    /**
+     * Cached for expressions that do not parse, so they fail fast as well
+     */
+    private static final FEELExpression INVALID = FEELExpression.compile("null");
+    
+    private final BoundedCache<String, FEELExpression> expressionCache;
+    
+    /**
+     * Constructor using the default cache size
+     */
+    public FEELExpressionEvaluatorStub() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param cacheSize maximum number of compiled expressions to cache
+     */
+    public FEELExpressionEvaluatorStub(int cacheSize) {
+        this.expressionCache = new BoundedCache<>(cacheSize);
+    }
+    
+    /**
+     * Compile a FEEL expression, reusing a cached compilation when available
+     * 
+     * @param expression the FEEL expression to compile
+     * @return the compiled expression
+     * @throws FEELSyntaxException if the expression is not valid
+     */
+    public FEELExpression compile(String expression) {
+        FEELExpression compiled = cached(expression);
+        if (compiled == INVALID) {
+            // Parse again for the position of the error
+            return FEELExpression.compile(expression);
+        }
+        return compiled;
+    }
+    
+    private FEELExpression cached(String expression) {
+        return expressionCache.get(expression, text -> {
+            try {
+                return FEELExpression.compile(text);
+            } catch (FEELSyntaxException e) {
+                return INVALID;
+            }
+        });
+    }
+    
     /**
      * Evaluate a FEEL expression in the given context
-     * This is a stub implementation that only handles simple expressions
      * 
      * @param expression the FEEL expression to evaluate
      * @param context variable bindings for the evaluation context
      * @return the result of the evaluation (String, Number, Boolean, etc.)
      */
     public Object evaluate(String expression, Map<String, Object> context) {
-        // This is a very simplified implementation that only handles basic expressions
-        
         if (expression == null || expression.trim().isEmpty()) {
             return null;
         }
         
-        // Handle string literals
-        if (expression.startsWith("\"") && expression.endsWith("\"")) {
-            return expression.substring(1, expression.length() - 1);
-        }
-        
-        // Handle numeric literals
-        try {
-            if (expression.contains(".")) {
-                return Double.parseDouble(expression);
-            } else {
-                return Integer.parseInt(expression);
-            }
-        } catch (NumberFormatException e) {
-            // Not a number, continue with other checks
-        }
-        
-        // Handle boolean literals
-        if (expression.equals("true")) {
-            return Boolean.TRUE;
-        } else if (expression.equals("false")) {
-            return Boolean.FALSE;
-        }
-        
-        // Handle variable references
-        if (context.containsKey(expression)) {
-            return context.get(expression);
-        }
-        
-        // Handle basic comparisons
-        if (expression.contains("=")) {
-            String[] parts = expression.split("=");
-            if (parts.length == 2) {
-                Object left = evaluate(parts[0].trim(), context);
-                Object right = evaluate(parts[1].trim(), context);
-                if (left != null && right != null) {
-                    return left.equals(right);
-                }
-            }
+        FEELExpression compiled = cached(expression);
+        if (compiled == INVALID) {
+            // If we can't evaluate, return the expression itself
+            return expression;
         }
         
-        // If we can't evaluate, return the expression itself
-        return expression;
+        return compiled.evaluate(context != null ? context : Collections.<String, Object>emptyMap());
+    }
+    
+    /**
+     * Returns the cache of compiled expressions, for sizing and monitoring
+     * Texts that do not parse map to a placeholder expression
+     * 
+     * @return the expression cache
+     */
+    public BoundedCache<String, FEELExpression> getExpressionCache() {
+        return expressionCache;
     }
     
     /**
@@ -102,7 +134,12 @@ public class FEELExpressionEvaluatorStub {
             "true",
             "customerStatus",
             "orderAmount",
-            "isVIP"
+            "isVIP",
+            "customerStatus = \"Gold\"",
+            "orderAmount > 1000 and isVIP",
+            "orderAmount * 0.1",
+            "if customerAge >= 65 then \"Senior\" else \"Regular\"",
+            "matches(customerStatus, \"^(Gold|Platinum)$\")"
         };
         
         for (String expr : expressions) {
@@ -112,5 +149,20 @@ public class FEELExpressionEvaluatorStub {
                               (result != null ? result.getClass().getSimpleName() : "null") + ")");
             System.out.println();
         }
+        
+        // Evaluate again to show that the second pass is served from the cache
+        for (String expr : expressions) {
+            evaluator.evaluate(expr, context);
+        }
+        System.out.println("Expression cache: " + evaluator.getExpressionCache());
+        
+        // Keep evaluating until the expressions are hot enough for the compiled tier
+        for (int i = 0; i < FEELCompiler.getThreshold(); i++) {
+            for (String expr : expressions) {
+                evaluator.evaluate(expr, context);
+            }
+        }
+        System.out.println("Compiled tier: " + FEELCompiler.getStatistics());
+        System.out.println("Pattern cache: " + FEELRuntime.getPatternCache());
     }
 }
\ No newline at end of file
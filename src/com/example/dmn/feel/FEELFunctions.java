@@ -0,0 +1,277 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Built-in functions that FEEL expressions can call.
+ * 
+ * Functions are looked up by name when an expression is parsed, so a call
+ * node holds the function itself. Like the operators, functions follow
+ * FEEL null semantics: arguments of the wrong number or type yield null
+ * instead of an exception. All functions are pure, which lets
+ * {@link FEELOptimizer} evaluate calls with constant arguments at compile time.
+ * 
+ * Temporal values are represented by java.time types: a date is a
+ * {@link LocalDate}, a time a {@link LocalTime} or {@link OffsetTime}, a
+ * date and time a {@link LocalDateTime}, {@link OffsetDateTime} or
+ * {@link ZonedDateTime}, a days and time duration a {@link Duration} and a
+ * years and months duration a {@link Period}.
+ */
+final class FEELFunctions {
+    
+    /**
+     * A built-in function
+     */
+    interface Function {
+        
+        /**
+         * Apply the function
+         * 
+         * @param arguments the evaluated arguments
+         * @return the result, or null
+         */
+        Object apply(Object[] arguments);
+    }
+    
+    private static final Map<String, Function> FUNCTIONS = new HashMap<>();
+    
+    static {
+        FUNCTIONS.put("date", FEELFunctions::date);
+        FUNCTIONS.put("time", FEELFunctions::time);
+        FUNCTIONS.put("date and time", FEELFunctions::dateAndTime);
+        FUNCTIONS.put("duration", FEELFunctions::duration);
+        FUNCTIONS.put("years and months duration", FEELFunctions::yearsAndMonthsDuration);
+        FEELStringFunctions.register(FUNCTIONS);
+        FEELListFunctions.register(FUNCTIONS);
+        FEELNumericFunctions.register(FUNCTIONS);
+    }
+    
+    private FEELFunctions() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Returns a built-in function
+     * 
+     * @param name the function name
+     * @return the function, or null if there is no function of that name
+     */
+    static Function lookup(String name) {
+        return FUNCTIONS.get(name);
+    }
+    
+    /**
+     * Returns the function to call with the given argument expressions: the
+     * built-in function, or a variant that has done the work that depends
+     * only on literal arguments, such as compiling a regular expression
+     * 
+     * @param name the function name
+     * @param function the built-in function
+     * @param arguments the argument expressions
+     * @return the function for the call
+     */
+    static Function specialize(String name, Function function, FEELNode[] arguments) {
+        Function specialized = FEELStringFunctions.specialize(name, arguments);
+        return specialized != null ? specialized : function;
+    }
+    
+    /**
+     * Returns the list argument of an aggregate function, which takes
+     * either one list or the elements themselves: sum([1, 2]) or sum(1, 2)
+     * 
+     * @param arguments the arguments
+     * @return the list, or a view of the arguments
+     */
+    static List<?> list(Object[] arguments) {
+        if (arguments.length == 1 && arguments[0] instanceof List) {
+            return (List<?>) arguments[0];
+        }
+        return Arrays.asList(arguments);
+    }
+    
+    /**
+     * Convert an integer argument such as a position or a scale
+     * 
+     * @param value the argument
+     * @return the integer, or null if the value is not an integer number
+     */
+    static Integer toInt(Object value) {
+        BigDecimal number = FEELOperators.toDecimal(value);
+        if (number == null) {
+            return null;
+        }
+        try {
+            return number.intValueExact();
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * date(text), date(date and time) or date(year, month, day)
+     */
+    static Object date(Object[] arguments) {
+        try {
+            if (arguments.length == 1) {
+                Object from = arguments[0];
+                return from instanceof String ? LocalDate.parse((String) from) : dateOf(from);
+            }
+            if (arguments.length == 3) {
+                Integer year = toInt(arguments[0]);
+                Integer month = toInt(arguments[1]);
+                Integer day = toInt(arguments[2]);
+                return year == null || month == null || day == null ? null : LocalDate.of(year, month, day);
+            }
+            return null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * time(text), time(date and time) or time(hour, minute, second)
+     */
+    static Object time(Object[] arguments) {
+        try {
+            if (arguments.length == 1) {
+                Object from = arguments[0];
+                if (from instanceof String) {
+                    String text = (String) from;
+                    return hasOffset(text) ? OffsetTime.parse(text) : LocalTime.parse(text);
+                }
+                if (from instanceof LocalTime || from instanceof OffsetTime) {
+                    return from;
+                }
+                if (from instanceof LocalDateTime) {
+                    return ((LocalDateTime) from).toLocalTime();
+                }
+                if (from instanceof OffsetDateTime) {
+                    return ((OffsetDateTime) from).toOffsetTime();
+                }
+                return null;
+            }
+            if (arguments.length == 3) {
+                Integer hour = toInt(arguments[0]);
+                Integer minute = toInt(arguments[1]);
+                BigDecimal second = FEELOperators.toDecimal(arguments[2]);
+                if (hour == null || minute == null || second == null || second.signum() < 0) {
+                    return null;
+                }
+                int nanos = second.remainder(BigDecimal.ONE).movePointRight(9).intValue();
+                return LocalTime.of(hour, minute, second.intValue(), nanos);
+            }
+            return null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * date and time(text) or date and time(date, time)
+     */
+    static Object dateAndTime(Object[] arguments) {
+        try {
+            if (arguments.length == 1 && arguments[0] instanceof String) {
+                String text = (String) arguments[0];
+                if (text.indexOf('T') < 0) {
+                    // A date alone is the start of that day
+                    return LocalDate.parse(text).atStartOfDay();
+                }
+                int zone = text.indexOf('@');
+                if (zone >= 0) {
+                    // "2024-01-01T10:00@Europe/Paris"
+                    return LocalDateTime.parse(text.substring(0, zone)).atZone(ZoneId.of(text.substring(zone + 1)));
+                }
+                if (text.endsWith("]")) {
+                    return ZonedDateTime.parse(text);
+                }
+                return hasOffset(text) ? OffsetDateTime.parse(text) : LocalDateTime.parse(text);
+            }
+            if (arguments.length == 2 && arguments[0] instanceof LocalDate) {
+                LocalDate date = (LocalDate) arguments[0];
+                if (arguments[1] instanceof LocalTime) {
+                    return LocalDateTime.of(date, (LocalTime) arguments[1]);
+                }
+                if (arguments[1] instanceof OffsetTime) {
+                    OffsetTime time = (OffsetTime) arguments[1];
+                    return OffsetDateTime.of(date, time.toLocalTime(), time.getOffset());
+                }
+            }
+            return null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * duration(text): "P1DT2H" is a days and time duration, "P1Y2M" a
+     * years and months duration; mixing the two is not valid FEEL
+     */
+    static Object duration(Object[] arguments) {
+        if (arguments.length != 1 || !(arguments[0] instanceof String)) {
+            return null;
+        }
+        String text = (String) arguments[0];
+        try {
+            return Duration.parse(text);
+        } catch (DateTimeException e) {
+            // Not a days and time duration
+        }
+        try {
+            Period period = Period.parse(text);
+            return period.getDays() == 0 && text.indexOf('W') < 0 ? period : null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * years and months duration(from, to): the whole months between two dates
+     */
+    static Object yearsAndMonthsDuration(Object[] arguments) {
+        if (arguments.length != 2) {
+            return null;
+        }
+        LocalDate from = dateOf(arguments[0]);
+        LocalDate to = dateOf(arguments[1]);
+        return from == null || to == null ? null : Period.between(from, to).withDays(0);
+    }
+    
+    private static LocalDate dateOf(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toLocalDate();
+        }
+        if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toLocalDate();
+        }
+        if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toLocalDate();
+        }
+        return null;
+    }
+    
+    /**
+     * Check whether the time part of a temporal literal ends with a zone offset
+     */
+    private static boolean hasOffset(String text) {
+        int time = text.indexOf('T') + 1;
+        return text.indexOf('Z', time) >= 0 || text.indexOf('+', time) >= 0 || text.indexOf('-', time) >= 0;
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Translation of compiled FEEL expressions and unary tests into Java source.
+ * 
+ * The translator produces Java expressions with the same semantics as the
+ * interpreter, for code generators that write specialized evaluators ahead
+ * of time. Expressions call the operators of {@link FEELRuntime}; unary
+ * tests become boolean expressions over the input value and its numeric
+ * value, so numeric tests compile to plain double compares. Numbers the
+ * compares cannot stand for, see {@link UnaryTest#hasExactDouble(Object)}
+ * and {@link UnaryTest.NumberRange#isExact()}, fall back to the decimal
+ * compares of the runtime. The generated source must import
+ * {@code java.math.BigDecimal} and {@code com.example.dmn.feel.FEELRuntime}.
+ */
+public final class FEELJavaTranslator {
+    
+    /**
+     * How translated code reaches the values it needs
+     */
+    public interface Context {
+        
+        /**
+         * Returns a Java expression of type Object reading a slot
+         * 
+         * @param slot the slot in the scope of the expression
+         * @return the Java expression
+         */
+        String slot(int slot);
+        
+        /**
+         * Returns a Java expression for a constant value, typically a
+         * reference to a static field initialized with {@link #literal(Object)}
+         * 
+         * @param value the constant (not null or a Boolean)
+         * @return the Java expression
+         */
+        String constant(Object value);
+    }
+    
+    private FEELJavaTranslator() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Translate an expression into a Java expression of type Object
+     * 
+     * @param expression the expression
+     * @param context access to slots and constants
+     * @return the Java source
+     * @throws IllegalArgumentException if the expression contains a construct that cannot be translated
+     */
+    public static String translate(FEELExpression expression, Context context) {
+        return translate(expression.getRoot(), context);
+    }
+    
+    /**
+     * Translate a unary test into a Java boolean expression
+     * 
+     * @param test the test
+     * @param value Java expression of type Object for the input value, or
+     *        null if number is a key (see {@link FEELType#key(Object)}) and
+     *        the test is over keys
+     * @param number Java expression of type double for the input value if
+     *        it is a number with {@link UnaryTest#hasExactDouble(Object)},
+     *        and NaN otherwise
+     * @param context access to constants
+     * @return the Java source
+     * @throws IllegalArgumentException if the test cannot be translated
+     */
+    public static String translate(UnaryTest test, String value, String number, Context context) {
+        return translate(test, value, number, null, context);
+    }
+    
+    /**
+     * Translate a unary test of a table column into a Java boolean
+     * expression; names other than "?" read the inputs of the row (see
+     * {@link UnaryTest#usesInputs()})
+     * 
+     * @param test the test
+     * @param value Java expression of type Object for the input value, or
+     *        null if number is a key and the test is over keys
+     * @param number Java expression of type double for the input value if
+     *        it is a number with {@link UnaryTest#hasExactDouble(Object)},
+     *        and NaN otherwise
+     * @param inputs Java expression of type Object[] for the inputs of the
+     *        row, or null if the test does not read them
+     * @param context access to constants
+     * @return the Java source
+     * @throws IllegalArgumentException if the test cannot be translated
+     */
+    public static String translate(UnaryTest test, String value, String number, String inputs, Context context) {
+        if (test instanceof UnaryTest.Any) {
+            return "true";
+        }
+        if (test instanceof UnaryTest.LiteralEquals) {
+            Object literal = ((UnaryTest.LiteralEquals) test).getValue();
+            return literal == null ? value + " == null" : literal(literal) + ".equals(" + value + ")";
+        }
+        // A NaN compares false with everything, like a non-numeric value in the interpreter
+        if (test instanceof UnaryTest.NumberEquals) {
+            UnaryTest.NumberEquals equals = (UnaryTest.NumberEquals) test;
+            String compare = number + " == " + doubleLiteral(equals.getNumber());
+            if (equals.isExact() && value == null) {
+                return compare;
+            }
+            String decimal = runtimeTest("equal", value, constant(equals.getDecimal(), context));
+            return equals.isExact() ? numberTest(compare, decimal, value, number) : decimal;
+        }
+        if (test instanceof UnaryTest.NumberRange) {
+            UnaryTest.NumberRange range = (UnaryTest.NumberRange) test;
+            StringBuilder compare = new StringBuilder();
+            if (range.lowDecimal != null) {
+                compare.append(number).append(range.lowInclusive ? " >= " : " > ").append(doubleLiteral(range.low));
+            }
+            if (range.highDecimal != null) {
+                compare.append(compare.length() == 0 ? "" : " && ")
+                       .append(number).append(range.highInclusive ? " <= " : " < ").append(doubleLiteral(range.high));
+            }
+            if (range.isExact() && value == null) {
+                return compare.toString();
+            }
+            StringBuilder decimal = new StringBuilder();
+            if (range.lowDecimal != null) {
+                decimal.append(runtimeTest(range.lowInclusive ? "greaterOrEqual" : "greater", value,
+                    constant(range.lowDecimal, context)));
+            }
+            if (range.highDecimal != null) {
+                decimal.append(decimal.length() == 0 ? "" : " && ").append(runtimeTest(
+                    range.highInclusive ? "lessOrEqual" : "less", value, constant(range.highDecimal, context)));
+            }
+            if (!range.isExact()) {
+                // Infinities have no decimal, but compare with the rounded bounds as with the exact ones
+                return "(Double.isInfinite(" + number + ") ? " + compare + " : " + decimal + ")";
+            }
+            return numberTest(compare.toString(), decimal.toString(), value, number);
+        }
+        if (test instanceof UnaryTest.ValueComparison) {
+            UnaryTest.ValueComparison comparison = (UnaryTest.ValueComparison) test;
+            return "FEELRuntime.isTrue(FEELRuntime." + comparisonMethod(comparison.operator) + "("
+                + value + ", " + constant(comparison.endpoint, context) + "))";
+        }
+        if (test instanceof UnaryTest.ValueInterval) {
+            UnaryTest.ValueInterval interval = (UnaryTest.ValueInterval) test;
+            return "FEELRuntime.isTrue(FEELRuntime." + (interval.lowInclusive ? "greaterOrEqual" : "greater") + "("
+                + value + ", " + constant(interval.low, context) + ")) && FEELRuntime.isTrue(FEELRuntime."
+                + (interval.highInclusive ? "lessOrEqual" : "less") + "(" + value + ", "
+                + constant(interval.high, context) + "))";
+        }
+        if (test instanceof UnaryTest.Disjunction) {
+            StringBuilder sb = new StringBuilder("(");
+            UnaryTest[] tests = ((UnaryTest.Disjunction) test).getTests();
+            for (int i = 0; i < tests.length; i++) {
+                sb.append(i == 0 ? "" : " || ").append('(')
+                  .append(translate(tests[i], value, number, inputs, context)).append(')');
+            }
+            return sb.append(')').toString();
+        }
+        if (test instanceof UnaryTest.Not) {
+            return "!(" + translate(((UnaryTest.Not) test).getNegated(), value, number, inputs, context) + ")";
+        }
+        if (test instanceof UnaryTest.Expression) {
+            UnaryTest.Expression expression = (UnaryTest.Expression) test;
+            if (expression.usesInput) {
+                return "FEELRuntime.isTrue(" + translate(expression.expression.getRoot(),
+                    inputContext(value, inputs, context)) + ")";
+            }
+            return "FEELRuntime.isTrue(FEELRuntime.equal(" + value + ", "
+                + translate(expression.expression.getRoot(), inputContext("null", inputs, context)) + "))";
+        }
+        throw new IllegalArgumentException("Cannot translate unary test " + test.getClass().getSimpleName());
+    }
+    
+    /**
+     * Returns a call of a comparison of {@link FEELRuntime} as a boolean
+     */
+    private static String runtimeTest(String method, String left, String right) {
+        return "FEELRuntime.isTrue(FEELRuntime." + method + "(" + left + ", " + right + "))";
+    }
+    
+    /**
+     * Combine the double compares of an exact numeric test with the decimal
+     * compares for numbers without an exact double, for which number is NaN
+     */
+    private static String numberTest(String compare, String decimal, String value, String number) {
+        return "(" + compare + " || Double.isNaN(" + number + ") && " + value + " instanceof Number && "
+            + decimal + ")";
+    }
+    
+    /**
+     * Returns a Java expression creating a FEEL constant
+     * 
+     * @param value a string, decimal, boolean, java.time value, list of these or null
+     * @return the Java source
+     * @throws IllegalArgumentException for other types of values
+     */
+    public static String literal(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof String) {
+            return stringLiteral((String) value);
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "Boolean.TRUE" : "Boolean.FALSE";
+        }
+        if (value instanceof BigDecimal) {
+            // The string form keeps the scale
+            return "new BigDecimal(\"" + value + "\")";
+        }
+        if (value instanceof LocalDate || value instanceof LocalTime || value instanceof OffsetTime
+                || value instanceof LocalDateTime || value instanceof OffsetDateTime
+                || value instanceof ZonedDateTime || value instanceof Duration || value instanceof Period) {
+            // Temporal literals, see FEELFunctions; each type parses its own string form
+            return value.getClass().getName() + ".parse(" + stringLiteral(value.toString()) + ")";
+        }
+        if (value instanceof List) {
+            StringBuilder sb = new StringBuilder("FEELRuntime.list(");
+            List<?> items = (List<?>) value;
+            for (int i = 0; i < items.size(); i++) {
+                sb.append(i == 0 ? "" : ", ").append(literal(items.get(i)));
+            }
+            return sb.append(')').toString();
+        }
+        throw new IllegalArgumentException("No Java literal for " + value.getClass().getName());
+    }
+    
+    /**
+     * Returns a Java string literal
+     * 
+     * @param value the string
+     * @return the quoted and escaped string
+     */
+    public static String stringLiteral(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+    
+    /**
+     * Returns a Java double literal
+     * 
+     * @param value the number
+     * @return the Java source
+     */
+    public static String doubleLiteral(double value) {
+        if (Double.isNaN(value)) {
+            return "Double.NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+        }
+        String text = Double.toString(value);
+        return value < 0 ? "(" + text + ")" : text;
+    }
+    
+    private static String translate(FEELNode node, Context context) {
+        if (node instanceof FEELNode.Literal) {
+            Object value = ((FEELNode.Literal) node).value;
+            return constant(value, context);
+        }
+        if (node instanceof FEELNode.Name) {
+            int slot = ((FEELNode.Name) node).slot;
+            return slot >= 0 ? context.slot(slot) : "null";
+        }
+        if (node instanceof FEELNode.Negate) {
+            return "FEELRuntime.negate(" + translate(((FEELNode.Negate) node).operand, context) + ")";
+        }
+        if (node instanceof FEELNode.Arithmetic) {
+            FEELNode.Arithmetic arithmetic = (FEELNode.Arithmetic) node;
+            return call(arithmeticMethod(arithmetic.operator), arithmetic.left, arithmetic.right, context);
+        }
+        if (node instanceof FEELNode.Comparison) {
+            FEELNode.Comparison comparison = (FEELNode.Comparison) node;
+            return call(comparisonMethod(comparison.operator), comparison.left, comparison.right, context);
+        }
+        if (node instanceof FEELNode.And) {
+            FEELNode.And and = (FEELNode.And) node;
+            return call("and", and.left, and.right, context);
+        }
+        if (node instanceof FEELNode.Or) {
+            FEELNode.Or or = (FEELNode.Or) node;
+            return call("or", or.left, or.right, context);
+        }
+        if (node instanceof FEELNode.If) {
+            FEELNode.If conditional = (FEELNode.If) node;
+            return "(FEELRuntime.isTrue(" + translate(conditional.condition, context) + ") ? "
+                + translate(conditional.thenBranch, context) + " : "
+                + translate(conditional.elseBranch, context) + ")";
+        }
+        if (node instanceof FEELNode.ItemList) {
+            StringBuilder sb = new StringBuilder("FEELRuntime.list(");
+            FEELNode[] items = ((FEELNode.ItemList) node).items;
+            for (int i = 0; i < items.length; i++) {
+                sb.append(i == 0 ? "" : ", ").append(translate(items[i], context));
+            }
+            return sb.append(')').toString();
+        }
+        if (node instanceof FEELNode.Call) {
+            FEELNode.Call call = (FEELNode.Call) node;
+            StringBuilder sb = new StringBuilder("FEELRuntime.call(").append(stringLiteral(call.name));
+            for (FEELNode argument : call.arguments) {
+                sb.append(", ").append(translate(argument, context));
+            }
+            return sb.append(')').toString();
+        }
+        throw new IllegalArgumentException("Cannot translate " + node.getClass().getSimpleName());
+    }
+    
+    private static String call(String method, FEELNode left, FEELNode right, Context context) {
+        return "FEELRuntime." + method + "(" + translate(left, context) + ", " + translate(right, context) + ")";
+    }
+    
+    private static String constant(Object value, Context context) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Boolean) {
+            return literal(value);
+        }
+        return context.constant(value);
+    }
+    
+    /**
+     * Context of a unary test expression: slot 0 is the input value "?", and
+     * the inputs of the row follow it
+     */
+    private static Context inputContext(String value, String inputs, Context context) {
+        return new Context() {
+            @Override
+            public String slot(int slot) {
+                return slot == 0 ? value : inputs != null ? inputs + "[" + (slot - 1) + "]" : "null";
+            }
+            
+            @Override
+            public String constant(Object constant) {
+                return context.constant(constant);
+            }
+        };
+    }
+    
+    private static String arithmeticMethod(FEELNode.Arithmetic.Operator operator) {
+        switch (operator) {
+            case ADD:
+                return "add";
+            case SUBTRACT:
+                return "subtract";
+            case MULTIPLY:
+                return "multiply";
+            case DIVIDE:
+                return "divide";
+            default:
+                return "power";
+        }
+    }
+    
+    private static String comparisonMethod(FEELNode.Comparison.Operator operator) {
+        switch (operator) {
+            case EQ:
+                return "equal";
+            case NE:
+                return "notEqual";
+            case LT:
+                return "less";
+            case LE:
+                return "lessOrEqual";
+            case GT:
+                return "greater";
+            default:
+                return "greaterOrEqual";
+        }
+    }
+}
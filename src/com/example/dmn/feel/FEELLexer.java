@@ -0,0 +1,236 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single-pass character scanner for FEEL.
+ * Literals, names, keywords and operators are classified by looking at
+ * characters directly; no parse attempt or exception is used to decide
+ * what a token is. Numbers are produced as {@link BigDecimal} values,
+ * which matches the FEEL number semantics (decimal, not binary floating point).
+ */
+final class FEELLexer {
+    
+    private static final Set<String> KEYWORDS = new HashSet<>();
+    
+    static {
+        String[] keywords = {
+            "for", "return", "if", "then", "else", "some", "every", "satisfies",
+            "instance", "of", "function", "external", "or", "and", "between", "in", "not",
+            "true", "false", "null"
+        };
+        for (String keyword : keywords) {
+            KEYWORDS.add(keyword);
+        }
+    }
+    
+    private final String expression;
+    private final char[] chars;
+    private final List<FEELToken> tokens = new ArrayList<>();
+    private int pos;
+    
+    private FEELLexer(String expression) {
+        this.expression = expression;
+        this.chars = expression.toCharArray();
+    }
+    
+    /**
+     * Split an expression into tokens. The returned list always ends with an END token.
+     * 
+     * @param expression the expression text
+     * @return the tokens
+     * @throws FEELSyntaxException on an unterminated string or an unknown character
+     */
+    static List<FEELToken> tokenize(String expression) {
+        FEELLexer lexer = new FEELLexer(expression);
+        lexer.scan();
+        return lexer.tokens;
+    }
+    
+    /**
+     * Check whether a word is reserved in FEEL
+     * 
+     * @param word the word to check
+     * @return true if the word is a keyword
+     */
+    static boolean isKeyword(String word) {
+        return KEYWORDS.contains(word);
+    }
+    
+    private void scan() {
+        int length = chars.length;
+        while (pos < length) {
+            char c = chars[pos];
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                pos++;
+            } else if (c == '"') {
+                scanString();
+            } else if (isDigit(c) || (c == '.' && pos + 1 < length && isDigit(chars[pos + 1]))) {
+                scanNumber();
+            } else if (Character.isJavaIdentifierStart(c)) {
+                scanWord();
+            } else {
+                scanOperator(c);
+            }
+        }
+        tokens.add(new FEELToken(FEELToken.Kind.END, "", null, length));
+    }
+    
+    private void scanString() {
+        int start = pos++;
+        StringBuilder unescaped = null;
+        int segmentStart = pos;
+        
+        while (pos < chars.length) {
+            char c = chars[pos];
+            if (c == '"') {
+                String value;
+                if (unescaped == null) {
+                    value = new String(chars, segmentStart, pos - segmentStart);
+                } else {
+                    value = unescaped.append(chars, segmentStart, pos - segmentStart).toString();
+                }
+                pos++;
+                tokens.add(new FEELToken(FEELToken.Kind.STRING,
+                    expression.substring(start, pos), value, start));
+                return;
+            }
+            if (c == '\\' && pos + 1 < chars.length) {
+                if (unescaped == null) {
+                    unescaped = new StringBuilder();
+                }
+                unescaped.append(chars, segmentStart, pos - segmentStart);
+                char escaped = chars[pos + 1];
+                switch (escaped) {
+                    case 'n':
+                        unescaped.append('\n');
+                        break;
+                    case 't':
+                        unescaped.append('\t');
+                        break;
+                    case 'r':
+                        unescaped.append('\r');
+                        break;
+                    case 'u':
+                        unescaped.append(scanUnicodeEscape());
+                        pos += 4;
+                        break;
+                    default:
+                        unescaped.append(escaped);
+                        break;
+                }
+                pos += 2;
+                segmentStart = pos;
+            } else {
+                pos++;
+            }
+        }
+        throw new FEELSyntaxException("Unterminated string literal", expression, start);
+    }
+    
+    private char scanUnicodeEscape() {
+        if (pos + 5 >= chars.length) {
+            throw new FEELSyntaxException("Incomplete unicode escape", expression, pos);
+        }
+        int code = 0;
+        for (int i = pos + 2; i < pos + 6; i++) {
+            int digit = Character.digit(chars[i], 16);
+            if (digit < 0) {
+                throw new FEELSyntaxException("Invalid unicode escape", expression, pos);
+            }
+            code = (code << 4) | digit;
+        }
+        return (char) code;
+    }
+    
+    private void scanNumber() {
+        int start = pos;
+        while (pos < chars.length && isDigit(chars[pos])) {
+            pos++;
+        }
+        // A '.' only belongs to the number when a digit follows; "1..10" is a range
+        if (pos + 1 < chars.length && chars[pos] == '.' && isDigit(chars[pos + 1])) {
+            pos++;
+            while (pos < chars.length && isDigit(chars[pos])) {
+                pos++;
+            }
+        }
+        BigDecimal value = new BigDecimal(chars, start, pos - start);
+        tokens.add(new FEELToken(FEELToken.Kind.NUMBER, expression.substring(start, pos), value, start));
+    }
+    
+    private void scanWord() {
+        int start = pos;
+        while (pos < chars.length && Character.isJavaIdentifierPart(chars[pos])) {
+            pos++;
+        }
+        String word = expression.substring(start, pos);
+        
+        if (KEYWORDS.contains(word)) {
+            tokens.add(new FEELToken(FEELToken.Kind.KEYWORD, word, null, start));
+            return;
+        }
+        
+        FEELToken previous = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1);
+        if (previous != null && previous.kind == FEELToken.Kind.NAME) {
+            // Continuation of a multi-word name such as "Customer Status"
+            String name = previous.text + " " + word;
+            tokens.set(tokens.size() - 1, new FEELToken(FEELToken.Kind.NAME, name, name, previous.position));
+        } else {
+            tokens.add(new FEELToken(FEELToken.Kind.NAME, word, word, start));
+        }
+    }
+    
+    private void scanOperator(char c) {
+        int start = pos;
+        char next = pos + 1 < chars.length ? chars[pos + 1] : '\0';
+        String operator;
+        switch (c) {
+            case '*':
+                operator = next == '*' ? "**" : "*";
+                break;
+            case '<':
+                operator = next == '=' ? "<=" : "<";
+                break;
+            case '>':
+                operator = next == '=' ? ">=" : ">";
+                break;
+            case '.':
+                operator = next == '.' ? ".." : ".";
+                break;
+            case '!':
+                if (next != '=') {
+                    throw new FEELSyntaxException("Unexpected character '!'", expression, pos);
+                }
+                operator = "!=";
+                break;
+            case '+':
+            case '-':
+            case '/':
+            case '=':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+            case ',':
+            case ':':
+            case '?':
+                operator = String.valueOf(c);
+                break;
+            default:
+                throw new FEELSyntaxException("Unexpected character '" + c + "'", expression, pos);
+        }
+        pos += operator.length();
+        tokens.add(new FEELToken(FEELToken.Kind.OPERATOR, operator, null, start));
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
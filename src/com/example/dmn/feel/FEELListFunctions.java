@@ -0,0 +1,256 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FEEL list functions.
+ * 
+ * Results are new lists allocated at their final size, or read-only views
+ * where the result is a range of the input (sublist). Duplicates are
+ * removed with {@link FEELValueSet}, so "distinct values" and "union" run in
+ * linear time. Positions start at 1, negative positions count from the end.
+ */
+final class FEELListFunctions {
+    
+    private FEELListFunctions() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Register the functions
+     * 
+     * @param functions the registry to add to
+     */
+    static void register(Map<String, FEELFunctions.Function> functions) {
+        functions.put("list contains", arguments -> {
+            List<?> list = listArgument(arguments, 2);
+            if (list == null) {
+                return null;
+            }
+            for (Object element : list) {
+                if (FEELOperators.equal(element, arguments[1])) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        });
+        functions.put("count", arguments -> {
+            List<?> list = FEELFunctions.list(arguments);
+            return list == null ? null : BigDecimal.valueOf(list.size());
+        });
+        functions.put("sublist", FEELListFunctions::sublist);
+        functions.put("append", arguments -> {
+            List<?> list = arguments.length >= 1 && arguments[0] instanceof List ? (List<?>) arguments[0] : null;
+            if (list == null) {
+                return null;
+            }
+            List<Object> result = new ArrayList<>(list.size() + arguments.length - 1);
+            result.addAll(list);
+            for (int i = 1; i < arguments.length; i++) {
+                result.add(arguments[i]);
+            }
+            return result;
+        });
+        functions.put("concatenate", arguments -> {
+            int size = 0;
+            for (Object argument : arguments) {
+                if (!(argument instanceof List)) {
+                    return null;
+                }
+                size += ((List<?>) argument).size();
+            }
+            List<Object> result = new ArrayList<>(size);
+            for (Object argument : arguments) {
+                result.addAll((List<?>) argument);
+            }
+            return result;
+        });
+        functions.put("insert before", arguments -> {
+            List<?> list = listArgument(arguments, 3);
+            int index = list == null ? -1 : position(list, arguments[1]);
+            if (index < 0) {
+                return null;
+            }
+            List<Object> result = new ArrayList<>(list.size() + 1);
+            result.addAll(list);
+            result.add(index, arguments[2]);
+            return result;
+        });
+        functions.put("remove", arguments -> {
+            List<?> list = listArgument(arguments, 2);
+            int index = list == null ? -1 : position(list, arguments[1]);
+            if (index < 0) {
+                return null;
+            }
+            List<Object> result = new ArrayList<>(list.size() - 1);
+            result.addAll(list.subList(0, index));
+            result.addAll(list.subList(index + 1, list.size()));
+            return result;
+        });
+        functions.put("reverse", arguments -> {
+            List<?> list = listArgument(arguments, 1);
+            if (list == null) {
+                return null;
+            }
+            List<Object> result = new ArrayList<>(list.size());
+            for (int i = list.size() - 1; i >= 0; i--) {
+                result.add(list.get(i));
+            }
+            return result;
+        });
+        functions.put("index of", arguments -> {
+            List<?> list = listArgument(arguments, 2);
+            if (list == null) {
+                return null;
+            }
+            List<Object> positions = new ArrayList<>();
+            for (int i = 0; i < list.size(); i++) {
+                if (FEELOperators.equal(list.get(i), arguments[1])) {
+                    positions.add(BigDecimal.valueOf(i + 1));
+                }
+            }
+            return positions;
+        });
+        functions.put("union", arguments -> {
+            int size = 0;
+            for (Object argument : arguments) {
+                if (!(argument instanceof List)) {
+                    return null;
+                }
+                size += ((List<?>) argument).size();
+            }
+            FEELValueSet set = new FEELValueSet(size);
+            for (Object argument : arguments) {
+                for (Object element : (List<?>) argument) {
+                    set.add(element);
+                }
+            }
+            return set.values();
+        });
+        functions.put("distinct values", arguments -> {
+            List<?> list = listArgument(arguments, 1);
+            if (list == null) {
+                return null;
+            }
+            FEELValueSet set = new FEELValueSet(list.size());
+            for (Object element : list) {
+                set.add(element);
+            }
+            return set.values();
+        });
+        functions.put("flatten", arguments -> {
+            List<?> list = listArgument(arguments, 1);
+            if (list == null) {
+                return null;
+            }
+            List<Object> result = new ArrayList<>(flatSize(list));
+            flatten(list, result);
+            return result;
+        });
+        FEELFunctions.Function all = arguments -> all(FEELFunctions.list(arguments));
+        FEELFunctions.Function any = arguments -> any(FEELFunctions.list(arguments));
+        functions.put("all", all);
+        functions.put("and", all);
+        functions.put("any", any);
+        functions.put("or", any);
+    }
+    
+    /**
+     * sublist(list, start position, length?), a read-only view of the list
+     */
+    private static Object sublist(Object[] arguments) {
+        if (arguments.length != 2 && arguments.length != 3 || !(arguments[0] instanceof List)) {
+            return null;
+        }
+        List<?> list = (List<?>) arguments[0];
+        int first = position(list, arguments[1]);
+        Integer length = arguments.length == 3 ? FEELFunctions.toInt(arguments[2]) : null;
+        if (first < 0 || arguments.length == 3 && (length == null || length < 0)) {
+            return null;
+        }
+        int end = length == null ? list.size() : (int) Math.min((long) first + length, list.size());
+        return Collections.unmodifiableList(list.subList(first, end));
+    }
+    
+    /**
+     * Convert a FEEL position to an index
+     * 
+     * @return the index, or -1 if the position is not in the list
+     */
+    private static int position(List<?> list, Object position) {
+        Integer p = FEELFunctions.toInt(position);
+        if (p == null || p == 0 || Math.abs((long) p) > list.size()) {
+            return -1;
+        }
+        return p > 0 ? p - 1 : list.size() + p;
+    }
+    
+    private static List<?> listArgument(Object[] arguments, int count) {
+        return arguments.length == count && arguments[0] instanceof List ? (List<?>) arguments[0] : null;
+    }
+    
+    private static int flatSize(List<?> list) {
+        int size = 0;
+        for (Object element : list) {
+            size += isList(element) ? flatSize((List<?>) element) : 1;
+        }
+        return size;
+    }
+    
+    private static void flatten(List<?> list, List<Object> result) {
+        for (Object element : list) {
+            if (isList(element)) {
+                flatten((List<?>) element, result);
+            } else {
+                result.add(element);
+            }
+        }
+    }
+    
+    /**
+     * Checks the usual scalar classes first: an interface check that fails
+     * is much slower than a class check
+     */
+    private static boolean isList(Object element) {
+        return !(element instanceof BigDecimal || element instanceof String || element instanceof Boolean)
+            && element instanceof List;
+    }
+    
+    /**
+     * false if any element is false, true if all are true, null otherwise
+     */
+    private static Object all(List<?> list) {
+        if (list == null) {
+            return null;
+        }
+        boolean allTrue = true;
+        for (Object element : list) {
+            if (Boolean.FALSE.equals(element)) {
+                return Boolean.FALSE;
+            }
+            allTrue &= Boolean.TRUE.equals(element);
+        }
+        return allTrue ? Boolean.TRUE : null;
+    }
+    
+    /**
+     * true if any element is true, false if all are false, null otherwise
+     */
+    private static Object any(List<?> list) {
+        if (list == null) {
+            return null;
+        }
+        boolean allFalse = true;
+        for (Object element : list) {
+            if (Boolean.TRUE.equals(element)) {
+                return Boolean.TRUE;
+            }
+            allFalse &= Boolean.FALSE.equals(element);
+        }
+        return allFalse ? Boolean.FALSE : null;
+    }
+}
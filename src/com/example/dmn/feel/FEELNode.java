@@ -0,0 +1,342 @@
+package com.example.dmn.feel;
+
+/**
+ * Node of a compiled FEEL expression tree.
+ * Nodes are immutable and evaluate themselves directly, so a parsed
+ * expression can be shared between threads and evaluated repeatedly
+ * without touching the source text again. Variable references are resolved
+ * to slots of a {@link FEELScope} by the parser.
+ */
+abstract class FEELNode {
+    
+    /**
+     * Evaluate this node in the given context
+     * 
+     * @param slots variable values, indexed by the slots of the scope
+     * @return the result of the evaluation
+     */
+    abstract Object evaluate(Object[] slots);
+    
+    /**
+     * Constant value (string, number, boolean, temporal value, list or null)
+     */
+    static final class Literal extends FEELNode {
+        final Object value;
+        
+        Literal(Object value) {
+            this.value = value;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            return value;
+        }
+        
+        @Override
+        public String toString() {
+            return value instanceof String ? "\"" + value + "\"" : String.valueOf(value);
+        }
+    }
+    
+    /**
+     * Variable reference; a name outside the scope has slot -1 and is null
+     */
+    static final class Name extends FEELNode {
+        final String name;
+        final int slot;
+        
+        Name(String name, int slot) {
+            this.name = name;
+            this.slot = slot;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            return slot >= 0 ? slots[slot] : null;
+        }
+        
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+    
+    /**
+     * Arithmetic negation
+     */
+    static final class Negate extends FEELNode {
+        final FEELNode operand;
+        
+        Negate(FEELNode operand) {
+            this.operand = operand;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            return FEELOperators.negate(operand.evaluate(slots));
+        }
+        
+        @Override
+        public String toString() {
+            return "-(" + operand + ")";
+        }
+    }
+    
+    /**
+     * Binary arithmetic operator
+     */
+    static final class Arithmetic extends FEELNode {
+        enum Operator { ADD, SUBTRACT, MULTIPLY, DIVIDE, POWER }
+        
+        final Operator operator;
+        final FEELNode left;
+        final FEELNode right;
+        
+        Arithmetic(Operator operator, FEELNode left, FEELNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            Object l = left.evaluate(slots);
+            Object r = right.evaluate(slots);
+            switch (operator) {
+                case ADD:
+                    return FEELOperators.add(l, r);
+                case SUBTRACT:
+                    return FEELOperators.subtract(l, r);
+                case MULTIPLY:
+                    return FEELOperators.multiply(l, r);
+                case DIVIDE:
+                    return FEELOperators.divide(l, r);
+                default:
+                    return FEELOperators.power(l, r);
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator + " " + right + ")";
+        }
+    }
+    
+    /**
+     * Binary comparison operator. A comparison whose operands are known to be
+     * of one type (see {@link FEELTypeInference}) compares through the
+     * methods of that type.
+     */
+    static final class Comparison extends FEELNode {
+        enum Operator { EQ, NE, LT, LE, GT, GE }
+        
+        final Operator operator;
+        final FEELNode left;
+        final FEELNode right;
+        final FEELType type;
+        
+        Comparison(Operator operator, FEELNode left, FEELNode right) {
+            this(operator, left, right, FEELType.ANY);
+        }
+        
+        Comparison(Operator operator, FEELNode left, FEELNode right, FEELType type) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+            this.type = type;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            return apply(left.evaluate(slots), right.evaluate(slots));
+        }
+        
+        /**
+         * Compare the values of the operands
+         * 
+         * @param l the value of the left operand
+         * @param r the value of the right operand
+         * @return the result of the comparison, or null if the values are not comparable
+         */
+        Boolean apply(Object l, Object r) {
+            switch (operator) {
+                case EQ:
+                    return FEELOperators.equal(type, l, r);
+                case NE:
+                    return !FEELOperators.equal(type, l, r);
+                default:
+                    int cmp = FEELOperators.compare(type, l, r);
+                    if (cmp == FEELOperators.INCOMPARABLE) {
+                        return null;
+                    }
+                    switch (operator) {
+                        case LT:
+                            return cmp < 0;
+                        case LE:
+                            return cmp <= 0;
+                        case GT:
+                            return cmp > 0;
+                        default:
+                            return cmp >= 0;
+                    }
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator + " " + right + ")";
+        }
+    }
+    
+    /**
+     * Three-valued conjunction
+     */
+    static final class And extends FEELNode {
+        final FEELNode left;
+        final FEELNode right;
+        
+        And(FEELNode left, FEELNode right) {
+            this.left = left;
+            this.right = right;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            Object l = left.evaluate(slots);
+            if (Boolean.FALSE.equals(l)) {
+                return Boolean.FALSE;
+            }
+            Object r = right.evaluate(slots);
+            if (Boolean.FALSE.equals(r)) {
+                return Boolean.FALSE;
+            }
+            return Boolean.TRUE.equals(l) && Boolean.TRUE.equals(r) ? Boolean.TRUE : null;
+        }
+        
+        @Override
+        public String toString() {
+            return "(" + left + " and " + right + ")";
+        }
+    }
+    
+    /**
+     * Three-valued disjunction
+     */
+    static final class Or extends FEELNode {
+        final FEELNode left;
+        final FEELNode right;
+        
+        Or(FEELNode left, FEELNode right) {
+            this.left = left;
+            this.right = right;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            Object l = left.evaluate(slots);
+            if (Boolean.TRUE.equals(l)) {
+                return Boolean.TRUE;
+            }
+            Object r = right.evaluate(slots);
+            if (Boolean.TRUE.equals(r)) {
+                return Boolean.TRUE;
+            }
+            return Boolean.FALSE.equals(l) && Boolean.FALSE.equals(r) ? Boolean.FALSE : null;
+        }
+        
+        @Override
+        public String toString() {
+            return "(" + left + " or " + right + ")";
+        }
+    }
+    
+    /**
+     * Conditional expression; a non-true condition selects the else branch
+     */
+    static final class If extends FEELNode {
+        final FEELNode condition;
+        final FEELNode thenBranch;
+        final FEELNode elseBranch;
+        
+        If(FEELNode condition, FEELNode thenBranch, FEELNode elseBranch) {
+            this.condition = condition;
+            this.thenBranch = thenBranch;
+            this.elseBranch = elseBranch;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            if (Boolean.TRUE.equals(condition.evaluate(slots))) {
+                return thenBranch.evaluate(slots);
+            }
+            return elseBranch.evaluate(slots);
+        }
+        
+        @Override
+        public String toString() {
+            return "if " + condition + " then " + thenBranch + " else " + elseBranch;
+        }
+    }
+    
+    /**
+     * List of the values of some expressions
+     */
+    static final class ItemList extends FEELNode {
+        final FEELNode[] items;
+        
+        ItemList(FEELNode[] items) {
+            this.items = items;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            Object[] values = new Object[items.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = items[i].evaluate(slots);
+            }
+            return FEELRuntime.list(values);
+        }
+        
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < items.length; i++) {
+                sb.append(i == 0 ? "" : ", ").append(items[i]);
+            }
+            return sb.append(']').toString();
+        }
+    }
+    
+    /**
+     * Call of a built-in function
+     */
+    static final class Call extends FEELNode {
+        final String name;
+        final FEELFunctions.Function function;
+        final FEELNode[] arguments;
+        
+        Call(String name, FEELFunctions.Function function, FEELNode[] arguments) {
+            this.name = name;
+            this.function = function;
+            this.arguments = arguments;
+        }
+        
+        @Override
+        Object evaluate(Object[] slots) {
+            Object[] values = new Object[arguments.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments[i].evaluate(slots);
+            }
+            return function.apply(values);
+        }
+        
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(name).append('(');
+            for (int i = 0; i < arguments.length; i++) {
+                sb.append(i == 0 ? "" : ", ").append(arguments[i]);
+            }
+            return sb.append(')').toString();
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FEEL number functions: the list aggregates sum, product, mean, median,
+ * stddev, mode, min and max, and the scalar functions decimal, floor,
+ * ceiling, abs, modulo, sqrt, log, exp, odd and even.
+ * 
+ * The aggregates first bring the numbers of a list to one common scale as
+ * unscaled longs (see {@link Decimals}), and then add, sort and count over
+ * that primitive array: one BigDecimal is created for the result instead of
+ * one per intermediate step, and the results are exact. product multiplies
+ * unscaled longs the same way. Lists whose values do not fit into longs
+ * take the BigDecimal path, with the precision of the FEEL operators.
+ */
+final class FEELNumericFunctions {
+    
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    
+    // Scales of FEEL numbers, which are decimal128 values
+    private static final int MIN_SCALE = -6111;
+    private static final int MAX_SCALE = 6176;
+    
+    private FEELNumericFunctions() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Register the functions
+     * 
+     * @param functions the registry to add to
+     */
+    static void register(Map<String, FEELFunctions.Function> functions) {
+        functions.put("sum", arguments -> sum(FEELFunctions.list(arguments)));
+        functions.put("product", arguments -> product(FEELFunctions.list(arguments)));
+        functions.put("mean", arguments -> mean(FEELFunctions.list(arguments)));
+        functions.put("median", arguments -> median(FEELFunctions.list(arguments)));
+        functions.put("stddev", arguments -> stddev(FEELFunctions.list(arguments)));
+        functions.put("mode", arguments -> mode(FEELFunctions.list(arguments)));
+        functions.put("min", arguments -> extreme(FEELFunctions.list(arguments), -1));
+        functions.put("max", arguments -> extreme(FEELFunctions.list(arguments), 1));
+        functions.put("decimal", FEELNumericFunctions::decimal);
+        functions.put("floor", arguments -> round(arguments, RoundingMode.FLOOR));
+        functions.put("ceiling", arguments -> round(arguments, RoundingMode.CEILING));
+        functions.put("abs", arguments -> {
+            BigDecimal n = single(arguments);
+            return n == null ? null : n.abs();
+        });
+        functions.put("modulo", FEELNumericFunctions::modulo);
+        functions.put("sqrt", arguments -> {
+            BigDecimal n = single(arguments);
+            return n == null || n.signum() < 0 ? null : n.sqrt(FEELOperators.MATH_CONTEXT);
+        });
+        functions.put("log", arguments -> {
+            BigDecimal n = single(arguments);
+            return n == null || n.signum() <= 0 ? null : fromDouble(Math.log(n.doubleValue()));
+        });
+        functions.put("exp", arguments -> {
+            BigDecimal n = single(arguments);
+            return n == null ? null : fromDouble(Math.exp(n.doubleValue()));
+        });
+        functions.put("odd", arguments -> parity(arguments, true));
+        functions.put("even", arguments -> parity(arguments, false));
+    }
+    
+    /**
+     * Numbers of a list as unscaled longs at one common scale, so that
+     * aggregates run over a primitive array
+     */
+    static final class Decimals {
+        final long[] unscaled;
+        final int scale;
+        
+        private Decimals(long[] unscaled, int scale) {
+            this.unscaled = unscaled;
+            this.scale = scale;
+        }
+        
+        /**
+         * Scale the numbers of a list
+         * 
+         * @param values the values, all numbers
+         * @return the scaled numbers, or null if a value does not fit
+         */
+        static Decimals of(List<?> values) {
+            int scale = 0;
+            for (Object value : values) {
+                if (value instanceof BigDecimal) {
+                    scale = Math.max(scale, ((BigDecimal) value).scale());
+                } else if (!isIntegral(value)) {
+                    scale = Math.max(scale, FEELOperators.toDecimal(value).scale());
+                }
+            }
+            // 10^18 is the largest power of ten in a long
+            if (scale > 18) {
+                return null;
+            }
+            long[] unscaled = new long[values.size()];
+            int i = 0;
+            try {
+                for (Object value : values) {
+                    if (isIntegral(value)) {
+                        unscaled[i++] = Math.multiplyExact(((Number) value).longValue(), POWERS_OF_TEN[scale]);
+                    } else {
+                        BigDecimal d = FEELOperators.toDecimal(value);
+                        if (d.scale() < 0) {
+                            d = d.setScale(0);
+                        }
+                        unscaled[i++] = Math.multiplyExact(unscaled(d), POWERS_OF_TEN[scale - d.scale()]);
+                    }
+                }
+            } catch (ArithmeticException e) {
+                return null;
+            }
+            return new Decimals(unscaled, scale);
+        }
+        
+        /**
+         * The unscaled value of a decimal. Moving the point with the same
+         * BigDecimal is cheaper than {@link BigDecimal#unscaledValue()},
+         * which creates a BigInteger for every value.
+         * 
+         * @throws ArithmeticException if the value does not fit into a long
+         */
+        static long unscaled(BigDecimal d) {
+            return d.scaleByPowerOfTen(d.scale()).longValueExact();
+        }
+        
+        BigDecimal decimal(long value) {
+            return BigDecimal.valueOf(value, scale);
+        }
+    }
+    
+    private static final long[] POWERS_OF_TEN = new long[19];
+    
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+    
+    /**
+     * Check that every value of a list is a finite number
+     */
+    private static boolean allNumbers(List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return false;
+        }
+        for (Object value : values) {
+            if (!isIntegral(value) && !(value instanceof BigDecimal) && FEELOperators.toDecimal(value) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static Object sum(List<?> values) {
+        if (!allNumbers(values)) {
+            return null;
+        }
+        Decimals decimals = Decimals.of(values);
+        if (decimals != null) {
+            long total = 0;
+            try {
+                for (long value : decimals.unscaled) {
+                    total = Math.addExact(total, value);
+                }
+                return decimals.decimal(total);
+            } catch (ArithmeticException e) {
+                // Exceeds a long; fall through
+            }
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (Object value : values) {
+            total = total.add(FEELOperators.toDecimal(value), FEELOperators.MATH_CONTEXT);
+        }
+        return total;
+    }
+    
+    static Object product(List<?> values) {
+        if (!allNumbers(values)) {
+            return null;
+        }
+        // Multiply unscaled values and add up the scales, like BigDecimal.multiply
+        long total = 1;
+        int scale = 0;
+        try {
+            for (Object value : values) {
+                if (isIntegral(value)) {
+                    total = Math.multiplyExact(total, ((Number) value).longValue());
+                } else {
+                    BigDecimal d = FEELOperators.toDecimal(value);
+                    total = Math.multiplyExact(total, Decimals.unscaled(d));
+                    scale = Math.addExact(scale, d.scale());
+                }
+            }
+            return BigDecimal.valueOf(total, scale);
+        } catch (ArithmeticException e) {
+            // Exceeds a long; fall through
+        }
+        BigDecimal product = BigDecimal.ONE;
+        for (Object value : values) {
+            product = product.multiply(FEELOperators.toDecimal(value), FEELOperators.MATH_CONTEXT);
+        }
+        return product;
+    }
+    
+    static Object mean(List<?> values) {
+        Object sum = sum(values);
+        return sum == null ? null : FEELOperators.divide(sum, BigDecimal.valueOf(values.size()));
+    }
+    
+    static Object median(List<?> values) {
+        if (!allNumbers(values)) {
+            return null;
+        }
+        int middle = values.size() / 2;
+        boolean even = values.size() % 2 == 0;
+        Decimals decimals = Decimals.of(values);
+        if (decimals != null) {
+            long[] sorted = decimals.unscaled;
+            Arrays.sort(sorted);
+            if (!even) {
+                return decimals.decimal(sorted[middle]);
+            }
+            try {
+                return FEELOperators.divide(decimals.decimal(Math.addExact(sorted[middle - 1], sorted[middle])), TWO);
+            } catch (ArithmeticException e) {
+                // Exceeds a long; fall through
+            }
+        }
+        BigDecimal[] sorted = decimals(values);
+        Arrays.sort(sorted);
+        if (!even) {
+            return sorted[middle];
+        }
+        return FEELOperators.divide(sorted[middle - 1].add(sorted[middle], FEELOperators.MATH_CONTEXT), TWO);
+    }
+    
+    /**
+     * Sample standard deviation
+     */
+    static Object stddev(List<?> values) {
+        if (!allNumbers(values) || values.size() < 2) {
+            return null;
+        }
+        BigDecimal sum;
+        BigDecimal sumOfSquares;
+        Decimals decimals = Decimals.of(values);
+        long total = 0;
+        long squares = 0;
+        boolean exact = decimals != null;
+        if (exact) {
+            try {
+                for (long value : decimals.unscaled) {
+                    total = Math.addExact(total, value);
+                    squares = Math.addExact(squares, Math.multiplyExact(value, value));
+                }
+            } catch (ArithmeticException e) {
+                exact = false;
+            }
+        }
+        if (exact) {
+            sum = decimals.decimal(total);
+            sumOfSquares = BigDecimal.valueOf(squares, decimals.scale * 2);
+        } else {
+            sum = BigDecimal.ZERO;
+            sumOfSquares = BigDecimal.ZERO;
+            for (BigDecimal value : decimals(values)) {
+                sum = sum.add(value, FEELOperators.MATH_CONTEXT);
+                sumOfSquares = sumOfSquares.add(value.multiply(value, FEELOperators.MATH_CONTEXT),
+                    FEELOperators.MATH_CONTEXT);
+            }
+        }
+        // (sum of squares - sum^2 / n) / (n - 1)
+        BigDecimal n = BigDecimal.valueOf(values.size());
+        BigDecimal variance = sumOfSquares
+            .subtract(sum.multiply(sum, FEELOperators.MATH_CONTEXT).divide(n, FEELOperators.MATH_CONTEXT),
+                FEELOperators.MATH_CONTEXT)
+            .divide(n.subtract(BigDecimal.ONE), FEELOperators.MATH_CONTEXT);
+        return variance.signum() <= 0 ? BigDecimal.ZERO : variance.sqrt(FEELOperators.MATH_CONTEXT);
+    }
+    
+    /**
+     * The most frequent numbers, in ascending order
+     */
+    static Object mode(List<?> values) {
+        if (values != null && values.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        if (!allNumbers(values)) {
+            return null;
+        }
+        List<Object> modes = new ArrayList<>();
+        int best = 0;
+        Decimals decimals = Decimals.of(values);
+        if (decimals != null) {
+            long[] sorted = decimals.unscaled;
+            Arrays.sort(sorted);
+            for (int start = 0, end; start < sorted.length; start = end) {
+                for (end = start + 1; end < sorted.length && sorted[end] == sorted[start]; end++) {
+                    // Run of equal values
+                }
+                if (end - start > best) {
+                    best = end - start;
+                    modes.clear();
+                }
+                if (end - start == best) {
+                    modes.add(decimals.decimal(sorted[start]));
+                }
+            }
+            return modes;
+        }
+        BigDecimal[] sorted = decimals(values);
+        Arrays.sort(sorted);
+        for (int start = 0, end; start < sorted.length; start = end) {
+            for (end = start + 1; end < sorted.length && sorted[end].compareTo(sorted[start]) == 0; end++) {
+                // Run of equal values
+            }
+            if (end - start > best) {
+                best = end - start;
+                modes.clear();
+            }
+            if (end - start == best) {
+                modes.add(sorted[start]);
+            }
+        }
+        return modes;
+    }
+    
+    /**
+     * min (direction -1) or max (direction 1) of numbers, or of other
+     * comparable values of one type such as strings and dates
+     */
+    static Object extreme(List<?> values, int direction) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        if (allNumbers(values)) {
+            Decimals decimals = Decimals.of(values);
+            if (decimals != null) {
+                long[] unscaled = decimals.unscaled;
+                int best = 0;
+                for (int i = 1; i < unscaled.length; i++) {
+                    if (Long.compare(unscaled[i], unscaled[best]) * direction > 0) {
+                        best = i;
+                    }
+                }
+                return FEELOperators.toDecimal(values.get(best));
+            }
+        }
+        Object best = values.get(0);
+        for (int i = 1; i < values.size(); i++) {
+            Integer cmp = FEELOperators.compare(values.get(i), best);
+            if (cmp == null) {
+                return null;
+            }
+            if (cmp * direction > 0) {
+                best = values.get(i);
+            }
+        }
+        return best instanceof Number ? FEELOperators.toDecimal(best) : best;
+    }
+    
+    private static BigDecimal[] decimals(List<?> values) {
+        BigDecimal[] decimals = new BigDecimal[values.size()];
+        int i = 0;
+        for (Object value : values) {
+            decimals[i++] = FEELOperators.toDecimal(value);
+        }
+        return decimals;
+    }
+    
+    /**
+     * decimal(n, scale): n rounded half to even
+     */
+    private static Object decimal(Object[] arguments) {
+        if (arguments.length != 2) {
+            return null;
+        }
+        BigDecimal n = FEELOperators.toDecimal(arguments[0]);
+        Integer scale = scale(arguments[1]);
+        return n == null || scale == null ? null : n.setScale(scale, RoundingMode.HALF_EVEN);
+    }
+    
+    /**
+     * floor(n) and ceiling(n), with an optional scale
+     */
+    private static Object round(Object[] arguments, RoundingMode mode) {
+        if (arguments.length != 1 && arguments.length != 2) {
+            return null;
+        }
+        BigDecimal n = FEELOperators.toDecimal(arguments[0]);
+        Integer scale = arguments.length == 2 ? scale(arguments[1]) : Integer.valueOf(0);
+        return n == null || scale == null ? null : n.setScale(scale, mode);
+    }
+    
+    /**
+     * The scale argument of a rounding function
+     * 
+     * @return the scale, or null if it is not an integer within the scales of FEEL numbers
+     */
+    private static Integer scale(Object argument) {
+        Integer scale = FEELFunctions.toInt(argument);
+        return scale == null || scale < MIN_SCALE || scale > MAX_SCALE ? null : scale;
+    }
+    
+    /**
+     * modulo(dividend, divisor), with the sign of the divisor
+     */
+    private static Object modulo(Object[] arguments) {
+        if (arguments.length != 2) {
+            return null;
+        }
+        BigDecimal dividend = FEELOperators.toDecimal(arguments[0]);
+        BigDecimal divisor = FEELOperators.toDecimal(arguments[1]);
+        if (dividend == null || divisor == null || divisor.signum() == 0) {
+            return null;
+        }
+        BigDecimal remainder = dividend.remainder(divisor, FEELOperators.MATH_CONTEXT);
+        return remainder.signum() != 0 && remainder.signum() != divisor.signum() ? remainder.add(divisor) : remainder;
+    }
+    
+    private static Object parity(Object[] arguments, boolean odd) {
+        BigDecimal n = single(arguments);
+        if (n == null) {
+            return null;
+        }
+        if (n.scale() > 0 && n.stripTrailingZeros().scale() > 0) {
+            // Not an integer
+            return null;
+        }
+        return n.toBigInteger().testBit(0) == odd;
+    }
+    
+    private static BigDecimal single(Object[] arguments) {
+        return arguments.length == 1 ? FEELOperators.toDecimal(arguments[0]) : null;
+    }
+    
+    private static BigDecimal fromDouble(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : BigDecimal.valueOf(value);
+    }
+}
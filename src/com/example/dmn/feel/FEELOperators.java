@@ -0,0 +1,302 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Implementation of the FEEL operators used by compiled expressions.
+ * All operators follow FEEL null semantics: an operand of the wrong type
+ * yields null instead of an exception.
+ * 
+ * FEEL numbers are decimals, so every numeric result is a {@link BigDecimal}
+ * computed with {@link MathContext#DECIMAL128} precision as the DMN
+ * specification requires. Java numbers from the evaluation context are
+ * converted on the way in.
+ */
+final class FEELOperators {
+    
+    /**
+     * Precision used for all FEEL arithmetic
+     */
+    static final MathContext MATH_CONTEXT = MathContext.DECIMAL128;
+    
+    /**
+     * Result of {@link #compare(FEELType, Object, Object)} for values that
+     * are not comparable
+     */
+    static final int INCOMPARABLE = Integer.MIN_VALUE;
+    
+    private FEELOperators() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Convert a Java number to a FEEL decimal
+     * 
+     * @param value the value to convert
+     * @return the decimal value, or null if the value is not a finite number
+     */
+    static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Double) {
+            double d = (Double) value;
+            return Double.isNaN(d) || Double.isInfinite(d) ? null : BigDecimal.valueOf(d);
+        }
+        if (value instanceof Float) {
+            // The float's own shortest decimal, so that 0.1f is 0.1
+            float f = (Float) value;
+            return Float.isNaN(f) || Float.isInfinite(f) ? null : new BigDecimal(Float.toString(f));
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        return null;
+    }
+    
+    /**
+     * Add two values (numbers or strings)
+     */
+    static Object add(Object left, Object right) {
+        if (left instanceof String && right instanceof String) {
+            return (String) left + right;
+        }
+        BigDecimal l = toDecimal(left);
+        BigDecimal r = toDecimal(right);
+        return l == null || r == null ? null : l.add(r, MATH_CONTEXT);
+    }
+    
+    /**
+     * Subtract two numbers
+     */
+    static Object subtract(Object left, Object right) {
+        BigDecimal l = toDecimal(left);
+        BigDecimal r = toDecimal(right);
+        return l == null || r == null ? null : l.subtract(r, MATH_CONTEXT);
+    }
+    
+    /**
+     * Multiply two numbers
+     */
+    static Object multiply(Object left, Object right) {
+        BigDecimal l = toDecimal(left);
+        BigDecimal r = toDecimal(right);
+        return l == null || r == null ? null : l.multiply(r, MATH_CONTEXT);
+    }
+    
+    /**
+     * Divide two numbers; division by zero yields null
+     */
+    static Object divide(Object left, Object right) {
+        BigDecimal l = toDecimal(left);
+        BigDecimal r = toDecimal(right);
+        if (l == null || r == null || r.signum() == 0) {
+            return null;
+        }
+        return l.divide(r, MATH_CONTEXT);
+    }
+    
+    /**
+     * Raise a number to a power. Integer exponents are computed in decimal
+     * arithmetic, fractional exponents fall back to double precision.
+     */
+    static Object power(Object left, Object right) {
+        BigDecimal base = toDecimal(left);
+        BigDecimal exponent = toDecimal(right);
+        if (base == null || exponent == null) {
+            return null;
+        }
+        try {
+            return base.pow(exponent.intValueExact(), MATH_CONTEXT);
+        } catch (ArithmeticException e) {
+            // Fractional or huge exponent; fall through to double precision
+        }
+        double result = Math.pow(base.doubleValue(), exponent.doubleValue());
+        return Double.isNaN(result) || Double.isInfinite(result) ? null : BigDecimal.valueOf(result);
+    }
+    
+    /**
+     * Negate a number
+     */
+    static Object negate(Object value) {
+        BigDecimal d = toDecimal(value);
+        return d == null ? null : d.negate();
+    }
+    
+    /**
+     * FEEL equality: null equals only null, numbers compare by value, lists
+     * element by element
+     */
+    static Boolean equal(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        if (left instanceof String) {
+            // The common case first: a class check is cheaper than the interface check below
+            return left.equals(right);
+        }
+        if (left instanceof Number && right instanceof Number) {
+            BigDecimal l = toDecimal(left);
+            BigDecimal r = toDecimal(right);
+            return l != null && r != null && l.compareTo(r) == 0;
+        }
+        if (left instanceof List && right instanceof List) {
+            List<?> l = (List<?>) left;
+            List<?> r = (List<?>) right;
+            if (l.size() != r.size()) {
+                return Boolean.FALSE;
+            }
+            for (int i = 0; i < l.size(); i++) {
+                if (!equal(l.get(i), r.get(i))) {
+                    return Boolean.FALSE;
+                }
+            }
+            return Boolean.TRUE;
+        }
+        if (left.getClass() != right.getClass()) {
+            return Boolean.FALSE;
+        }
+        return left.equals(right);
+    }
+    
+    /**
+     * Compare two values for ordering. Booleans are not ordered in FEEL.
+     * 
+     * @return negative, zero or positive, or null if the values are not comparable
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Integer compare(Object left, Object right) {
+        if (left == null || right == null || left instanceof Boolean || right instanceof Boolean) {
+            return null;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            BigDecimal l = toDecimal(left);
+            BigDecimal r = toDecimal(right);
+            return l == null || r == null ? null : l.compareTo(r);
+        }
+        if (left instanceof Comparable && left.getClass() == right.getClass()) {
+            return ((Comparable) left).compareTo(right);
+        }
+        return null;
+    }
+    
+    /**
+     * FEEL equality of two values of a known type. Values of the type are
+     * compared through their own class, so that the call site sees a single
+     * receiver class; other values fall back to {@link #equal(Object, Object)}.
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return the same result as {@link #equal(Object, Object)}
+     */
+    static Boolean equal(FEELType type, Object left, Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        switch (type) {
+            case NUMBER:
+                if (left instanceof BigDecimal && right instanceof BigDecimal) {
+                    return ((BigDecimal) left).compareTo((BigDecimal) right) == 0;
+                }
+                if (isIntegral(left) && isIntegral(right)) {
+                    return ((Number) left).longValue() == ((Number) right).longValue();
+                }
+                break;
+            case BOOLEAN:
+                if (left instanceof Boolean && right instanceof Boolean) {
+                    return ((Boolean) left).booleanValue() == ((Boolean) right).booleanValue();
+                }
+                break;
+            case DATE:
+                if (left instanceof LocalDate && right instanceof LocalDate) {
+                    return ((LocalDate) left).isEqual((LocalDate) right);
+                }
+                break;
+            case TIME:
+                if (left instanceof LocalTime && right instanceof LocalTime) {
+                    return ((LocalTime) left).equals(right);
+                }
+                break;
+            default:
+                break;
+        }
+        return equal(left, right);
+    }
+    
+    /**
+     * Compare two values of a known type for ordering. Values of the type
+     * are compared through their own class instead of {@link Comparable};
+     * other values fall back to {@link #compare(Object, Object)}.
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return negative, zero or positive, or {@link #INCOMPARABLE} if the values are not comparable
+     */
+    static int compare(FEELType type, Object left, Object right) {
+        if (left == null || right == null) {
+            return INCOMPARABLE;
+        }
+        switch (type) {
+            case NUMBER:
+                if (left instanceof BigDecimal && right instanceof BigDecimal) {
+                    return ((BigDecimal) left).compareTo((BigDecimal) right);
+                }
+                if (isIntegral(left) && isIntegral(right)) {
+                    return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+                }
+                break;
+            case STRING:
+                if (left instanceof String && right instanceof String) {
+                    return ((String) left).compareTo((String) right);
+                }
+                break;
+            case BOOLEAN:
+                // Booleans are not ordered; values of another type keep the generic semantics
+                if (left instanceof Boolean && right instanceof Boolean) {
+                    return INCOMPARABLE;
+                }
+                break;
+            case DATE:
+                if (left instanceof LocalDate && right instanceof LocalDate) {
+                    return ((LocalDate) left).compareTo((LocalDate) right);
+                }
+                break;
+            case TIME:
+                if (left instanceof LocalTime && right instanceof LocalTime) {
+                    return ((LocalTime) left).compareTo((LocalTime) right);
+                }
+                break;
+            case DATE_TIME:
+                if (left instanceof LocalDateTime && right instanceof LocalDateTime) {
+                    return ((LocalDateTime) left).compareTo((LocalDateTime) right);
+                }
+                break;
+            case DAYS_TIME_DURATION:
+                if (left instanceof Duration && right instanceof Duration) {
+                    return ((Duration) left).compareTo((Duration) right);
+                }
+                break;
+            default:
+                break;
+        }
+        Integer cmp = compare(left, right);
+        return cmp != null ? cmp : INCOMPARABLE;
+    }
+    
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.dmn.feel;
+
+/**
+ * Compile-time simplification of FEEL expression trees.
+ * 
+ * Subtrees whose operands are all constants are evaluated once and replaced
+ * by their value, so "1000 * 1.2" and [1, 2, 3] become literals and temporal literals
+ * such as date("2024-01-01") are parsed when the expression is compiled
+ * instead of at every evaluation. Conditionals with a constant condition
+ * keep only the branch that is taken, and boolean operators absorb constant
+ * operands. Binding some names to fixed values (see {@link #bind}) turns the
+ * same pass into a partial evaluator, for example to specialize the
+ * expressions of a decision for the constants of one tenant.
+ * 
+ * Every rewrite keeps the FEEL semantics, including null propagation: the
+ * simplified tree returns the same value as the original one for any input.
+ * The pass runs when an expression is compiled; the system property
+ * {@code dmn.feel.optimize=false} switches it off for comparison.
+ */
+final class FEELOptimizer {
+    
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("dmn.feel.optimize", "true"));
+    
+    private static final Object[] NO_SLOTS = new Object[0];
+    
+    private final Object[] values;
+    private final boolean[] bound;
+    
+    private FEELOptimizer(Object[] values, boolean[] bound) {
+        this.values = values;
+        this.bound = bound;
+    }
+    
+    /**
+     * Simplify an expression tree
+     * 
+     * @param root the root of the tree
+     * @return the simplified tree, or the same tree if nothing could be simplified
+     */
+    static FEELNode optimize(FEELNode root) {
+        return new FEELOptimizer(null, null).rewrite(root);
+    }
+    
+    /**
+     * Replace names by fixed values and simplify the resulting tree
+     * 
+     * @param root the root of the tree
+     * @param values values in slot order
+     * @param bound which slots have a fixed value
+     * @return the specialized tree
+     */
+    static FEELNode bind(FEELNode root, Object[] values, boolean[] bound) {
+        return new FEELOptimizer(values, bound).rewrite(root);
+    }
+    
+    private FEELNode rewrite(FEELNode node) {
+        if (node instanceof FEELNode.Name) {
+            int slot = ((FEELNode.Name) node).slot;
+            if (slot < 0) {
+                // Outside the scope, always null
+                return new FEELNode.Literal(null);
+            }
+            return bound != null && bound[slot] ? new FEELNode.Literal(values[slot]) : node;
+        }
+        if (node instanceof FEELNode.Negate) {
+            FEELNode rewritten = new FEELNode.Negate(rewrite(((FEELNode.Negate) node).operand));
+            return isLiteral(((FEELNode.Negate) rewritten).operand) ? fold(rewritten, rewritten) : rewritten;
+        }
+        if (node instanceof FEELNode.Arithmetic) {
+            return rewriteArithmetic((FEELNode.Arithmetic) node);
+        }
+        if (node instanceof FEELNode.Comparison) {
+            return rewriteComparison((FEELNode.Comparison) node);
+        }
+        if (node instanceof FEELNode.And) {
+            FEELNode.And and = (FEELNode.And) node;
+            return rewriteLogical(new FEELNode.And(rewrite(and.left), rewrite(and.right)), Boolean.FALSE);
+        }
+        if (node instanceof FEELNode.Or) {
+            FEELNode.Or or = (FEELNode.Or) node;
+            return rewriteLogical(new FEELNode.Or(rewrite(or.left), rewrite(or.right)), Boolean.TRUE);
+        }
+        if (node instanceof FEELNode.If) {
+            return rewriteIf((FEELNode.If) node);
+        }
+        if (node instanceof FEELNode.ItemList) {
+            FEELNode[] items = ((FEELNode.ItemList) node).items.clone();
+            boolean constant = true;
+            for (int i = 0; i < items.length; i++) {
+                items[i] = rewrite(items[i]);
+                constant &= isLiteral(items[i]);
+            }
+            FEELNode rewritten = new FEELNode.ItemList(items);
+            return constant ? fold(rewritten, rewritten) : rewritten;
+        }
+        if (node instanceof FEELNode.Call) {
+            FEELNode.Call call = (FEELNode.Call) node;
+            FEELNode[] arguments = new FEELNode[call.arguments.length];
+            boolean constant = true;
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = rewrite(call.arguments[i]);
+                constant &= isLiteral(arguments[i]);
+            }
+            if (constant) {
+                // Built-in functions are pure
+                FEELNode rewritten = new FEELNode.Call(call.name, call.function, arguments);
+                return fold(rewritten, rewritten);
+            }
+            // Folding may have turned arguments into literals the function can use
+            FEELFunctions.Function function = FEELFunctions.lookup(call.name);
+            return new FEELNode.Call(call.name, FEELFunctions.specialize(call.name, function, arguments), arguments);
+        }
+        return node;
+    }
+    
+    private FEELNode rewriteArithmetic(FEELNode.Arithmetic arithmetic) {
+        FEELNode left = rewrite(arithmetic.left);
+        FEELNode right = rewrite(arithmetic.right);
+        FEELNode rewritten = new FEELNode.Arithmetic(arithmetic.operator, left, right);
+        if (isLiteral(left) && isLiteral(right)) {
+            return fold(rewritten, rewritten);
+        }
+        if (isInvalidOperand(arithmetic.operator, left) || isInvalidOperand(arithmetic.operator, right)) {
+            // null, true + x, "a" * x ... are null whatever the other operand is
+            return new FEELNode.Literal(null);
+        }
+        return rewritten;
+    }
+    
+    private FEELNode rewriteComparison(FEELNode.Comparison comparison) {
+        FEELNode left = rewrite(comparison.left);
+        FEELNode right = rewrite(comparison.right);
+        FEELNode rewritten = new FEELNode.Comparison(comparison.operator, left, right, comparison.type);
+        if (isLiteral(left) && isLiteral(right)) {
+            return fold(rewritten, rewritten);
+        }
+        boolean ordering = comparison.operator != FEELNode.Comparison.Operator.EQ
+            && comparison.operator != FEELNode.Comparison.Operator.NE;
+        if (ordering && (isNull(left) || isNull(right))) {
+            // Nothing is ordered relative to null
+            return new FEELNode.Literal(null);
+        }
+        return rewritten;
+    }
+    
+    /**
+     * Simplify a conjunction (absorbing value false) or a disjunction
+     * (absorbing value true) whose operands are already rewritten
+     */
+    private FEELNode rewriteLogical(FEELNode node, Boolean absorbing) {
+        FEELNode left = node instanceof FEELNode.And ? ((FEELNode.And) node).left : ((FEELNode.Or) node).left;
+        FEELNode right = node instanceof FEELNode.And ? ((FEELNode.And) node).right : ((FEELNode.Or) node).right;
+        if (isLiteral(left) && isLiteral(right)) {
+            return fold(node, node);
+        }
+        // Operands have no side effects, so either one can decide the result
+        if (isLiteral(left, absorbing) || isLiteral(right, absorbing)) {
+            return new FEELNode.Literal(absorbing);
+        }
+        // The neutral value leaves the other operand, if that is a boolean or null already
+        Boolean neutral = !absorbing;
+        if (isLiteral(left, neutral) && isBoolean(right)) {
+            return right;
+        }
+        if (isLiteral(right, neutral) && isBoolean(left)) {
+            return left;
+        }
+        return node;
+    }
+    
+    private FEELNode rewriteIf(FEELNode.If conditional) {
+        FEELNode condition = rewrite(conditional.condition);
+        if (isLiteral(condition)) {
+            // Dead branch elimination; anything but true selects the else branch
+            boolean taken = Boolean.TRUE.equals(((FEELNode.Literal) condition).value);
+            return rewrite(taken ? conditional.thenBranch : conditional.elseBranch);
+        }
+        FEELNode thenBranch = rewrite(conditional.thenBranch);
+        FEELNode elseBranch = rewrite(conditional.elseBranch);
+        if (isLiteral(thenBranch) && isLiteral(elseBranch)) {
+            Object thenValue = ((FEELNode.Literal) thenBranch).value;
+            Object elseValue = ((FEELNode.Literal) elseBranch).value;
+            if (thenValue == null ? elseValue == null
+                    : elseValue != null && thenValue.getClass() == elseValue.getClass() && thenValue.equals(elseValue)) {
+                return thenBranch;
+            }
+        }
+        return new FEELNode.If(condition, thenBranch, elseBranch);
+    }
+    
+    /**
+     * Evaluate a tree of constants once
+     * 
+     * @param node the tree to evaluate
+     * @param fallback returned if evaluation fails, so the failure happens at run time as before
+     */
+    private static FEELNode fold(FEELNode node, FEELNode fallback) {
+        try {
+            return new FEELNode.Literal(node.evaluate(NO_SLOTS));
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+    
+    private static boolean isLiteral(FEELNode node) {
+        return node instanceof FEELNode.Literal;
+    }
+    
+    private static boolean isLiteral(FEELNode node, Boolean value) {
+        return node instanceof FEELNode.Literal && value.equals(((FEELNode.Literal) node).value);
+    }
+    
+    private static boolean isNull(FEELNode node) {
+        return node instanceof FEELNode.Literal && ((FEELNode.Literal) node).value == null;
+    }
+    
+    /**
+     * Check whether a constant makes an arithmetic operation null regardless
+     * of the other operand: only numbers, and strings for "+", are operands
+     */
+    private static boolean isInvalidOperand(FEELNode.Arithmetic.Operator operator, FEELNode node) {
+        if (!(node instanceof FEELNode.Literal)) {
+            return false;
+        }
+        Object value = ((FEELNode.Literal) node).value;
+        return value == null || value instanceof Boolean
+            || value instanceof String && operator != FEELNode.Arithmetic.Operator.ADD;
+    }
+    
+    /**
+     * Check whether a node always evaluates to true, false or null
+     */
+    private static boolean isBoolean(FEELNode node) {
+        if (node instanceof FEELNode.Comparison || node instanceof FEELNode.And || node instanceof FEELNode.Or) {
+            return true;
+        }
+        if (node instanceof FEELNode.Literal) {
+            Object value = ((FEELNode.Literal) node).value;
+            return value == null || value instanceof Boolean;
+        }
+        if (node instanceof FEELNode.If) {
+            FEELNode.If conditional = (FEELNode.If) node;
+            return isBoolean(conditional.thenBranch) && isBoolean(conditional.elseBranch);
+        }
+        return false;
+    }
+}
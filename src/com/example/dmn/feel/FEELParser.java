@@ -0,0 +1,301 @@
+package com.example.dmn.feel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser for the subset of FEEL supported by the plugin.
+ * Produces an immutable {@link FEELNode} tree that can be evaluated repeatedly.
+ * 
+ * Supported grammar:
+ * <pre>
+ * expression     := "if" expression "then" expression "else" expression | disjunction
+ * disjunction    := conjunction ("or" conjunction)*
+ * conjunction    := comparison ("and" comparison)*
+ * comparison     := additive (("=" | "!=" | "&lt;" | "&lt;=" | "&gt;" | "&gt;=") additive)?
+ * additive       := multiplicative (("+" | "-") multiplicative)*
+ * multiplicative := power (("*" | "/") power)*
+ * power          := unary ("**" unary)*
+ * unary          := "-" unary | primary
+ * primary        := number | string | "true" | "false" | "null" | call | name | list | "(" expression ")"
+ * call           := (name | "and" | "or") "(" (expression ("," expression)*)? ")"
+ * list           := "[" (expression ("," expression)*)? "]"
+ * </pre>
+ * Tokens come from {@link FEELLexer}, so names may contain spaces
+ * ("Customer Status") and numbers are {@link java.math.BigDecimal} values.
+ * Calls are resolved against {@link FEELFunctions} while parsing.
+ */
+public class FEELParser {
+    
+    private final String expression;
+    private final List<FEELToken> tokens;
+    private final FEELScope scope;
+    private final List<String> names;
+    private int index;
+    
+    private FEELParser(String expression, FEELScope scope, List<String> names) {
+        this.expression = expression;
+        this.tokens = FEELLexer.tokenize(expression);
+        this.scope = scope;
+        this.names = names;
+        this.index = 0;
+    }
+    
+    /**
+     * Parse a FEEL expression into an evaluation tree, resolving names
+     * against a scope. Names outside the scope evaluate to null.
+     * 
+     * @param expression the expression text
+     * @param scope the names the expression can refer to
+     * @return the root node of the parsed expression
+     * @throws FEELSyntaxException if the expression is not valid
+     */
+    static FEELNode parse(String expression, FEELScope scope) {
+        return parse(new FEELParser(expression, scope, null));
+    }
+    
+    /**
+     * Parse a FEEL expression into an evaluation tree, giving each distinct
+     * name a slot in order of first reference
+     * 
+     * @param expression the expression text
+     * @param names receives the referenced names in slot order
+     * @return the root node of the parsed expression
+     * @throws FEELSyntaxException if the expression is not valid
+     */
+    static FEELNode parse(String expression, List<String> names) {
+        return parse(new FEELParser(expression, null, names));
+    }
+    
+    private static FEELNode parse(FEELParser parser) {
+        FEELNode root = parser.parseExpression();
+        if (parser.peek().kind != FEELToken.Kind.END) {
+            throw parser.error("Unexpected '" + parser.peek().text + "'");
+        }
+        return root;
+    }
+    
+    private FEELNode parseExpression() {
+        if (acceptKeyword("if")) {
+            FEELNode condition = parseExpression();
+            expectKeyword("then");
+            FEELNode thenBranch = parseExpression();
+            expectKeyword("else");
+            FEELNode elseBranch = parseExpression();
+            return new FEELNode.If(condition, thenBranch, elseBranch);
+        }
+        return parseDisjunction();
+    }
+    
+    private FEELNode parseDisjunction() {
+        FEELNode left = parseConjunction();
+        while (acceptKeyword("or")) {
+            left = new FEELNode.Or(left, parseConjunction());
+        }
+        return left;
+    }
+    
+    private FEELNode parseConjunction() {
+        FEELNode left = parseComparison();
+        while (acceptKeyword("and")) {
+            left = new FEELNode.And(left, parseComparison());
+        }
+        return left;
+    }
+    
+    private FEELNode parseComparison() {
+        FEELNode left = parseAdditive();
+        FEELNode.Comparison.Operator operator = null;
+        if (acceptSymbol("=")) {
+            operator = FEELNode.Comparison.Operator.EQ;
+        } else if (acceptSymbol("!=")) {
+            operator = FEELNode.Comparison.Operator.NE;
+        } else if (acceptSymbol("<=")) {
+            operator = FEELNode.Comparison.Operator.LE;
+        } else if (acceptSymbol("<")) {
+            operator = FEELNode.Comparison.Operator.LT;
+        } else if (acceptSymbol(">=")) {
+            operator = FEELNode.Comparison.Operator.GE;
+        } else if (acceptSymbol(">")) {
+            operator = FEELNode.Comparison.Operator.GT;
+        }
+        if (operator == null) {
+            return left;
+        }
+        return new FEELNode.Comparison(operator, left, parseAdditive());
+    }
+    
+    private FEELNode parseAdditive() {
+        FEELNode left = parseMultiplicative();
+        while (true) {
+            if (acceptSymbol("+")) {
+                left = new FEELNode.Arithmetic(FEELNode.Arithmetic.Operator.ADD, left, parseMultiplicative());
+            } else if (acceptSymbol("-")) {
+                left = new FEELNode.Arithmetic(FEELNode.Arithmetic.Operator.SUBTRACT, left, parseMultiplicative());
+            } else {
+                return left;
+            }
+        }
+    }
+    
+    private FEELNode parseMultiplicative() {
+        FEELNode left = parsePower();
+        while (true) {
+            if (acceptSymbol("*")) {
+                left = new FEELNode.Arithmetic(FEELNode.Arithmetic.Operator.MULTIPLY, left, parsePower());
+            } else if (acceptSymbol("/")) {
+                left = new FEELNode.Arithmetic(FEELNode.Arithmetic.Operator.DIVIDE, left, parsePower());
+            } else {
+                return left;
+            }
+        }
+    }
+    
+    private FEELNode parsePower() {
+        FEELNode left = parseUnary();
+        while (acceptSymbol("**")) {
+            left = new FEELNode.Arithmetic(FEELNode.Arithmetic.Operator.POWER, left, parseUnary());
+        }
+        return left;
+    }
+    
+    private FEELNode parseUnary() {
+        if (acceptSymbol("-")) {
+            FEELNode operand = parseUnary();
+            if (operand instanceof FEELNode.Literal) {
+                Object negated = FEELOperators.negate(((FEELNode.Literal) operand).value);
+                if (negated != null) {
+                    return new FEELNode.Literal(negated);
+                }
+            }
+            return new FEELNode.Negate(operand);
+        }
+        return parsePrimary();
+    }
+    
+    private FEELNode name(String name) {
+        if (scope != null) {
+            return new FEELNode.Name(name, scope.slotOf(name));
+        }
+        int slot = names.indexOf(name);
+        if (slot < 0) {
+            slot = names.size();
+            names.add(name);
+        }
+        return new FEELNode.Name(name, slot);
+    }
+    
+    private FEELNode parsePrimary() {
+        FEELToken token = peek();
+        switch (token.kind) {
+            case NUMBER:
+            case STRING:
+                index++;
+                return new FEELNode.Literal(token.value);
+            case NAME:
+                index++;
+                String name = token.text;
+                // The lexer splits function names at keywords: "date and time", "index of"
+                String joined = name;
+                int end = index;
+                while (tokens.get(end).kind == FEELToken.Kind.KEYWORD || tokens.get(end).kind == FEELToken.Kind.NAME) {
+                    joined = joined + " " + tokens.get(end++).text;
+                }
+                if (end > index && tokens.get(end).isOperator("(") && FEELFunctions.lookup(joined) != null) {
+                    name = joined;
+                    index = end;
+                }
+                if (acceptSymbol("(")) {
+                    return call(name, token);
+                }
+                return name(name);
+            case KEYWORD:
+                if (acceptKeyword("true")) {
+                    return new FEELNode.Literal(Boolean.TRUE);
+                } else if (acceptKeyword("false")) {
+                    return new FEELNode.Literal(Boolean.FALSE);
+                } else if (acceptKeyword("null")) {
+                    return new FEELNode.Literal(null);
+                } else if ((token.isKeyword("and") || token.isKeyword("or")) && tokens.get(index + 1).isOperator("(")) {
+                    // The functions and(list) and or(list)
+                    index += 2;
+                    return call(token.text, token);
+                }
+                throw error("Unexpected keyword '" + token.text + "'");
+            case OPERATOR:
+                if (acceptSymbol("?")) {
+                    // Implicit input value of a unary test
+                    return name("?");
+                }
+                if (acceptSymbol("[")) {
+                    return new FEELNode.ItemList(parseArguments("]"));
+                }
+                if (acceptSymbol("(")) {
+                    FEELNode inner = parseExpression();
+                    if (!acceptSymbol(")")) {
+                        throw error("Expected ')'");
+                    }
+                    return inner;
+                }
+                throw error("Unexpected '" + token.text + "'");
+            default:
+                throw error("Unexpected end of expression");
+        }
+    }
+    
+    private FEELNode call(String name, FEELToken token) {
+        FEELFunctions.Function function = FEELFunctions.lookup(name);
+        if (function == null) {
+            throw new FEELSyntaxException("Unknown function '" + name + "'", expression, token.position);
+        }
+        FEELNode[] arguments = parseArguments(")");
+        return new FEELNode.Call(name, FEELFunctions.specialize(name, function, arguments), arguments);
+    }
+    
+    /**
+     * Parse comma-separated expressions up to a closing symbol
+     */
+    private FEELNode[] parseArguments(String close) {
+        List<FEELNode> arguments = new ArrayList<>();
+        if (!acceptSymbol(close)) {
+            do {
+                arguments.add(parseExpression());
+            } while (acceptSymbol(","));
+            if (!acceptSymbol(close)) {
+                throw error("Expected '" + close + "'");
+            }
+        }
+        return arguments.toArray(new FEELNode[0]);
+    }
+    
+    private FEELToken peek() {
+        return tokens.get(index);
+    }
+    
+    private boolean acceptSymbol(String symbol) {
+        if (peek().isOperator(symbol)) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+    
+    private boolean acceptKeyword(String keyword) {
+        if (peek().isKeyword(keyword)) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+    
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) {
+            throw error("Expected '" + keyword + "'");
+        }
+    }
+    
+    private FEELSyntaxException error(String message) {
+        return new FEELSyntaxException(message, expression, peek().position);
+    }
+
+}
@@ -0,0 +1,311 @@
+package com.example.dmn.feel;
+
+import com.example.dmn.util.BoundedCache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * FEEL operators for code generated ahead of time, such as the Java source
+ * written by {@link FEELJavaTranslator}.
+ * 
+ * Each method has the semantics of the corresponding expression node, so
+ * generated code evaluates to exactly what the interpreter returns. Values
+ * follow FEEL null semantics: an operand of the wrong type yields null
+ * instead of an exception.
+ */
+public final class FEELRuntime {
+    
+    private FEELRuntime() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Arithmetic negation
+     * 
+     * @param value the operand
+     * @return the negated number, or null
+     */
+    public static Object negate(Object value) {
+        return FEELOperators.negate(value);
+    }
+    
+    /**
+     * Addition of numbers or concatenation of strings
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the sum, or null
+     */
+    public static Object add(Object left, Object right) {
+        return FEELOperators.add(left, right);
+    }
+    
+    /**
+     * Subtraction
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the difference, or null
+     */
+    public static Object subtract(Object left, Object right) {
+        return FEELOperators.subtract(left, right);
+    }
+    
+    /**
+     * Multiplication
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the product, or null
+     */
+    public static Object multiply(Object left, Object right) {
+        return FEELOperators.multiply(left, right);
+    }
+    
+    /**
+     * Division
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the quotient, or null for a division by zero
+     */
+    public static Object divide(Object left, Object right) {
+        return FEELOperators.divide(left, right);
+    }
+    
+    /**
+     * Exponentiation
+     * 
+     * @param left the base
+     * @param right the exponent
+     * @return the power, or null
+     */
+    public static Object power(Object left, Object right) {
+        return FEELOperators.power(left, right);
+    }
+    
+    /**
+     * FEEL "="
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return true if the values are equal
+     */
+    public static Object equal(Object left, Object right) {
+        return FEELOperators.equal(left, right);
+    }
+    
+    /**
+     * FEEL "!="
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return true if the values are not equal
+     */
+    public static Object notEqual(Object left, Object right) {
+        return !FEELOperators.equal(left, right);
+    }
+    
+    /**
+     * FEEL "&lt;"
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object less(Object left, Object right) {
+        Integer cmp = FEELOperators.compare(left, right);
+        return cmp == null ? null : cmp < 0;
+    }
+    
+    /**
+     * FEEL "&lt;="
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object lessOrEqual(Object left, Object right) {
+        Integer cmp = FEELOperators.compare(left, right);
+        return cmp == null ? null : cmp <= 0;
+    }
+    
+    /**
+     * FEEL "&gt;"
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object greater(Object left, Object right) {
+        Integer cmp = FEELOperators.compare(left, right);
+        return cmp == null ? null : cmp > 0;
+    }
+    
+    /**
+     * FEEL "&gt;="
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object greaterOrEqual(Object left, Object right) {
+        Integer cmp = FEELOperators.compare(left, right);
+        return cmp == null ? null : cmp >= 0;
+    }
+    
+    /**
+     * FEEL "=" between values of a known type
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return true if the values are equal
+     */
+    public static Object equal(FEELType type, Object left, Object right) {
+        return FEELOperators.equal(type, left, right);
+    }
+    
+    /**
+     * FEEL "!=" between values of a known type
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return true if the values are not equal
+     */
+    public static Object notEqual(FEELType type, Object left, Object right) {
+        return !FEELOperators.equal(type, left, right);
+    }
+    
+    /**
+     * FEEL "&lt;" between values of a known type
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object less(FEELType type, Object left, Object right) {
+        int cmp = FEELOperators.compare(type, left, right);
+        return cmp == FEELOperators.INCOMPARABLE ? null : cmp < 0;
+    }
+    
+    /**
+     * FEEL "&lt;=" between values of a known type
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object lessOrEqual(FEELType type, Object left, Object right) {
+        int cmp = FEELOperators.compare(type, left, right);
+        return cmp == FEELOperators.INCOMPARABLE ? null : cmp <= 0;
+    }
+    
+    /**
+     * FEEL "&gt;" between values of a known type
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object greater(FEELType type, Object left, Object right) {
+        int cmp = FEELOperators.compare(type, left, right);
+        return cmp == FEELOperators.INCOMPARABLE ? null : cmp > 0;
+    }
+    
+    /**
+     * FEEL "&gt;=" between values of a known type
+     * 
+     * @param type the type of both operands
+     * @param left the left operand
+     * @param right the right operand
+     * @return the comparison result, or null if the values are not comparable
+     */
+    public static Object greaterOrEqual(FEELType type, Object left, Object right) {
+        int cmp = FEELOperators.compare(type, left, right);
+        return cmp == FEELOperators.INCOMPARABLE ? null : cmp >= 0;
+    }
+    
+    /**
+     * Three-valued conjunction of two evaluated operands. The operators
+     * have no side effects, so evaluating both is equivalent to the
+     * short-circuiting interpreter.
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return false if either is false, true if both are true, null otherwise
+     */
+    public static Object and(Object left, Object right) {
+        if (Boolean.FALSE.equals(left) || Boolean.FALSE.equals(right)) {
+            return Boolean.FALSE;
+        }
+        return Boolean.TRUE.equals(left) && Boolean.TRUE.equals(right) ? Boolean.TRUE : null;
+    }
+    
+    /**
+     * Three-valued disjunction of two evaluated operands
+     * 
+     * @param left the left operand
+     * @param right the right operand
+     * @return true if either is true, false if both are false, null otherwise
+     */
+    public static Object or(Object left, Object right) {
+        if (Boolean.TRUE.equals(left) || Boolean.TRUE.equals(right)) {
+            return Boolean.TRUE;
+        }
+        return Boolean.FALSE.equals(left) && Boolean.FALSE.equals(right) ? Boolean.FALSE : null;
+    }
+    
+    /**
+     * Check whether a value is FEEL true; null and non-boolean values are not
+     * 
+     * @param value the value
+     * @return true if the value is Boolean.TRUE
+     */
+    public static boolean isTrue(Object value) {
+        return Boolean.TRUE.equals(value);
+    }
+    
+    /**
+     * Create a FEEL list
+     * 
+     * @param items the elements
+     * @return an unmodifiable list of the elements
+     */
+    public static List<Object> list(Object... items) {
+        return Collections.unmodifiableList(Arrays.asList(items));
+    }
+    
+    /**
+     * Call a built-in function
+     * 
+     * @param function the function name
+     * @param arguments the evaluated arguments
+     * @return the result, or null
+     * @throws IllegalArgumentException if there is no function of that name
+     */
+    public static Object call(String function, Object... arguments) {
+        FEELFunctions.Function builtIn = FEELFunctions.lookup(function);
+        if (builtIn == null) {
+            throw new IllegalArgumentException("Unknown function '" + function + "'");
+        }
+        return builtIn.apply(arguments);
+    }
+    
+    /**
+     * Returns the cache of compiled regular expressions used by matches and
+     * replace, for sizing and monitoring. Its size is set with the system
+     * property dmn.feel.patternCacheSize.
+     * 
+     * @return the pattern cache
+     */
+    public static BoundedCache<?, Pattern> getPatternCache() {
+        return FEELStringFunctions.getPatternCache();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.dmn.feel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Names that a FEEL expression can refer to, each bound to an integer slot.
+ * 
+ * Expressions compiled against a scope resolve their variable references to
+ * slots once, at compile time, and are evaluated against a flat
+ * {@code Object[]} holding the value of each name at its slot. Names are
+ * typically the input data of a decision or the input columns of a decision
+ * table. Each name can declare a {@link FEELType} (the typeRef of its input
+ * data), which lets compiled expressions specialize their comparisons.
+ * Scopes are immutable and can be shared between threads.
+ */
+public final class FEELScope {
+    
+    /**
+     * Scope without any names
+     */
+    public static final FEELScope EMPTY = new FEELScope(new String[0], new FEELType[0]);
+    
+    private static final Object[] NO_VALUES = new Object[0];
+    
+    private final String[] names;
+    private final FEELType[] types;
+    private final Map<String, Integer> slots;
+    
+    private FEELScope(String[] names, FEELType[] types) {
+        this.names = names;
+        this.types = types;
+        this.slots = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            // Like a map context, the last of several equal names wins
+            slots.put(names[i], i);
+        }
+    }
+    
+    /**
+     * Create a scope; the slot of each name is its position
+     * 
+     * @param names the names
+     * @return the scope
+     */
+    public static FEELScope of(String... names) {
+        return names.length == 0 ? EMPTY : new FEELScope(names.clone(), anyTypes(names.length));
+    }
+    
+    /**
+     * Create a scope; the slot of each name is its position
+     * 
+     * @param names the names
+     * @return the scope
+     */
+    public static FEELScope of(List<String> names) {
+        return names.isEmpty() ? EMPTY : new FEELScope(names.toArray(new String[0]), anyTypes(names.size()));
+    }
+    
+    /**
+     * Create a scope of typed names; the slot of each name is its position
+     * 
+     * @param names the names
+     * @param types the type of each name; null stands for {@link FEELType#ANY}
+     * @return the scope
+     * @throws IllegalArgumentException if there are not as many types as names
+     */
+    public static FEELScope of(List<String> names, List<FEELType> types) {
+        if (names.size() != types.size()) {
+            throw new IllegalArgumentException(names.size() + " names but " + types.size() + " types");
+        }
+        if (names.isEmpty()) {
+            return EMPTY;
+        }
+        FEELType[] typeArray = new FEELType[types.size()];
+        for (int i = 0; i < typeArray.length; i++) {
+            typeArray[i] = types.get(i) != null ? types.get(i) : FEELType.ANY;
+        }
+        return new FEELScope(names.toArray(new String[0]), typeArray);
+    }
+    
+    private static FEELType[] anyTypes(int size) {
+        FEELType[] types = new FEELType[size];
+        Arrays.fill(types, FEELType.ANY);
+        return types;
+    }
+    
+    /**
+     * Returns the slot of a name
+     * 
+     * @param name the name
+     * @return the slot, or -1 if the name is not in this scope
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+    
+    /**
+     * Returns the declared type of a slot
+     * 
+     * @param slot the slot
+     * @return the type, {@link FEELType#ANY} if none was declared
+     */
+    public FEELType getType(int slot) {
+        return types[slot];
+    }
+    
+    /**
+     * Returns the number of slots
+     * 
+     * @return the size of a context for this scope
+     */
+    public int size() {
+        return names.length;
+    }
+    
+    /**
+     * Returns the names in slot order
+     * 
+     * @return the names
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+    
+    /**
+     * Copy the values of a map context into slots
+     * 
+     * @param context values by name; names missing from the map are null
+     * @return the values in slot order
+     */
+    public Object[] bind(Map<String, ?> context) {
+        if (names.length == 0) {
+            return NO_VALUES;
+        }
+        Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = context.get(names[i]);
+        }
+        return values;
+    }
+    
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
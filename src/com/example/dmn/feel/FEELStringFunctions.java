@@ -0,0 +1,270 @@
+package com.example.dmn.feel;
+
+import com.example.dmn.util.BoundedCache;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * FEEL string functions.
+ * 
+ * Positions and lengths count characters (code points), as in FEEL, and are
+ * mapped to UTF-16 offsets with index arithmetic on the original string;
+ * each function copies at most once, to build its result. substring
+ * before/after and the tests contains, starts with and ends with do not copy
+ * at all when they fail or only compare.
+ * 
+ * matches and replace take their regular expression from a bounded cache
+ * of compiled patterns, keyed by expression and flags. A call whose pattern
+ * and flags are literals gets its pattern once, when the expression is
+ * compiled (see {@link #specialize(String, FEELNode[])}).
+ */
+final class FEELStringFunctions {
+    
+    /**
+     * Default number of compiled regular expressions kept in the cache
+     */
+    static final int DEFAULT_PATTERN_CACHE_SIZE = 256;
+    
+    private static final BoundedCache<PatternKey, Pattern> PATTERNS =
+        new BoundedCache<>(Integer.getInteger("dmn.feel.patternCacheSize", DEFAULT_PATTERN_CACHE_SIZE));
+    
+    /**
+     * Cached for expressions that do not compile, so they fail fast as well
+     */
+    private static final Pattern INVALID = Pattern.compile("");
+    
+    private FEELStringFunctions() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Register the functions
+     * 
+     * @param functions the registry to add to
+     */
+    static void register(Map<String, FEELFunctions.Function> functions) {
+        functions.put("substring", FEELStringFunctions::substring);
+        functions.put("string length", arguments -> {
+            String s = single(arguments);
+            return s == null ? null : BigDecimal.valueOf(s.codePointCount(0, s.length()));
+        });
+        functions.put("upper case", arguments -> {
+            String s = single(arguments);
+            return s == null ? null : s.toUpperCase(Locale.ROOT);
+        });
+        functions.put("lower case", arguments -> {
+            String s = single(arguments);
+            return s == null ? null : s.toLowerCase(Locale.ROOT);
+        });
+        functions.put("substring before", arguments -> {
+            if (!isStrings(arguments, 2)) {
+                return null;
+            }
+            String s = (String) arguments[0];
+            int index = s.indexOf((String) arguments[1]);
+            return index < 0 ? "" : s.substring(0, index);
+        });
+        functions.put("substring after", arguments -> {
+            if (!isStrings(arguments, 2)) {
+                return null;
+            }
+            String s = (String) arguments[0];
+            String match = (String) arguments[1];
+            int index = s.indexOf(match);
+            return index < 0 ? "" : s.substring(index + match.length());
+        });
+        functions.put("contains", arguments -> isStrings(arguments, 2)
+            ? ((String) arguments[0]).contains((String) arguments[1]) : null);
+        functions.put("starts with", arguments -> isStrings(arguments, 2)
+            ? ((String) arguments[0]).startsWith((String) arguments[1]) : null);
+        functions.put("ends with", arguments -> isStrings(arguments, 2)
+            ? ((String) arguments[0]).endsWith((String) arguments[1]) : null);
+        functions.put("matches", FEELStringFunctions::matches);
+        functions.put("replace", FEELStringFunctions::replace);
+    }
+    
+    /**
+     * substring(string, start position, length?): positions start at 1,
+     * negative positions count from the end
+     */
+    private static Object substring(Object[] arguments) {
+        if (arguments.length != 2 && arguments.length != 3 || !(arguments[0] instanceof String)) {
+            return null;
+        }
+        String s = (String) arguments[0];
+        Integer start = FEELFunctions.toInt(arguments[1]);
+        Integer length = arguments.length == 3 ? FEELFunctions.toInt(arguments[2]) : null;
+        if (start == null || start == 0 || arguments.length == 3 && (length == null || length < 0)) {
+            return null;
+        }
+        int count = s.codePointCount(0, s.length());
+        int first = start > 0 ? start - 1 : count + start;
+        if (first < 0 || first > count) {
+            return null;
+        }
+        int begin = s.offsetByCodePoints(0, first);
+        if (length == null) {
+            return s.substring(begin);
+        }
+        int end = s.offsetByCodePoints(begin, Math.min(length, count - first));
+        return s.substring(begin, end);
+    }
+    
+    /**
+     * matches(input, pattern, flags?): whether the pattern matches a part of the input
+     */
+    private static Object matches(Object[] arguments) {
+        if (arguments.length != 2 && arguments.length != 3 || !isStrings(arguments, arguments.length)) {
+            return null;
+        }
+        Pattern pattern = pattern((String) arguments[1], arguments.length == 3 ? (String) arguments[2] : "");
+        return pattern == null ? null : pattern.matcher((String) arguments[0]).find();
+    }
+    
+    /**
+     * replace(input, pattern, replacement, flags?)
+     */
+    private static Object replace(Object[] arguments) {
+        if (arguments.length != 3 && arguments.length != 4 || !isStrings(arguments, arguments.length)) {
+            return null;
+        }
+        Pattern pattern = pattern((String) arguments[1], arguments.length == 4 ? (String) arguments[3] : "");
+        return pattern == null ? null : replace(pattern, (String) arguments[0], (String) arguments[2]);
+    }
+    
+    private static Object replace(Pattern pattern, String input, String replacement) {
+        try {
+            return pattern.matcher(input).replaceAll(replacement);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Invalid group reference in the replacement
+            return null;
+        }
+    }
+    
+    /**
+     * Bind the pattern of a matches or replace call whose pattern and flags
+     * are literals, so that evaluations neither compile nor look it up
+     * 
+     * @param name the function name
+     * @param arguments the argument expressions
+     * @return the function with the compiled pattern, or null if the call cannot be specialized
+     */
+    static FEELFunctions.Function specialize(String name, FEELNode[] arguments) {
+        boolean matches = name.equals("matches") && (arguments.length == 2 || arguments.length == 3);
+        boolean replace = name.equals("replace") && (arguments.length == 3 || arguments.length == 4);
+        if (!matches && !replace) {
+            return null;
+        }
+        int flagsIndex = matches ? 2 : 3;
+        Object regex = literal(arguments[1]);
+        Object flags = arguments.length > flagsIndex ? literal(arguments[flagsIndex]) : "";
+        if (!(regex instanceof String) || !(flags instanceof String)) {
+            return null;
+        }
+        Pattern pattern = pattern((String) regex, (String) flags);
+        if (pattern == null) {
+            // Invalid expression or flags
+            return values -> null;
+        }
+        if (matches) {
+            return values -> values[0] instanceof String ? pattern.matcher((String) values[0]).find() : null;
+        }
+        return values -> values[0] instanceof String && values[2] instanceof String
+            ? replace(pattern, (String) values[0], (String) values[2]) : null;
+    }
+    
+    private static Object literal(FEELNode node) {
+        return node instanceof FEELNode.Literal ? ((FEELNode.Literal) node).value : null;
+    }
+    
+    /**
+     * Returns a compiled regular expression with FEEL flags (s, m, i, x),
+     * from the cache when it has been compiled before
+     * 
+     * @return the pattern, or null if the expression or the flags are invalid
+     */
+    static Pattern pattern(String regex, String flags) {
+        int bits = 0;
+        for (int i = 0; i < flags.length(); i++) {
+            switch (flags.charAt(i)) {
+                case 's':
+                    bits |= Pattern.DOTALL;
+                    break;
+                case 'm':
+                    bits |= Pattern.MULTILINE;
+                    break;
+                case 'i':
+                    bits |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+                    break;
+                case 'x':
+                    bits |= Pattern.COMMENTS;
+                    break;
+                default:
+                    return null;
+            }
+        }
+        Pattern pattern = PATTERNS.get(new PatternKey(regex, bits), FEELStringFunctions::compile);
+        return pattern == INVALID ? null : pattern;
+    }
+    
+    private static Pattern compile(PatternKey key) {
+        try {
+            return Pattern.compile(key.regex, key.flags);
+        } catch (PatternSyntaxException e) {
+            return INVALID;
+        }
+    }
+    
+    /**
+     * Returns the cache of compiled regular expressions
+     * 
+     * @return the pattern cache
+     */
+    static BoundedCache<?, Pattern> getPatternCache() {
+        return PATTERNS;
+    }
+    
+    private static String single(Object[] arguments) {
+        return arguments.length == 1 && arguments[0] instanceof String ? (String) arguments[0] : null;
+    }
+    
+    private static boolean isStrings(Object[] arguments, int count) {
+        if (arguments.length != count) {
+            return false;
+        }
+        for (Object argument : arguments) {
+            if (!(argument instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Cache key: the expression and the flags as {@link Pattern} bits, so
+     * that "is" and "si" share a pattern
+     */
+    private static final class PatternKey {
+        final String regex;
+        final int flags;
+        
+        PatternKey(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PatternKey && flags == ((PatternKey) other).flags
+                && regex.equals(((PatternKey) other).regex);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * regex.hashCode() + flags;
+        }
+    }
+}
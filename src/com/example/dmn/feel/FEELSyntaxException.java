@@ -0,0 +1,43 @@
+package com.example.dmn.feel;
+
+/**
+ * Thrown when a FEEL expression cannot be parsed.
+ */
+public class FEELSyntaxException extends IllegalArgumentException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final String expression;
+    private final int position;
+    
+    /**
+     * Constructor
+     * 
+     * @param message description of the problem
+     * @param expression the expression being parsed
+     * @param position character offset where the problem was detected
+     */
+    public FEELSyntaxException(String message, String expression, int position) {
+        super(message + " at position " + position + " in '" + expression + "'");
+        this.expression = expression;
+        this.position = position;
+    }
+    
+    /**
+     * Returns the expression that failed to parse
+     * 
+     * @return the expression text
+     */
+    public String getExpression() {
+        return expression;
+    }
+    
+    /**
+     * Returns the character offset where parsing failed
+     * 
+     * @return the position
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.dmn.feel;
+
+/**
+ * A lexical token produced by {@link FEELLexer}.
+ */
+final class FEELToken {
+    
+    /**
+     * Token classification
+     */
+    enum Kind {
+        /** Numeric literal; the value is a {@link java.math.BigDecimal} */
+        NUMBER,
+        /** String literal; the value is the unescaped text */
+        STRING,
+        /** Variable or function name, possibly containing spaces */
+        NAME,
+        /** Reserved word such as "if", "and" or "true" */
+        KEYWORD,
+        /** Operator or punctuation */
+        OPERATOR,
+        /** End of input */
+        END
+    }
+    
+    final Kind kind;
+    final String text;
+    final Object value;
+    final int position;
+    
+    FEELToken(Kind kind, String text, Object value, int position) {
+        this.kind = kind;
+        this.text = text;
+        this.value = value;
+        this.position = position;
+    }
+    
+    /**
+     * Check whether this token is the given operator
+     * 
+     * @param operator the operator text
+     * @return true if this token is that operator
+     */
+    boolean isOperator(String operator) {
+        return kind == Kind.OPERATOR && text.equals(operator);
+    }
+    
+    /**
+     * Check whether this token is the given keyword
+     * 
+     * @param keyword the keyword text
+     * @return true if this token is that keyword
+     */
+    boolean isKeyword(String keyword) {
+        return kind == Kind.KEYWORD && text.equals(keyword);
+    }
+    
+    @Override
+    public String toString() {
+        return kind + "(" + text + ")@" + position;
+    }
+}
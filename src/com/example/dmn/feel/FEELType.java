@@ -0,0 +1,189 @@
+package com.example.dmn.feel;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+/**
+ * Built-in FEEL types, as declared by the type references (typeRef) of
+ * input data and decision table columns.
+ * 
+ * A type describes the values an expression or a column can have: null, or
+ * a value of the Java classes listed in {@link FEELFunctions}. {@link #ANY}
+ * stands for an unknown type. Knowing the type lets compiled code compare
+ * values through the methods of one concrete class instead of
+ * {@link Comparable}, and lets decision tables match booleans, dates and
+ * times as numbers (see {@link #key(Object)}).
+ */
+public enum FEELType {
+    NUMBER("number"),
+    STRING("string"),
+    BOOLEAN("boolean"),
+    DATE("date"),
+    TIME("time"),
+    DATE_TIME("date and time"),
+    DAYS_TIME_DURATION("days and time duration"),
+    YEARS_MONTHS_DURATION("years and months duration"),
+    ANY("Any");
+    
+    private final String typeRef;
+    
+    FEELType(String typeRef) {
+        this.typeRef = typeRef;
+    }
+    
+    /**
+     * Returns the FEEL name of the type
+     * 
+     * @return the type reference
+     */
+    public String getTypeRef() {
+        return typeRef;
+    }
+    
+    /**
+     * Returns the type of a type reference. Besides the FEEL names, the XML
+     * Schema names that DMN files use ("decimal", "dateTime", "dayTimeDuration"...)
+     * are recognized, with or without a namespace prefix such as "feel:".
+     * 
+     * @param typeRef the type reference, or null
+     * @return the type, or {@link #ANY} for null, item definitions and unknown names
+     */
+    public static FEELType fromTypeRef(String typeRef) {
+        if (typeRef == null) {
+            return ANY;
+        }
+        String name = typeRef.trim();
+        name = name.substring(name.indexOf(':') + 1).trim().toLowerCase(Locale.ROOT);
+        switch (name) {
+            case "number":
+            case "decimal":
+            case "integer":
+            case "int":
+            case "long":
+            case "double":
+                return NUMBER;
+            case "string":
+                return STRING;
+            case "boolean":
+                return BOOLEAN;
+            case "date":
+                return DATE;
+            case "time":
+                return TIME;
+            case "date and time":
+            case "datetime":
+                return DATE_TIME;
+            case "days and time duration":
+            case "daytimeduration":
+            case "duration":
+                return DAYS_TIME_DURATION;
+            case "years and months duration":
+            case "yearmonthduration":
+                return YEARS_MONTHS_DURATION;
+            default:
+                return ANY;
+        }
+    }
+    
+    /**
+     * Returns the type of a value
+     * 
+     * @param value the value
+     * @return the type, or {@link #ANY} for null and values of no built-in type
+     */
+    public static FEELType of(Object value) {
+        if (value instanceof Number) {
+            return NUMBER;
+        }
+        if (value instanceof String) {
+            return STRING;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        if (value instanceof LocalDate) {
+            return DATE;
+        }
+        if (value instanceof LocalTime || value instanceof OffsetTime) {
+            return TIME;
+        }
+        if (value instanceof LocalDateTime || value instanceof OffsetDateTime || value instanceof ZonedDateTime) {
+            return DATE_TIME;
+        }
+        if (value instanceof Duration) {
+            return DAYS_TIME_DURATION;
+        }
+        if (value instanceof Period) {
+            return YEARS_MONTHS_DURATION;
+        }
+        return ANY;
+    }
+    
+    /**
+     * Check whether a value belongs to this type
+     * 
+     * @param value the value
+     * @return true for null, for any value if this is {@link #ANY}, and for values of this type
+     */
+    public boolean isInstance(Object value) {
+        return value == null || this == ANY || of(value) == this;
+    }
+    
+    /**
+     * Returns the type of a value that is of either type, such as the two
+     * branches of a conditional
+     * 
+     * @param other the other type
+     * @return this type if both are the same, {@link #ANY} otherwise
+     */
+    public FEELType join(FEELType other) {
+        return this == other ? this : ANY;
+    }
+    
+    /**
+     * Check whether the values of this type map to numbers with
+     * {@link #key(Object)}
+     * 
+     * @return true for booleans, dates and times
+     */
+    public boolean hasKeys() {
+        return this == BOOLEAN || this == DATE || this == TIME;
+    }
+    
+    /**
+     * Returns the number that stands for a value in numeric comparisons:
+     * 0 and 1 for false and true, the epoch day of a date and the nanosecond
+     * of the day of a time without offset. Keys are exact doubles that are
+     * equal exactly like the values, and for dates and times also compare
+     * like them, so a unary test over values can be rewritten into one over
+     * keys (see {@link UnaryTest#toKeys(FEELType)}). Booleans are not
+     * ordered, so only equality tests over booleans are rewritten.
+     * 
+     * @param value the value
+     * @return the key, or NaN for null and values that have no key of this type
+     */
+    public double key(Object value) {
+        switch (this) {
+            case BOOLEAN:
+                return value instanceof Boolean ? ((Boolean) value ? 1 : 0) : Double.NaN;
+            case DATE:
+                return value instanceof LocalDate ? ((LocalDate) value).toEpochDay() : Double.NaN;
+            case TIME:
+                return value instanceof LocalTime ? ((LocalTime) value).toNanoOfDay() : Double.NaN;
+            default:
+                return Double.NaN;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return typeRef;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.dmn.feel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Propagation of declared types through FEEL expression trees.
+ * 
+ * The type of a name is the type its scope declares, usually the typeRef of
+ * an input data element; the type of a literal is the type of its value; and
+ * operators and built-in functions derive the type of their result from
+ * their operands. Comparisons whose operands both have the same known type
+ * are rewritten to compare through the methods of that type (see
+ * {@link FEELOperators#compare(FEELType, Object, Object)}), so a comparison
+ * of two dates calls {@code LocalDate.compareTo} directly instead of
+ * dispatching through {@link Comparable}.
+ * 
+ * Types are hints, never checks: a typed comparison still accepts values of
+ * any type and returns the same result as an untyped one, so a value that
+ * does not match its declared typeRef changes nothing but the speed.
+ */
+final class FEELTypeInference {
+    
+    /**
+     * Result types of the built-in functions that always return one type (or null)
+     */
+    private static final Map<String, FEELType> RESULT_TYPES = new HashMap<>();
+    
+    static {
+        RESULT_TYPES.put("date", FEELType.DATE);
+        RESULT_TYPES.put("years and months duration", FEELType.YEARS_MONTHS_DURATION);
+        for (String name : new String[] {"count", "index of", "sum", "product", "mean", "median", "stddev",
+                "decimal", "floor", "ceiling", "abs", "modulo", "sqrt", "log", "exp", "string length"}) {
+            RESULT_TYPES.put(name, FEELType.NUMBER);
+        }
+        for (String name : new String[] {"substring", "upper case", "lower case", "substring before",
+                "substring after", "replace"}) {
+            RESULT_TYPES.put(name, FEELType.STRING);
+        }
+        for (String name : new String[] {"list contains", "all", "and", "any", "or", "odd", "even",
+                "contains", "starts with", "ends with", "matches"}) {
+            RESULT_TYPES.put(name, FEELType.BOOLEAN);
+        }
+    }
+    
+    private final FEELScope scope;
+    
+    private FEELTypeInference(FEELScope scope) {
+        this.scope = scope;
+    }
+    
+    /**
+     * Returns the type of the values of an expression tree
+     * 
+     * @param root the root of the tree
+     * @param scope the scope the names of the tree were resolved against
+     * @return the type, or {@link FEELType#ANY} if it is not known
+     */
+    static FEELType typeOf(FEELNode root, FEELScope scope) {
+        return new FEELTypeInference(scope).typeOf(root);
+    }
+    
+    /**
+     * Specialize the comparisons of an expression tree for the types of their operands
+     * 
+     * @param root the root of the tree
+     * @param scope the scope the names of the tree were resolved against
+     * @return the annotated tree, or the same tree if no comparison has typed operands
+     */
+    static FEELNode annotate(FEELNode root, FEELScope scope) {
+        return new FEELTypeInference(scope).annotate(root);
+    }
+    
+    private FEELType typeOf(FEELNode node) {
+        if (node instanceof FEELNode.Literal) {
+            return FEELType.of(((FEELNode.Literal) node).value);
+        }
+        if (node instanceof FEELNode.Name) {
+            int slot = ((FEELNode.Name) node).slot;
+            return slot >= 0 && slot < scope.size() ? scope.getType(slot) : FEELType.ANY;
+        }
+        if (node instanceof FEELNode.Negate) {
+            return FEELType.NUMBER;
+        }
+        if (node instanceof FEELNode.Arithmetic) {
+            FEELNode.Arithmetic arithmetic = (FEELNode.Arithmetic) node;
+            if (arithmetic.operator != FEELNode.Arithmetic.Operator.ADD) {
+                return FEELType.NUMBER;
+            }
+            // Numbers or strings: one number operand rules out concatenation
+            FEELType left = typeOf(arithmetic.left);
+            FEELType right = typeOf(arithmetic.right);
+            if (left == FEELType.NUMBER || right == FEELType.NUMBER) {
+                return FEELType.NUMBER;
+            }
+            return left == FEELType.STRING && right == FEELType.STRING ? FEELType.STRING : FEELType.ANY;
+        }
+        if (node instanceof FEELNode.Comparison || node instanceof FEELNode.And || node instanceof FEELNode.Or) {
+            return FEELType.BOOLEAN;
+        }
+        if (node instanceof FEELNode.If) {
+            FEELNode.If conditional = (FEELNode.If) node;
+            return typeOf(conditional.thenBranch).join(typeOf(conditional.elseBranch));
+        }
+        if (node instanceof FEELNode.Call) {
+            return RESULT_TYPES.getOrDefault(((FEELNode.Call) node).name, FEELType.ANY);
+        }
+        return FEELType.ANY;
+    }
+    
+    private FEELNode annotate(FEELNode node) {
+        if (node instanceof FEELNode.Negate) {
+            FEELNode operand = ((FEELNode.Negate) node).operand;
+            FEELNode annotated = annotate(operand);
+            return annotated == operand ? node : new FEELNode.Negate(annotated);
+        }
+        if (node instanceof FEELNode.Arithmetic) {
+            FEELNode.Arithmetic arithmetic = (FEELNode.Arithmetic) node;
+            FEELNode left = annotate(arithmetic.left);
+            FEELNode right = annotate(arithmetic.right);
+            return left == arithmetic.left && right == arithmetic.right
+                ? node : new FEELNode.Arithmetic(arithmetic.operator, left, right);
+        }
+        if (node instanceof FEELNode.Comparison) {
+            FEELNode.Comparison comparison = (FEELNode.Comparison) node;
+            FEELNode left = annotate(comparison.left);
+            FEELNode right = annotate(comparison.right);
+            FEELType type = typeOf(left);
+            if (type != typeOf(right)) {
+                type = FEELType.ANY;
+            }
+            return left == comparison.left && right == comparison.right && type == comparison.type
+                ? node : new FEELNode.Comparison(comparison.operator, left, right, type);
+        }
+        if (node instanceof FEELNode.And) {
+            FEELNode.And and = (FEELNode.And) node;
+            FEELNode left = annotate(and.left);
+            FEELNode right = annotate(and.right);
+            return left == and.left && right == and.right ? node : new FEELNode.And(left, right);
+        }
+        if (node instanceof FEELNode.Or) {
+            FEELNode.Or or = (FEELNode.Or) node;
+            FEELNode left = annotate(or.left);
+            FEELNode right = annotate(or.right);
+            return left == or.left && right == or.right ? node : new FEELNode.Or(left, right);
+        }
+        if (node instanceof FEELNode.If) {
+            FEELNode.If conditional = (FEELNode.If) node;
+            FEELNode condition = annotate(conditional.condition);
+            FEELNode thenBranch = annotate(conditional.thenBranch);
+            FEELNode elseBranch = annotate(conditional.elseBranch);
+            return condition == conditional.condition && thenBranch == conditional.thenBranch
+                && elseBranch == conditional.elseBranch ? node : new FEELNode.If(condition, thenBranch, elseBranch);
+        }
+        if (node instanceof FEELNode.ItemList) {
+            FEELNode[] items = ((FEELNode.ItemList) node).items;
+            FEELNode[] annotated = annotate(items);
+            return annotated == items ? node : new FEELNode.ItemList(annotated);
+        }
+        if (node instanceof FEELNode.Call) {
+            FEELNode.Call call = (FEELNode.Call) node;
+            FEELNode[] annotated = annotate(call.arguments);
+            return annotated == call.arguments ? node : new FEELNode.Call(call.name, call.function, annotated);
+        }
+        // Literals and names
+        return node;
+    }
+    
+    private FEELNode[] annotate(FEELNode[] nodes) {
+        FEELNode[] annotated = nodes;
+        for (int i = 0; i < nodes.length; i++) {
+            FEELNode node = annotate(nodes[i]);
+            if (node != nodes[i]) {
+                if (annotated == nodes) {
+                    annotated = nodes.clone();
+                }
+                annotated[i] = node;
+            }
+        }
+        return annotated;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insertion-ordered set of FEEL values with FEEL equality, for
+ * "distinct values" and "union".
+ * 
+ * Values are kept in one open-addressing table with linear probing, so an
+ * insert is a hash, a few array reads and no node allocation. Numbers hash
+ * by their double value, which is the same for all numerically equal
+ * representations: 1, 1.0 and 1.00 are one element, as FEEL requires.
+ */
+final class FEELValueSet {
+    
+    /**
+     * Stand-in for null in the table, where null marks a free slot
+     */
+    private static final Object NULL = new Object();
+    
+    private final Object[] table;
+    private final int mask;
+    private final List<Object> values;
+    
+    /**
+     * Constructor
+     * 
+     * @param capacity the maximum number of values added; the table is not resized
+     */
+    FEELValueSet(int capacity) {
+        // Load factor of at most 1/2 keeps probe sequences short
+        int size = Integer.highestOneBit(Math.max(capacity, 4) * 2 - 1) << 1;
+        this.table = new Object[size];
+        this.mask = size - 1;
+        this.values = new ArrayList<>(capacity);
+    }
+    
+    /**
+     * Add a value unless a FEEL-equal value is already present
+     * 
+     * @param value the value
+     * @return true if the value was added
+     */
+    boolean add(Object value) {
+        Object key = value == null ? NULL : value;
+        for (int i = hash(value) & mask; ; i = (i + 1) & mask) {
+            Object existing = table[i];
+            if (existing == null) {
+                table[i] = key;
+                values.add(value);
+                return true;
+            }
+            if (existing == key || existing != NULL && value != null && FEELOperators.equal(existing, value)) {
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Returns the values in insertion order
+     * 
+     * @return the distinct values
+     */
+    List<Object> values() {
+        return values;
+    }
+    
+    /**
+     * Hash consistent with {@link FEELOperators#equal(Object, Object)}
+     */
+    static int hash(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            // Before the interface check for lists, which is slower for classes that fail it
+            return mix(value.hashCode());
+        }
+        if (value instanceof Number) {
+            double d = numberHashValue((Number) value);
+            // -0.0 equals 0
+            return mix(Double.hashCode(d == 0 ? 0.0 : d));
+        }
+        if (value instanceof List) {
+            int h = 1;
+            for (Object element : (List<?>) value) {
+                h = 31 * h + hash(element);
+            }
+            return mix(h);
+        }
+        return mix(value.hashCode());
+    }
+    
+    /**
+     * Numerically equal decimals have the same correctly rounded double value
+     */
+    private static double numberHashValue(Number number) {
+        if (number instanceof BigDecimal || number instanceof BigInteger || number instanceof Double) {
+            return number.doubleValue();
+        }
+        if (number instanceof Float) {
+            return Double.parseDouble(number.toString());
+        }
+        return (double) number.longValue();
+    }
+    
+    /**
+     * Spread the bits of a hash code over the low bits used as table index
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
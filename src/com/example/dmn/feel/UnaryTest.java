@@ -0,0 +1,983 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Compiled predicate for a decision table input entry (a FEEL unary test).
+ * Instances are produced by {@link UnaryTestCompiler} and are immutable.
+ * 
+ * Numeric tests keep their bounds as primitive doubles and override
+ * {@link #testNumber(double)}, so callers holding a primitive input value
+ * can evaluate a rule with a few compares and no boxing. Those compares
+ * agree with FEEL's decimal comparison only for bounds of up to 15
+ * significant digits and for inputs with {@link #hasExactDouble(Object)};
+ * numeric tests with other bounds (see {@link NumberRange#isExact()}) and
+ * other numeric inputs compare decimals.
+ */
+public abstract class UnaryTest {
+    
+    // Longs up to 2^53 convert to doubles without rounding
+    private static final long MAX_EXACT_LONG = 1L << 53;
+    
+    // Distinct decimals of up to 15 significant digits round to distinct doubles
+    private static final int MAX_EXACT_DIGITS = 15;
+    
+    /**
+     * Shape of a unary test, used by the rule index to pick a data structure
+     */
+    public enum Kind {
+        /** "-": matches every value */
+        ANY,
+        /** Equality with a single literal */
+        EQUALS,
+        /** One-sided comparison such as "&gt; 1000" */
+        COMPARISON,
+        /** Interval such as "[1..10)" */
+        INTERVAL,
+        /** Comma-separated list of tests, any of which may match */
+        DISJUNCTION,
+        /** "not(...)" */
+        NOT,
+        /** Arbitrary FEEL expression, evaluated per call */
+        EXPRESSION
+    }
+    
+    private final String text;
+    
+    UnaryTest(String text) {
+        this.text = text;
+    }
+    
+    /**
+     * Test an input value
+     * 
+     * @param value the input value (String, Number, Boolean or null)
+     * @return true if the value satisfies this test
+     */
+    public abstract boolean test(Object value);
+    
+    /**
+     * Test an input value of a row. Tests that refer to the other inputs of
+     * the row by name (see {@link #usesInputs()}) read them from the row.
+     * 
+     * @param value the input value
+     * @param inputs the input values of the row, in the order of the input
+     *        scope the test was compiled with
+     * @return true if the value satisfies this test
+     */
+    public boolean test(Object value, Object[] inputs) {
+        return test(value);
+    }
+    
+    /**
+     * Check whether this test refers to other input values than its own,
+     * such as "&lt; creditLimit". Such a test depends on the whole row and
+     * must be evaluated with {@link #test(Object, Object[])}.
+     * 
+     * @return true if the test reads other inputs
+     */
+    public boolean usesInputs() {
+        return false;
+    }
+    
+    /**
+     * Test a numeric input value without boxing
+     * 
+     * @param value the input value
+     * @return true if the value satisfies this test
+     */
+    public boolean testNumber(double value) {
+        return test(BigDecimal.valueOf(value));
+    }
+    
+    /**
+     * Check whether a number may be tested by its double value: doubles,
+     * ints, longs of up to 53 bits, and decimals and big integers that
+     * convert without rounding. The double value of such a number has the
+     * number's decimal value as its shortest decimal form, so
+     * {@link #testNumber(double)} agrees with {@link #test(Object)} for it.
+     * Floats compare by their decimal string and never qualify.
+     * 
+     * @param value the input value
+     * @return true if the double value of the number can be tested
+     */
+    public static boolean hasExactDouble(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return true;
+        }
+        if (value instanceof Long) {
+            long number = (Long) value;
+            return number >= -MAX_EXACT_LONG && number <= MAX_EXACT_LONG;
+        }
+        if (value instanceof Double) {
+            return true;
+        }
+        if (value instanceof BigDecimal) {
+            return isExact((BigDecimal) value);
+        }
+        return value instanceof BigInteger && ((BigInteger) value).bitLength() <= 53;
+    }
+    
+    /**
+     * Returns the decimal value numeric tests compare a number by
+     * 
+     * @param value the input value
+     * @return the decimal, or null if the value is not a finite number
+     */
+    public static BigDecimal decimalValue(Object value) {
+        return FEELOperators.toDecimal(value);
+    }
+    
+    /**
+     * Check whether a decimal has at most 15 significant digits and lies
+     * well within the range of normal doubles
+     */
+    static boolean isExact(BigDecimal value) {
+        if (value.signum() == 0) {
+            return true;
+        }
+        if (value.precision() > MAX_EXACT_DIGITS) {
+            value = value.stripTrailingZeros();
+            if (value.precision() > MAX_EXACT_DIGITS) {
+                return false;
+            }
+        }
+        long digits = (long) value.precision() - value.scale();
+        return digits > -290 && digits < 290;
+    }
+    
+    /**
+     * Returns the shape of this test
+     * 
+     * @return the kind
+     */
+    public abstract Kind getKind();
+    
+    /**
+     * Rewrite this test into one over the keys of a type (see
+     * {@link FEELType#key(Object)}). The rewritten test accepts the key of a
+     * value, as a double or a {@link Number}, exactly when this test accepts
+     * the value; null and values without a key have the key NaN.
+     * 
+     * @param type a type with keys
+     * @return the test over keys, or null if this test cannot be rewritten
+     */
+    public UnaryTest toKeys(FEELType type) {
+        return null;
+    }
+    
+    /**
+     * Returns the entry text this test was compiled from
+     * 
+     * @return the source text
+     */
+    public String getText() {
+        return text;
+    }
+    
+    @Override
+    public String toString() {
+        return text;
+    }
+    
+    /**
+     * Wildcard test ("-")
+     */
+    public static final class Any extends UnaryTest {
+        Any(String text) {
+            super(text);
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            return true;
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return true;
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.ANY;
+        }
+        
+        @Override
+        public UnaryTest toKeys(FEELType type) {
+            return this;
+        }
+    }
+    
+    /**
+     * Equality with a string, boolean or null literal
+     */
+    public static final class LiteralEquals extends UnaryTest {
+        private final Object literal;
+        
+        LiteralEquals(String text, Object literal) {
+            super(text);
+            this.literal = literal;
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            return literal == null ? value == null : literal.equals(value);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return false;
+        }
+        
+        /**
+         * Returns the literal compared against
+         * 
+         * @return the literal (String, Boolean or null)
+         */
+        public Object getValue() {
+            return literal;
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.EQUALS;
+        }
+        
+        @Override
+        public UnaryTest toKeys(FEELType type) {
+            // null has no key, so "null" entries cannot be rewritten
+            double key = type.key(literal);
+            return Double.isNaN(key) ? null : new NumberEquals(getText(), key);
+        }
+    }
+    
+    /**
+     * Equality with a numeric literal
+     */
+    public static final class NumberEquals extends UnaryTest {
+        private final double number;
+        private final BigDecimal decimal;
+        private final boolean exact;
+        
+        NumberEquals(String text, BigDecimal decimal) {
+            super(text);
+            this.number = decimal.doubleValue();
+            this.decimal = decimal;
+            this.exact = isExact(decimal);
+        }
+        
+        /**
+         * Equality with a key (see {@link #toKeys(FEELType)}); keys are doubles, so the test is exact
+         */
+        NumberEquals(String text, double number) {
+            super(text);
+            this.number = number;
+            this.decimal = new BigDecimal(number);
+            this.exact = true;
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            if (hasExactDouble(value)) {
+                return testNumber(((Number) value).doubleValue());
+            }
+            BigDecimal other = FEELOperators.toDecimal(value);
+            return other != null && other.compareTo(decimal) == 0;
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            if (exact) {
+                return value == number;
+            }
+            return !Double.isNaN(value) && !Double.isInfinite(value)
+                && BigDecimal.valueOf(value).compareTo(decimal) == 0;
+        }
+        
+        /**
+         * Returns the number compared against
+         * 
+         * @return the number, rounded to a double
+         */
+        public double getNumber() {
+            return number;
+        }
+        
+        /**
+         * Returns the number compared against
+         * 
+         * @return the exact number
+         */
+        public BigDecimal getDecimal() {
+            return decimal;
+        }
+        
+        /**
+         * Check whether the test may compare the doubles of inputs with
+         * {@link #hasExactDouble(Object)}, see {@link NumberRange#isExact()}
+         * 
+         * @return true if the number has at most 15 significant digits
+         */
+        public boolean isExact() {
+            return exact;
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.EQUALS;
+        }
+    }
+    
+    /**
+     * Numeric range test. Comparisons are half-open ranges with an infinite
+     * bound; each concrete subclass specializes {@link #testNumber(double)}
+     * to the one or two compares it actually needs. The bounds are kept as
+     * decimals too, and ranges with bounds that doubles do not represent
+     * exactly compare decimals, see {@link #isExact()}.
+     */
+    public abstract static class NumberRange extends UnaryTest {
+        final double low;
+        final boolean lowInclusive;
+        final double high;
+        final boolean highInclusive;
+        final BigDecimal lowDecimal;
+        final BigDecimal highDecimal;
+        private final boolean exact;
+        
+        /**
+         * Range over keys (see {@link #toKeys(FEELType)}); keys are doubles, so the range is exact
+         */
+        NumberRange(String text, double low, boolean lowInclusive, double high, boolean highInclusive) {
+            super(text);
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.high = high;
+            this.highInclusive = highInclusive;
+            this.lowDecimal = Double.isInfinite(low) ? null : new BigDecimal(low);
+            this.highDecimal = Double.isInfinite(high) ? null : new BigDecimal(high);
+            this.exact = true;
+        }
+        
+        /**
+         * Range over decimals
+         * 
+         * @param low the lower bound, or null if unbounded
+         * @param high the upper bound, or null if unbounded
+         */
+        NumberRange(String text, BigDecimal low, boolean lowInclusive, BigDecimal high, boolean highInclusive) {
+            super(text);
+            this.low = low == null ? Double.NEGATIVE_INFINITY : low.doubleValue();
+            this.lowInclusive = lowInclusive;
+            this.high = high == null ? Double.POSITIVE_INFINITY : high.doubleValue();
+            this.highInclusive = highInclusive;
+            this.lowDecimal = low;
+            this.highDecimal = high;
+            this.exact = (low == null || isExact(low)) && (high == null || isExact(high));
+        }
+        
+        /**
+         * Create the range test for decimal bounds: a comparison or interval
+         * comparing doubles if the bounds allow it, a {@link DecimalRange} otherwise
+         * 
+         * @param low the lower bound, or null if unbounded
+         * @param high the upper bound, or null if unbounded
+         */
+        static NumberRange of(String text, BigDecimal low, boolean lowInclusive, BigDecimal high,
+                              boolean highInclusive) {
+            if (low != null && !isExact(low) || high != null && !isExact(high)) {
+                return new DecimalRange(text, low, lowInclusive, high, highInclusive);
+            }
+            if (low == null) {
+                return highInclusive ? new LessOrEqual(text, high) : new LessThan(text, high);
+            }
+            if (high == null) {
+                return lowInclusive ? new GreaterOrEqual(text, low) : new GreaterThan(text, low);
+            }
+            return new Interval(text, low, lowInclusive, high, highInclusive);
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            if (hasExactDouble(value)) {
+                return testNumber(((Number) value).doubleValue());
+            }
+            BigDecimal decimal = FEELOperators.toDecimal(value);
+            return decimal != null && testDecimal(decimal);
+        }
+        
+        /**
+         * Test a decimal against the decimal bounds
+         */
+        boolean testDecimal(BigDecimal value) {
+            if (lowDecimal != null) {
+                int cmp = value.compareTo(lowDecimal);
+                if (lowInclusive ? cmp < 0 : cmp <= 0) {
+                    return false;
+                }
+            }
+            if (highDecimal != null) {
+                int cmp = value.compareTo(highDecimal);
+                if (highInclusive ? cmp > 0 : cmp >= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Returns the lower bound, or negative infinity if unbounded
+         * 
+         * @return the lower bound, rounded to a double
+         */
+        public double getLow() {
+            return low;
+        }
+        
+        /**
+         * Returns the lower bound
+         * 
+         * @return the exact lower bound, or null if unbounded
+         */
+        public BigDecimal getLowDecimal() {
+            return lowDecimal;
+        }
+        
+        /**
+         * Returns whether the lower bound is part of the range
+         * 
+         * @return true for a closed lower bound
+         */
+        public boolean isLowInclusive() {
+            return lowInclusive;
+        }
+        
+        /**
+         * Returns the upper bound, or positive infinity if unbounded
+         * 
+         * @return the upper bound, rounded to a double
+         */
+        public double getHigh() {
+            return high;
+        }
+        
+        /**
+         * Returns the upper bound
+         * 
+         * @return the exact upper bound, or null if unbounded
+         */
+        public BigDecimal getHighDecimal() {
+            return highDecimal;
+        }
+        
+        /**
+         * Returns whether the upper bound is part of the range
+         * 
+         * @return true for a closed upper bound
+         */
+        public boolean isHighInclusive() {
+            return highInclusive;
+        }
+        
+        /**
+         * Check whether the double bounds stand for the decimal bounds: the
+         * bounds have at most 15 significant digits, so comparing the double
+         * of an input with {@link #hasExactDouble(Object)} against them gives
+         * the result of comparing decimals. Only exact ranges may be indexed
+         * by their double bounds.
+         * 
+         * @return true if the range may compare doubles
+         */
+        public boolean isExact() {
+            return exact;
+        }
+        
+        @Override
+        public Kind getKind() {
+            return lowDecimal == null || highDecimal == null ? Kind.COMPARISON : Kind.INTERVAL;
+        }
+    }
+    
+    /**
+     * "&lt; n"
+     */
+    static final class LessThan extends NumberRange {
+        LessThan(String text, double bound) {
+            super(text, Double.NEGATIVE_INFINITY, false, bound, false);
+        }
+        
+        LessThan(String text, BigDecimal bound) {
+            super(text, null, false, bound, false);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return value < high;
+        }
+    }
+    
+    /**
+     * "&lt;= n"
+     */
+    static final class LessOrEqual extends NumberRange {
+        LessOrEqual(String text, double bound) {
+            super(text, Double.NEGATIVE_INFINITY, false, bound, true);
+        }
+        
+        LessOrEqual(String text, BigDecimal bound) {
+            super(text, null, false, bound, true);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return value <= high;
+        }
+    }
+    
+    /**
+     * "&gt; n"
+     */
+    static final class GreaterThan extends NumberRange {
+        GreaterThan(String text, double bound) {
+            super(text, bound, false, Double.POSITIVE_INFINITY, false);
+        }
+        
+        GreaterThan(String text, BigDecimal bound) {
+            super(text, bound, false, null, false);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return value > low;
+        }
+    }
+    
+    /**
+     * "&gt;= n"
+     */
+    static final class GreaterOrEqual extends NumberRange {
+        GreaterOrEqual(String text, double bound) {
+            super(text, bound, true, Double.POSITIVE_INFINITY, false);
+        }
+        
+        GreaterOrEqual(String text, BigDecimal bound) {
+            super(text, bound, true, null, false);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return value >= low;
+        }
+    }
+    
+    /**
+     * Bounded interval such as "[a..b]", "(a..b]" or "]a..b["
+     */
+    static final class Interval extends NumberRange {
+        Interval(String text, double low, boolean lowInclusive, double high, boolean highInclusive) {
+            super(text, low, lowInclusive, high, highInclusive);
+        }
+        
+        Interval(String text, BigDecimal low, boolean lowInclusive, BigDecimal high, boolean highInclusive) {
+            super(text, low, lowInclusive, high, highInclusive);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return (lowInclusive ? value >= low : value > low)
+                && (highInclusive ? value <= high : value < high);
+        }
+    }
+    
+    /**
+     * Comparison or interval with a bound of more than 15 significant digits,
+     * such as "&gt; 9007199254740993", which doubles cannot stand for
+     */
+    static final class DecimalRange extends NumberRange {
+        DecimalRange(String text, BigDecimal low, boolean lowInclusive, BigDecimal high, boolean highInclusive) {
+            super(text, low, lowInclusive, high, highInclusive);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            if (Double.isInfinite(value)) {
+                return value > 0 ? highDecimal == null : lowDecimal == null;
+            }
+            return testDecimal(BigDecimal.valueOf(value));
+        }
+    }
+    
+    /**
+     * Range over non-numeric values such as dates or strings, with an
+     * optional bound on each side. Bounds compare with FEEL semantics: a
+     * value of another type is outside of every range.
+     */
+    public abstract static class ValueRange extends UnaryTest {
+        final Object low;
+        final boolean lowInclusive;
+        final Object high;
+        final boolean highInclusive;
+        // Type of the bounds, so that comparisons call the bound class directly
+        final FEELType type;
+        
+        ValueRange(String text, Object low, boolean lowInclusive, Object high, boolean highInclusive) {
+            super(text);
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.high = high;
+            this.highInclusive = highInclusive;
+            this.type = low == null ? FEELType.of(high)
+                : high == null ? FEELType.of(low) : FEELType.of(low).join(FEELType.of(high));
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            if (low != null) {
+                int cmp = FEELOperators.compare(type, value, low);
+                if (cmp == FEELOperators.INCOMPARABLE || (lowInclusive ? cmp < 0 : cmp <= 0)) {
+                    return false;
+                }
+            }
+            if (high != null) {
+                int cmp = FEELOperators.compare(type, value, high);
+                if (cmp == FEELOperators.INCOMPARABLE || (highInclusive ? cmp > 0 : cmp >= 0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public UnaryTest toKeys(FEELType keyType) {
+            if (keyType == FEELType.BOOLEAN) {
+                // Boolean keys are ordered, booleans are not
+                return null;
+            }
+            double lowKey = low == null ? Double.NEGATIVE_INFINITY : keyType.key(low);
+            double highKey = high == null ? Double.POSITIVE_INFINITY : keyType.key(high);
+            if (Double.isNaN(lowKey) || Double.isNaN(highKey) || (low == null && high == null)) {
+                return null;
+            }
+            if (low == null) {
+                return highInclusive ? new LessOrEqual(getText(), highKey) : new LessThan(getText(), highKey);
+            }
+            if (high == null) {
+                return lowInclusive ? new GreaterOrEqual(getText(), lowKey) : new GreaterThan(getText(), lowKey);
+            }
+            return new Interval(getText(), lowKey, lowInclusive, highKey, highInclusive);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return false;
+        }
+        
+        /**
+         * Returns the lower bound
+         * 
+         * @return the lower bound, or null if unbounded
+         */
+        public Object getLow() {
+            return low;
+        }
+        
+        /**
+         * Returns whether the lower bound is part of the range
+         * 
+         * @return true for a closed lower bound
+         */
+        public boolean isLowInclusive() {
+            return lowInclusive;
+        }
+        
+        /**
+         * Returns the upper bound
+         * 
+         * @return the upper bound, or null if unbounded
+         */
+        public Object getHigh() {
+            return high;
+        }
+        
+        /**
+         * Returns whether the upper bound is part of the range
+         * 
+         * @return true for a closed upper bound
+         */
+        public boolean isHighInclusive() {
+            return highInclusive;
+        }
+    }
+    
+    /**
+     * Comparison against a non-numeric endpoint (for example a string)
+     */
+    static final class ValueComparison extends ValueRange {
+        final FEELNode.Comparison.Operator operator;
+        final Object endpoint;
+        
+        ValueComparison(String text, FEELNode.Comparison.Operator operator, Object endpoint) {
+            super(text, isLowerBound(operator) ? endpoint : null, operator == FEELNode.Comparison.Operator.GE,
+                isLowerBound(operator) ? null : endpoint, operator == FEELNode.Comparison.Operator.LE);
+            this.operator = operator;
+            this.endpoint = endpoint;
+        }
+        
+        private static boolean isLowerBound(FEELNode.Comparison.Operator operator) {
+            return operator == FEELNode.Comparison.Operator.GT || operator == FEELNode.Comparison.Operator.GE;
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.COMPARISON;
+        }
+    }
+    
+    /**
+     * Interval over non-numeric values, such as
+     * "[date(\"2024-01-01\")..date(\"2025-01-01\"))"
+     */
+    static final class ValueInterval extends ValueRange {
+        ValueInterval(String text, Object low, boolean lowInclusive, Object high, boolean highInclusive) {
+            super(text, low, lowInclusive, high, highInclusive);
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.INTERVAL;
+        }
+    }
+    
+    /**
+     * List of tests, any of which may match
+     */
+    public static final class Disjunction extends UnaryTest {
+        private final UnaryTest[] tests;
+        
+        Disjunction(String text, UnaryTest[] tests) {
+            super(text);
+            this.tests = tests;
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            for (UnaryTest test : tests) {
+                if (test.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        @Override
+        public boolean test(Object value, Object[] inputs) {
+            for (UnaryTest test : tests) {
+                if (test.test(value, inputs)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            for (UnaryTest test : tests) {
+                if (test.testNumber(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        @Override
+        public boolean usesInputs() {
+            for (UnaryTest test : tests) {
+                if (test.usesInputs()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Returns the alternatives
+         * 
+         * @return a copy of the alternative tests
+         */
+        public UnaryTest[] getTests() {
+            return tests.clone();
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.DISJUNCTION;
+        }
+        
+        @Override
+        public UnaryTest toKeys(FEELType type) {
+            UnaryTest[] keyed = new UnaryTest[tests.length];
+            for (int i = 0; i < tests.length; i++) {
+                keyed[i] = tests[i].toKeys(type);
+                if (keyed[i] == null) {
+                    return null;
+                }
+            }
+            return new Disjunction(getText(), keyed);
+        }
+    }
+    
+    /**
+     * Negation, "not(...)"
+     */
+    public static final class Not extends UnaryTest {
+        private final UnaryTest negated;
+        
+        Not(String text, UnaryTest negated) {
+            super(text);
+            this.negated = negated;
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            return !negated.test(value);
+        }
+        
+        @Override
+        public boolean test(Object value, Object[] inputs) {
+            return !negated.test(value, inputs);
+        }
+        
+        @Override
+        public boolean testNumber(double value) {
+            return !negated.testNumber(value);
+        }
+        
+        @Override
+        public boolean usesInputs() {
+            return negated.usesInputs();
+        }
+        
+        /**
+         * Returns the negated test
+         * 
+         * @return the negated test
+         */
+        public UnaryTest getNegated() {
+            return negated;
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.NOT;
+        }
+        
+        @Override
+        public UnaryTest toKeys(FEELType type) {
+            UnaryTest keyed = negated.toKeys(type);
+            return keyed == null ? null : new Not(getText(), keyed);
+        }
+    }
+    
+    /**
+     * Fallback for entries that are not simple unary tests. If the expression
+     * refers to the input value as "?" it must evaluate to true; otherwise the
+     * input must equal the value of the expression. Other names refer to the
+     * inputs of the row, when the test was compiled with an input scope.
+     */
+    static final class Expression extends UnaryTest {
+        /** Scope of the expression: the input value as "?" */
+        static final FEELScope INPUT_SCOPE = FEELScope.of("?");
+        
+        private static final Object[] NO_INPUT = new Object[1];
+        private static final Object[] NO_INPUTS = new Object[0];
+        
+        final FEELExpression expression;
+        final boolean usesInput;
+        // Whether the expression reads names other than "?"
+        private final boolean usesInputs;
+        
+        Expression(String text, FEELExpression expression, boolean usesInput) {
+            super(text);
+            this.expression = expression;
+            this.usesInput = usesInput;
+            this.usesInputs = usesNames(expression.getRoot());
+        }
+        
+        /**
+         * Check whether a node reads a name other than "?", which has slot 0
+         */
+        private static boolean usesNames(FEELNode node) {
+            if (node instanceof FEELNode.Name) {
+                return ((FEELNode.Name) node).slot != 0;
+            }
+            if (node instanceof FEELNode.Negate) {
+                return usesNames(((FEELNode.Negate) node).operand);
+            }
+            if (node instanceof FEELNode.Arithmetic) {
+                FEELNode.Arithmetic arithmetic = (FEELNode.Arithmetic) node;
+                return usesNames(arithmetic.left) || usesNames(arithmetic.right);
+            }
+            if (node instanceof FEELNode.Comparison) {
+                FEELNode.Comparison comparison = (FEELNode.Comparison) node;
+                return usesNames(comparison.left) || usesNames(comparison.right);
+            }
+            if (node instanceof FEELNode.And) {
+                FEELNode.And and = (FEELNode.And) node;
+                return usesNames(and.left) || usesNames(and.right);
+            }
+            if (node instanceof FEELNode.Or) {
+                FEELNode.Or or = (FEELNode.Or) node;
+                return usesNames(or.left) || usesNames(or.right);
+            }
+            if (node instanceof FEELNode.If) {
+                FEELNode.If conditional = (FEELNode.If) node;
+                return usesNames(conditional.condition) || usesNames(conditional.thenBranch)
+                    || usesNames(conditional.elseBranch);
+            }
+            FEELNode[] children = node instanceof FEELNode.ItemList ? ((FEELNode.ItemList) node).items
+                : node instanceof FEELNode.Call ? ((FEELNode.Call) node).arguments : new FEELNode[0];
+            for (FEELNode child : children) {
+                if (usesNames(child)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        @Override
+        public boolean test(Object value) {
+            return test(value, NO_INPUTS);
+        }
+        
+        @Override
+        public boolean test(Object value, Object[] inputs) {
+            Object[] slots;
+            if (usesInputs) {
+                // "?" at slot 0, then the inputs of the row
+                slots = new Object[expression.getScope().size()];
+                System.arraycopy(inputs, 0, slots, 1, Math.min(inputs.length, slots.length - 1));
+                slots[0] = value;
+            } else {
+                slots = usesInput ? new Object[] {value} : NO_INPUT;
+            }
+            if (usesInput) {
+                return Boolean.TRUE.equals(expression.evaluate(slots));
+            }
+            return Boolean.TRUE.equals(FEELOperators.equal(value, expression.evaluate(slots)));
+        }
+        
+        @Override
+        public boolean usesInputs() {
+            return usesInputs;
+        }
+        
+        @Override
+        public Kind getKind() {
+            return Kind.EXPRESSION;
+        }
+    }
+}
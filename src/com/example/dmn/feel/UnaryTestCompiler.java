@@ -0,0 +1,514 @@
+package com.example.dmn.feel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles decision table input entries (FEEL simple unary tests) into
+ * specialized {@link UnaryTest} predicates.
+ * 
+ * Recognized forms:
+ * <ul>
+ *   <li>"-" or an empty entry: wildcard</li>
+ *   <li>literals: "\"Gold\"", "42", "true", "null"</li>
+ *   <li>comparisons: "&lt; 10", "&lt;= 10", "&gt; 10", "&gt;= 10", "= 10", also with a
+ *       constant expression such as "&lt; date(\"2024-01-01\")"; a comparison with
+ *       any other expression, such as "&lt; creditLimit", is evaluated per call</li>
+ *   <li>intervals: "[1..10]", "(1..10]", "]1..10[", "[1..10)", also over
+ *       dates or strings: "[date(\"2024-01-01\")..date(\"2024-07-01\"))"</li>
+ *   <li>disjunctions: "\"Gold\", \"Silver\"", "&lt; 0, &gt; 100"</li>
+ *   <li>negation: "not(\"Gold\", \"Silver\")"</li>
+ * </ul>
+ * Anything else is compiled as a FEEL expression and evaluated per call.
+ * Expressions may refer to the other inputs of a table by name when the
+ * entry is compiled with the input scope of the table.
+ * 
+ * A compiler instance interns its results, so identical entries across the
+ * rules of a table share one predicate. Instances are not thread-safe;
+ * the compiled predicates are.
+ */
+public class UnaryTestCompiler {
+    
+    // Interned predicates by input type, then by entry text
+    private final Map<FEELType, Map<String, UnaryTest>> compiled = new EnumMap<>(FEELType.class);
+    // Names other than function names in the entries that have any, by entry text
+    private final Map<String, Set<String>> entryNames = new HashMap<>();
+    // Entries that refer to other inputs, by table input scope, then input type, then entry text
+    private final Map<FEELScope, Map<FEELType, Map<String, UnaryTest>>> compiledWithInputs = new IdentityHashMap<>();
+    
+    /**
+     * Compile an input entry
+     * 
+     * @param entry the input entry text
+     * @return the compiled predicate
+     * @throws FEELSyntaxException if the entry is not a valid unary test or expression
+     */
+    public UnaryTest compile(String entry) {
+        return compile(entry, FEELType.ANY);
+    }
+    
+    /**
+     * Compile an input entry of a column with a declared type. Entries that
+     * are compiled as FEEL expressions see "?" with that type, so their
+     * comparisons are specialized for it.
+     * 
+     * @param entry the input entry text
+     * @param inputType the type of the input values
+     * @return the compiled predicate
+     * @throws FEELSyntaxException if the entry is not a valid unary test or expression
+     */
+    public UnaryTest compile(String entry, FEELType inputType) {
+        String key = entry == null ? "" : entry.trim();
+        Map<String, UnaryTest> tests = compiled.computeIfAbsent(inputType, t -> new HashMap<>());
+        UnaryTest test = tests.get(key);
+        if (test == null) {
+            FEELScope inputScope = inputType == FEELType.ANY ? UnaryTest.Expression.INPUT_SCOPE
+                : FEELScope.of(Collections.singletonList("?"), Collections.singletonList(inputType));
+            Parser parser = new Parser(key, inputScope);
+            test = parser.parseEntry();
+            tests.put(key, test);
+            Set<String> names = parser.names();
+            if (!names.isEmpty()) {
+                entryNames.put(key, names);
+            }
+        }
+        return test;
+    }
+    
+    /**
+     * Compile an input entry of a table column. Entries that refer to the
+     * inputs of the table by name, such as "&lt; creditLimit", read them from
+     * the row; see {@link UnaryTest#test(Object, Object[])}.
+     * 
+     * @param entry the input entry text
+     * @param inputType the type of the input values
+     * @param inputs the input names of the table and their types, in input column order
+     * @return the compiled predicate
+     * @throws FEELSyntaxException if the entry is not a valid unary test or expression
+     */
+    public UnaryTest compile(String entry, FEELType inputType, FEELScope inputs) {
+        UnaryTest test = compile(entry, inputType);
+        String key = entry == null ? "" : entry.trim();
+        if (inputs.size() == 0 || !mentions(entryNames.get(key), inputs)) {
+            return test;
+        }
+        Map<String, UnaryTest> tests = compiledWithInputs.computeIfAbsent(inputs, s -> new EnumMap<>(FEELType.class))
+            .computeIfAbsent(inputType, t -> new HashMap<>());
+        test = tests.get(key);
+        if (test == null) {
+            // "?" at slot 0, then the inputs of the row
+            List<String> names = new ArrayList<>(inputs.size() + 1);
+            List<FEELType> types = new ArrayList<>(inputs.size() + 1);
+            names.add("?");
+            types.add(inputType);
+            for (int slot = 0; slot < inputs.size(); slot++) {
+                names.add(inputs.getNames().get(slot));
+                types.add(inputs.getType(slot));
+            }
+            test = new Parser(key, FEELScope.of(names, types)).parseEntry();
+            tests.put(key, test);
+        }
+        return test;
+    }
+    
+    /**
+     * Check whether some of the names of an entry are in a scope
+     */
+    private static boolean mentions(Set<String> names, FEELScope scope) {
+        if (names != null) {
+            for (String name : names) {
+                if (scope.slotOf(name) >= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns the number of distinct entries compiled so far
+     * 
+     * @return the number of distinct predicates
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, UnaryTest> tests : compiled.values()) {
+            size += tests.size();
+        }
+        return size;
+    }
+    
+    /**
+     * Parser for a single entry. Tries the structured forms first and falls
+     * back to a FEEL expression for each comma-separated alternative it
+     * cannot recognize.
+     */
+    private static final class Parser {
+        private final String text;
+        private final FEELScope inputScope;
+        private final List<FEELToken> tokens;
+        private int index;
+        
+        Parser(String text, FEELScope inputScope) {
+            this.text = text;
+            this.inputScope = inputScope;
+            this.tokens = FEELLexer.tokenize(text);
+        }
+        
+        /**
+         * Returns the names in the entry that are not function names
+         */
+        Set<String> names() {
+            Set<String> names = new HashSet<>();
+            for (int i = 0; i < tokens.size() - 1; i++) {
+                if (tokens.get(i).kind == FEELToken.Kind.NAME && !tokens.get(i + 1).isOperator("(")) {
+                    names.add(tokens.get(i).text);
+                }
+            }
+            return names;
+        }
+        
+        UnaryTest parseEntry() {
+            if (peek().kind == FEELToken.Kind.END || (peek().isOperator("-") && tokens.size() == 2)) {
+                return new UnaryTest.Any(text);
+            }
+            
+            // Parentheses cannot be counted to find the end of "not(": interval
+            // brackets such as "[1..5)" need not pair up. Parse everything up
+            // to the final ")" as the negated tests instead.
+            int last = tokens.size() - 2;
+            if (peek().isKeyword("not") && tokens.get(index + 1).isOperator("(") && last > index + 1
+                    && tokens.get(last).isOperator(")")) {
+                String innerText = text.substring(tokens.get(index + 2).position, tokens.get(last).position).trim();
+                try {
+                    return new UnaryTest.Not(text, new Parser(innerText, inputScope).parseNegated());
+                } catch (FEELSyntaxException e) {
+                    // "not(a), not(b)", or not(...) in a larger expression
+                    try {
+                        return parseDisjunction();
+                    } catch (FEELSyntaxException ignored) {
+                        throw e;
+                    }
+                }
+            }
+            
+            return parseDisjunction();
+        }
+        
+        /**
+         * Parse the tests inside of "not(...)"; "-" is allowed there and
+         * matches every value, so its negation matches none
+         */
+        private UnaryTest parseNegated() {
+            if (peek().isOperator("-") && tokens.size() == 2) {
+                return new UnaryTest.Any(text);
+            }
+            return parseDisjunction();
+        }
+        
+        private UnaryTest parseDisjunction() {
+            List<UnaryTest> alternatives = new ArrayList<>();
+            while (true) {
+                alternatives.add(parseAlternative());
+                if (peek().kind == FEELToken.Kind.END) {
+                    break;
+                }
+                // parseAlternative stops only at END or a top-level comma
+                index++;
+            }
+            if (alternatives.size() == 1) {
+                return alternatives.get(0);
+            }
+            return new UnaryTest.Disjunction(text, alternatives.toArray(new UnaryTest[0]));
+        }
+        
+        /**
+         * Parse one comma-separated alternative, leaving the index on the
+         * following comma or END token
+         */
+        private UnaryTest parseAlternative() {
+            int start = index;
+            UnaryTest test = parseSimpleTest();
+            if (test != null && atAlternativeEnd()) {
+                return test;
+            }
+            
+            // Not a simple test: compile the alternative as a FEEL expression
+            index = start;
+            int end = findAlternativeEnd();
+            String alternative = text.substring(tokens.get(start).position, tokens.get(end).position).trim();
+            // A comparison with a non-constant endpoint, such as "< creditLimit", compares "?"
+            boolean comparison = isComparison(tokens.get(start));
+            boolean usesInput = comparison;
+            for (int i = start; i < end; i++) {
+                if (tokens.get(i).isOperator("?")) {
+                    usesInput = true;
+                }
+            }
+            index = end;
+            
+            FEELExpression expression = FEELExpression.compile(comparison ? "? " + alternative : alternative,
+                inputScope);
+            if (!usesInput && expression.getRoot() instanceof FEELNode.Literal) {
+                Object value = ((FEELNode.Literal) expression.getRoot()).value;
+                return equalsTest(alternative, value);
+            }
+            return new UnaryTest.Expression(alternative, expression, usesInput);
+        }
+        
+        private UnaryTest parseSimpleTest() {
+            int start = index;
+            FEELToken token = peek();
+            
+            if (token.kind == FEELToken.Kind.OPERATOR) {
+                switch (token.text) {
+                    case "<":
+                    case "<=":
+                    case ">":
+                    case ">=":
+                    case "=":
+                        int endpointStart = ++index;
+                        Object endpoint = parseEndpoint();
+                        if (endpoint == NO_ENDPOINT || !atAlternativeEnd() && !peek().isOperator(")")) {
+                            index = endpointStart;
+                            endpoint = parseConstantEndpoint();
+                        }
+                        if (endpoint == NO_ENDPOINT) {
+                            return null;
+                        }
+                        return comparisonTest(sourceText(start), token.text, endpoint);
+                    case "[":
+                    case "(":
+                    case "]":
+                        return parseInterval();
+                    default:
+                        break;
+                }
+            }
+            
+            Object literal = parseEndpoint();
+            if (literal == NO_ENDPOINT) {
+                return null;
+            }
+            return equalsTest(sourceText(start), literal);
+        }
+        
+        private UnaryTest parseInterval() {
+            int start = index;
+            boolean lowInclusive = tokens.get(index++).isOperator("[");
+            Object low = parseIntervalEndpoint();
+            if (low == NO_ENDPOINT || !peek().isOperator("..")) {
+                return null;
+            }
+            index++;
+            Object high = parseIntervalEndpoint();
+            if (high == NO_ENDPOINT) {
+                return null;
+            }
+            FEELToken close = peek();
+            if (!close.isOperator("]") && !close.isOperator(")") && !close.isOperator("[")) {
+                return null;
+            }
+            index++;
+            boolean highInclusive = close.isOperator("]");
+            if (low instanceof BigDecimal && high instanceof BigDecimal) {
+                return UnaryTest.NumberRange.of(sourceText(start),
+                    (BigDecimal) low, lowInclusive, (BigDecimal) high, highInclusive);
+            }
+            // Dates, times, strings...: both endpoints of one comparable type
+            if (!(low instanceof Comparable) || high == null || low.getClass() != high.getClass()) {
+                return null;
+            }
+            return new UnaryTest.ValueInterval(sourceText(start), low, lowInclusive, high, highInclusive);
+        }
+        
+        /**
+         * Parse a literal or constant interval endpoint, leaving the index on
+         * the following ".." or closing bracket
+         */
+        private Object parseIntervalEndpoint() {
+            int start = index;
+            Object endpoint = parseEndpoint();
+            FEELToken next = peek();
+            if (endpoint == NO_ENDPOINT || !next.isOperator("..") && !next.isOperator("]")
+                    && !next.isOperator(")") && !next.isOperator("[")) {
+                index = start;
+                endpoint = parseConstantEndpoint();
+            }
+            return endpoint;
+        }
+        
+        /**
+         * Parse a literal endpoint: an optionally negated number, a string,
+         * true, false or null
+         * 
+         * @return the literal value, or NO_ENDPOINT if the tokens are not a literal
+         */
+        private Object parseEndpoint() {
+            FEELToken token = peek();
+            switch (token.kind) {
+                case NUMBER:
+                case STRING:
+                    index++;
+                    return token.value;
+                case KEYWORD:
+                    if (token.isKeyword("true") || token.isKeyword("false") || token.isKeyword("null")) {
+                        index++;
+                        return token.isKeyword("null") ? null : Boolean.valueOf(token.text);
+                    }
+                    return NO_ENDPOINT;
+                case OPERATOR:
+                    if (token.isOperator("-") && tokens.get(index + 1).kind == FEELToken.Kind.NUMBER) {
+                        index += 2;
+                        return ((BigDecimal) tokens.get(index - 1).value).negate();
+                    }
+                    return NO_ENDPOINT;
+                default:
+                    return NO_ENDPOINT;
+            }
+        }
+        
+        /**
+         * Parse an endpoint that is a constant expression, such as
+         * date("2024-01-01") or 1000 * 1.2, folded at compile time
+         * 
+         * @return the value, or NO_ENDPOINT if the tokens are not a constant
+         */
+        private Object parseConstantEndpoint() {
+            int end = index;
+            int depth = 0;
+            for (FEELToken token = tokens.get(end); token.kind != FEELToken.Kind.END; token = tokens.get(++end)) {
+                if (depth == 0 && token.isOperator("[") && isAlternativeEnd(tokens.get(end + 1))) {
+                    // "[" closing an interval such as "]a..b["
+                    break;
+                }
+                if (token.isOperator("(") || token.isOperator("[") || token.isOperator("{")) {
+                    depth++;
+                } else if (token.isOperator(")") || token.isOperator("]") || token.isOperator("}")) {
+                    if (depth-- == 0) {
+                        break;
+                    }
+                } else if (depth == 0 && (token.isOperator(",") || token.isOperator(".."))) {
+                    break;
+                }
+            }
+            if (end == index) {
+                return NO_ENDPOINT;
+            }
+            String source = text.substring(peek().position, tokens.get(end).position).trim();
+            try {
+                FEELExpression expression = FEELExpression.compile(source, FEELScope.EMPTY);
+                if (expression.isConstant()) {
+                    index = end;
+                    return ((FEELNode.Literal) expression.getRoot()).value;
+                }
+            } catch (FEELSyntaxException e) {
+                // Not an expression on its own
+            }
+            return NO_ENDPOINT;
+        }
+        
+        private UnaryTest comparisonTest(String source, String operator, Object endpoint) {
+            if ("=".equals(operator)) {
+                return equalsTest(source, endpoint);
+            }
+            if (endpoint instanceof BigDecimal) {
+                BigDecimal bound = (BigDecimal) endpoint;
+                switch (operator) {
+                    case "<":
+                        return UnaryTest.NumberRange.of(source, null, false, bound, false);
+                    case "<=":
+                        return UnaryTest.NumberRange.of(source, null, false, bound, true);
+                    case ">":
+                        return UnaryTest.NumberRange.of(source, bound, false, null, false);
+                    default:
+                        return UnaryTest.NumberRange.of(source, bound, true, null, false);
+                }
+            }
+            if (endpoint == null) {
+                return null;
+            }
+            FEELNode.Comparison.Operator op;
+            switch (operator) {
+                case "<":
+                    op = FEELNode.Comparison.Operator.LT;
+                    break;
+                case "<=":
+                    op = FEELNode.Comparison.Operator.LE;
+                    break;
+                case ">":
+                    op = FEELNode.Comparison.Operator.GT;
+                    break;
+                default:
+                    op = FEELNode.Comparison.Operator.GE;
+                    break;
+            }
+            return new UnaryTest.ValueComparison(source, op, endpoint);
+        }
+        
+        private static UnaryTest equalsTest(String source, Object literal) {
+            if (literal instanceof Number) {
+                BigDecimal number = FEELOperators.toDecimal(literal);
+                if (number != null) {
+                    return new UnaryTest.NumberEquals(source, number);
+                }
+            }
+            return new UnaryTest.LiteralEquals(source, literal);
+        }
+        
+        private static boolean isComparison(FEELToken token) {
+            return token.isOperator("<") || token.isOperator("<=") || token.isOperator(">")
+                || token.isOperator(">=") || token.isOperator("=");
+        }
+        
+        private boolean atAlternativeEnd() {
+            return isAlternativeEnd(peek());
+        }
+        
+        private static boolean isAlternativeEnd(FEELToken token) {
+            return token.kind == FEELToken.Kind.END || token.isOperator(",");
+        }
+        
+        /**
+         * Find the END token or the next comma outside of brackets
+         */
+        private int findAlternativeEnd() {
+            int depth = 0;
+            for (int i = index; i < tokens.size(); i++) {
+                FEELToken token = tokens.get(i);
+                if (token.kind == FEELToken.Kind.END) {
+                    return i;
+                }
+                if (token.isOperator("(") || token.isOperator("[") || token.isOperator("{")) {
+                    depth++;
+                } else if (token.isOperator(")") || token.isOperator("]") || token.isOperator("}")) {
+                    depth = Math.max(0, depth - 1);
+                } else if (token.isOperator(",") && depth == 0) {
+                    return i;
+                }
+            }
+            return tokens.size() - 1;
+        }
+        
+        private String sourceText(int startToken) {
+            return text.substring(tokens.get(startToken).position, peek().position).trim();
+        }
+        
+        private FEELToken peek() {
+            return tokens.get(index);
+        }
+    }
+    
+    /**
+     * Marker for "the next tokens are not a literal"; null is a valid literal
+     */
+    private static final Object NO_ENDPOINT = new Object();
+}
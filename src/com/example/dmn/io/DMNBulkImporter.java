@@ -0,0 +1,223 @@
+package com.example.dmn.io;
+
+import com.example.dmn.util.StringInterner;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports many DMN files at once, such as all the files of a model
+ * repository.
+ * 
+ * Files are parsed concurrently by a fixed pool of threads, each with its
+ * own {@link DMNImporter}. All importers share one {@link StringInterner},
+ * so a name, type reference or literal entry that occurs in many files is
+ * stored once. Results are returned in the order of the files only after
+ * all of them have been parsed, so the caller can merge them into the model
+ * in one ordered step (see {@code DMNModelUtils.importDefinitions}) and a
+ * failed or cancelled import leaves the model untouched.
+ */
+public class DMNBulkImporter {
+    
+    /**
+     * Receives progress while files are imported
+     */
+    public interface Listener {
+        /**
+         * Called after a file has been imported or has failed, from the thread that imported it
+         * 
+         * @param result the result of the file
+         * @param completed the number of files completed so far
+         * @param total the number of files
+         */
+        void fileCompleted(FileResult result, int completed, int total);
+    }
+    
+    private final int threads;
+    private volatile boolean cancelled;
+    private volatile List<Future<FileResult>> running = new ArrayList<>();
+    private StringInterner interner;
+    
+    /**
+     * Constructor with one thread per available processor
+     */
+    public DMNBulkImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param threads the number of files parsed at the same time
+     */
+    public DMNBulkImporter(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.threads = threads;
+    }
+    
+    /**
+     * Import files. Blocks until all files are imported or the import is
+     * cancelled.
+     * 
+     * @param files the files
+     * @param listener the progress listener, or null
+     * @return one result per file, in the order of the files
+     */
+    public List<FileResult> importFiles(List<File> files, Listener listener) {
+        cancelled = false;
+        interner = new StringInterner();
+        StringInterner shared = interner;
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, files.size())), r -> {
+            Thread thread = new Thread(r, "DMN import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>(files.size());
+            for (File file : files) {
+                futures.add(executor.submit(() -> {
+                    FileResult result;
+                    try {
+                        result = new FileResult(file, new DMNImporter(shared).importFile(file), null);
+                    } catch (IOException e) {
+                        result = new FileResult(file, null, e);
+                    }
+                    if (listener != null) {
+                        listener.fileCompleted(result, completed.incrementAndGet(), files.size());
+                    }
+                    return result;
+                }));
+            }
+            running = futures;
+            if (cancelled) {
+                cancel();
+            }
+            List<FileResult> results = new ArrayList<>(files.size());
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(await(futures.get(i), files.get(i)));
+            }
+            return results;
+        } finally {
+            running = new ArrayList<>();
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Stop importing. Files that are being parsed are interrupted and files
+     * not started are skipped; their results are marked as cancelled. May be
+     * called from any thread, including a {@link Listener}.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Future<FileResult> future : running) {
+            future.cancel(true);
+        }
+    }
+    
+    /**
+     * Check whether the last import was cancelled
+     * 
+     * @return true if {@link #cancel()} was called during the last import
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    /**
+     * Returns the strings shared by the files of the last import
+     * 
+     * @return the interner, or null before the first import
+     */
+    public StringInterner getInterner() {
+        return interner;
+    }
+    
+    private FileResult await(Future<FileResult> future, File file) {
+        try {
+            FileResult result = future.get();
+            return cancelled && result.getDefinitions() == null ? FileResult.cancelled(file) : result;
+        } catch (CancellationException e) {
+            return FileResult.cancelled(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            return FileResult.cancelled(file);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            return new FileResult(file, null,
+                new IOException("Error importing " + file.getName() + ": " + cause, cause));
+        }
+    }
+    
+    /**
+     * Outcome of the import of one file
+     */
+    public static final class FileResult {
+        private final File file;
+        private final DMNDefinitions definitions;
+        private final IOException error;
+        private final boolean cancelled;
+        
+        FileResult(File file, DMNDefinitions definitions, IOException error) {
+            this(file, definitions, error, false);
+        }
+        
+        private FileResult(File file, DMNDefinitions definitions, IOException error, boolean cancelled) {
+            this.file = file;
+            this.definitions = definitions;
+            this.error = error;
+            this.cancelled = cancelled;
+        }
+        
+        static FileResult cancelled(File file) {
+            return new FileResult(file, null, null, true);
+        }
+        
+        /**
+         * Returns the imported file
+         * 
+         * @return the file
+         */
+        public File getFile() {
+            return file;
+        }
+        
+        /**
+         * Returns the definitions read from the file
+         * 
+         * @return the definitions, or null if the import failed or was cancelled
+         */
+        public DMNDefinitions getDefinitions() {
+            return definitions;
+        }
+        
+        /**
+         * Returns why the import of the file failed
+         * 
+         * @return the error, or null if the file was imported or the import was cancelled
+         */
+        public IOException getError() {
+            return error;
+        }
+        
+        /**
+         * Check whether the file was skipped or interrupted by {@link DMNBulkImporter#cancel()}
+         * 
+         * @return true if the import of the file was cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
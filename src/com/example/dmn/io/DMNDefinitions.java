@@ -0,0 +1,285 @@
+package com.example.dmn.io;
+
+import com.example.dmn.decisiontable.DMNDecisionTableStub;
+import com.example.dmn.feel.FEELScope;
+import com.example.dmn.feel.FEELType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contents of an imported DMN {@code definitions} element: the decisions
+ * with their decision tables and requirements, and the input data.
+ * Requirements refer to other elements by id, without the leading '#'
+ * of the href.
+ */
+public final class DMNDefinitions {
+    
+    private final String id;
+    private final String name;
+    private final String namespace;
+    private final List<Decision> decisions = new ArrayList<>();
+    private final List<InputData> inputData = new ArrayList<>();
+    private long elementCount;
+    
+    /**
+     * Constructor
+     * 
+     * @param id the id of the definitions, or null
+     * @param name the name of the definitions, or null
+     * @param namespace the namespace of the definitions, or null
+     */
+    public DMNDefinitions(String id, String name, String namespace) {
+        this.id = id;
+        this.name = name;
+        this.namespace = namespace;
+    }
+    
+    /**
+     * Returns the id of the definitions
+     * 
+     * @return the id, or null
+     */
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Returns the name of the definitions
+     * 
+     * @return the name, or null
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns the namespace of the definitions
+     * 
+     * @return the namespace, or null
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+    
+    /**
+     * Returns the decisions in document order
+     * 
+     * @return the decisions
+     */
+    public List<Decision> getDecisions() {
+        return Collections.unmodifiableList(decisions);
+    }
+    
+    /**
+     * Returns the input data in document order
+     * 
+     * @return the input data
+     */
+    public List<InputData> getInputData() {
+        return Collections.unmodifiableList(inputData);
+    }
+    
+    /**
+     * Returns the decision tables of all decisions that have one
+     * 
+     * @return the decision tables in document order
+     */
+    public List<DMNDecisionTableStub> getDecisionTables() {
+        List<DMNDecisionTableStub> tables = new ArrayList<>();
+        for (Decision decision : decisions) {
+            if (decision.getDecisionTable() != null) {
+                tables.add(decision.getDecisionTable());
+            }
+        }
+        return tables;
+    }
+    
+    /**
+     * Create the scope of the decision table of a decision: the input data
+     * the decision requires, with the types of their typeRefs. Compiling
+     * the table against it gives columns without a typeRef the type of
+     * the input data of the same name.
+     * 
+     * @param decision a decision of these definitions
+     * @return the scope to compile the decision table against
+     */
+    public FEELScope createScope(Decision decision) {
+        List<String> names = new ArrayList<>();
+        List<FEELType> types = new ArrayList<>();
+        for (String id : decision.getRequiredInputs()) {
+            for (InputData data : inputData) {
+                if (id.equals(data.getId())) {
+                    names.add(data.getName());
+                    types.add(FEELType.fromTypeRef(data.getTypeRef()));
+                }
+            }
+        }
+        return FEELScope.of(names, types);
+    }
+    
+    /**
+     * Returns the number of XML elements of the file, including the ones
+     * that were skipped such as diagram interchange
+     * 
+     * @return the element count
+     */
+    public long getElementCount() {
+        return elementCount;
+    }
+    
+    void addDecision(Decision decision) {
+        decisions.add(decision);
+    }
+    
+    void addInputData(InputData data) {
+        inputData.add(data);
+    }
+    
+    void setElementCount(long elementCount) {
+        this.elementCount = elementCount;
+    }
+    
+    /**
+     * A decision, with its decision table if its logic is one
+     */
+    public static final class Decision {
+        private final String id;
+        private final String name;
+        private String typeRef;
+        private DMNDecisionTableStub decisionTable;
+        private final List<String> requiredDecisions = new ArrayList<>();
+        private final List<String> requiredInputs = new ArrayList<>();
+        private final List<String> requiredKnowledge = new ArrayList<>();
+        
+        Decision(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+        
+        /**
+         * Returns the id of the decision
+         * 
+         * @return the id, or null
+         */
+        public String getId() {
+            return id;
+        }
+        
+        /**
+         * Returns the name of the decision
+         * 
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Returns the type of the decision variable
+         * 
+         * @return the type reference, or null if not declared
+         */
+        public String getTypeRef() {
+            return typeRef;
+        }
+        
+        /**
+         * Returns the decision table of the decision
+         * 
+         * @return the decision table, or null if the decision logic is not a decision table
+         */
+        public DMNDecisionTableStub getDecisionTable() {
+            return decisionTable;
+        }
+        
+        /**
+         * Returns the ids of the decisions this decision requires
+         * 
+         * @return the required decision ids
+         */
+        public List<String> getRequiredDecisions() {
+            return Collections.unmodifiableList(requiredDecisions);
+        }
+        
+        /**
+         * Returns the ids of the input data this decision requires
+         * 
+         * @return the required input data ids
+         */
+        public List<String> getRequiredInputs() {
+            return Collections.unmodifiableList(requiredInputs);
+        }
+        
+        /**
+         * Returns the ids of the business knowledge models this decision requires
+         * 
+         * @return the required knowledge ids
+         */
+        public List<String> getRequiredKnowledge() {
+            return Collections.unmodifiableList(requiredKnowledge);
+        }
+        
+        void setTypeRef(String typeRef) {
+            this.typeRef = typeRef;
+        }
+        
+        void setDecisionTable(DMNDecisionTableStub decisionTable) {
+            this.decisionTable = decisionTable;
+        }
+        
+        void addRequiredDecision(String id) {
+            requiredDecisions.add(id);
+        }
+        
+        void addRequiredInput(String id) {
+            requiredInputs.add(id);
+        }
+        
+        void addRequiredKnowledge(String id) {
+            requiredKnowledge.add(id);
+        }
+    }
+    
+    /**
+     * An input data element
+     */
+    public static final class InputData {
+        private final String id;
+        private final String name;
+        private final String typeRef;
+        
+        InputData(String id, String name, String typeRef) {
+            this.id = id;
+            this.name = name;
+            this.typeRef = typeRef;
+        }
+        
+        /**
+         * Returns the id of the input data
+         * 
+         * @return the id, or null
+         */
+        public String getId() {
+            return id;
+        }
+        
+        /**
+         * Returns the name of the input data
+         * 
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Returns the type of the input data
+         * 
+         * @return the type reference, or null if not declared
+         */
+        public String getTypeRef() {
+            return typeRef;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.dmn.io;
+
+import com.example.dmn.decisiontable.DMNDecisionTableStub;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Streaming exporter of DMN {@code definitions} documents.
+ * 
+ * Elements are written one by one through an {@link XMLStreamWriter}, which
+ * escapes rule text and names, straight to the output stream; the document
+ * is never held in memory, so {@link #exportTables} exports any number of
+ * decision tables in constant memory.
+ * 
+ * Output is deterministic: ids are kept from imported elements and
+ * otherwise derived from the position of the element ("decision_3",
+ * "decision_3_rule_12"), attributes are written in a fixed order and
+ * nothing depends on the clock, so exporting the same model twice gives
+ * byte-identical files. Elements are indented by two spaces so that a
+ * changed rule shows up as a changed line in a diff.
+ */
+public class DMNExporter {
+    
+    /**
+     * Namespace of the DMN 1.3 model elements
+     */
+    public static final String DMN_NAMESPACE = "https://www.omg.org/spec/DMN/20191111/MODEL/";
+    
+    private static final String DMNDI_NAMESPACE = "https://www.omg.org/spec/DMN/20191111/DMNDI/";
+    private static final String DC_NAMESPACE = "http://www.omg.org/spec/DMN/20180521/DC/";
+    private static final String DEFAULT_NAMESPACE = "http://example.com/dmn";
+    
+    private static final XMLOutputFactory FACTORY = XMLOutputFactory.newInstance();
+    
+    // Diagram layout: decisions in rows of SHAPES_PER_ROW shapes
+    private static final int SHAPES_PER_ROW = 8;
+    private static final int SHAPE_WIDTH = 180;
+    private static final int SHAPE_HEIGHT = 80;
+    
+    private XMLStreamWriter xml;
+    
+    /**
+     * Export imported or assembled definitions
+     * 
+     * @param definitions the definitions
+     * @param out the stream to write to; it is flushed, not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public void export(DMNDefinitions definitions, OutputStream out) throws IOException {
+        try {
+            begin(out, definitions.getId(), definitions.getName(), definitions.getNamespace());
+            List<DMNDefinitions.InputData> inputData = definitions.getInputData();
+            for (int i = 0; i < inputData.size(); i++) {
+                writeInputData(inputData.get(i), i + 1);
+            }
+            List<DMNDefinitions.Decision> decisions = definitions.getDecisions();
+            for (int d = 0; d < decisions.size(); d++) {
+                writeDecision(decisions.get(d), decisionId(decisions.get(d), d + 1));
+            }
+            beginDiagram();
+            for (int d = 0; d < decisions.size(); d++) {
+                writeShape(decisionId(decisions.get(d), d + 1), d);
+            }
+            end();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error writing DMN: " + e.getMessage(), e);
+        } finally {
+            xml = null;
+        }
+    }
+    
+    /**
+     * Export decision tables as the decisions of one definitions document.
+     * Tables are written as they are taken from the iterable, so they can
+     * be produced on demand.
+     * 
+     * @param name the name of the definitions
+     * @param tables the decision tables, one decision each
+     * @param out the stream to write to; it is flushed, not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public void exportTables(String name, Iterable<DMNDecisionTableStub> tables, OutputStream out)
+            throws IOException {
+        try {
+            begin(out, null, name, null);
+            int count = 0;
+            for (DMNDecisionTableStub table : tables) {
+                count++;
+                DMNDefinitions.Decision decision = new DMNDefinitions.Decision(null, table.getName());
+                decision.setDecisionTable(table);
+                writeDecision(decision, "decision_" + count);
+            }
+            beginDiagram();
+            for (int d = 0; d < count; d++) {
+                writeShape("decision_" + (d + 1), d);
+            }
+            end();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error writing DMN: " + e.getMessage(), e);
+        } finally {
+            xml = null;
+        }
+    }
+    
+    private static String decisionId(DMNDefinitions.Decision decision, int number) {
+        return decision.getId() != null ? decision.getId() : "decision_" + number;
+    }
+    
+    private void begin(OutputStream out, String id, String name, String namespace) throws XMLStreamException {
+        xml = FACTORY.createXMLStreamWriter(out, "UTF-8");
+        xml.writeStartDocument("UTF-8", "1.0");
+        newLine(0);
+        xml.writeStartElement("definitions");
+        xml.writeDefaultNamespace(DMN_NAMESPACE);
+        xml.writeNamespace("dmndi", DMNDI_NAMESPACE);
+        xml.writeNamespace("dc", DC_NAMESPACE);
+        xml.writeAttribute("id", id != null ? id : "definitions");
+        xml.writeAttribute("name", name != null ? name : "");
+        xml.writeAttribute("namespace", namespace != null ? namespace : DEFAULT_NAMESPACE);
+    }
+    
+    private void beginDiagram() throws XMLStreamException {
+        newLine(1);
+        xml.writeStartElement(DMNDI_NAMESPACE, "DMNDI");
+        newLine(2);
+        xml.writeStartElement(DMNDI_NAMESPACE, "DMNDiagram");
+        xml.writeAttribute("id", "diagram");
+    }
+    
+    private void end() throws XMLStreamException {
+        newLine(2);
+        xml.writeEndElement();
+        newLine(1);
+        xml.writeEndElement();
+        newLine(0);
+        xml.writeEndElement();
+        newLine(0);
+        xml.writeEndDocument();
+        xml.flush();
+        xml.close();
+    }
+    
+    private void writeInputData(DMNDefinitions.InputData inputData, int number) throws XMLStreamException {
+        newLine(1);
+        xml.writeStartElement("inputData");
+        xml.writeAttribute("id", inputData.getId() != null ? inputData.getId() : "inputData_" + number);
+        xml.writeAttribute("name", inputData.getName());
+        newLine(2);
+        xml.writeEmptyElement("variable");
+        xml.writeAttribute("name", inputData.getName());
+        if (inputData.getTypeRef() != null) {
+            xml.writeAttribute("typeRef", inputData.getTypeRef());
+        }
+        newLine(1);
+        xml.writeEndElement();
+    }
+    
+    private void writeDecision(DMNDefinitions.Decision decision, String id) throws XMLStreamException {
+        newLine(1);
+        xml.writeStartElement("decision");
+        xml.writeAttribute("id", id);
+        xml.writeAttribute("name", decision.getName());
+        newLine(2);
+        xml.writeEmptyElement("variable");
+        xml.writeAttribute("name", decision.getName());
+        if (decision.getTypeRef() != null) {
+            xml.writeAttribute("typeRef", decision.getTypeRef());
+        }
+        for (String required : decision.getRequiredDecisions()) {
+            writeRequirement("informationRequirement", "requiredDecision", required);
+        }
+        for (String required : decision.getRequiredInputs()) {
+            writeRequirement("informationRequirement", "requiredInput", required);
+        }
+        for (String required : decision.getRequiredKnowledge()) {
+            writeRequirement("knowledgeRequirement", "requiredKnowledge", required);
+        }
+        if (decision.getDecisionTable() != null) {
+            writeDecisionTable(decision.getDecisionTable(), id);
+        }
+        newLine(1);
+        xml.writeEndElement();
+    }
+    
+    private void writeRequirement(String requirement, String reference, String id) throws XMLStreamException {
+        newLine(2);
+        xml.writeStartElement(requirement);
+        xml.writeEmptyElement(reference);
+        xml.writeAttribute("href", "#" + id);
+        xml.writeEndElement();
+    }
+    
+    private void writeDecisionTable(DMNDecisionTableStub table, String decisionId) throws XMLStreamException {
+        newLine(2);
+        xml.writeStartElement("decisionTable");
+        xml.writeAttribute("id", decisionId + "_table");
+        xml.writeAttribute("hitPolicy", table.getHitPolicy().name().replace('_', ' '));
+        if (table.getAggregation() != null) {
+            xml.writeAttribute("aggregation", table.getAggregation().name());
+        }
+        List<String> inputs = table.getInputColumns();
+        for (int c = 0; c < inputs.size(); c++) {
+            newLine(3);
+            xml.writeStartElement("input");
+            xml.writeAttribute("id", decisionId + "_input_" + (c + 1));
+            xml.writeAttribute("label", inputs.get(c));
+            newLine(4);
+            xml.writeStartElement("inputExpression");
+            String typeRef = table.getInputTypes().get(c);
+            if (typeRef != null) {
+                xml.writeAttribute("typeRef", typeRef);
+            }
+            writeText(inputs.get(c));
+            xml.writeEndElement();
+            writeValues("inputValues", table.getInputValues().get(c));
+            newLine(3);
+            xml.writeEndElement();
+        }
+        List<String> outputs = table.getOutputColumns();
+        for (int o = 0; o < outputs.size(); o++) {
+            String values = table.getOutputValues().get(o);
+            boolean hasValues = values != null && !values.isEmpty();
+            newLine(3);
+            if (hasValues) {
+                xml.writeStartElement("output");
+            } else {
+                xml.writeEmptyElement("output");
+            }
+            xml.writeAttribute("id", decisionId + "_output_" + (o + 1));
+            xml.writeAttribute("name", outputs.get(o));
+            if (hasValues) {
+                writeValues("outputValues", values);
+                newLine(3);
+                xml.writeEndElement();
+            }
+        }
+        Iterator<DMNDecisionTableStub.DMNDecisionRule> rules = table.getRules().iterator();
+        for (int r = 1; rules.hasNext(); r++) {
+            DMNDecisionTableStub.DMNDecisionRule rule = rules.next();
+            newLine(3);
+            xml.writeStartElement("rule");
+            xml.writeAttribute("id", decisionId + "_rule_" + r);
+            for (String entry : rule.getInputEntries()) {
+                writeEntry("inputEntry", entry);
+            }
+            for (String entry : rule.getOutputEntries()) {
+                writeEntry("outputEntry", entry);
+            }
+            newLine(3);
+            xml.writeEndElement();
+        }
+        newLine(2);
+        xml.writeEndElement();
+    }
+    
+    private void writeValues(String element, String values) throws XMLStreamException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        newLine(4);
+        xml.writeStartElement(element);
+        writeText(values);
+        xml.writeEndElement();
+    }
+    
+    private void writeEntry(String element, String text) throws XMLStreamException {
+        newLine(4);
+        xml.writeStartElement(element);
+        writeText(text);
+        xml.writeEndElement();
+    }
+    
+    private void writeText(String text) throws XMLStreamException {
+        xml.writeStartElement("text");
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
+    
+    private void writeShape(String decisionId, int index) throws XMLStreamException {
+        newLine(3);
+        xml.writeStartElement(DMNDI_NAMESPACE, "DMNShape");
+        xml.writeAttribute("id", "shape_" + decisionId);
+        xml.writeAttribute("dmnElementRef", decisionId);
+        xml.writeEmptyElement(DC_NAMESPACE, "Bounds");
+        xml.writeAttribute("height", Integer.toString(SHAPE_HEIGHT));
+        xml.writeAttribute("width", Integer.toString(SHAPE_WIDTH));
+        xml.writeAttribute("x", Integer.toString(100 + (SHAPE_WIDTH + 70) * (index % SHAPES_PER_ROW)));
+        xml.writeAttribute("y", Integer.toString(100 + (SHAPE_HEIGHT + 70) * (index / SHAPES_PER_ROW)));
+        xml.writeEndElement();
+    }
+    
+    private void newLine(int depth) throws XMLStreamException {
+        xml.writeCharacters("\n");
+        for (int i = 0; i < depth; i++) {
+            xml.writeCharacters("  ");
+        }
+    }
+}
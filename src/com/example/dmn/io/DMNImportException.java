@@ -0,0 +1,35 @@
+package com.example.dmn.io;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a DMN file is not well-formed XML or does not have the
+ * structure of DMN definitions.
+ */
+public class DMNImportException extends IOException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final int lineNumber;
+    
+    /**
+     * Constructor
+     * 
+     * @param message the problem
+     * @param lineNumber the line of the file where the problem was found, or -1 if not known
+     * @param cause the parser exception, or null
+     */
+    public DMNImportException(String message, int lineNumber, Throwable cause) {
+        super(lineNumber > 0 ? message + " (line " + lineNumber + ")" : message, cause);
+        this.lineNumber = lineNumber;
+    }
+    
+    /**
+     * Returns the line of the file where the problem was found
+     * 
+     * @return the line number, or -1 if not known
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
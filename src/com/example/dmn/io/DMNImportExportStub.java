@@ -1,17 +1,16 @@
 package com.example.dmn.io;
 
 import com.example.dmn.decisiontable.DMNDecisionTableStub;
-import com.example.dmn.decisiontable.DMNHitPolicy;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.StringWriter;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,28 +20,16 @@ import java.util.List;
  */
 public class DMNImportExportStub {
     
-    private static final String DMN_FILE_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-        "<definitions xmlns=\"https://www.omg.org/spec/DMN/20191111/MODEL/\"\n" +
-        "             xmlns:dmndi=\"https://www.omg.org/spec/DMN/20191111/DMNDI/\"\n" +
-        "             xmlns:dc=\"http://www.omg.org/spec/DMN/20180521/DC/\"\n" +
-        "             xmlns:di=\"http://www.omg.org/spec/DMN/20180521/DI/\"\n" +
-        "             id=\"{id}\"\n" +
-        "             name=\"{name}\"\n" +
-        "             namespace=\"http://example.com/dmn\">\n";
-    
-    private static final String DMN_FILE_FOOTER = "</definitions>";
-    
     /**
-     * Export a decision table to a DMN XML file (stub implementation)
+     * Export a decision table to a DMN XML file (see {@link DMNExporter})
      * 
      * @param table the decision table to export
      * @param outputFile the output file
      * @return true if export was successful
      */
     public boolean exportDecisionTable(DMNDecisionTableStub table, File outputFile) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
-            String xml = convertTableToDMNXml(table);
-            writer.write(xml);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            new DMNExporter().exportTables(table.getName(), Collections.singletonList(table), out);
             return true;
         } catch (IOException e) {
             System.err.println("Error exporting decision table: " + e.getMessage());
@@ -57,102 +44,27 @@ public class DMNImportExportStub {
      * @return XML string representation
      */
     public String convertTableToDMNXml(DMNDecisionTableStub table) {
-        StringWriter writer = new StringWriter();
-        
-        // Generate a unique ID
-        String id = "decision_" + System.currentTimeMillis();
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME);
-        
-        // Write header
-        String header = DMN_FILE_HEADER
-            .replace("{id}", id)
-            .replace("{name}", table.getName());
-        writer.write(header);
-        
-        // Start decision element
-        writer.write("  <decision id=\"decision_" + id + "\" name=\"" + table.getName() + "\">\n");
-        
-        // Write decision table
-        writer.write("    <decisionTable id=\"decisionTable_" + id + "\" hitPolicy=\"" + 
-                    table.getHitPolicy().getSymbol() + "\">\n");
-        
-        // Write input clauses
-        for (String input : table.getInputColumns()) {
-            writer.write("      <input id=\"input_" + input.replace(" ", "_") + "\">\n");
-            writer.write("        <inputExpression>\n");
-            writer.write("          <text>" + input + "</text>\n");
-            writer.write("        </inputExpression>\n");
-            writer.write("      </input>\n");
-        }
-        
-        // Write output clauses
-        for (String output : table.getOutputColumns()) {
-            writer.write("      <output id=\"output_" + output.replace(" ", "_") + "\" name=\"" + output + "\" />\n");
-        }
-        
-        // Write rules
-        for (int i = 0; i < table.getRules().size(); i++) {
-            DMNDecisionTableStub.DMNDecisionRule rule = table.getRules().get(i);
-            writer.write("      <rule id=\"rule_" + i + "\">\n");
-            
-            // Input entries
-            for (String input : rule.getInputEntries()) {
-                writer.write("        <inputEntry>\n");
-                writer.write("          <text>" + input + "</text>\n");
-                writer.write("        </inputEntry>\n");
-            }
-            
-            // Output entries
-            for (String output : rule.getOutputEntries()) {
-                writer.write("        <outputEntry>\n");
-                writer.write("          <text>" + output + "</text>\n");
-                writer.write("        </outputEntry>\n");
-            }
-            
-            writer.write("      </rule>\n");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            new DMNExporter().exportTables(table.getName(), Collections.singletonList(table), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        
-        // Close decision table and decision elements
-        writer.write("    </decisionTable>\n");
-        writer.write("  </decision>\n");
-        
-        // Add minimal DMNDI diagram information
-        writer.write("  <dmndi:DMNDI>\n");
-        writer.write("    <dmndi:DMNDiagram id=\"diagram_" + id + "\">\n");
-        writer.write("      <dmndi:DMNShape id=\"shape_decision_" + id + "\" dmnElementRef=\"decision_" + id + "\">\n");
-        writer.write("        <dc:Bounds height=\"80\" width=\"180\" x=\"100\" y=\"100\" />\n");
-        writer.write("      </dmndi:DMNShape>\n");
-        writer.write("    </dmndi:DMNDiagram>\n");
-        writer.write("  </dmndi:DMNDI>\n");
-        
-        // Write footer
-        writer.write(DMN_FILE_FOOTER);
-        
-        return writer.toString();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
     }
     
     /**
-     * Import a DMN file and extract decision tables (stub implementation)
+     * Import a DMN file and extract its decision tables (see {@link DMNImporter})
      * 
      * @param dmnFile the DMN file to import
      * @return list of decision tables found in the file, or empty list if none found
      */
     public List<DMNDecisionTableStub> importDMNFile(File dmnFile) {
-        List<DMNDecisionTableStub> tables = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(dmnFile))) {
-            System.out.println("Importing DMN file: " + dmnFile.getAbsolutePath());
-            System.out.println("In a full implementation, this would parse the DMN XML");
-            System.out.println("and create decision tables from the parsed content.");
-            
-            // Create a dummy table to simulate import
-            DMNDecisionTableStub table = DMNDecisionTableStub.createExampleTable();
-            tables.add(table);
-            
-            return tables;
+        try {
+            return new DMNImporter().importFile(dmnFile).getDecisionTables();
         } catch (IOException e) {
             System.err.println("Error importing DMN file: " + e.getMessage());
-            return tables;
+            return new ArrayList<>();
         }
     }
     
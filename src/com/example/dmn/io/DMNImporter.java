@@ -0,0 +1,446 @@
+package com.example.dmn.io;
+
+import com.example.dmn.decisiontable.DMNDecisionTable;
+import com.example.dmn.decisiontable.DMNDecisionTableStub;
+import com.example.dmn.decisiontable.DMNHitPolicy;
+import com.example.dmn.decisiontable.RuleColumns;
+import com.example.dmn.util.StringInterner;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Streaming importer of DMN 1.x {@code definitions} files.
+ * 
+ * The file is read with a StAX pull parser in one pass, and decisions,
+ * decision tables and input data are built as their elements are read, so
+ * memory use is bounded by the imported model rather than by the size of
+ * the document: no DOM is built and skipped subtrees such as diagram
+ * interchange (DMNDI) or extension elements are never materialized.
+ * 
+ * Elements are matched by local name, so the namespaces of all DMN versions
+ * from 1.1 to 1.6 are accepted. Hit policies may be given by name
+ * ("RULE ORDER") or by symbol ("R"). DTDs and external entities are not
+ * processed. An importer is not thread-safe; use one per thread. A thread
+ * that is interrupted while importing stops at the next rule with a
+ * {@link DMNImportException}.
+ * 
+ * Rules are stored in {@link RuleColumns} with one dictionary per document,
+ * so the memory of imported tables grows with their distinct entries. Large
+ * UTF-8 files are read through a memory-mapped buffer instead of a stream,
+ * see {@link #importMapped(File)}.
+ */
+public class DMNImporter {
+    
+    private static final XMLInputFactory FACTORY = createFactory();
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    /** Files from this size on are imported through a mapped buffer */
+    private static final long MAPPED_THRESHOLD = 16L * 1024 * 1024;
+    
+    private final StringInterner interner;
+    private ElementReader reader;
+    private RuleColumns.Dictionary dictionary;
+    
+    /**
+     * Constructor
+     */
+    public DMNImporter() {
+        this(null);
+    }
+    
+    /**
+     * Constructor for importers that share strings, such as the ones of a
+     * {@link DMNBulkImporter}
+     * 
+     * @param interner the table to intern names, ids, type references and entries in, or null
+     */
+    public DMNImporter(StringInterner interner) {
+        this.interner = interner;
+    }
+    
+    /**
+     * Import a DMN file, through a mapped buffer if it is large
+     * 
+     * @param file the file
+     * @return the definitions of the file
+     * @throws DMNImportException if the file is not valid DMN
+     * @throws IOException if the file cannot be read
+     */
+    public DMNDefinitions importFile(File file) throws IOException {
+        if (file.length() >= MAPPED_THRESHOLD) {
+            return importMapped(file);
+        }
+        return importBuffered(file);
+    }
+    
+    /**
+     * Import a DMN file by mapping it into memory and scanning its bytes.
+     * 
+     * Rule entries are looked up as bytes in the dictionary of the document,
+     * so a string is only created for each distinct entry and the heap used
+     * grows with the distinct entries rather than with the file. The mapping
+     * is read by the operating system as it is scanned and does not count
+     * against the heap. Files that are not encoded in UTF-8, or that are
+     * larger than 2 GB, are read as a stream instead.
+     * 
+     * @param file the file
+     * @return the definitions of the file
+     * @throws DMNImportException if the file is not valid DMN
+     * @throws IOException if the file cannot be read
+     */
+    public DMNDefinitions importMapped(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= Integer.MAX_VALUE) {
+                // The mapping stays valid after the channel is closed
+                MappedElementReader mapped = MappedElementReader.open(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                if (mapped != null) {
+                    return read(mapped);
+                }
+            }
+        }
+        return importBuffered(file);
+    }
+    
+    private DMNDefinitions importBuffered(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
+            return importStream(in, file.toURI().toString());
+        }
+    }
+    
+    /**
+     * Import DMN definitions from a stream. The stream is not closed.
+     * 
+     * @param in the stream, with the encoding declared by the XML declaration
+     * @param systemId the location of the document for error messages, or null
+     * @return the definitions
+     * @throws DMNImportException if the document is not valid DMN
+     */
+    public DMNDefinitions importStream(InputStream in, String systemId) throws DMNImportException {
+        ElementReader stax;
+        try {
+            stax = new StaxElementReader(FACTORY.createXMLStreamReader(systemId, in));
+        } catch (XMLStreamException e) {
+            throw StaxElementReader.error(e);
+        }
+        return read(stax);
+    }
+    
+    private DMNDefinitions read(ElementReader elementReader) throws DMNImportException {
+        reader = elementReader;
+        dictionary = new RuleColumns.Dictionary(interner != null ? interner::intern : null);
+        try {
+            try {
+                return readDocument();
+            } finally {
+                reader.close();
+            }
+        } finally {
+            reader = null;
+            dictionary = null;
+        }
+    }
+    
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+    
+    private DMNDefinitions readDocument() throws DMNImportException {
+        boolean root = reader.nextRoot();
+        if (!root || !"definitions".equals(reader.getLocalName())) {
+            throw error("Not a DMN file: the root element is " + (root ? reader.getLocalName() : "missing"));
+        }
+        DMNDefinitions definitions = new DMNDefinitions(attribute("id"), attribute("name"), attribute("namespace"));
+        while (reader.nextChild()) {
+            switch (reader.getLocalName()) {
+                case "decision":
+                    definitions.addDecision(readDecision());
+                    break;
+                case "inputData":
+                    definitions.addInputData(readInputData());
+                    break;
+                default:
+                    reader.skipElement();
+                    break;
+            }
+        }
+        definitions.setElementCount(reader.getElementCount());
+        return definitions;
+    }
+    
+    private DMNDefinitions.Decision readDecision() throws DMNImportException {
+        DMNDefinitions.Decision decision = new DMNDefinitions.Decision(attribute("id"), requiredAttribute("name"));
+        while (reader.nextChild()) {
+            switch (reader.getLocalName()) {
+                case "variable":
+                    decision.setTypeRef(attribute("typeRef"));
+                    reader.skipElement();
+                    break;
+                case "informationRequirement":
+                    while (reader.nextChild()) {
+                        if ("requiredDecision".equals(reader.getLocalName())) {
+                            decision.addRequiredDecision(reference());
+                        } else if ("requiredInput".equals(reader.getLocalName())) {
+                            decision.addRequiredInput(reference());
+                        }
+                        reader.skipElement();
+                    }
+                    break;
+                case "knowledgeRequirement":
+                    while (reader.nextChild()) {
+                        if ("requiredKnowledge".equals(reader.getLocalName())) {
+                            decision.addRequiredKnowledge(reference());
+                        }
+                        reader.skipElement();
+                    }
+                    break;
+                case "decisionTable":
+                    decision.setDecisionTable(readDecisionTable(decision.getName()));
+                    break;
+                default:
+                    reader.skipElement();
+                    break;
+            }
+        }
+        return decision;
+    }
+    
+    private DMNDefinitions.InputData readInputData() throws DMNImportException {
+        String id = attribute("id");
+        String name = requiredAttribute("name");
+        String typeRef = null;
+        while (reader.nextChild()) {
+            if ("variable".equals(reader.getLocalName())) {
+                typeRef = attribute("typeRef");
+            }
+            reader.skipElement();
+        }
+        return new DMNDefinitions.InputData(id, name, typeRef);
+    }
+    
+    private DMNDecisionTableStub readDecisionTable(String decisionName)
+            throws DMNImportException {
+        DMNDecisionTableStub table = new DMNDecisionTableStub(decisionName, hitPolicy(attribute("hitPolicy")));
+        String aggregation = attribute("aggregation");
+        if (aggregation != null) {
+            table.setAggregation(aggregation(aggregation));
+        }
+        RuleColumns columns = null;
+        int[] codes = null;
+        while (reader.nextChild()) {
+            switch (reader.getLocalName()) {
+                case "input":
+                    readInput(table);
+                    break;
+                case "output":
+                    readOutput(table, decisionName);
+                    break;
+                case "rule":
+                    if (columns == null) {
+                        columns = new RuleColumns(dictionary, table.getInputColumns().size(),
+                            table.getOutputColumns().size());
+                        table.setRuleColumns(columns);
+                        codes = new int[columns.getInputCount() + columns.getOutputCount()];
+                    }
+                    readRule(table, columns, codes);
+                    break;
+                default:
+                    reader.skipElement();
+                    break;
+            }
+        }
+        return table;
+    }
+    
+    private void readInput(DMNDecisionTableStub table) throws DMNImportException {
+        String name = attribute("label");
+        String values = "";
+        String typeRef = null;
+        while (reader.nextChild()) {
+            switch (reader.getLocalName()) {
+                case "inputExpression":
+                    typeRef = attribute("typeRef");
+                    String expression = readTextChild();
+                    if (!expression.isEmpty()) {
+                        name = expression;
+                    }
+                    break;
+                case "inputValues":
+                    values = readTextChild();
+                    break;
+                default:
+                    reader.skipElement();
+                    break;
+            }
+        }
+        if (name == null || name.isEmpty()) {
+            throw error("Input " + (table.getInputColumns().size() + 1) + " of decision table '"
+                + table.getName() + "' has neither an input expression nor a label");
+        }
+        table.addInputColumn(name, values, typeRef);
+    }
+    
+    private void readOutput(DMNDecisionTableStub table, String decisionName) throws DMNImportException {
+        String name = attribute("name");
+        if (name == null || name.isEmpty()) {
+            name = attribute("label");
+        }
+        String values = "";
+        while (reader.nextChild()) {
+            if ("outputValues".equals(reader.getLocalName())) {
+                values = readTextChild();
+            } else {
+                reader.skipElement();
+            }
+        }
+        // A single output may be unnamed; it then takes the name of the decision
+        table.addOutputColumn(name == null || name.isEmpty() ? decisionName : name, values);
+    }
+    
+    /**
+     * Read a rule into the columns of its table
+     * 
+     * @param codes scratch space for the entry codes of the rule
+     */
+    private void readRule(DMNDecisionTableStub table, RuleColumns columns, int[] codes) throws DMNImportException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw error("Import interrupted");
+        }
+        int inputCount = columns.getInputCount();
+        int outputCount = columns.getOutputCount();
+        int inputs = 0;
+        int outputs = 0;
+        while (reader.nextChild()) {
+            switch (reader.getLocalName()) {
+                case "inputEntry":
+                    int input = readTextCode();
+                    if (inputs < inputCount) {
+                        codes[inputs] = input;
+                    }
+                    inputs++;
+                    break;
+                case "outputEntry":
+                    int output = readTextCode();
+                    if (outputs < outputCount) {
+                        codes[inputCount + outputs] = output;
+                    }
+                    outputs++;
+                    break;
+                default:
+                    reader.skipElement();
+                    break;
+            }
+        }
+        if (inputs != inputCount || outputs != outputCount) {
+            throw error("Rule " + (columns.getRuleCount() + 1) + " of decision table '" + table.getName()
+                + "' has " + inputs + " input and " + outputs + " output entries, expected " + inputCount
+                + " and " + outputCount);
+        }
+        columns.addRule(codes);
+    }
+    
+    /**
+     * Read the {@code text} child of the current element and move to its end
+     * 
+     * @return the trimmed text, or an empty string if there is none
+     */
+    private String readTextChild() throws DMNImportException {
+        String text = "";
+        while (reader.nextChild()) {
+            if ("text".equals(reader.getLocalName())) {
+                text = intern(reader.getElementText().trim());
+            } else {
+                reader.skipElement();
+            }
+        }
+        return text;
+    }
+    
+    /**
+     * Read the {@code text} child of the current element like
+     * {@link #readTextChild()} and move to its end
+     * 
+     * @return the dictionary code of the text
+     */
+    private int readTextCode() throws DMNImportException {
+        int code = -1;
+        while (reader.nextChild()) {
+            if ("text".equals(reader.getLocalName())) {
+                code = reader.getTextCode(dictionary);
+            } else {
+                reader.skipElement();
+            }
+        }
+        return code >= 0 ? code : dictionary.code("");
+    }
+    
+    private String attribute(String name) throws DMNImportException {
+        return intern(reader.getAttribute(name));
+    }
+    
+    private String intern(String value) {
+        return interner != null ? interner.intern(value) : value;
+    }
+    
+    private String requiredAttribute(String name) throws DMNImportException {
+        String value = attribute(name);
+        if (value == null) {
+            throw error("Element " + reader.getLocalName() + " has no " + name);
+        }
+        return value;
+    }
+    
+    /**
+     * Returns the id referenced by the href of a requirement
+     */
+    private String reference() throws DMNImportException {
+        String href = requiredAttribute("href");
+        return intern(href.substring(href.indexOf('#') + 1));
+    }
+    
+    private DMNHitPolicy hitPolicy(String value) throws DMNImportException {
+        if (value == null) {
+            return DMNHitPolicy.UNIQUE;
+        }
+        DMNHitPolicy policy = DMNHitPolicy.fromSymbol(value);
+        if (policy != null) {
+            return policy;
+        }
+        try {
+            return DMNHitPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw error("Unknown hit policy: " + value);
+        }
+    }
+    
+    private DMNDecisionTable.AggregationType aggregation(String value) throws DMNImportException {
+        DMNDecisionTable.AggregationType aggregation = DMNDecisionTable.AggregationType.fromCode(value);
+        if (aggregation != null) {
+            return aggregation;
+        }
+        try {
+            return DMNDecisionTable.AggregationType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw error("Unknown aggregation: " + value);
+        }
+    }
+    
+    private DMNImportException error(String message) {
+        return new DMNImportException(message, reader.getLineNumber(), null);
+    }
+}
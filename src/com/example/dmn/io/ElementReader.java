@@ -0,0 +1,84 @@
+package com.example.dmn.io;
+
+import com.example.dmn.decisiontable.RuleColumns;
+
+/**
+ * Pull reader of the elements of an XML document, the part of XML that
+ * {@link DMNImporter} reads: local names, attributes, text-only content and
+ * skipping. Text, comments and processing instructions between elements are
+ * passed over. Every element read or skipped is counted.
+ */
+abstract class ElementReader {
+    
+    /**
+     * Move to the root element
+     * 
+     * @return true on the start of the root element, false if the document has none
+     */
+    abstract boolean nextRoot() throws DMNImportException;
+    
+    /**
+     * Advance to the next child element of the current element
+     * 
+     * @return true on the start of a child, false on the end of the current element
+     */
+    abstract boolean nextChild() throws DMNImportException;
+    
+    /**
+     * Move to the end of the current element, counting its descendants
+     */
+    abstract void skipElement() throws DMNImportException;
+    
+    /**
+     * Returns the local name of the current element
+     * 
+     * @return the name, without a namespace prefix
+     */
+    abstract String getLocalName();
+    
+    /**
+     * Returns an attribute of the current element, matched by local name
+     * 
+     * @param name the attribute name
+     * @return the value, or null if the element has no such attribute
+     */
+    abstract String getAttribute(String name) throws DMNImportException;
+    
+    /**
+     * Read the content of the current element, which must be text only, and
+     * move to its end
+     * 
+     * @return the text
+     */
+    abstract String getElementText() throws DMNImportException;
+    
+    /**
+     * Read the content of the current element like {@link #getElementText()}
+     * and return the dictionary code of the trimmed text
+     * 
+     * @param dictionary the dictionary of the document
+     * @return the code
+     */
+    int getTextCode(RuleColumns.Dictionary dictionary) throws DMNImportException {
+        return dictionary.code(getElementText().trim());
+    }
+    
+    /**
+     * Returns the line of the current position
+     * 
+     * @return the line number, or -1 if not known
+     */
+    abstract int getLineNumber();
+    
+    /**
+     * Returns the number of elements read or skipped so far
+     * 
+     * @return the element count
+     */
+    abstract long getElementCount();
+    
+    /**
+     * Release the resources of the reader
+     */
+    abstract void close() throws DMNImportException;
+}
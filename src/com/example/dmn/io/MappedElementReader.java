@@ -0,0 +1,689 @@
+package com.example.dmn.io;
+
+import com.example.dmn.decisiontable.RuleColumns;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ElementReader} that scans a UTF-8 document in a byte buffer, such
+ * as a file mapped into memory, without decoding the document as a whole.
+ * 
+ * Element names are compared as bytes and decoded once per distinct name.
+ * The text of an element without CDATA or comments is looked up as bytes
+ * among the texts read before, so {@link #getTextCode(RuleColumns.Dictionary)}
+ * decodes each distinct text once and a repeated rule entry creates no
+ * objects. Other content is decoded as it is read, with the predefined and
+ * character references and the line-end normalization of XML.
+ * 
+ * The scanner checks what the importer relies on: tags are closed, end tags
+ * match, content is valid UTF-8 and references are known. Otherwise it does
+ * not validate: document type declarations are rejected and content after
+ * the root element is not read.
+ */
+final class MappedElementReader extends ElementReader {
+    
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] XML_DECLARATION = ascii("<?xml");
+    private static final byte[] COMMENT_START = ascii("<!--");
+    private static final byte[] COMMENT_END = ascii("-->");
+    private static final byte[] CDATA_START = ascii("<![CDATA[");
+    private static final byte[] CDATA_END = ascii("]]>");
+    private static final byte[] PI_END = ascii("?>");
+    private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']*)[\"']");
+    private static final int DECLARATION_LIMIT = 256;
+    
+    // Content modes of appendContent
+    private static final int TEXT = 0;
+    private static final int ATTRIBUTE = 1;
+    private static final int CDATA = 2;
+    
+    private final ByteBuffer buffer;
+    private final ByteBuffer window;
+    private final int end;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private final SpanTable names = new SpanTable();
+    private final List<String> nameStrings = new ArrayList<>();
+    private SpanTable texts;
+    private RuleColumns.Dictionary textDictionary;
+    private int position;
+    private long elementCount;
+    
+    // The current start tag
+    private int nameStart;
+    private int localStart;
+    private int nameEnd;
+    private int attributesStart;
+    private int attributesEnd;
+    private boolean emptyElement;
+    
+    // Qualified names of the open elements
+    private int[] openStarts = new int[32];
+    private int[] openEnds = new int[32];
+    private int depth;
+    
+    private MappedElementReader(ByteBuffer buffer, int start) {
+        this.buffer = buffer;
+        this.window = buffer.duplicate();
+        this.end = buffer.limit();
+        this.position = start;
+    }
+    
+    /**
+     * Create a reader of a document
+     * 
+     * @param buffer the document, from index 0 to the limit
+     * @return the reader, or null if the document is not encoded in UTF-8
+     */
+    static MappedElementReader open(ByteBuffer buffer) {
+        int start = 0;
+        if (startsWith(buffer, 0, UTF8_BOM)) {
+            start = UTF8_BOM.length;
+        } else if (buffer.limit() >= 2 && (buffer.get(0) == 0 || buffer.get(1) == 0
+                || (buffer.get(0) & 0xFF) == 0xFE || (buffer.get(0) & 0xFF) == 0xFF)) {
+            // UTF-16 or UTF-32
+            return null;
+        }
+        if (startsWith(buffer, start, XML_DECLARATION)) {
+            byte[] declaration = new byte[Math.min(DECLARATION_LIMIT, buffer.limit() - start)];
+            for (int i = 0; i < declaration.length; i++) {
+                declaration[i] = buffer.get(start + i);
+            }
+            String text = new String(declaration, StandardCharsets.ISO_8859_1);
+            int close = text.indexOf("?>");
+            Matcher matcher = ENCODING.matcher(close >= 0 ? text.substring(0, close) : text);
+            if (matcher.find() && !isUtf8(matcher.group(1))) {
+                return null;
+            }
+        }
+        return new MappedElementReader(buffer, start);
+    }
+    
+    private static boolean isUtf8(String encoding) {
+        return encoding.equalsIgnoreCase("UTF-8") || encoding.equalsIgnoreCase("UTF8")
+            || encoding.equalsIgnoreCase("US-ASCII") || encoding.equalsIgnoreCase("ASCII");
+    }
+    
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private static boolean startsWith(ByteBuffer buffer, int index, byte[] prefix) {
+        if (index + prefix.length > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(index + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r';
+    }
+    
+    private static boolean isNameEnd(byte b) {
+        return isSpace(b) || b == '>' || b == '/';
+    }
+    
+    @Override
+    boolean nextRoot() throws DMNImportException {
+        while (true) {
+            int i = skipSpace(position, end);
+            if (i == end) {
+                position = end;
+                throw error("Premature end of file.");
+            }
+            if (buffer.get(i) != '<') {
+                throw error("Content is not allowed in prolog.");
+            }
+            if (startsWith(buffer, i, COMMENT_START)) {
+                position = indexOf(COMMENT_END, i + COMMENT_START.length) + COMMENT_END.length;
+            } else if (at(i + 1) == '?') {
+                position = indexOf(PI_END, i + 2) + PI_END.length;
+            } else if (at(i + 1) == '!') {
+                throw error("Document type declarations are not supported.");
+            } else {
+                position = i;
+                startTag();
+                return true;
+            }
+        }
+    }
+    
+    @Override
+    boolean nextChild() throws DMNImportException {
+        if (emptyElement) {
+            emptyElement = false;
+            return false;
+        }
+        while (true) {
+            int i = indexOf((byte) '<', position);
+            byte next = at(i + 1);
+            if (next == '/') {
+                endTag(i);
+                return false;
+            } else if (next == '!' || next == '?') {
+                skipMarkup(i);
+            } else {
+                position = i;
+                startTag();
+                return true;
+            }
+        }
+    }
+    
+    @Override
+    void skipElement() throws DMNImportException {
+        if (emptyElement) {
+            emptyElement = false;
+            return;
+        }
+        int target = depth - 1;
+        while (depth > target) {
+            if (nextChild() && emptyElement) {
+                emptyElement = false;
+            }
+        }
+    }
+    
+    @Override
+    String getLocalName() {
+        int hash = hash(localStart, nameEnd);
+        int index = names.get(localStart, nameEnd, hash);
+        if (index < 0) {
+            index = nameStrings.size();
+            nameStrings.add(string(localStart, nameEnd));
+            names.put(localStart, nameEnd, hash, index);
+        }
+        return nameStrings.get(index);
+    }
+    
+    @Override
+    String getAttribute(String name) throws DMNImportException {
+        int i = attributesStart;
+        while (true) {
+            i = skipSpace(i, attributesEnd);
+            if (i == attributesEnd) {
+                return null;
+            }
+            int start = i;
+            int local = i;
+            while (i < attributesEnd && buffer.get(i) != '=' && !isSpace(buffer.get(i))) {
+                if (buffer.get(i) == ':') {
+                    local = i + 1;
+                }
+                i++;
+            }
+            int qualifiedEnd = i;
+            i = skipSpace(i, attributesEnd);
+            if (i == attributesEnd || buffer.get(i) != '=') {
+                throw error("Attribute name \"" + string(start, qualifiedEnd)
+                    + "\" must be followed by the ' = ' character.");
+            }
+            i = skipSpace(i + 1, attributesEnd);
+            byte quote = i < attributesEnd ? buffer.get(i) : 0;
+            if (quote != '"' && quote != '\'') {
+                throw error("Open quote is expected for attribute \"" + string(start, qualifiedEnd) + "\".");
+            }
+            int valueEnd = indexOf(quote, i + 1);
+            if (matches(local, qualifiedEnd, name) && !isNamespaceDeclaration(start, qualifiedEnd)) {
+                return content(i + 1, valueEnd, ATTRIBUTE);
+            }
+            i = valueEnd + 1;
+        }
+    }
+    
+    private boolean matches(int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (buffer.get(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean isNamespaceDeclaration(int start, int end) {
+        return matches(start, Math.min(end, start + 5), "xmlns") && (end == start + 5 || buffer.get(start + 5) == ':');
+    }
+    
+    @Override
+    String getElementText() throws DMNImportException {
+        if (emptyElement) {
+            emptyElement = false;
+            return "";
+        }
+        int i = indexOf((byte) '<', position);
+        if (at(i + 1) == '/') {
+            String text = content(position, i, TEXT);
+            endTag(i);
+            return text;
+        }
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            appendContent(text, position, i, TEXT);
+            byte next = at(i + 1);
+            if (next == '/') {
+                endTag(i);
+                return text.toString();
+            } else if (startsWith(buffer, i, CDATA_START)) {
+                int close = indexOf(CDATA_END, i + CDATA_START.length);
+                appendContent(text, i + CDATA_START.length, close, CDATA);
+                position = close + CDATA_END.length;
+            } else if (next == '!' || next == '?') {
+                skipMarkup(i);
+            } else {
+                throw error("Element " + getLocalName() + " must contain text only.");
+            }
+            i = indexOf((byte) '<', position);
+        }
+    }
+    
+    @Override
+    int getTextCode(RuleColumns.Dictionary dictionary) throws DMNImportException {
+        if (emptyElement) {
+            return super.getTextCode(dictionary);
+        }
+        int close = indexOf((byte) '<', position);
+        if (at(close + 1) != '/') {
+            return super.getTextCode(dictionary);
+        }
+        int start = position;
+        int stop = close;
+        while (start < stop && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (stop > start && (buffer.get(stop - 1) & 0xFF) <= ' ') {
+            stop--;
+        }
+        // The bytes determine the text, so texts with references are looked up undecoded too
+        int hash = hash(start, stop);
+        if (dictionary != textDictionary) {
+            textDictionary = dictionary;
+            texts = new SpanTable();
+        }
+        int code = texts.get(start, stop, hash);
+        if (code < 0) {
+            code = dictionary.code(content(start, stop, TEXT).trim());
+            texts.put(start, stop, hash, code);
+        }
+        endTag(close);
+        return code;
+    }
+    
+    @Override
+    int getLineNumber() {
+        int line = 1;
+        for (int i = Math.min(position, end) - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+    
+    @Override
+    long getElementCount() {
+        return elementCount;
+    }
+    
+    @Override
+    void close() {
+        // The buffer is released when it is no longer referenced
+    }
+    
+    /**
+     * Read the start tag at the position
+     */
+    private void startTag() throws DMNImportException {
+        int i = position + 1;
+        nameStart = i;
+        localStart = i;
+        while (i < end && !isNameEnd(buffer.get(i))) {
+            if (buffer.get(i) == ':') {
+                localStart = i + 1;
+            }
+            i++;
+        }
+        nameEnd = i;
+        if (localStart == nameEnd) {
+            throw error("The markup in the document must be well-formed.");
+        }
+        attributesStart = i;
+        while (true) {
+            byte b = at(i);
+            if (b == '"' || b == '\'') {
+                i = indexOf(b, i + 1) + 1;
+            } else if (b == '>') {
+                break;
+            } else {
+                i++;
+            }
+        }
+        emptyElement = buffer.get(i - 1) == '/';
+        attributesEnd = emptyElement ? i - 1 : i;
+        position = i + 1;
+        elementCount++;
+        if (!emptyElement) {
+            if (depth == openStarts.length) {
+                openStarts = Arrays.copyOf(openStarts, depth * 2);
+                openEnds = Arrays.copyOf(openEnds, depth * 2);
+            }
+            openStarts[depth] = nameStart;
+            openEnds[depth] = nameEnd;
+            depth++;
+        }
+    }
+    
+    /**
+     * Read the end tag at an index, which must close the innermost open element
+     */
+    private void endTag(int index) throws DMNImportException {
+        int start = index + 2;
+        int stop = start;
+        while (stop < end && !isNameEnd(buffer.get(stop))) {
+            stop++;
+        }
+        position = index;
+        if (depth == 0) {
+            throw error("The markup in the document following the root element must be well-formed.");
+        }
+        if (!equal(openStarts[depth - 1], openEnds[depth - 1], start, stop)) {
+            String expected = string(openStarts[depth - 1], openEnds[depth - 1]);
+            throw error("The element type \"" + expected + "\" must be terminated by the matching end-tag \"</"
+                + expected + ">\".");
+        }
+        int close = skipSpace(stop, end);
+        if (at(close) != '>') {
+            throw error("The end-tag for element type \"" + string(start, stop) + "\" must end with a '>' delimiter.");
+        }
+        position = close + 1;
+        depth--;
+    }
+    
+    /**
+     * Skip the comment, CDATA section or processing instruction at an index
+     */
+    private void skipMarkup(int index) throws DMNImportException {
+        if (startsWith(buffer, index, COMMENT_START)) {
+            position = indexOf(COMMENT_END, index + COMMENT_START.length) + COMMENT_END.length;
+        } else if (startsWith(buffer, index, CDATA_START)) {
+            position = indexOf(CDATA_END, index + CDATA_START.length) + CDATA_END.length;
+        } else if (buffer.get(index + 1) == '?') {
+            position = indexOf(PI_END, index + 2) + PI_END.length;
+        } else {
+            position = index;
+            throw error("Markup declarations are not supported.");
+        }
+    }
+    
+    /**
+     * Returns the content between two indexes as text or an attribute value
+     */
+    private String content(int start, int stop, int mode) throws DMNImportException {
+        for (int i = start; i < stop; i++) {
+            byte b = buffer.get(i);
+            if (b == '&' || b == '\r' || (mode == ATTRIBUTE && (b == '\n' || b == '\t'))) {
+                StringBuilder text = new StringBuilder(stop - start);
+                appendContent(text, start, stop, mode);
+                return text.toString();
+            }
+        }
+        return decode(start, stop);
+    }
+    
+    /**
+     * Append content with its references replaced and its line ends, and in
+     * attribute values its white space, normalized
+     */
+    private void appendContent(StringBuilder text, int start, int stop, int mode) throws DMNImportException {
+        // Runs between the replaced bytes are split at ASCII bytes, so they are whole UTF-8 sequences
+        int run = start;
+        for (int i = start; i < stop; i++) {
+            byte b = buffer.get(i);
+            if (b == '&' && mode != CDATA) {
+                text.append(decode(run, i));
+                int semicolon = i + 1;
+                while (semicolon < stop && buffer.get(semicolon) != ';') {
+                    semicolon++;
+                }
+                if (semicolon == stop) {
+                    throw error("The entity name must immediately be followed by the ';' delimiter.");
+                }
+                appendReference(text, string(i + 1, semicolon));
+                i = semicolon;
+                run = i + 1;
+            } else if (b == '\r' || (mode == ATTRIBUTE && (b == '\n' || b == '\t'))) {
+                text.append(decode(run, i));
+                if (b == '\r' && i + 1 < stop && buffer.get(i + 1) == '\n') {
+                    i++;
+                }
+                text.append(mode == ATTRIBUTE ? ' ' : '\n');
+                run = i + 1;
+            }
+        }
+        text.append(decode(run, stop));
+    }
+    
+    private void appendReference(StringBuilder text, String name) throws DMNImportException {
+        switch (name) {
+            case "lt":
+                text.append('<');
+                return;
+            case "gt":
+                text.append('>');
+                return;
+            case "amp":
+                text.append('&');
+                return;
+            case "quot":
+                text.append('"');
+                return;
+            case "apos":
+                text.append('\'');
+                return;
+            default:
+                break;
+        }
+        if (name.startsWith("#")) {
+            try {
+                int codePoint = name.startsWith("#x") ? Integer.parseInt(name.substring(2), 16)
+                    : Integer.parseInt(name.substring(1));
+                if (Character.isValidCodePoint(codePoint) && codePoint != 0) {
+                    text.appendCodePoint(codePoint);
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            throw error("Invalid character reference &" + name + ";.");
+        }
+        throw error("The entity \"" + name + "\" was referenced, but not declared.");
+    }
+    
+    /**
+     * Decode bytes as UTF-8, rejecting malformed sequences
+     */
+    private String decode(int start, int stop) throws DMNImportException {
+        if (start == stop) {
+            return "";
+        }
+        window.limit(stop).position(start);
+        try {
+            return decoder.decode(window).toString();
+        } catch (CharacterCodingException e) {
+            throw error("Invalid byte sequence in UTF-8 content.");
+        }
+    }
+    
+    /**
+     * Decode bytes as UTF-8, replacing malformed sequences; for names and messages
+     */
+    private String string(int start, int stop) {
+        byte[] bytes = new byte[stop - start];
+        window.limit(stop).position(start);
+        window.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private boolean equal(int start, int stop, int otherStart, int otherStop) {
+        if (stop - start != otherStop - otherStart) {
+            return false;
+        }
+        for (int i = 0; i < stop - start; i++) {
+            if (buffer.get(start + i) != buffer.get(otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private int hash(int start, int stop) {
+        int hash = 0;
+        for (int i = start; i < stop; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        return hash;
+    }
+    
+    private int skipSpace(int index, int limit) {
+        while (index < limit && isSpace(buffer.get(index))) {
+            index++;
+        }
+        return index;
+    }
+    
+    private byte at(int index) throws DMNImportException {
+        if (index >= end) {
+            position = end;
+            throw endOfDocument();
+        }
+        return buffer.get(index);
+    }
+    
+    private int indexOf(byte b, int from) throws DMNImportException {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        position = end;
+        throw endOfDocument();
+    }
+    
+    private int indexOf(byte[] bytes, int from) throws DMNImportException {
+        for (int i = from; i + bytes.length <= end; i++) {
+            if (buffer.get(i) == bytes[0] && startsWith(buffer, i, bytes)) {
+                return i;
+            }
+        }
+        position = end;
+        throw endOfDocument();
+    }
+    
+    private DMNImportException endOfDocument() {
+        return error("XML document structures must start and end within the same entity.");
+    }
+    
+    private DMNImportException error(String message) {
+        return new DMNImportException("Malformed DMN file: " + message, getLineNumber(), null);
+    }
+    
+    /**
+     * Hash table from byte ranges of the buffer to ints. Keys are copied, so
+     * its memory grows with the distinct keys, not with the lookups.
+     */
+    private final class SpanTable {
+        private int[] slots = new int[64];
+        private int[] hashes = new int[32];
+        private int[] offsets = new int[32];
+        private int[] lengths = new int[32];
+        private int[] values = new int[32];
+        private byte[] keys = new byte[1024];
+        private int size;
+        private int keyBytes;
+        
+        /**
+         * Returns the value of a range
+         * 
+         * @return the value, or -1 if the range is not a key
+         */
+        int get(int start, int stop, int hash) {
+            int mask = slots.length - 1;
+            for (int i = spread(hash) & mask; slots[i] != 0; i = (i + 1) & mask) {
+                int entry = slots[i] - 1;
+                if (hashes[entry] == hash && keyEquals(entry, start, stop)) {
+                    return values[entry];
+                }
+            }
+            return -1;
+        }
+        
+        void put(int start, int stop, int hash, int value) {
+            int length = stop - start;
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            if (keyBytes + length > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, keyBytes + length));
+            }
+            window.limit(stop).position(start);
+            window.get(keys, keyBytes, length);
+            hashes[size] = hash;
+            offsets[size] = keyBytes;
+            lengths[size] = length;
+            values[size] = value;
+            keyBytes += length;
+            size++;
+            if (size * 2 > slots.length) {
+                slots = new int[slots.length * 2];
+                for (int entry = 0; entry < size; entry++) {
+                    insert(entry);
+                }
+            } else {
+                insert(size - 1);
+            }
+        }
+        
+        private void insert(int entry) {
+            int mask = slots.length - 1;
+            int i = spread(hashes[entry]) & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = entry + 1;
+        }
+        
+        private boolean keyEquals(int entry, int start, int stop) {
+            int length = stop - start;
+            if (lengths[entry] != length) {
+                return false;
+            }
+            int offset = offsets[entry];
+            for (int i = 0; i < length; i++) {
+                if (keys[offset + i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
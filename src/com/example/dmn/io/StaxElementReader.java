@@ -0,0 +1,119 @@
+package com.example.dmn.io;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * {@link ElementReader} over a StAX stream reader
+ */
+final class StaxElementReader extends ElementReader {
+    
+    private final XMLStreamReader reader;
+    private long elementCount;
+    
+    StaxElementReader(XMLStreamReader reader) {
+        this.reader = reader;
+    }
+    
+    /**
+     * Convert a parser exception. The parser prefixes its message with the
+     * location, which is reported separately.
+     */
+    static DMNImportException error(XMLStreamException e) {
+        String message = e.getMessage();
+        int start = message != null ? message.indexOf("Message: ") : -1;
+        return new DMNImportException("Malformed DMN file: " + (start >= 0 ? message.substring(start + 9) : message),
+            e.getLocation() != null ? e.getLocation().getLineNumber() : -1, e);
+    }
+    
+    @Override
+    boolean nextRoot() throws DMNImportException {
+        try {
+            while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // Skip the prolog
+            }
+            if (reader.isStartElement()) {
+                elementCount++;
+                return true;
+            }
+            return false;
+        } catch (XMLStreamException e) {
+            throw error(e);
+        }
+    }
+    
+    @Override
+    boolean nextChild() throws DMNImportException {
+        try {
+            while (true) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    elementCount++;
+                    return true;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    return false;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw error(e);
+        }
+    }
+    
+    @Override
+    void skipElement() throws DMNImportException {
+        try {
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    elementCount++;
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw error(e);
+        }
+    }
+    
+    @Override
+    String getLocalName() {
+        return reader.getLocalName();
+    }
+    
+    @Override
+    String getAttribute(String name) {
+        return reader.getAttributeValue(null, name);
+    }
+    
+    @Override
+    String getElementText() throws DMNImportException {
+        try {
+            return reader.getElementText();
+        } catch (XMLStreamException e) {
+            throw error(e);
+        }
+    }
+    
+    @Override
+    int getLineNumber() {
+        return reader.getLocation().getLineNumber();
+    }
+    
+    @Override
+    long getElementCount() {
+        return elementCount;
+    }
+    
+    @Override
+    void close() throws DMNImportException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw error(e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.dmn.model;
 
+import com.example.dmn.feel.FEELScope;
+import com.example.dmn.feel.FEELType;
 import com.example.dmn.stereotype.DMNProfile;
 import com.example.dmn.stereotype.DMNStereotypes;
 import com.nomagic.magicdraw.core.Application;
@@ -10,6 +12,8 @@ import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Class;
 import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
 import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.NamedElement;
 import com.nomagic.uml2.ext.magicdraw.mdprofiles.Stereotype;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Implementation of a DMN Input Data element.
@@ -112,9 +116,9 @@ public class DMNInputData {
     }
     
     /**
-     * Add a data type to this input data.
+     * Set the data type (typeRef) of this input data.
      * 
-     * @param typeName Type name
+     * @param typeName Type name, e.g. "number", "date" or an item definition
      * @return True if successful, false otherwise
      */
     public boolean setDataType(String typeName) {
@@ -126,8 +130,7 @@ public class DMNInputData {
         try {
             SessionManager.getInstance().createSession(project, "Set Input Data Type");
             
-            // Create a property with the given type name
-            // (In a real implementation, this would look up or create a proper type)
+            dmnProfile.setTaggedValue(element, DMNStereotypes.INPUT_DATA, DMNStereotypes.TAG_TYPE_REF, typeName.trim());
             
             SessionManager.getInstance().closeSession(project);
             return true;
@@ -136,4 +139,41 @@ public class DMNInputData {
             return false;
         }
     }
+    
+    /**
+     * Get the data type (typeRef) of this input data.
+     * 
+     * @return Type name or null if not set
+     */
+    public String getDataType() {
+        return (String) dmnProfile.getTaggedValue(element, DMNStereotypes.INPUT_DATA, DMNStereotypes.TAG_TYPE_REF);
+    }
+    
+    /**
+     * Get the FEEL type of the values of this input data.
+     * 
+     * @return Built-in type of the typeRef, {@link FEELType#ANY} if none is set or it is an item definition
+     */
+    public FEELType getFEELType() {
+        return FEELType.fromTypeRef(getDataType());
+    }
+    
+    /**
+     * Create the scope of FEEL expressions that refer to the given input data
+     * by name. Each input data element gets the slot of its position and
+     * the type of its typeRef, so that expressions and decision tables
+     * compiled against the scope are specialized for those types.
+     * 
+     * @param inputs Input data elements, e.g. the information requirements of a decision
+     * @return Scope for compiling expressions against the input data
+     */
+    public static FEELScope createScope(List<DMNInputData> inputs) {
+        List<String> names = new ArrayList<>();
+        List<FEELType> types = new ArrayList<>();
+        for (DMNInputData input : inputs) {
+            names.add(input.getName());
+            types.add(input.getFEELType());
+        }
+        return FEELScope.of(names, types);
+    }
 }
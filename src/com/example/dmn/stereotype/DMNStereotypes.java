@@ -29,6 +29,9 @@ public class DMNStereotypes {
     public static final String FEEL_EXPRESSION = "FEELExpression";
     public static final String DMN_DIAGRAM = "DMNDiagram";
     
+    // DMN tagged values
+    public static final String TAG_TYPE_REF = "typeRef";
+    
     // UI Style Constants
     public static final String DECISION_FILL_COLOR = "#DDEEFF";
     public static final String INPUT_DATA_FILL_COLOR = "#EEFFDD";
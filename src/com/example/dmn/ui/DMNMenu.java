@@ -1,11 +1,15 @@
 package com.example.dmn.ui;
 
+import com.example.dmn.io.DMNBulkImporter;
 import com.example.dmn.io.DMNImportExportStub;
+import com.example.dmn.util.DMNModelUtils;
 import com.example.dmn.util.GitHubPushHelper;
 
 import com.nomagic.magicdraw.actions.ActionsCategories;
 import com.nomagic.magicdraw.actions.MDAction;
 import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.ui.ProgressStatusRunner;
 import com.nomagic.magicdraw.ui.browser.Tree;
 import com.nomagic.magicdraw.ui.dialogs.MDDialogParentProvider;
 import com.nomagic.magicdraw.ui.dialogs.SelectElementInfo;
@@ -19,7 +23,11 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DMN menu implementation for Magic Systems
@@ -30,6 +38,9 @@ public class DMNMenu implements AutoCloseable {
     private static final String MENU_NAME = "DMN";
     private static final String ACTION_CATEGORY = "DMN";
     
+    // How often the import checks the cancel button of its progress bar
+    private static final long CANCEL_POLL_MILLIS = 100;
+    
     private List<MDAction> actions = new ArrayList<>();
     
     /**
@@ -50,15 +61,18 @@ public class DMNMenu implements AutoCloseable {
     }
     
     /**
-     * Create the Import DMN action
+     * Create the Import DMN action. Several files may be selected; they are
+     * parsed in parallel under a cancellable progress bar and then added to
+     * the model in one step.
      */
     private void createImportAction() {
-        MDAction importAction = new MDAction("Import DMN...", MENU_NAME, null, "Import a DMN file") {
+        MDAction importAction = new MDAction("Import DMN...", MENU_NAME, null, "Import DMN files") {
             @Override
             public void actionPerformed(ActionEvent e) {
                 JFileChooser fileChooser = new JFileChooser();
-                fileChooser.setDialogTitle("Import DMN File");
+                fileChooser.setDialogTitle("Import DMN Files");
                 fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+                fileChooser.setMultiSelectionEnabled(true);
                 fileChooser.setFileFilter(new javax.swing.filechooser.FileFilter() {
                     @Override
                     public boolean accept(File f) {
@@ -73,16 +87,7 @@ public class DMNMenu implements AutoCloseable {
                 
                 int result = fileChooser.showOpenDialog(MDDialogParentProvider.getProvider().getDialogParent());
                 if (result == JFileChooser.APPROVE_OPTION) {
-                    File selectedFile = fileChooser.getSelectedFile();
-                    try {
-                        // In a stub implementation, just demonstrate the import capabilities
-                        DMNImportExportStub importExport = new DMNImportExportStub();
-                        importExport.importDMNFile(selectedFile);
-                        
-                        Application.getInstance().getGUILog().log("DMN file imported: " + selectedFile.getName());
-                    } catch (Exception ex) {
-                        Application.getInstance().getGUILog().log("Error importing DMN file: " + ex.getMessage());
-                    }
+                    importFiles(Arrays.asList(fileChooser.getSelectedFiles()));
                 }
             }
         };
@@ -90,6 +95,75 @@ public class DMNMenu implements AutoCloseable {
         actions.add(importAction);
     }
     
+    /**
+     * Import DMN files with progress, then add them to the model
+     * 
+     * @param files the selected files
+     */
+    private void importFiles(List<File> files) {
+        Project project = Application.getInstance().getProject();
+        if (project == null || files.isEmpty()) {
+            return;
+        }
+        
+        DMNBulkImporter importer = new DMNBulkImporter();
+        List<List<DMNBulkImporter.FileResult>> holder = new ArrayList<>();
+        ProgressStatusRunner.runWithProgressStatus(progress -> {
+            progress.init("Importing DMN files", 0, files.size());
+            // Poll the cancel button on a timer, as a large file may take long to complete
+            ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "DMN import cancel");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(() -> {
+                if (progress.isCancel()) {
+                    importer.cancel();
+                }
+            }, CANCEL_POLL_MILLIS, CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            try {
+                holder.add(importer.importFiles(files, (fileResult, completed, total) -> {
+                    progress.setCurrent(completed);
+                    progress.setDescription("Imported " + fileResult.getFile().getName());
+                }));
+            } finally {
+                poller.shutdownNow();
+            }
+        }, "Import DMN", true, 0);
+        
+        if (holder.isEmpty() || importer.isCancelled()) {
+            Application.getInstance().getGUILog().log("DMN import cancelled");
+            return;
+        }
+        List<DMNBulkImporter.FileResult> results = holder.get(0);
+        boolean failed = false;
+        for (DMNBulkImporter.FileResult fileResult : results) {
+            if (fileResult.getDefinitions() == null) {
+                failed = true;
+                Application.getInstance().getGUILog().log("Error importing DMN file "
+                    + fileResult.getFile().getName() + ": " + fileResult.getError().getMessage());
+            }
+        }
+        if (failed) {
+            Application.getInstance().getGUILog().log("No DMN files imported");
+            return;
+        }
+        
+        DMNModelUtils.ImportResult merged =
+            DMNModelUtils.importDefinitions(project, project.getPrimaryModel(), results);
+        if (merged.getPackages().isEmpty()) {
+            Application.getInstance().getGUILog().log("No DMN files imported");
+            return;
+        }
+        for (String warning : merged.getWarnings()) {
+            Application.getInstance().getGUILog().log("Warning: " + warning);
+        }
+        Application.getInstance().getGUILog().log("DMN files imported: " + merged.getPackages().size() + " files ("
+            + merged.getInputDataCount() + " input data, " + merged.getDecisionCount() + " decisions, "
+            + merged.getRequirementCount() + " information requirements, "
+            + importer.getInterner().size() + " distinct strings)");
+    }
+    
     /**
      * Create the Export DMN action
      */
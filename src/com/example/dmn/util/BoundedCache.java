@@ -0,0 +1,236 @@
+package com.example.dmn.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe cache with hit/miss/eviction counters.
+ * Lookups are lock-free; when the cache grows past its maximum size,
+ * entries are evicted using the CLOCK (second chance) approximation of LRU,
+ * so recently used entries survive a sweep while cold ones are dropped.
+ * 
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V> {
+    
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+    private final int maximumSize;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<Map.Entry<K, Entry<V>>> clockHand; // guarded by evictionLock
+    
+    /**
+     * Constructor
+     * 
+     * @param maximumSize the maximum number of entries to retain
+     */
+    public BoundedCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maximumSize, 1024));
+    }
+    
+    /**
+     * Returns the cached value for the key, computing and caching it on a miss.
+     * The loader may run more than once for the same key under contention;
+     * only the first result is retained.
+     * 
+     * @param key the key to look up
+     * @param loader function computing the value for a missing key
+     * @return the cached or newly computed value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            entry.referenced = true;
+            hits.increment();
+            return entry.value;
+        }
+        
+        misses.increment();
+        V value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+        
+        Entry<V> existing = entries.putIfAbsent(key, new Entry<>(value));
+        if (existing != null) {
+            return existing.value;
+        }
+        
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+        return value;
+    }
+    
+    /**
+     * Returns the cached value for the key without loading it
+     * 
+     * @param key the key to look up
+     * @return the cached value, or null if not present
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hits.increment();
+        return entry.value;
+    }
+    
+    /**
+     * Stores a value, replacing any existing mapping
+     * 
+     * @param key the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value));
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+    }
+    
+    /**
+     * Removes the entry for the given key
+     * 
+     * @param key the key to remove
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+    
+    /**
+     * Removes all entries. Statistics are kept.
+     */
+    public void clear() {
+        entries.clear();
+    }
+    
+    /**
+     * Sweeps the clock hand over the entries until the cache is back
+     * within its bound, giving referenced entries a second chance.
+     */
+    private void evict() {
+        evictionLock.lock();
+        try {
+            while (entries.size() > maximumSize) {
+                if (clockHand == null || !clockHand.hasNext()) {
+                    clockHand = entries.entrySet().iterator();
+                    if (!clockHand.hasNext()) {
+                        return;
+                    }
+                }
+                
+                Map.Entry<K, Entry<V>> candidate = clockHand.next();
+                Entry<V> entry = candidate.getValue();
+                if (entry.referenced) {
+                    entry.referenced = false;
+                } else if (entries.remove(candidate.getKey(), entry)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the current number of entries
+     * 
+     * @return the size
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Returns the maximum number of entries
+     * 
+     * @return the maximum size
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+    
+    /**
+     * Returns the number of lookups that found a cached value
+     * 
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    /**
+     * Returns the number of lookups that did not find a cached value
+     * 
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * Returns the number of entries evicted to stay within the bound
+     * 
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Returns the fraction of lookups that were hits
+     * 
+     * @return the hit rate between 0.0 and 1.0
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+    
+    /**
+     * Resets the hit/miss/eviction counters
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+    
+    @Override
+    public String toString() {
+        return "size=" + size() + "/" + maximumSize
+            + ", hits=" + getHitCount()
+            + ", misses=" + getMissCount()
+            + ", evictions=" + getEvictionCount();
+    }
+    
+    /**
+     * Cached value with its CLOCK reference bit
+     */
+    private static final class Entry<V> {
+        final V value;
+        volatile boolean referenced;
+        
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+}
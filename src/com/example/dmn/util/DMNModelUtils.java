@@ -1,6 +1,8 @@
 package com.example.dmn.util;
 
 import com.example.dmn.decisiontable.DMNDecisionTable;
+import com.example.dmn.io.DMNBulkImporter;
+import com.example.dmn.io.DMNDefinitions;
 import com.example.dmn.model.*;
 import com.example.dmn.stereotype.DMNProfile;
 import com.example.dmn.stereotype.DMNStereotypes;
@@ -25,7 +27,9 @@ import com.nomagic.uml2.ext.magicdraw.mdprofiles.Stereotype;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility methods for working with DMN models.
@@ -483,6 +487,178 @@ public class DMNModelUtils {
         }
     }
     
+    /**
+     * Merge the results of a bulk import into the model in one session, in
+     * the order of the files. Each imported file becomes a package holding
+     * its input data and decisions with their type references, connected by
+     * information requirements. Decision tables, knowledge requirements and
+     * requirements that refer to elements outside the file are left out and
+     * reported as warnings. Nothing is created if any file failed or was
+     * cancelled.
+     * 
+     * @param project Current project
+     * @param owner Owner of the created packages
+     * @param results Results of {@link DMNBulkImporter#importFiles}
+     * @return What was merged into the model; no packages if nothing was created
+     */
+    public static ImportResult importDefinitions(
+            Project project, Element owner, List<DMNBulkImporter.FileResult> results) {
+        ImportResult merged = new ImportResult();
+        if (project == null || owner == null) {
+            return merged;
+        }
+        for (DMNBulkImporter.FileResult result : results) {
+            if (result.getDefinitions() == null) {
+                return merged;
+            }
+        }
+        
+        try {
+            SessionManager.getInstance().createSession(project, "Import DMN Files");
+            
+            DMNProfile profile = new DMNProfile();
+            profile.init();
+            for (DMNBulkImporter.FileResult result : results) {
+                DMNDefinitions definitions = result.getDefinitions();
+                String fileName = result.getFile().getName();
+                Package filePackage = project.getElementsFactory().createPackageInstance();
+                filePackage.setName(definitions.getName() != null ? definitions.getName() : fileName);
+                filePackage.setOwner(owner);
+                
+                // Elements by DMN id, to resolve the requirements of this file; those without an id are left out
+                Map<String, Element> elements = new HashMap<>();
+                for (DMNDefinitions.InputData inputData : definitions.getInputData()) {
+                    Class inputClass = project.getElementsFactory().createClassInstance();
+                    inputClass.setName(inputData.getName());
+                    inputClass.setOwner(filePackage);
+                    profile.applyStereotype(inputClass, DMNStereotypes.INPUT_DATA);
+                    if (inputData.getTypeRef() != null) {
+                        profile.setTaggedValue(inputClass, DMNStereotypes.INPUT_DATA, DMNStereotypes.TAG_TYPE_REF,
+                            inputData.getTypeRef());
+                    }
+                    if (inputData.getId() != null) {
+                        elements.put(inputData.getId(), inputClass);
+                    }
+                    merged.inputData++;
+                }
+                // Decision classes by position, so decisions without an id still get their requirements
+                List<DMNDefinitions.Decision> decisions = definitions.getDecisions();
+                List<Element> decisionClasses = new ArrayList<>();
+                for (DMNDefinitions.Decision decision : decisions) {
+                    Class decisionClass = project.getElementsFactory().createClassInstance();
+                    decisionClass.setName(decision.getName());
+                    decisionClass.setOwner(filePackage);
+                    profile.applyStereotype(decisionClass, DMNStereotypes.DECISION);
+                    if (decision.getTypeRef() != null) {
+                        profile.setTaggedValue(decisionClass, DMNStereotypes.DECISION, DMNStereotypes.TAG_TYPE_REF,
+                            decision.getTypeRef());
+                    }
+                    if (decision.getId() != null) {
+                        elements.put(decision.getId(), decisionClass);
+                    }
+                    decisionClasses.add(decisionClass);
+                    merged.decisions++;
+                }
+                int unresolved = 0;
+                int knowledge = 0;
+                for (int i = 0; i < decisionClasses.size(); i++) {
+                    DMNDefinitions.Decision decision = decisions.get(i);
+                    Element target = decisionClasses.get(i);
+                    List<String> required = new ArrayList<>(decision.getRequiredInputs());
+                    required.addAll(decision.getRequiredDecisions());
+                    for (String id : required) {
+                        Element source = id != null ? elements.get(id) : null;
+                        if (source != null) {
+                            Element dependency = ModelHelper.createDependency(source, target);
+                            profile.applyStereotype(dependency, DMNStereotypes.INFORMATION_REQUIREMENT);
+                            merged.requirements++;
+                        } else {
+                            unresolved++;
+                        }
+                    }
+                    knowledge += decision.getRequiredKnowledge().size();
+                }
+                int tables = definitions.getDecisionTables().size();
+                if (tables > 0) {
+                    merged.warnings.add(fileName + ": " + tables + " decision tables not imported");
+                }
+                if (knowledge > 0) {
+                    merged.warnings.add(fileName + ": " + knowledge + " knowledge requirements not imported");
+                }
+                if (unresolved > 0) {
+                    merged.warnings.add(fileName + ": " + unresolved
+                        + " information requirements to elements outside the file not imported");
+                }
+                merged.packages.add(filePackage);
+            }
+            
+            SessionManager.getInstance().closeSession(project);
+            return merged;
+        } catch (Exception e) {
+            SessionManager.getInstance().cancelSession(project);
+            Application.getInstance().getGUILog().showError(
+                    "Failed to import DMN files: " + e.getMessage());
+            return new ImportResult();
+        }
+    }
+    
+    /**
+     * Content merged into the model by {@link #importDefinitions}
+     */
+    public static final class ImportResult {
+        
+        private final List<Package> packages = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+        private int inputData;
+        private int decisions;
+        private int requirements;
+        
+        /**
+         * Returns the created packages, one per file
+         * 
+         * @return the packages, empty if nothing was created
+         */
+        public List<Package> getPackages() {
+            return packages;
+        }
+        
+        /**
+         * Returns the number of created input data elements
+         * 
+         * @return the input data count
+         */
+        public int getInputDataCount() {
+            return inputData;
+        }
+        
+        /**
+         * Returns the number of created decisions
+         * 
+         * @return the decision count
+         */
+        public int getDecisionCount() {
+            return decisions;
+        }
+        
+        /**
+         * Returns the number of created information requirements
+         * 
+         * @return the requirement count
+         */
+        public int getRequirementCount() {
+            return requirements;
+        }
+        
+        /**
+         * Returns a message per file for content that was not imported
+         * 
+         * @return the warnings
+         */
+        public List<String> getWarnings() {
+            return warnings;
+        }
+    }
+    
     /**
      * Find all DMN diagrams in the project.
      * 
@@ -0,0 +1,50 @@
+package com.example.dmn.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe table of canonical strings. Equal strings passed to
+ * {@link #intern(String)} come back as one instance, so names, type
+ * references and literals repeated across many imported files are stored
+ * once. Unlike {@link String#intern()} the table is private and is
+ * released with the interner.
+ */
+public class StringInterner {
+    
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final LongAdder lookups = new LongAdder();
+    
+    /**
+     * Returns the canonical instance of a string
+     * 
+     * @param value the string, or null
+     * @return the first instance equal to the string that was interned, or null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.increment();
+        String canonical = strings.putIfAbsent(value, value);
+        return canonical != null ? canonical : value;
+    }
+    
+    /**
+     * Returns the number of distinct strings interned
+     * 
+     * @return the size of the table
+     */
+    public int size() {
+        return strings.size();
+    }
+    
+    /**
+     * Returns the number of calls to {@link #intern(String)} with a non-null string
+     * 
+     * @return the lookup count
+     */
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+}